@@ -0,0 +1,243 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * EventsManagerBenchmark.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.benchmark;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.events.Event;
+import org.matsim.api.core.v01.events.LinkEnterEvent;
+import org.matsim.api.core.v01.events.LinkLeaveEvent;
+import org.matsim.api.core.v01.events.handler.LinkEnterEventHandler;
+import org.matsim.api.core.v01.events.handler.LinkLeaveEventHandler;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.config.Config;
+import org.matsim.core.config.ConfigUtils;
+import org.matsim.core.events.EventsUtils;
+import org.matsim.core.events.ParallelEventsManager;
+import org.matsim.core.events.handler.LinkEnterLeaveHandler;
+import org.matsim.vehicles.Vehicle;
+
+/**
+ * Measures the throughput of the different events managers, the way the QSim drives them: all events of a time step
+ * are passed to the events manager, followed by {@link EventsManager#afterSimStep(double)}.
+ * <p>
+ * The managers marked "by attributes" get the link events with {@link EventsManager#processLinkEnterEvent} and
+ * {@link EventsManager#processLinkLeaveEvent}, and all handlers are {@link LinkEnterLeaveHandler}s, so no event objects
+ * are created. For these runs, the events are created on the fly for the other managers as well, as the QSim would do.
+ * The time spent in garbage collection is reported next to the throughput.
+ * <p>
+ * Usage: <code>EventsManagerBenchmark [numberOfThreads [numberOfHandlers [eventsPerStep [numberOfSteps]]]]</code>
+ */
+public class EventsManagerBenchmark {
+
+	private static final int REPETITIONS = 5;
+
+	public static void main(String[] args) {
+		int numberOfThreads = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+		int numberOfHandlers = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+		int eventsPerStep = args.length > 2 ? Integer.parseInt(args[2]) : 2000;
+		int numberOfSteps = args.length > 3 ? Integer.parseInt(args[3]) : 1000;
+
+		Event[][] steps = createEvents(eventsPerStep, numberOfSteps);
+
+		List<String> names = new ArrayList<>();
+		List<Supplier<EventsManager>> managers = new ArrayList<>();
+		List<Boolean> byAttributes = new ArrayList<>();
+
+		names.add("EventsManagerImpl");
+		managers.add(EventsUtils::createEventsManager);
+		byAttributes.add(false);
+
+		names.add("SimStepParallelEventsManagerImpl");
+		managers.add(() -> {
+			Config config = ConfigUtils.createConfig();
+			config.eventsManager().setNumberOfThreads(numberOfThreads);
+			config.eventsManager().setSynchronizeOnSimSteps(true);
+			return EventsUtils.createEventsManager(config);
+		});
+		byAttributes.add(false);
+
+		names.add("ParallelEventsManager");
+		managers.add(() -> new ParallelEventsManager(true, numberOfThreads, 65536 * 2));
+		byAttributes.add(false);
+
+		names.add("RingBufferEventsManager");
+		managers.add(() -> {
+			Config config = ConfigUtils.createConfig();
+			config.eventsManager().setNumberOfThreads(numberOfThreads);
+			config.eventsManager().setUseRingBuffers(true);
+			return EventsUtils.createEventsManager(config);
+		});
+		byAttributes.add(false);
+
+		names.add("EventsManagerImpl, by attributes");
+		managers.add(managers.get(0));
+		byAttributes.add(true);
+
+		names.add("RingBufferEventsManager, by attributes");
+		managers.add(managers.get(3));
+		byAttributes.add(true);
+
+		long numberOfEvents = (long) eventsPerStep * numberOfSteps;
+		System.out.println("threads=" + numberOfThreads + " handlers=" + numberOfHandlers + " events=" + numberOfEvents);
+		for (int i = 0; i < managers.size(); i++) {
+			long best = Long.MAX_VALUE;
+			long gcMillis = getGcMillis();
+			for (int r = 0; r < REPETITIONS; r++) {
+				EventsManager events = managers.get(i).get();
+				List<LongSupplier> counts = new ArrayList<>();
+				for (int h = 0; h < numberOfHandlers; h++) {
+					if (byAttributes.get(i)) {
+						LinkCountingHandler handler = new LinkCountingHandler();
+						counts.add(() -> handler.count);
+						events.addHandler(handler);
+					} else {
+						CountingHandler handler = new CountingHandler();
+						counts.add(() -> handler.count);
+						events.addHandler(handler);
+					}
+				}
+				best = Math.min(best, byAttributes.get(i) ? runByAttributes(events, steps) : run(events, steps));
+				for (LongSupplier count : counts) {
+					if (count.getAsLong() != numberOfEvents) {
+						throw new IllegalStateException(names.get(i) + " lost events: " + count.getAsLong() + " instead of " + numberOfEvents);
+					}
+				}
+			}
+			gcMillis = getGcMillis() - gcMillis;
+			System.out.printf("%-40s %10.1f ms %12.0f events/s %8d ms gc%n", names.get(i), best / 1e6, numberOfEvents / (best / 1e9), gcMillis / REPETITIONS);
+		}
+	}
+
+	private static long run(EventsManager events, Event[][] steps) {
+		long start = System.nanoTime();
+		events.initProcessing();
+		for (int s = 0; s < steps.length; s++) {
+			for (Event event : steps[s]) {
+				events.processEvent(event);
+			}
+			events.afterSimStep(s);
+		}
+		events.finishProcessing();
+		return System.nanoTime() - start;
+	}
+
+	private static long runByAttributes(EventsManager events, Event[][] steps) {
+		long start = System.nanoTime();
+		events.initProcessing();
+		for (int s = 0; s < steps.length; s++) {
+			for (Event event : steps[s]) {
+				if (event instanceof LinkEnterEvent enter) {
+					events.processLinkEnterEvent(enter.getTime(), enter.getVehicleId(), enter.getLinkId());
+				} else {
+					LinkLeaveEvent leave = (LinkLeaveEvent) event;
+					events.processLinkLeaveEvent(leave.getTime(), leave.getVehicleId(), leave.getLinkId());
+				}
+			}
+			events.afterSimStep(s);
+		}
+		events.finishProcessing();
+		return System.nanoTime() - start;
+	}
+
+	private static long getGcMillis() {
+		long millis = 0;
+		for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+			millis += Math.max(0, gc.getCollectionTime());
+		}
+		return millis;
+	}
+
+	private static Event[][] createEvents(int eventsPerStep, int numberOfSteps) {
+		List<Id<Link>> links = new ArrayList<>();
+		List<Id<Vehicle>> vehicles = new ArrayList<>();
+		for (int i = 0; i < 1000; i++) {
+			links.add(Id.createLinkId(i));
+			vehicles.add(Id.createVehicleId(i));
+		}
+		Event[][] steps = new Event[numberOfSteps][eventsPerStep];
+		for (int s = 0; s < numberOfSteps; s++) {
+			for (int i = 0; i < eventsPerStep; i++) {
+				Id<Vehicle> vehicle = vehicles.get(i % vehicles.size());
+				Id<Link> link = links.get((s + i) % links.size());
+				steps[s][i] = i % 2 == 0 ? new LinkEnterEvent(s, vehicle, link) : new LinkLeaveEvent(s, vehicle, link);
+			}
+		}
+		return steps;
+	}
+
+	/**
+	 * Does a little bit of work per event, similar to a travel time or volumes analysis.
+	 */
+	private static class CountingHandler implements LinkEnterEventHandler, LinkLeaveEventHandler {
+		private final int[] volumes = new int[1000];
+		private long count = 0;
+
+		@Override
+		public void handleEvent(LinkEnterEvent event) {
+			this.volumes[event.getLinkId().index() % this.volumes.length]++;
+			this.count++;
+		}
+
+		@Override
+		public void handleEvent(LinkLeaveEvent event) {
+			this.volumes[event.getLinkId().index() % this.volumes.length]--;
+			this.count++;
+		}
+
+		@Override
+		public void reset(int iteration) {
+			this.count = 0;
+		}
+	}
+
+	/**
+	 * The same as {@link CountingHandler}, but without requiring event objects.
+	 */
+	private static class LinkCountingHandler implements LinkEnterLeaveHandler {
+		private final int[] volumes = new int[1000];
+		private long count = 0;
+
+		@Override
+		public void handleLinkEnter(double time, Id<Vehicle> vehicleId, Id<Link> linkId) {
+			this.volumes[linkId.index() % this.volumes.length]++;
+			this.count++;
+		}
+
+		@Override
+		public void handleLinkLeave(double time, Id<Vehicle> vehicleId, Id<Link> linkId) {
+			this.volumes[linkId.index() % this.volumes.length]--;
+			this.count++;
+		}
+
+		@Override
+		public void reset(int iteration) {
+			this.count = 0;
+		}
+	}
+}
@@ -0,0 +1,177 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * BenchmarkScenarios.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.benchmark.jmh;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.Scenario;
+import org.matsim.api.core.v01.TransportMode;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.api.core.v01.population.Activity;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.api.core.v01.population.Plan;
+import org.matsim.api.core.v01.population.Population;
+import org.matsim.api.core.v01.population.PopulationFactory;
+import org.matsim.core.network.NetworkUtils;
+import org.matsim.core.population.routes.NetworkRoute;
+import org.matsim.core.population.routes.RouteUtils;
+import org.matsim.pt.transitSchedule.api.Departure;
+import org.matsim.pt.transitSchedule.api.TransitLine;
+import org.matsim.pt.transitSchedule.api.TransitRoute;
+import org.matsim.pt.transitSchedule.api.TransitRouteStop;
+import org.matsim.pt.transitSchedule.api.TransitSchedule;
+import org.matsim.pt.transitSchedule.api.TransitScheduleFactory;
+import org.matsim.pt.transitSchedule.api.TransitStopFacility;
+
+/**
+ * Synthetic, deterministic scenarios for the JMH benchmarks, so the benchmarks do not depend on any input files and
+ * produce comparable numbers on every machine.
+ */
+final class BenchmarkScenarios {
+
+	static final double SPACING = 500.0;
+	static final long SEED = 4711;
+
+	private BenchmarkScenarios() {
+	}
+
+	/**
+	 * Creates a grid of <code>size x size</code> nodes, connected by links in both directions.
+	 */
+	static void createGridNetwork(Network network, int size) {
+		Node[][] nodes = new Node[size][size];
+		for (int x = 0; x < size; x++) {
+			for (int y = 0; y < size; y++) {
+				nodes[x][y] = NetworkUtils.createAndAddNode(network, Id.createNodeId(x + "_" + y), new Coord(x * SPACING, y * SPACING));
+			}
+		}
+		for (int x = 0; x < size; x++) {
+			for (int y = 0; y < size; y++) {
+				if (x + 1 < size) {
+					addLinks(network, nodes[x][y], nodes[x + 1][y]);
+				}
+				if (y + 1 < size) {
+					addLinks(network, nodes[x][y], nodes[x][y + 1]);
+				}
+			}
+		}
+	}
+
+	private static void addLinks(Network network, Node a, Node b) {
+		// a few faster roads, so the least cost paths are not trivial
+		double freespeed = (a.getCoord().getX() + a.getCoord().getY()) % (5 * SPACING) == 0 ? 22.2 : 13.9;
+		NetworkUtils.createAndAddLink(network, linkId(a, b), a, b, SPACING, freespeed, 1800.0, 1.0);
+		NetworkUtils.createAndAddLink(network, linkId(b, a), b, a, SPACING, freespeed, 1800.0, 1.0);
+	}
+
+	private static Id<Link> linkId(Node from, Node to) {
+		return Id.createLinkId(from.getId() + "-" + to.getId());
+	}
+
+	/**
+	 * Adds a bus line in both directions on every <code>lineSpacing</code>-th row and column of a grid network created
+	 * by {@link #createGridNetwork(Network, int)}, with a departure every 10 minutes from 05:00 to 22:00.
+	 */
+	static void createGridSchedule(TransitSchedule schedule, Network network, int size, int lineSpacing) {
+		for (int i = 0; i < size; i += lineSpacing) {
+			List<Node> row = new ArrayList<>();
+			List<Node> column = new ArrayList<>();
+			for (int j = 0; j < size; j++) {
+				row.add(network.getNodes().get(Id.createNodeId(j + "_" + i)));
+				column.add(network.getNodes().get(Id.createNodeId(i + "_" + j)));
+			}
+			addLine(schedule, "row" + i, row);
+			addLine(schedule, "column" + i, column);
+		}
+	}
+
+	private static void addLine(TransitSchedule schedule, String name, List<Node> nodes) {
+		TransitScheduleFactory f = schedule.getFactory();
+		TransitLine line = f.createTransitLine(Id.create(name, TransitLine.class));
+		for (int direction = 0; direction < 2; direction++) {
+			List<Node> path = new ArrayList<>(nodes);
+			if (direction == 1) {
+				Collections.reverse(path);
+			}
+			List<Id<Link>> linkIds = new ArrayList<>();
+			List<TransitRouteStop> stops = new ArrayList<>();
+			for (int i = 0; i < path.size(); i++) {
+				Id<Link> linkId = i == 0 ? linkId(path.get(0), path.get(1)) : linkId(path.get(i - 1), path.get(i));
+				if (i > 0) {
+					linkIds.add(linkId);
+				}
+				TransitStopFacility stop = f.createTransitStopFacility(Id.create(name + "_" + direction + "_" + i, TransitStopFacility.class),
+						path.get(i).getCoord(), false);
+				stop.setLinkId(linkId);
+				schedule.addStopFacility(stop);
+				double offset = i * 90.0;
+				stops.add(f.createTransitRouteStop(stop, offset, offset + 20.0));
+			}
+			NetworkRoute networkRoute = RouteUtils.createLinkNetworkRouteImpl(linkIds.get(0), linkIds.subList(1, linkIds.size() - 1), linkIds.get(linkIds.size() - 1));
+			TransitRoute route = f.createTransitRoute(Id.create(name + "_" + direction, TransitRoute.class), networkRoute, stops, "bus");
+			for (int time = 5 * 3600; time <= 22 * 3600; time += 600) {
+				route.addDeparture(f.createDeparture(Id.create(name + "_" + direction + "_" + time, Departure.class), time));
+			}
+			line.addRoute(route);
+		}
+		schedule.addTransitLine(line);
+	}
+
+	/**
+	 * Adds persons with a home-work-home car plan between random links, without routes.
+	 */
+	static void createPopulation(Scenario scenario, int persons) {
+		Random random = new Random(SEED);
+		Population population = scenario.getPopulation();
+		PopulationFactory pf = population.getFactory();
+		List<Link> links = new ArrayList<>(scenario.getNetwork().getLinks().values());
+		for (int i = 0; i < persons; i++) {
+			Person person = pf.createPerson(Id.createPersonId(i));
+			Plan plan = pf.createPlan();
+			Link home = links.get(random.nextInt(links.size()));
+			Link work = links.get(random.nextInt(links.size()));
+
+			Activity h1 = pf.createActivityFromLinkId("home", home.getId());
+			h1.setCoord(home.getCoord());
+			h1.setEndTime(6 * 3600 + random.nextInt(3 * 3600));
+			plan.addActivity(h1);
+			plan.addLeg(pf.createLeg(TransportMode.car));
+			Activity w = pf.createActivityFromLinkId("work", work.getId());
+			w.setCoord(work.getCoord());
+			w.setEndTime(15 * 3600 + random.nextInt(3 * 3600));
+			plan.addActivity(w);
+			plan.addLeg(pf.createLeg(TransportMode.car));
+			Activity h2 = pf.createActivityFromLinkId("home", home.getId());
+			h2.setCoord(home.getCoord());
+			plan.addActivity(h2);
+
+			person.addPlan(plan);
+			population.addPerson(person);
+		}
+	}
+}
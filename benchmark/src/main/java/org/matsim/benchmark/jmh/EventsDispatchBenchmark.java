@@ -0,0 +1,131 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * EventsDispatchBenchmark.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.benchmark.jmh;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.events.Event;
+import org.matsim.api.core.v01.events.LinkEnterEvent;
+import org.matsim.api.core.v01.events.LinkLeaveEvent;
+import org.matsim.api.core.v01.events.PersonArrivalEvent;
+import org.matsim.api.core.v01.events.PersonDepartureEvent;
+import org.matsim.api.core.v01.events.handler.LinkEnterEventHandler;
+import org.matsim.api.core.v01.events.handler.LinkLeaveEventHandler;
+import org.matsim.api.core.v01.events.handler.PersonArrivalEventHandler;
+import org.matsim.api.core.v01.events.handler.PersonDepartureEventHandler;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.events.EventsManagerImpl;
+import org.matsim.core.events.EventsUtils;
+import org.matsim.core.events.handler.BasicEventHandler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Dispatching events to typed and basic handlers by {@link EventsManagerImpl#processEvent(Event)}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class EventsDispatchBenchmark {
+
+	private static final int EVENTS = 4096;
+
+	@Param({"1", "10"})
+	public int handlers;
+
+	private EventsManager events;
+	private final Event[] sample = new Event[EVENTS];
+	private long count = 0;
+
+	@Setup
+	public void setup() {
+		this.events = EventsUtils.createEventsManager();
+		for (int i = 0; i < this.handlers; i++) {
+			this.events.addHandler(i % 2 == 0 ? new TypedHandler() : new CountingBasicHandler());
+		}
+		this.events.initProcessing();
+
+		Random random = new Random(BenchmarkScenarios.SEED);
+		for (int i = 0; i < EVENTS; i++) {
+			Id<Link> link = Id.createLinkId(random.nextInt(1000));
+			double time = i;
+			this.sample[i] = switch (random.nextInt(10)) {
+				case 0 -> new PersonDepartureEvent(time, Id.createPersonId(i), link, "car", "car");
+				case 1 -> new PersonArrivalEvent(time, Id.createPersonId(i), link, "car");
+				default -> i % 2 == 0 ? new LinkEnterEvent(time, Id.createVehicleId(i), link) : new LinkLeaveEvent(time, Id.createVehicleId(i), link);
+			};
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(EVENTS)
+	public long processEvent() {
+		for (Event event : this.sample) {
+			this.events.processEvent(event);
+		}
+		return this.count;
+	}
+
+	private class TypedHandler implements LinkEnterEventHandler, LinkLeaveEventHandler, PersonDepartureEventHandler, PersonArrivalEventHandler {
+		@Override
+		public void handleEvent(LinkEnterEvent event) {
+			count++;
+		}
+
+		@Override
+		public void handleEvent(LinkLeaveEvent event) {
+			count++;
+		}
+
+		@Override
+		public void handleEvent(PersonDepartureEvent event) {
+			count++;
+		}
+
+		@Override
+		public void handleEvent(PersonArrivalEvent event) {
+			count++;
+		}
+	}
+
+	private class CountingBasicHandler implements BasicEventHandler {
+		@Override
+		public void handleEvent(Event event) {
+			count++;
+		}
+	}
+}
@@ -0,0 +1,115 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * IdMapBenchmark.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.benchmark.jmh;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.IdMap;
+import org.matsim.api.core.v01.network.Link;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Lookups and inserts in an {@link IdMap}, compared to a {@link HashMap} with the same keys.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class IdMapBenchmark {
+
+	private static final int KEYS = 100_000;
+
+	private final List<Id<Link>> keys = new ArrayList<>();
+	private final IdMap<Link, Integer> idMap = new IdMap<>(Link.class);
+	private final Map<Id<Link>, Integer> hashMap = new HashMap<>();
+
+	@Setup
+	public void setup() {
+		for (int i = 0; i < KEYS; i++) {
+			Id<Link> id = Id.createLinkId("benchmark_" + i);
+			this.keys.add(id);
+			this.idMap.put(id, i);
+			this.hashMap.put(id, i);
+		}
+		// random access order, like looking up the links of routes
+		Collections.shuffle(this.keys, new Random(BenchmarkScenarios.SEED));
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(KEYS)
+	public long idMapGet() {
+		long sum = 0;
+		for (Id<Link> key : this.keys) {
+			sum += this.idMap.get(key);
+		}
+		return sum;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(KEYS)
+	public long hashMapGet() {
+		long sum = 0;
+		for (Id<Link> key : this.keys) {
+			sum += this.hashMap.get(key);
+		}
+		return sum;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(KEYS)
+	public void idMapPut(Blackhole bh) {
+		IdMap<Link, Integer> map = new IdMap<>(Link.class);
+		for (int i = 0; i < KEYS; i++) {
+			map.put(this.keys.get(i), i);
+		}
+		bh.consume(map);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(KEYS)
+	public void hashMapPut(Blackhole bh) {
+		Map<Id<Link>, Integer> map = new HashMap<>();
+		for (int i = 0; i < KEYS; i++) {
+			map.put(this.keys.get(i), i);
+		}
+		bh.consume(map);
+	}
+}
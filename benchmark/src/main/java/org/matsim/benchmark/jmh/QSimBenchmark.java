@@ -0,0 +1,87 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * QSimBenchmark.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.benchmark.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.matsim.api.core.v01.Scenario;
+import org.matsim.core.config.Config;
+import org.matsim.core.config.ConfigUtils;
+import org.matsim.core.controler.PrepareForSimUtils;
+import org.matsim.core.events.EventsUtils;
+import org.matsim.core.mobsim.qsim.QSimBuilder;
+import org.matsim.core.scenario.ScenarioUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * A full QSim run of car commuters on a congested grid network. Nearly all of the time is spent moving vehicles
+ * through the <code>QueueWithBuffer</code> lanes and across the nodes, which cannot be driven directly from outside of
+ * the netsim engine.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 2, jvmArgsAppend = "-Xmx4g")
+public class QSimBenchmark {
+
+	@Param({"30"})
+	public int gridSize;
+
+	@Param({"20000"})
+	public int persons;
+
+	@Param({"1", "4"})
+	public int threads;
+
+	private Scenario scenario;
+
+	@Setup
+	public void setup() {
+		Config config = ConfigUtils.createConfig();
+		config.qsim().setNumberOfThreads(this.threads);
+		config.qsim().setEndTime(30 * 3600);
+		this.scenario = ScenarioUtils.createScenario(config);
+		BenchmarkScenarios.createGridNetwork(this.scenario.getNetwork(), this.gridSize);
+		BenchmarkScenarios.createPopulation(this.scenario, this.persons);
+		// routes the car legs and creates the vehicles
+		PrepareForSimUtils.createDefaultPrepareForSim(this.scenario).run();
+	}
+
+	@Benchmark
+	public void run() {
+		new QSimBuilder(this.scenario.getConfig())
+				.useDefaults()
+				.build(this.scenario, EventsUtils.createEventsManager())
+				.run();
+	}
+}
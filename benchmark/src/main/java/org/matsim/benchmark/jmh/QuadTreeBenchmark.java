@@ -0,0 +1,104 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * QuadTreeBenchmark.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.benchmark.jmh;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.matsim.core.utils.collections.QuadTree;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Nearest neighbour and range queries on a {@link QuadTree} with uniformly distributed points.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class QuadTreeBenchmark {
+
+	private static final double EXTENT = 100_000.0;
+	private static final int QUERIES = 1024;
+
+	@Param({"100000", "1000000"})
+	public int points;
+
+	@Param({"1000"})
+	public double radius;
+
+	private QuadTree<Integer> quadTree;
+	private final double[] x = new double[QUERIES];
+	private final double[] y = new double[QUERIES];
+
+	@Setup
+	public void setup() {
+		Random random = new Random(BenchmarkScenarios.SEED);
+		this.quadTree = new QuadTree<>(0, 0, EXTENT, EXTENT);
+		for (int i = 0; i < this.points; i++) {
+			this.quadTree.put(random.nextDouble() * EXTENT, random.nextDouble() * EXTENT, i);
+		}
+		for (int i = 0; i < QUERIES; i++) {
+			this.x[i] = random.nextDouble() * EXTENT;
+			this.y[i] = random.nextDouble() * EXTENT;
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(QUERIES)
+	public void getClosest(Blackhole bh) {
+		for (int i = 0; i < QUERIES; i++) {
+			bh.consume(this.quadTree.getClosest(this.x[i], this.y[i]));
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(QUERIES)
+	public void getDisk(Blackhole bh) {
+		for (int i = 0; i < QUERIES; i++) {
+			bh.consume(this.quadTree.getDisk(this.x[i], this.y[i], this.radius));
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(QUERIES)
+	public void getRectangle(Blackhole bh) {
+		ArrayList<Integer> values = new ArrayList<>();
+		for (int i = 0; i < QUERIES; i++) {
+			values.clear();
+			bh.consume(this.quadTree.getRectangle(this.x[i] - this.radius, this.y[i] - this.radius, this.x[i] + this.radius, this.y[i] + this.radius, values));
+		}
+	}
+}
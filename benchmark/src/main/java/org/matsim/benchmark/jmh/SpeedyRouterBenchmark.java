@@ -0,0 +1,104 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * SpeedyRouterBenchmark.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.benchmark.jmh;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.core.network.NetworkUtils;
+import org.matsim.core.router.costcalculators.OnlyTimeDependentTravelDisutility;
+import org.matsim.core.router.speedy.SpeedyALT;
+import org.matsim.core.router.speedy.SpeedyALTFactory;
+import org.matsim.core.router.speedy.SpeedyDijkstra;
+import org.matsim.core.router.speedy.SpeedyDijkstraFactory;
+import org.matsim.core.router.util.LeastCostPathCalculator;
+import org.matsim.core.router.util.TravelDisutility;
+import org.matsim.core.router.util.TravelTime;
+import org.matsim.core.trafficmonitoring.FreeSpeedTravelTime;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Single least cost path queries between random nodes of a grid network, with {@link SpeedyDijkstra} and
+ * {@link SpeedyALT}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class SpeedyRouterBenchmark {
+
+	private static final int QUERIES = 1024;
+
+	@Param({"50", "150"})
+	public int gridSize;
+
+	private LeastCostPathCalculator dijkstra;
+	private LeastCostPathCalculator alt;
+	private final List<Node> fromNodes = new ArrayList<>();
+	private final List<Node> toNodes = new ArrayList<>();
+	private int next = 0;
+
+	@Setup
+	public void setup() {
+		Network network = NetworkUtils.createNetwork();
+		BenchmarkScenarios.createGridNetwork(network, this.gridSize);
+		TravelTime tt = new FreeSpeedTravelTime();
+		TravelDisutility td = new OnlyTimeDependentTravelDisutility(tt);
+
+		this.dijkstra = new SpeedyDijkstraFactory().createPathCalculator(network, td, tt);
+		this.alt = new SpeedyALTFactory().createPathCalculator(network, td, tt);
+
+		Random random = new Random(BenchmarkScenarios.SEED);
+		List<Node> nodes = new ArrayList<>(network.getNodes().values());
+		for (int i = 0; i < QUERIES; i++) {
+			this.fromNodes.add(nodes.get(random.nextInt(nodes.size())));
+			this.toNodes.add(nodes.get(random.nextInt(nodes.size())));
+		}
+	}
+
+	@Benchmark
+	public LeastCostPathCalculator.Path speedyDijkstra() {
+		int i = this.next++ & (QUERIES - 1);
+		return this.dijkstra.calcLeastCostPath(this.fromNodes.get(i), this.toNodes.get(i), 8 * 3600, null, null);
+	}
+
+	@Benchmark
+	public LeastCostPathCalculator.Path speedyALT() {
+		int i = this.next++ & (QUERIES - 1);
+		return this.alt.calcLeastCostPath(this.fromNodes.get(i), this.toNodes.get(i), 8 * 3600, null, null);
+	}
+}
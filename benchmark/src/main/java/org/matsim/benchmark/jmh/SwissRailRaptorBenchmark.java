@@ -0,0 +1,137 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * SwissRailRaptorBenchmark.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.benchmark.jmh;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.Scenario;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.population.PlanElement;
+import org.matsim.core.config.Config;
+import org.matsim.core.config.ConfigUtils;
+import org.matsim.core.router.DefaultRoutingRequest;
+import org.matsim.core.scenario.ScenarioUtils;
+import org.matsim.facilities.Facility;
+import org.matsim.pt.transitSchedule.api.TransitStopFacility;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ch.sbb.matsim.routing.pt.raptor.RaptorParameters;
+import ch.sbb.matsim.routing.pt.raptor.RaptorUtils;
+import ch.sbb.matsim.routing.pt.raptor.SwissRailRaptor;
+import ch.sbb.matsim.routing.pt.raptor.SwissRailRaptorCore;
+import ch.sbb.matsim.routing.pt.raptor.SwissRailRaptorData;
+
+/**
+ * Route and tree queries of {@link SwissRailRaptor} (i.e. of {@link SwissRailRaptorCore}) on a grid of bus lines.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class SwissRailRaptorBenchmark {
+
+	private static final int QUERIES = 256;
+
+	@Param({"60"})
+	public int gridSize;
+
+	@Param({"3"})
+	public int lineSpacing;
+
+	private SwissRailRaptor raptor;
+	private RaptorParameters parameters;
+	private final List<Facility> fromFacilities = new ArrayList<>();
+	private final List<Facility> toFacilities = new ArrayList<>();
+	private final List<TransitStopFacility> fromStops = new ArrayList<>();
+	private final double[] departureTimes = new double[QUERIES];
+	private int next = 0;
+
+	@Setup
+	public void setup() {
+		Config config = ConfigUtils.createConfig();
+		config.transit().setUseTransit(true);
+		Scenario scenario = ScenarioUtils.createScenario(config);
+		BenchmarkScenarios.createGridNetwork(scenario.getNetwork(), this.gridSize);
+		BenchmarkScenarios.createGridSchedule(scenario.getTransitSchedule(), scenario.getNetwork(), this.gridSize, this.lineSpacing);
+
+		SwissRailRaptorData data = SwissRailRaptorData.create(scenario.getTransitSchedule(), null,
+				RaptorUtils.createStaticConfig(config), scenario.getNetwork(), null);
+		this.raptor = new SwissRailRaptor.Builder(data, config).build();
+		this.parameters = RaptorUtils.createParameters(config);
+
+		Random random = new Random(BenchmarkScenarios.SEED);
+		double extent = (this.gridSize - 1) * BenchmarkScenarios.SPACING;
+		List<TransitStopFacility> stops = new ArrayList<>(scenario.getTransitSchedule().getFacilities().values());
+		for (int i = 0; i < QUERIES; i++) {
+			this.fromFacilities.add(new CoordFacility(new Coord(random.nextDouble() * extent, random.nextDouble() * extent)));
+			this.toFacilities.add(new CoordFacility(new Coord(random.nextDouble() * extent, random.nextDouble() * extent)));
+			this.fromStops.add(stops.get(random.nextInt(stops.size())));
+			this.departureTimes[i] = 7 * 3600 + random.nextInt(2 * 3600);
+		}
+	}
+
+	@Benchmark
+	public List<? extends PlanElement> route() {
+		int i = this.next++ & (QUERIES - 1);
+		return this.raptor.calcRoute(DefaultRoutingRequest.withoutAttributes(this.fromFacilities.get(i), this.toFacilities.get(i), this.departureTimes[i], null));
+	}
+
+	@Benchmark
+	public Map<Id<TransitStopFacility>, SwissRailRaptorCore.TravelInfo> tree() {
+		int i = this.next++ & (QUERIES - 1);
+		return this.raptor.calcTree(this.fromStops.get(i), this.departureTimes[i], this.parameters, null);
+	}
+
+	private record CoordFacility(Coord coord) implements Facility {
+		@Override
+		public Coord getCoord() {
+			return this.coord;
+		}
+
+		@Override
+		public Id<Link> getLinkId() {
+			return null;
+		}
+
+		@Override
+		public Map<String, Object> getCustomAttributes() {
+			throw new UnsupportedOperationException();
+		}
+	}
+}
@@ -0,0 +1,106 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * XmlParsingBenchmark.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.benchmark.jmh;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.matsim.api.core.v01.Scenario;
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.config.Config;
+import org.matsim.core.config.ConfigUtils;
+import org.matsim.core.config.groups.ControllerConfigGroup;
+import org.matsim.core.controler.PrepareForSimUtils;
+import org.matsim.core.events.EventsUtils;
+import org.matsim.core.events.MatsimEventsReader;
+import org.matsim.core.events.algorithms.EventWriterXML;
+import org.matsim.core.mobsim.qsim.QSimBuilder;
+import org.matsim.core.population.io.PopulationReader;
+import org.matsim.core.population.io.PopulationWriter;
+import org.matsim.core.scenario.ScenarioUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Parsing of uncompressed population and events xml files. The files are created in memory from a routed population
+ * and one QSim run, so the parser is measured without any disk or decompression overhead.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 2, jvmArgsAppend = "-Xmx4g")
+public class XmlParsingBenchmark {
+
+	@Param({"10000"})
+	public int persons;
+
+	private byte[] populationXml;
+	private byte[] eventsXml;
+
+	@Setup
+	public void setup() {
+		Config config = ConfigUtils.createConfig();
+		Scenario scenario = ScenarioUtils.createScenario(config);
+		BenchmarkScenarios.createGridNetwork(scenario.getNetwork(), 30);
+		BenchmarkScenarios.createPopulation(scenario, this.persons);
+		PrepareForSimUtils.createDefaultPrepareForSim(scenario).run();
+
+		ByteArrayOutputStream population = new ByteArrayOutputStream();
+		new PopulationWriter(scenario.getPopulation()).write(population);
+		this.populationXml = population.toByteArray();
+
+		ByteArrayOutputStream events = new ByteArrayOutputStream();
+		EventsManager eventsManager = EventsUtils.createEventsManager();
+		EventWriterXML writer = new EventWriterXML(events);
+		eventsManager.addHandler(writer);
+		new QSimBuilder(config).useDefaults().build(scenario, eventsManager).run();
+		writer.closeFile();
+		this.eventsXml = events.toByteArray();
+	}
+
+	@Benchmark
+	public Scenario parsePopulation() {
+		Scenario scenario = ScenarioUtils.createScenario(ConfigUtils.createConfig());
+		new PopulationReader(scenario).parse(new ByteArrayInputStream(this.populationXml));
+		return scenario;
+	}
+
+	@Benchmark
+	public EventsManager parseEvents() {
+		EventsManager events = EventsUtils.createEventsManager();
+		events.initProcessing();
+		new MatsimEventsReader(events).readStream(new ByteArrayInputStream(this.eventsXml), ControllerConfigGroup.EventsFileFormat.xml);
+		events.finishProcessing();
+		return events;
+	}
+}
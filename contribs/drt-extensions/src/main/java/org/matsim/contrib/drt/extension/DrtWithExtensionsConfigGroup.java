@@ -20,6 +20,7 @@
 package org.matsim.contrib.drt.extension;
 
 import org.matsim.contrib.drt.extension.companions.DrtCompanionParams;
+import org.matsim.contrib.drt.extension.insertion.spatialFilter.DrtGridRequestFleetFilterParams;
 import org.matsim.contrib.drt.extension.insertion.spatialFilter.DrtSpatialRequestFleetFilterParams;
 import org.matsim.contrib.drt.extension.operations.DrtOperationsParams;
 import org.matsim.contrib.drt.extension.services.services.params.DrtServicesParams;
@@ -50,6 +51,9 @@ public class DrtWithExtensionsConfigGroup extends DrtConfigGroup {
 	@Nullable
 	private DrtSpatialRequestFleetFilterParams drtSpatialRequestFleetFilterParams;
 
+	@Nullable
+	private DrtGridRequestFleetFilterParams drtGridRequestFleetFilterParams;
+
 	public DrtWithExtensionsConfigGroup() {
 		this(DefaultDrtOptimizationConstraintsSet::new);
 	}
@@ -71,6 +75,10 @@ public class DrtWithExtensionsConfigGroup extends DrtConfigGroup {
 		// Optional
 		addDefinition(DrtSpatialRequestFleetFilterParams.SET_NAME, DrtSpatialRequestFleetFilterParams::new, () -> drtSpatialRequestFleetFilterParams,
 			params -> drtSpatialRequestFleetFilterParams = (DrtSpatialRequestFleetFilterParams) params);
+
+		// Optional
+		addDefinition(DrtGridRequestFleetFilterParams.SET_NAME, DrtGridRequestFleetFilterParams::new, () -> drtGridRequestFleetFilterParams,
+			params -> drtGridRequestFleetFilterParams = (DrtGridRequestFleetFilterParams) params);
 	}
 
 	public Optional<DrtCompanionParams> getDrtCompanionParams() {
@@ -88,4 +96,8 @@ public class DrtWithExtensionsConfigGroup extends DrtConfigGroup {
 	public Optional<DrtSpatialRequestFleetFilterParams> getSpatialRequestFleetFilterParams() {
 		return Optional.ofNullable(drtSpatialRequestFleetFilterParams);
 	}
+
+	public Optional<DrtGridRequestFleetFilterParams> getGridRequestFleetFilterParams() {
+		return Optional.ofNullable(drtGridRequestFleetFilterParams);
+	}
 }
@@ -0,0 +1,62 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.contrib.drt.extension.insertion.spatialFilter;
+
+import com.google.common.base.Verify;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+import org.matsim.contrib.common.util.ReflectiveConfigGroupWithConfigurableParameterSets;
+import org.matsim.core.config.Config;
+
+/**
+ * Parameters of the {@link GridRequestFleetFilter}.
+ */
+public class DrtGridRequestFleetFilterParams extends ReflectiveConfigGroupWithConfigurableParameterSets {
+
+	public static final String SET_NAME = "gridRequestFleetFilter";
+
+	public DrtGridRequestFleetFilterParams() {
+		super(SET_NAME);
+	}
+
+	@Parameter
+	@Positive
+	@Comment("Size of the (square) grid cells of the vehicle index in map units (meters in most projections).")
+	public double cellSize = 1000;
+
+	@Parameter
+	@PositiveOrZero
+	@Comment("If positive, vehicles are additionally removed if they cannot reach the pickup before the latest start" +
+			" time according to the adaptive travel time matrix, with its travel times multiplied by this factor." +
+			" The matrix only estimates the travel times, so this may remove feasible vehicles; the factor must be" +
+			" below 1, e.g. 0.5. With 0 (default), only the beeline distance at the maximum network speed is used.")
+	public double travelTimeFactor = 0;
+
+	@Parameter
+	@Comment("Returns the unfiltered fleet if the filter did not keep any vehicle.")
+	public boolean returnAllIfEmpty = true;
+
+	@Override
+	protected void checkConsistency(Config config) {
+		super.checkConsistency(config);
+		Verify.verify(cellSize > 0, "Cell size must be positive");
+		Verify.verify(travelTimeFactor >= 0 && travelTimeFactor < 1, "Travel time factor must be at least 0 and below 1");
+	}
+}
@@ -0,0 +1,54 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.contrib.drt.extension.insertion.spatialFilter;
+
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.contrib.drt.extension.DrtWithExtensionsConfigGroup;
+import org.matsim.contrib.drt.optimizer.insertion.RequestFleetFilter;
+import org.matsim.contrib.drt.run.DrtConfigGroup;
+import org.matsim.contrib.dvrp.run.AbstractDvrpModeQSimModule;
+import org.matsim.contrib.zone.skims.AdaptiveTravelTimeMatrix;
+
+/**
+ * Binds the {@link GridRequestFleetFilter} as {@link RequestFleetFilter} of the mode.
+ */
+public class GridFilterInsertionSearchQSimModule extends AbstractDvrpModeQSimModule {
+
+	private final DrtGridRequestFleetFilterParams drtGridRequestFleetFilterParams;
+
+	public GridFilterInsertionSearchQSimModule(DrtConfigGroup drtCfg) {
+		super(drtCfg.getMode());
+		if (drtCfg instanceof DrtWithExtensionsConfigGroup withExtensionsConfigGroup &&
+				withExtensionsConfigGroup.getGridRequestFleetFilterParams().isPresent()) {
+			drtGridRequestFleetFilterParams = withExtensionsConfigGroup.getGridRequestFleetFilterParams().get();
+		} else {
+			throw new RuntimeException("Requires DrtGridRequestFleetFilterParams to be set. Use DrtWithExtensionsConfigGroup " +
+					"to do so.");
+		}
+	}
+
+	@Override
+	protected void configureQSim() {
+		bindModal(RequestFleetFilter.class).toProvider(modalProvider(getter ->
+				new GridRequestFleetFilter(getter.getModal(Network.class), getter.getModal(AdaptiveTravelTimeMatrix.class),
+						drtGridRequestFleetFilterParams)
+		));
+	}
+}
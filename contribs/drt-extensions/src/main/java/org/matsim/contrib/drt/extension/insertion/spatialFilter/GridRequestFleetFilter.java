@@ -0,0 +1,254 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.contrib.drt.extension.insertion.spatialFilter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.contrib.drt.optimizer.VehicleEntry;
+import org.matsim.contrib.drt.optimizer.Waypoint;
+import org.matsim.contrib.drt.optimizer.insertion.RequestFleetFilter;
+import org.matsim.contrib.drt.passenger.DrtRequest;
+import org.matsim.contrib.dvrp.fleet.DvrpVehicle;
+import org.matsim.contrib.zone.skims.AdaptiveTravelTimeMatrix;
+import org.matsim.core.utils.geometry.CoordUtils;
+
+/**
+ * Filter that keeps a grid index of the waypoints of all vehicles, i.e. their start positions and the links of their
+ * planned stops. For a given request, only returns vehicles which can reach the pickup before its latest start time
+ * from at least one of their waypoints.
+ * <p>
+ * The index is built from the vehicle entries. It is synchronized with all entries once per time step; within a time
+ * step, only the vehicles reported by {@link #vehicleEntryUpdated} are re-indexed, i.e. the vehicles which received an
+ * insertion. A vehicle is only moved between cells if the cells of its waypoints changed.
+ * <p>
+ * Candidates are pruned with a lower bound of their travel time to the pickup: the beeline distance, first between the
+ * cells and then between the waypoints and the pickup, at the maximum free speed of the network. A vehicle is kept if
+ * it can leave one of its waypoints at its departure time and reach the pickup in time.
+ * <p>
+ * Optionally, the vehicles are also checked with the {@link AdaptiveTravelTimeMatrix}, scaled by the travel time
+ * factor. The matrix only estimates the travel times and is no lower bound, so this may remove feasible vehicles. It
+ * is thus only used if the travel time factor is positive, and the factor must be below 1.
+ */
+public class GridRequestFleetFilter implements RequestFleetFilter {
+
+	private final AdaptiveTravelTimeMatrix travelTimeMatrix;
+	private final double maxSpeed;
+	private final double cellSize;
+	private final double travelTimeFactor;
+	private final boolean returnAllIfEmpty;
+
+	private final Map<Long, Set<Id<DvrpVehicle>>> cells = new HashMap<>();
+	private final Map<Id<DvrpVehicle>, IndexedVehicle> vehicles = new HashMap<>();
+
+	private double lastUpdateTime = Double.NaN;
+	private final Set<Id<DvrpVehicle>> updatedVehicles = new HashSet<>();
+
+	private record IndexedVehicle(VehicleEntry entry, long[] cells) {
+	}
+
+	public GridRequestFleetFilter(Network network, AdaptiveTravelTimeMatrix travelTimeMatrix, DrtGridRequestFleetFilterParams params) {
+		this.travelTimeMatrix = travelTimeMatrix;
+		this.maxSpeed = network.getLinks().values().stream().mapToDouble(Link::getFreespeed).max().orElse(Double.POSITIVE_INFINITY);
+		this.cellSize = params.cellSize;
+		this.travelTimeFactor = params.travelTimeFactor;
+		this.returnAllIfEmpty = params.returnAllIfEmpty;
+	}
+
+	@Override
+	public Collection<VehicleEntry> filter(DrtRequest drtRequest, Map<Id<DvrpVehicle>, VehicleEntry> vehicleEntries, double now) {
+		if (now != lastUpdateTime) {
+			updateIndex(vehicleEntries);
+			lastUpdateTime = now;
+		} else {
+			for (Id<DvrpVehicle> vehicleId : updatedVehicles) {
+				updateVehicle(vehicleId, vehicleEntries.get(vehicleId));
+			}
+		}
+		updatedVehicles.clear();
+
+		Collection<VehicleEntry> candidates = findCandidates(drtRequest, now);
+		if (candidates.isEmpty() && returnAllIfEmpty) {
+			candidates = vehicleEntries.values();
+		}
+		return candidates;
+	}
+
+	@Override
+	public void vehicleEntryUpdated(Id<DvrpVehicle> vehicleId, VehicleEntry entry) {
+		updatedVehicles.add(vehicleId);
+	}
+
+	private void updateIndex(Map<Id<DvrpVehicle>, VehicleEntry> vehicleEntries) {
+		for (Id<DvrpVehicle> vehicleId : new ArrayList<>(vehicles.keySet())) {
+			if (!vehicleEntries.containsKey(vehicleId)) {
+				updateVehicle(vehicleId, null);
+			}
+		}
+		for (VehicleEntry entry : vehicleEntries.values()) {
+			updateVehicle(entry.vehicle.getId(), entry);
+		}
+	}
+
+	private void updateVehicle(Id<DvrpVehicle> vehicleId, VehicleEntry entry) {
+		IndexedVehicle indexed = vehicles.get(vehicleId);
+		if (indexed != null && indexed.entry == entry) {
+			return;
+		}
+		long[] oldCells = indexed == null ? new long[0] : indexed.cells;
+		long[] newCells = entry == null ? new long[0] : getCells(entry);
+		if (!Arrays.equals(oldCells, newCells)) {
+			for (long cell : oldCells) {
+				Set<Id<DvrpVehicle>> vehicleIds = cells.get(cell);
+				vehicleIds.remove(vehicleId);
+				if (vehicleIds.isEmpty()) {
+					cells.remove(cell);
+				}
+			}
+			for (long cell : newCells) {
+				cells.computeIfAbsent(cell, c -> new HashSet<>()).add(vehicleId);
+			}
+		}
+		if (entry == null) {
+			vehicles.remove(vehicleId);
+		} else {
+			vehicles.put(vehicleId, new IndexedVehicle(entry, newCells));
+		}
+	}
+
+	private long[] getCells(VehicleEntry entry) {
+		long[] entryCells = new long[entry.stops.size() + 1];
+		entryCells[0] = getCell(entry.start.getLink().getToNode().getCoord());
+		for (int i = 0; i < entry.stops.size(); i++) {
+			entryCells[i + 1] = getCell(entry.stops.get(i).getLink().getToNode().getCoord());
+		}
+		return Arrays.stream(entryCells).sorted().distinct().toArray();
+	}
+
+	private long getCell(Coord coord) {
+		return cellKey(getCellIndex(coord.getX()), getCellIndex(coord.getY()));
+	}
+
+	private int getCellIndex(double coordinate) {
+		return (int) Math.floor(coordinate / cellSize);
+	}
+
+	private static long cellKey(int x, int y) {
+		return ((long) x << 32) | (y & 0xffffffffL);
+	}
+
+	private Collection<VehicleEntry> findCandidates(DrtRequest drtRequest, double now) {
+		Link pickupLink = drtRequest.getFromLink();
+		Coord pickupCoord = pickupLink.getFromNode().getCoord();
+		int pickupX = getCellIndex(pickupCoord.getX());
+		int pickupY = getCellIndex(pickupCoord.getY());
+		double latestStartTime = drtRequest.getLatestStartTime();
+
+		// waypoints in cell ring r are at least (r - 1) * cellSize away from the pickup
+		double maxDistance = (latestStartTime - now) * maxSpeed;
+		if (maxDistance < 0) {
+			return Collections.emptyList();
+		}
+		long rings = (long) Math.min(maxDistance / cellSize + 1, Integer.MAX_VALUE);
+
+		Set<Id<DvrpVehicle>> vehicleIds = new HashSet<>();
+		if ((2.0 * rings + 1) * (2.0 * rings + 1) > cells.size()) {
+			for (Map.Entry<Long, Set<Id<DvrpVehicle>>> cell : cells.entrySet()) {
+				int x = (int) (cell.getKey() >> 32);
+				int y = (int) (long) cell.getKey();
+				if (Math.abs((long) x - pickupX) <= rings && Math.abs((long) y - pickupY) <= rings) {
+					vehicleIds.addAll(cell.getValue());
+				}
+			}
+		} else {
+			for (int x = (int) (pickupX - rings); x <= pickupX + rings; x++) {
+				for (int y = (int) (pickupY - rings); y <= pickupY + rings; y++) {
+					Set<Id<DvrpVehicle>> cellVehicleIds = cells.get(cellKey(x, y));
+					if (cellVehicleIds != null) {
+						vehicleIds.addAll(cellVehicleIds);
+					}
+				}
+			}
+		}
+
+		// sort to keep the order of the candidates independent of the index history
+		List<Id<DvrpVehicle>> sortedIds = new ArrayList<>(vehicleIds);
+		sortedIds.sort(Comparator.naturalOrder());
+		Set<VehicleEntry> candidates = new LinkedHashSet<>();
+		for (Id<DvrpVehicle> vehicleId : sortedIds) {
+			VehicleEntry entry = vehicles.get(vehicleId).entry;
+			if (canReachPickup(entry, pickupLink, latestStartTime)) {
+				candidates.add(entry);
+			}
+		}
+		return candidates;
+	}
+
+	private boolean canReachPickup(VehicleEntry entry, Link pickupLink, double latestStartTime) {
+		if (canReachPickup(entry.start.getLink(), entry.start.getDepartureTime(), pickupLink, latestStartTime)) {
+			return true;
+		}
+		for (Waypoint.Stop stop : entry.stops) {
+			double departureTime = stop.getDepartureTime();
+			if (departureTime > latestStartTime) {
+				// the following stops are left even later
+				return false;
+			}
+			if (canReachPickup(stop.getLink(), departureTime, pickupLink, latestStartTime)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private boolean canReachPickup(Link link, double departureTime, Link pickupLink, double latestStartTime) {
+		if (departureTime > latestStartTime) {
+			return false;
+		}
+		if (link == pickupLink) {
+			return true;
+		}
+		Node fromNode = link.getToNode();
+		Node toNode = pickupLink.getFromNode();
+		double minTravelTime = CoordUtils.calcEuclideanDistance(fromNode.getCoord(), toNode.getCoord()) / maxSpeed;
+		if (departureTime + minTravelTime > latestStartTime) {
+			return false;
+		}
+		if (travelTimeFactor > 0) {
+			double travelTime = travelTimeMatrix.getTravelTime(fromNode, toNode, departureTime);
+			return departureTime + travelTimeFactor * travelTime <= latestStartTime;
+		}
+		return true;
+	}
+}
@@ -0,0 +1,234 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.contrib.drt.extension.insertion.spatialFilter;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.contrib.drt.optimizer.VehicleEntry;
+import org.matsim.contrib.drt.optimizer.Waypoint;
+import org.matsim.contrib.drt.passenger.DrtRequest;
+import org.matsim.contrib.drt.schedule.DefaultDrtStopTask;
+import org.matsim.contrib.dvrp.fleet.DvrpVehicle;
+import org.matsim.contrib.dvrp.fleet.Fleet;
+import org.matsim.contrib.dvrp.fleet.FleetSpecificationImpl;
+import org.matsim.contrib.dvrp.fleet.Fleets;
+import org.matsim.contrib.dvrp.fleet.ImmutableDvrpVehicleSpecification;
+import org.matsim.contrib.dvrp.load.IntegersLoadType;
+import org.matsim.contrib.dvrp.optimizer.Request;
+import org.matsim.contrib.zone.skims.AdaptiveTravelTimeMatrix;
+import org.matsim.core.network.NetworkUtils;
+import org.matsim.core.utils.geometry.CoordUtils;
+
+import com.google.common.collect.ImmutableList;
+
+public class GridRequestFleetFilterTest {
+
+	private static final IntegersLoadType loadType = new IntegersLoadType("passengers");
+
+	private static final double SPEED = 10;
+
+	private final Network network = NetworkUtils.createNetwork();
+	private final Node node0 = NetworkUtils.createAndAddNode(network, Id.createNodeId(0), new Coord(0, 0));
+	private final Node node1 = NetworkUtils.createAndAddNode(network, Id.createNodeId(1), new Coord(1000, 0));
+	private final Node node2 = NetworkUtils.createAndAddNode(network, Id.createNodeId(2), new Coord(10000, 0));
+	private final Node node3 = NetworkUtils.createAndAddNode(network, Id.createNodeId(3), new Coord(20000, 0));
+	private final Node node4 = NetworkUtils.createAndAddNode(network, Id.createNodeId(4), new Coord(0, 1500));
+	private final Link link01 = NetworkUtils.createAndAddLink(network, Id.createLinkId("01"), node0, node1, 1000, SPEED, 1000, 1);
+	private final Link link12 = NetworkUtils.createAndAddLink(network, Id.createLinkId("12"), node1, node2, 9000, SPEED, 1000, 1);
+	private final Link link23 = NetworkUtils.createAndAddLink(network, Id.createLinkId("23"), node2, node3, 10000, SPEED, 1000, 1);
+	private final Link link14 = NetworkUtils.createAndAddLink(network, Id.createLinkId("14"), node1, node4, 1800, SPEED, 1000, 1);
+
+	// beeline travel times at the maximum speed of the network
+	private final AdaptiveTravelTimeMatrix matrix = new AdaptiveTravelTimeMatrix() {
+		@Override
+		public double getTravelTime(Node fromNode, Node toNode, double departureTime) {
+			return CoordUtils.calcEuclideanDistance(fromNode.getCoord(), toNode.getCoord()) / SPEED;
+		}
+
+		@Override
+		public void setTravelTime(Node fromNode, Node toNode, double travelTime, double departureTime) {
+			throw new UnsupportedOperationException();
+		}
+	};
+
+	private final Fleet fleet = createFleet("v1", "v2", "v3");
+
+	@Test
+	void test() {
+		double now = 100;
+		Map<Id<DvrpVehicle>, VehicleEntry> vehicleEntries = new HashMap<>();
+		VehicleEntry entry1 = entry("v1", start(now, link01)); // at the pickup link
+		VehicleEntry entry2 = entry("v2", start(now, link12)); // 1000 s away
+		VehicleEntry entry3 = entry("v3", start(now, link23), stop(now + 100, link14)); // reaches the pickup from its stop after 250 s
+		vehicleEntries.put(entry1.vehicle.getId(), entry1);
+		vehicleEntries.put(entry2.vehicle.getId(), entry2);
+		vehicleEntries.put(entry3.vehicle.getId(), entry3);
+
+		DrtGridRequestFleetFilterParams params = new DrtGridRequestFleetFilterParams();
+		params.cellSize = 500;
+		params.returnAllIfEmpty = false;
+		GridRequestFleetFilter filter = new GridRequestFleetFilter(network, matrix, params);
+
+		Collection<VehicleEntry> filtered = filter.filter(request("r1", now + 300), vehicleEntries, now);
+		Assertions.assertThat(filtered).containsExactly(entry1, entry3);
+
+		// v1 got the request and has moved on (within the same time step)
+		VehicleEntry newEntry1 = entry("v1", start(now, link12));
+		vehicleEntries.put(newEntry1.vehicle.getId(), newEntry1);
+		filter.vehicleEntryUpdated(newEntry1.vehicle.getId(), newEntry1);
+		filtered = filter.filter(request("r2", now + 300), vehicleEntries, now);
+		Assertions.assertThat(filtered).containsExactly(entry3);
+
+		filtered = filter.filter(request("r3", now + 50), vehicleEntries, now);
+		Assertions.assertThat(filtered).isEmpty();
+
+		// next time step: v3 is gone, v2 is at the pickup link
+		vehicleEntries.remove(entry3.vehicle.getId());
+		VehicleEntry newEntry2 = entry("v2", start(now + 1, link01));
+		vehicleEntries.put(newEntry2.vehicle.getId(), newEntry2);
+		filtered = filter.filter(request("r4", now + 300), vehicleEntries, now + 1);
+		Assertions.assertThat(filtered).containsExactly(newEntry2);
+	}
+
+	@Test
+	void testOnlyUpdatedVehiclesAreReindexedWithinTimeStep() {
+		double now = 100;
+		Map<Id<DvrpVehicle>, VehicleEntry> vehicleEntries = new HashMap<>();
+		VehicleEntry entry1 = entry("v1", start(now, link01));
+		VehicleEntry entry2 = entry("v2", start(now, link12));
+		vehicleEntries.put(entry1.vehicle.getId(), entry1);
+		vehicleEntries.put(entry2.vehicle.getId(), entry2);
+
+		DrtGridRequestFleetFilterParams params = new DrtGridRequestFleetFilterParams();
+		params.cellSize = 500;
+		params.returnAllIfEmpty = false;
+		GridRequestFleetFilter filter = new GridRequestFleetFilter(network, matrix, params);
+		Assertions.assertThat(filter.filter(request("r1", now + 300), vehicleEntries, now)).containsExactly(entry1);
+
+		// v2 got a request with a stop next to the pickup
+		VehicleEntry newEntry2 = entry("v2", start(now, link12), stop(now + 100, link14));
+		vehicleEntries.put(newEntry2.vehicle.getId(), newEntry2);
+		filter.vehicleEntryUpdated(newEntry2.vehicle.getId(), newEntry2);
+		Assertions.assertThat(filter.filter(request("r2", now + 300), vehicleEntries, now)).containsExactly(entry1, newEntry2);
+
+		// v1 got a request, which is not reported: the index is only synchronized in the next time step
+		VehicleEntry newEntry1 = entry("v1", start(now, link12));
+		vehicleEntries.put(newEntry1.vehicle.getId(), newEntry1);
+		Assertions.assertThat(filter.filter(request("r3", now + 300), vehicleEntries, now)).containsExactly(entry1, newEntry2);
+		Assertions.assertThat(filter.filter(request("r4", now + 301), vehicleEntries, now + 1)).containsExactly(newEntry2);
+	}
+
+	@Test
+	void testReturnAllIfEmpty() {
+		double now = 100;
+		VehicleEntry entry2 = entry("v2", start(now, link12));
+		Map<Id<DvrpVehicle>, VehicleEntry> vehicleEntries = Map.of(entry2.vehicle.getId(), entry2);
+
+		DrtGridRequestFleetFilterParams params = new DrtGridRequestFleetFilterParams();
+		params.returnAllIfEmpty = true;
+		GridRequestFleetFilter filter = new GridRequestFleetFilter(network, matrix, params);
+
+		Collection<VehicleEntry> filtered = filter.filter(request("r1", now + 300), vehicleEntries, now);
+		Assertions.assertThat(filtered).containsExactly(entry2);
+	}
+
+	@Test
+	void testTravelTimeMatrixOnlyIfEnabled() {
+		double now = 100;
+		VehicleEntry entry3 = entry("v3", start(now, link23), stop(now + 100, link14)); // 150 s beeline from its stop
+		Map<Id<DvrpVehicle>, VehicleEntry> vehicleEntries = Map.of(entry3.vehicle.getId(), entry3);
+
+		// overestimates the travel times by a factor of 10
+		AdaptiveTravelTimeMatrix slowMatrix = new AdaptiveTravelTimeMatrix() {
+			@Override
+			public double getTravelTime(Node fromNode, Node toNode, double departureTime) {
+				return 10 * matrix.getTravelTime(fromNode, toNode, departureTime);
+			}
+
+			@Override
+			public void setTravelTime(Node fromNode, Node toNode, double travelTime, double departureTime) {
+				throw new UnsupportedOperationException();
+			}
+		};
+
+		DrtGridRequestFleetFilterParams params = new DrtGridRequestFleetFilterParams();
+		params.returnAllIfEmpty = false;
+		GridRequestFleetFilter filter = new GridRequestFleetFilter(network, slowMatrix, params);
+		Assertions.assertThat(filter.filter(request("r1", now + 300), vehicleEntries, now)).containsExactly(entry3);
+
+		params.travelTimeFactor = 0.5;
+		filter = new GridRequestFleetFilter(network, slowMatrix, params);
+		Assertions.assertThat(filter.filter(request("r1", now + 300), vehicleEntries, now)).isEmpty();
+	}
+
+	private Fleet createFleet(String... vehicleIds) {
+		FleetSpecificationImpl fleetSpecification = new FleetSpecificationImpl();
+		for (String vehicleId : vehicleIds) {
+			fleetSpecification.addVehicleSpecification(ImmutableDvrpVehicleSpecification.newBuilder()
+					.id(Id.create(vehicleId, DvrpVehicle.class))
+					.startLinkId(link01.getId())
+					.capacity(6)
+					.serviceBeginTime(0)
+					.serviceEndTime(1000)
+					.build());
+		}
+		return Fleets.createDefaultFleet(fleetSpecification, specification -> link01);
+	}
+
+	private DrtRequest request(String id, double latestStartTime) {
+		return DrtRequest.newBuilder()
+				.id(Id.create(id, Request.class))
+				.passengerIds(List.of(Id.createPersonId(id)))
+				.submissionTime(0)
+				.earliestStartTime(0)
+				.latestStartTime(latestStartTime)
+				.latestArrivalTime(latestStartTime + 3600)
+				.fromLink(link01)
+				.toLink(link23)
+				.mode("drt")
+				.build();
+	}
+
+	private VehicleEntry entry(String vehicleId, Waypoint.Start start, Waypoint.Stop... stops) {
+		List<Double> precedingStayTimes = Collections.nCopies(stops.length, 0.0);
+		DvrpVehicle vehicle = fleet.getVehicles().get(Id.create(vehicleId, DvrpVehicle.class));
+		return new VehicleEntry(vehicle, start, ImmutableList.copyOf(stops), null, precedingStayTimes, 0);
+	}
+
+	private Waypoint.Start start(double time, Link link) {
+		return new Waypoint.Start(null, link, time, loadType.fromArray(0));
+	}
+
+	private Waypoint.Stop stop(double departureTime, Link link) {
+		DefaultDrtStopTask task = new DefaultDrtStopTask(departureTime - 60, departureTime, link);
+		return new Waypoint.Stop(task, departureTime, departureTime, loadType.fromArray(0), loadType);
+	}
+}
@@ -0,0 +1,258 @@
+/*
+ * *********************************************************************** *
+ * project: org.matsim.*
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** *
+ */
+
+package org.matsim.contrib.drt.benchmark;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.contrib.drt.optimizer.DrtRequestInsertionRetryParams;
+import org.matsim.contrib.drt.optimizer.DrtRequestInsertionRetryQueue;
+import org.matsim.contrib.drt.optimizer.VehicleDataEntryFactoryImpl;
+import org.matsim.contrib.drt.optimizer.VehicleEntry;
+import org.matsim.contrib.drt.optimizer.insertion.DefaultUnplannedRequestInserter;
+import org.matsim.contrib.drt.optimizer.insertion.DrtInsertionSearch;
+import org.matsim.contrib.drt.optimizer.insertion.InsertionWithDetourData;
+import org.matsim.contrib.drt.optimizer.insertion.RequestFleetFilter;
+import org.matsim.contrib.drt.passenger.DefaultOfferAcceptor;
+import org.matsim.contrib.drt.passenger.DrtRequest;
+import org.matsim.contrib.drt.run.DrtConfigGroup;
+import org.matsim.contrib.drt.schedule.DrtStayTaskEndTimeCalculator;
+import org.matsim.contrib.drt.schedule.DrtTaskFactoryImpl;
+import org.matsim.contrib.drt.scheduler.DefaultRequestInsertionScheduler;
+import org.matsim.contrib.drt.stops.DefaultStopTimeCalculator;
+import org.matsim.contrib.drt.stops.StaticPassengerStopDurationProvider;
+import org.matsim.contrib.drt.stops.StopTimeCalculator;
+import org.matsim.contrib.dvrp.fleet.DvrpVehicle;
+import org.matsim.contrib.dvrp.fleet.Fleet;
+import org.matsim.contrib.dvrp.fleet.FleetSpecification;
+import org.matsim.contrib.dvrp.fleet.Fleets;
+import org.matsim.contrib.dvrp.load.DvrpLoadType;
+import org.matsim.contrib.dvrp.optimizer.Request;
+import org.matsim.contrib.dvrp.passenger.PassengerRequestScheduledEvent;
+import org.matsim.contrib.dvrp.passenger.PassengerRequestScheduledEventHandler;
+import org.matsim.contrib.dvrp.path.VrpPath;
+import org.matsim.contrib.dvrp.path.VrpPathWithTravelData;
+import org.matsim.contrib.dvrp.schedule.DriveTask;
+import org.matsim.contrib.dvrp.schedule.DriveTaskUpdater;
+import org.matsim.contrib.dvrp.schedule.Schedule;
+import org.matsim.contrib.dvrp.schedule.Schedule.ScheduleStatus;
+import org.matsim.contrib.dvrp.schedule.ScheduleTimingUpdater;
+import org.matsim.contrib.dvrp.schedule.Task;
+import org.matsim.contrib.dvrp.tracker.OnlineDriveTaskTracker;
+import org.matsim.contrib.dvrp.util.LinkTimePair;
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.events.EventsUtils;
+import org.matsim.core.mobsim.framework.MobsimTimer;
+import org.matsim.core.router.util.TravelTime;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Replays recorded DRT requests against a fleet without running a QSim, to compare the dispatch latency, throughput
+ * and solution quality of {@link DrtInsertionSearch} implementations.
+ * <p>
+ * The requests are dispatched by {@link DefaultUnplannedRequestInserter} and scheduled by
+ * {@link DefaultRequestInsertionScheduler} as in the QSim; requests submitted at the same time are dispatched together.
+ * Between the dispatches, the vehicles execute their schedules exactly as planned with the given (frozen) travel
+ * times. Ongoing drive tasks are not diverted, i.e. a vehicle driving to its next stop can only serve new requests
+ * after that stop. Passengers are neither picked up nor dropped off, so the quality of a solution is measured by the
+ * expected pickup and dropoff times at scheduling. Prebooking is not supported.
+ * <p>
+ * Each run starts with a new fleet created from the fleet specification, so several insertion searches can be
+ * benchmarked one after the other.
+ */
+public final class DrtDispatchBenchmark {
+	private static final Logger log = LogManager.getLogger(DrtDispatchBenchmark.class);
+
+	private final DrtConfigGroup drtCfg;
+	private final Network network;
+	private final FleetSpecification fleetSpecification;
+	private final DvrpLoadType loadType;
+	private final TravelTime travelTime;
+	private final ForkJoinPool forkJoinPool;
+
+	public DrtDispatchBenchmark(DrtConfigGroup drtCfg, Network network, FleetSpecification fleetSpecification,
+			DvrpLoadType loadType, TravelTime travelTime, ForkJoinPool forkJoinPool) {
+		Preconditions.checkArgument(drtCfg.getPrebookingParams().isEmpty(), "Prebooking is not supported");
+		this.drtCfg = drtCfg;
+		this.network = network;
+		this.fleetSpecification = fleetSpecification;
+		this.loadType = loadType;
+		this.travelTime = travelTime;
+		this.forkJoinPool = forkJoinPool;
+	}
+
+	/**
+	 * @param requests sorted by submission time
+	 */
+	public DrtDispatchBenchmarkResult run(String name, DrtInsertionSearch insertionSearch, List<DrtRequest> requests) {
+		Fleet fleet = Fleets.createDefaultFleet(fleetSpecification, network.getLinks()::get);
+		MobsimTimer timer = new MobsimTimer();
+		StopTimeCalculator stopTimeCalculator = new DefaultStopTimeCalculator(drtCfg.stopDuration);
+		var scheduleTimingUpdater = new ScheduleTimingUpdater(timer,
+				new DrtStayTaskEndTimeCalculator(stopTimeCalculator), DriveTaskUpdater.NOOP);
+		var insertionScheduler = new DefaultRequestInsertionScheduler(fleet, timer, travelTime, scheduleTimingUpdater,
+				new DrtTaskFactoryImpl(), stopTimeCalculator, false);
+
+		Map<Id<Request>, PassengerRequestScheduledEvent> scheduledEvents = new HashMap<>();
+		EventsManager eventsManager = EventsUtils.createEventsManager();
+		eventsManager.addHandler((PassengerRequestScheduledEventHandler)e -> scheduledEvents.put(e.getRequestId(), e));
+		eventsManager.initProcessing();
+
+		var timedInsertionSearch = new TimedInsertionSearch(insertionSearch);
+		var constraintsSet = drtCfg.addOrGetDrtOptimizationConstraintsParams()
+				.addOrGetDefaultDrtOptimizationConstraintsSet();
+		var requestInserter = new DefaultUnplannedRequestInserter(drtCfg, fleet, timer, eventsManager,
+				insertionScheduler, new VehicleDataEntryFactoryImpl(loadType, drtCfg.incrementalVehicleEntries),
+				timedInsertionSearch, new DrtRequestInsertionRetryQueue(
+				drtCfg.getDrtRequestInsertionRetryParams().orElse(new DrtRequestInsertionRetryParams())),
+				new DefaultOfferAcceptor(constraintsSet.maxAllowedPickupDelay), forkJoinPool,
+				StaticPassengerStopDurationProvider.of(drtCfg.stopDuration, 0.0), RequestFleetFilter.none);
+
+		log.info("Benchmarking " + name + " with " + requests.size() + " requests and " + fleet.getVehicles().size()
+				+ " vehicles");
+		List<DrtRequest> unplannedRequests = new ArrayList<>();
+		long dispatchNanos = 0;
+		int idx = 0;
+		while (idx < requests.size()) {
+			double now = requests.get(idx).getSubmissionTime();
+			Preconditions.checkArgument(now >= timer.getTimeOfDay(), "Requests are not sorted by submission time");
+			while (idx < requests.size() && requests.get(idx).getSubmissionTime() == now) {
+				unplannedRequests.add(requests.get(idx++));
+			}
+
+			timer.setTime(now);
+			advanceSchedules(fleet, now);
+
+			long start = System.nanoTime();
+			requestInserter.scheduleUnplannedRequests(unplannedRequests);
+			dispatchNanos += System.nanoTime() - start;
+			unplannedRequests.clear();
+		}
+		eventsManager.finishProcessing();
+
+		var result = DrtDispatchBenchmarkResult.create(name, requests, scheduledEvents,
+				timedInsertionSearch.getLatencies(), dispatchNanos, fleet);
+		log.info(result);
+		return result;
+	}
+
+	/**
+	 * Executes the schedules as planned until the given time. The last task of a schedule (stay task until the end of
+	 * service) is never ended.
+	 */
+	private static void advanceSchedules(Fleet fleet, double now) {
+		for (DvrpVehicle vehicle : fleet.getVehicles().values()) {
+			Schedule schedule = vehicle.getSchedule();
+			if (schedule.getStatus() == ScheduleStatus.PLANNED && vehicle.getServiceBeginTime() <= now) {
+				startNextTask(schedule);
+			}
+			while (schedule.getStatus() == ScheduleStatus.STARTED && schedule.getCurrentTask().getEndTime() <= now
+					&& schedule.getCurrentTask().getTaskIdx() < schedule.getTaskCount() - 1) {
+				startNextTask(schedule);
+			}
+		}
+	}
+
+	private static void startNextTask(Schedule schedule) {
+		Task task = schedule.nextTask();
+		if (task instanceof DriveTask driveTask) {
+			driveTask.initTaskTracker(new NoDiversionDriveTaskTracker(driveTask));
+		}
+	}
+
+	/**
+	 * Vehicles cannot be diverted, as their positions on the current links are not simulated.
+	 */
+	private record NoDiversionDriveTaskTracker(DriveTask driveTask) implements OnlineDriveTaskTracker {
+		@Override
+		public VrpPath getPath() {
+			return driveTask.getPath();
+		}
+
+		@Override
+		public LinkTimePair getDiversionPoint() {
+			return null;
+		}
+
+		@Override
+		public double predictEndTime() {
+			return driveTask.getEndTime();
+		}
+
+		@Override
+		public int getCurrentLinkIdx() {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public double getCurrentLinkEnterTime() {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public void divertPath(VrpPathWithTravelData newSubPath) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public void movedOverNode(Link nextLink) {
+			throw new UnsupportedOperationException();
+		}
+	}
+
+	/**
+	 * Measures the latency of each search. Thread-safe, as searches run concurrently in batch insertion.
+	 */
+	private static final class TimedInsertionSearch implements DrtInsertionSearch {
+		private final DrtInsertionSearch delegate;
+		private final Queue<Long> latencies = new ConcurrentLinkedQueue<>();
+
+		private TimedInsertionSearch(DrtInsertionSearch delegate) {
+			this.delegate = delegate;
+		}
+
+		@Override
+		public Optional<InsertionWithDetourData> findBestInsertion(DrtRequest drtRequest,
+				Collection<VehicleEntry> vehicleEntries) {
+			long start = System.nanoTime();
+			var insertion = delegate.findBestInsertion(drtRequest, vehicleEntries);
+			latencies.add(System.nanoTime() - start);
+			return insertion;
+		}
+
+		private long[] getLatencies() {
+			return latencies.stream().mapToLong(Long::longValue).toArray();
+		}
+	}
+}
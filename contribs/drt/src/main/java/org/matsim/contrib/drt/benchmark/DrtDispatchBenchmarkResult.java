@@ -0,0 +1,110 @@
+/*
+ * *********************************************************************** *
+ * project: org.matsim.*
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** *
+ */
+
+package org.matsim.contrib.drt.benchmark;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.matsim.api.core.v01.Id;
+import org.matsim.contrib.drt.passenger.DrtRequest;
+import org.matsim.contrib.dvrp.fleet.DvrpVehicle;
+import org.matsim.contrib.dvrp.fleet.Fleet;
+import org.matsim.contrib.dvrp.optimizer.Request;
+import org.matsim.contrib.dvrp.passenger.PassengerRequestScheduledEvent;
+import org.matsim.contrib.dvrp.path.VrpPaths;
+import org.matsim.contrib.dvrp.schedule.DriveTask;
+import org.matsim.contrib.dvrp.schedule.Task;
+
+/**
+ * Results of a {@link DrtDispatchBenchmark} run.
+ *
+ * @param searchCount         number of calls to the insertion search (requests may be searched more than once, e.g.
+ *                            in batch insertion)
+ * @param latencyP50          median latency of the insertion search [ms]
+ * @param latencyP90          90th percentile of the insertion search latency [ms]
+ * @param latencyP99          99th percentile of the insertion search latency [ms]
+ * @param latencyMax          maximum latency of the insertion search [ms]
+ * @param throughput          dispatched requests per second of dispatching (creating vehicle entries, searching and
+ *                            scheduling insertions)
+ * @param meanWaitTime        mean time from the earliest departure time until the expected end of the pickup of the
+ *                            scheduled requests [s]
+ * @param meanRideTime        mean time from the expected end of the pickup until the expected end of the dropoff of
+ *                            the scheduled requests [s]
+ * @param fleetDriveTime      total duration of all drive tasks in the resulting schedules [s]
+ * @param fleetDriveDistance  total distance of all drive tasks in the resulting schedules [m]
+ */
+public record DrtDispatchBenchmarkResult(String name, int requestCount, int scheduledRequestCount, int searchCount,
+										 double latencyP50, double latencyP90, double latencyP99, double latencyMax,
+										 double throughput, double meanWaitTime, double meanRideTime,
+										 double fleetDriveTime, double fleetDriveDistance) {
+
+	static DrtDispatchBenchmarkResult create(String name, List<DrtRequest> requests,
+			Map<Id<Request>, PassengerRequestScheduledEvent> scheduledEvents, long[] latencyNanos, long dispatchNanos,
+			Fleet fleet) {
+		long[] sortedLatencies = latencyNanos.clone();
+		Arrays.sort(sortedLatencies);
+
+		int scheduledRequestCount = 0;
+		double waitTimeSum = 0;
+		double rideTimeSum = 0;
+		for (DrtRequest request : requests) {
+			PassengerRequestScheduledEvent scheduledEvent = scheduledEvents.get(request.getId());
+			if (scheduledEvent != null) {
+				scheduledRequestCount++;
+				waitTimeSum += scheduledEvent.getPickupTime() - request.getEarliestStartTime();
+				rideTimeSum += scheduledEvent.getDropoffTime() - scheduledEvent.getPickupTime();
+			}
+		}
+
+		double driveTime = 0;
+		double driveDistance = 0;
+		for (DvrpVehicle vehicle : fleet.getVehicles().values()) {
+			for (Task task : vehicle.getSchedule().getTasks()) {
+				if (task instanceof DriveTask driveTask) {
+					driveTime += driveTask.getEndTime() - driveTask.getBeginTime();
+					driveDistance += VrpPaths.calcDistance(driveTask.getPath());
+				}
+			}
+		}
+
+		return new DrtDispatchBenchmarkResult(name, requests.size(), scheduledRequestCount, sortedLatencies.length,
+				percentileMillis(sortedLatencies, 0.5), percentileMillis(sortedLatencies, 0.9),
+				percentileMillis(sortedLatencies, 0.99), percentileMillis(sortedLatencies, 1),
+				requests.size() / (dispatchNanos / 1e9), waitTimeSum / scheduledRequestCount,
+				rideTimeSum / scheduledRequestCount, driveTime, driveDistance);
+	}
+
+	/**
+	 * Nearest-rank percentile.
+	 */
+	static double percentileMillis(long[] sortedNanos, double percentile) {
+		if (sortedNanos.length == 0) {
+			return Double.NaN;
+		}
+		int rank = (int)Math.ceil(percentile * sortedNanos.length);
+		return sortedNanos[Math.max(rank, 1) - 1] / 1e6;
+	}
+
+	public int rejectedRequestCount() {
+		return requestCount - scheduledRequestCount;
+	}
+}
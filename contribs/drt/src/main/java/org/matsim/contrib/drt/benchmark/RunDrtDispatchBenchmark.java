@@ -0,0 +1,308 @@
+/*
+ * *********************************************************************** *
+ * project: org.matsim.*
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** *
+ */
+
+package org.matsim.contrib.drt.benchmark;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.matsim.api.core.v01.Scenario;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.contrib.common.timeprofile.TimeDiscretizer;
+import org.matsim.contrib.common.zones.ZoneSystem;
+import org.matsim.contrib.common.zones.ZoneSystemUtils;
+import org.matsim.contrib.drt.optimizer.constraints.DrtOptimizationConstraintsSet;
+import org.matsim.contrib.drt.optimizer.insertion.CostCalculationStrategy;
+import org.matsim.contrib.drt.optimizer.insertion.DefaultInsertionCostCalculator;
+import org.matsim.contrib.drt.optimizer.insertion.DrtInsertionSearchParams;
+import org.matsim.contrib.drt.optimizer.insertion.InsertionCostCalculator;
+import org.matsim.contrib.drt.optimizer.insertion.extensive.ExtensiveInsertionSearchParams;
+import org.matsim.contrib.drt.optimizer.insertion.extensive.ExtensiveInsertionSearchQSimModule;
+import org.matsim.contrib.drt.optimizer.insertion.extensive.MultiInsertionDetourPathCalculator;
+import org.matsim.contrib.drt.optimizer.insertion.repeatedselective.RepeatedSelectiveInsertionSearchParams;
+import org.matsim.contrib.drt.optimizer.insertion.repeatedselective.RepeatedSelectiveInsertionSearchQSimModule;
+import org.matsim.contrib.drt.optimizer.insertion.selective.SelectiveInsertionSearchParams;
+import org.matsim.contrib.drt.optimizer.insertion.selective.SelectiveInsertionSearchQSimModule;
+import org.matsim.contrib.drt.optimizer.insertion.selective.SingleInsertionDetourPathCalculator;
+import org.matsim.contrib.drt.passenger.DrtRequest;
+import org.matsim.contrib.drt.passenger.events.DrtRequestSubmittedEvent;
+import org.matsim.contrib.drt.run.DrtConfigGroup;
+import org.matsim.contrib.drt.run.MultiModeDrtConfigGroup;
+import org.matsim.contrib.drt.stops.DefaultStopTimeCalculator;
+import org.matsim.contrib.drt.util.DrtEventsReaders;
+import org.matsim.contrib.dvrp.fleet.FleetReader;
+import org.matsim.contrib.dvrp.fleet.FleetSpecification;
+import org.matsim.contrib.dvrp.fleet.FleetSpecificationImpl;
+import org.matsim.contrib.dvrp.load.DefaultDvrpLoadFromFleet;
+import org.matsim.contrib.dvrp.load.DvrpLoadParams;
+import org.matsim.contrib.dvrp.load.DvrpLoadType;
+import org.matsim.contrib.dvrp.load.IntegerLoadType;
+import org.matsim.contrib.dvrp.load.IntegersLoadType;
+import org.matsim.contrib.dvrp.passenger.PassengerRequestSubmittedEventHandler;
+import org.matsim.contrib.dvrp.router.DvrpModeRoutingNetworkModule;
+import org.matsim.contrib.dvrp.router.TimeAsTravelDisutility;
+import org.matsim.contrib.dvrp.run.DvrpConfigGroup;
+import org.matsim.contrib.dvrp.trafficmonitoring.DvrpOfflineTravelTimes;
+import org.matsim.contrib.dvrp.trafficmonitoring.QSimFreeSpeedTravelTime;
+import org.matsim.contrib.zone.skims.AdaptiveTravelTimeMatrixImpl;
+import org.matsim.contrib.zone.skims.DvrpTravelTimeMatrixParams;
+import org.matsim.contrib.zone.skims.FreeSpeedTravelTimeMatrix;
+import org.matsim.contrib.zone.skims.TravelTimeMatrix;
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.config.Config;
+import org.matsim.core.config.ConfigGroup;
+import org.matsim.core.config.ConfigUtils;
+import org.matsim.core.events.EventsUtils;
+import org.matsim.core.network.NetworkUtils;
+import org.matsim.core.network.algorithms.NetworkCleaner;
+import org.matsim.core.network.algorithms.TransportModeNetworkFilter;
+import org.matsim.core.network.io.MatsimNetworkReader;
+import org.matsim.core.router.util.TravelDisutility;
+import org.matsim.core.router.util.TravelTime;
+import org.matsim.core.scenario.ScenarioUtils;
+import org.matsim.core.utils.io.IOUtils;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Replays the DRT requests recorded in an events file with {@link DrtDispatchBenchmark}, once for each insertion search
+ * (extensive, selective and repeated selective), and writes the results to a CSV file.
+ * <p>
+ * The network, fleet and insertion search params are taken from the config; the insertion search params of the types
+ * not configured are the defaults. The travel times are frozen: they are read from
+ * {@link DvrpConfigGroup#initialTravelTimesFile} if set, otherwise the free speed travel times are used (as in
+ * {@link org.matsim.contrib.dvrp.benchmark.DvrpBenchmarkTravelTimeModule}).
+ * <p>
+ * Usage: {@code RunDrtDispatchBenchmark <config> <events> <output csv>}
+ */
+public final class RunDrtDispatchBenchmark {
+	private static final double ADAPTIVE_MATRIX_MAX_TIME = 30 * 3600;
+	private static final double ADAPTIVE_MATRIX_SMOOTHING_ALPHA = 0.75;
+
+	public static void main(String[] args) {
+		Preconditions.checkArgument(args.length == 3, "Usage: RunDrtDispatchBenchmark <config> <events> <output csv>");
+		Config config = ConfigUtils.loadConfig(args[0], new MultiModeDrtConfigGroup(), new DvrpConfigGroup());
+		run(config, args[1], args[2]);
+	}
+
+	public static List<DrtDispatchBenchmarkResult> run(Config config, String eventsFile, String outputFile) {
+		Scenario scenario = ScenarioUtils.createScenario(config);
+		new MatsimNetworkReader(scenario.getNetwork()).parse(config.network().getInputFileURL(config.getContext()));
+		DvrpConfigGroup dvrpCfg = DvrpConfigGroup.get(config);
+		TravelTime travelTime = createTravelTime(config, dvrpCfg);
+
+		List<DrtDispatchBenchmarkResult> results = new ArrayList<>();
+		for (DrtConfigGroup drtCfg : MultiModeDrtConfigGroup.get(config).getModalElements()) {
+			results.addAll(run(config, createNetwork(config, scenario.getNetwork(), dvrpCfg, drtCfg), travelTime,
+					drtCfg, eventsFile));
+		}
+		writeResults(results, outputFile);
+		return results;
+	}
+
+	private static List<DrtDispatchBenchmarkResult> run(Config config, Network network, TravelTime travelTime,
+			DrtConfigGroup drtCfg, String eventsFile) {
+		DvrpLoadParams loadParams = drtCfg.addOrGetLoadParams();
+		DvrpLoadType loadType = loadParams.dimensions.size() == 1 ?
+				new IntegerLoadType(loadParams.dimensions.get(0)) :
+				new IntegersLoadType(loadParams.dimensions);
+		FleetSpecification fleetSpecification = new FleetSpecificationImpl();
+		new FleetReader(fleetSpecification, new DefaultDvrpLoadFromFleet(loadType, loadParams.mapFleetCapacity)).parse(
+				ConfigGroup.getInputFileURL(config.getContext(), drtCfg.vehiclesFile));
+		List<DrtRequest> requests = readRequests(eventsFile, drtCfg.getMode(), network, loadType);
+
+		DvrpTravelTimeMatrixParams matrixParams = DvrpConfigGroup.get(config).getTravelTimeMatrixParams();
+		ZoneSystem zoneSystem = ZoneSystemUtils.createZoneSystem(config.getContext(), network,
+				matrixParams.getZoneSystemParams(), config.global().getCoordinateSystem(), zone -> true);
+		TravelTimeMatrix travelTimeMatrix = FreeSpeedTravelTimeMatrix.createFreeSpeedMatrix(network, zoneSystem,
+				matrixParams, config.global().getNumberOfThreads(), config.qsim().getTimeStepSize());
+
+		DrtOptimizationConstraintsSet constraintsSet = drtCfg.addOrGetDrtOptimizationConstraintsParams()
+				.addOrGetDefaultDrtOptimizationConstraintsSet();
+		InsertionCostCalculator insertionCostCalculator = new DefaultInsertionCostCalculator(
+				constraintsSet.rejectRequestIfMaxWaitOrTravelTimeViolated ?
+						new CostCalculationStrategy.RejectSoftConstraintViolations() :
+						new CostCalculationStrategy.DiscourageSoftConstraintViolations(), constraintsSet);
+		TravelDisutility travelDisutility = new TimeAsTravelDisutility(travelTime);
+
+		DrtInsertionSearchParams configuredParams = drtCfg.getDrtInsertionSearchParams();
+		List<DrtInsertionSearchParams> insertionSearchParams = List.of(
+				configuredParams instanceof ExtensiveInsertionSearchParams ?
+						configuredParams :
+						new ExtensiveInsertionSearchParams(),
+				configuredParams instanceof SelectiveInsertionSearchParams ?
+						configuredParams :
+						new SelectiveInsertionSearchParams(),
+				configuredParams instanceof RepeatedSelectiveInsertionSearchParams ?
+						configuredParams :
+						new RepeatedSelectiveInsertionSearchParams());
+
+		List<DrtDispatchBenchmarkResult> results = new ArrayList<>();
+		ForkJoinPool forkJoinPool = new ForkJoinPool(drtCfg.numberOfThreads);
+		try {
+			var benchmark = new DrtDispatchBenchmark(drtCfg, network, fleetSpecification, loadType, travelTime,
+					forkJoinPool);
+			for (DrtInsertionSearchParams params : insertionSearchParams) {
+				setInsertionSearchParams(drtCfg, params);
+				var stopTimeCalculator = new DefaultStopTimeCalculator(drtCfg.stopDuration);
+				String name = drtCfg.getMode() + "_" + params.getName();
+				switch (params) {
+					case ExtensiveInsertionSearchParams p -> {
+						var detourPathCalculator = new MultiInsertionDetourPathCalculator(network, travelTime,
+								travelDisutility, drtCfg);
+						var insertionSearch = ExtensiveInsertionSearchQSimModule.createInsertionSearch(drtCfg,
+								insertionCostCalculator, forkJoinPool, stopTimeCalculator,
+								ExtensiveInsertionSearchQSimModule.createDetourTimeEstimator(drtCfg, travelTimeMatrix,
+										travelTime), detourPathCalculator);
+						results.add(benchmark.run(name, insertionSearch, requests));
+						detourPathCalculator.notifyMobsimBeforeCleanup(null);
+					}
+					case SelectiveInsertionSearchParams p -> {
+						var detourPathCalculator = new SingleInsertionDetourPathCalculator(network, travelTime,
+								travelDisutility, drtCfg);
+						var insertionSearch = SelectiveInsertionSearchQSimModule.createInsertionSearch(drtCfg,
+								insertionCostCalculator, forkJoinPool, stopTimeCalculator,
+								SelectiveInsertionSearchQSimModule.createDetourTimeEstimator(drtCfg, travelTimeMatrix,
+										travelTime), detourPathCalculator, null);
+						results.add(benchmark.run(name, insertionSearch, requests));
+						detourPathCalculator.notifyMobsimBeforeCleanup(null);
+					}
+					case RepeatedSelectiveInsertionSearchParams p -> {
+						// a new adaptive matrix for each run, as it learns from the scheduled requests
+						var adaptiveTravelTimeMatrix = new AdaptiveTravelTimeMatrixImpl(
+								config.qsim().getEndTime().orElse(ADAPTIVE_MATRIX_MAX_TIME), network, zoneSystem,
+								matrixParams, travelTimeMatrix, ADAPTIVE_MATRIX_SMOOTHING_ALPHA);
+						var detourPathCalculator = new SingleInsertionDetourPathCalculator(network, travelTime,
+								travelDisutility, drtCfg);
+						var insertionSearch = RepeatedSelectiveInsertionSearchQSimModule.createInsertionSearch(drtCfg,
+								insertionCostCalculator, forkJoinPool, stopTimeCalculator,
+								RepeatedSelectiveInsertionSearchQSimModule.createDetourTimeEstimator(
+										adaptiveTravelTimeMatrix, travelTime), detourPathCalculator, travelTimeMatrix,
+								adaptiveTravelTimeMatrix, null);
+						results.add(benchmark.run(name, insertionSearch, requests));
+						detourPathCalculator.notifyMobsimBeforeCleanup(null);
+					}
+					default -> throw new IllegalStateException("Unsupported insertion search params: " + params);
+				}
+			}
+		} finally {
+			setInsertionSearchParams(drtCfg, configuredParams);
+			forkJoinPool.shutdown();
+		}
+		return results;
+	}
+
+	private static void setInsertionSearchParams(DrtConfigGroup drtCfg, DrtInsertionSearchParams params) {
+		DrtInsertionSearchParams currentParams = drtCfg.getDrtInsertionSearchParams();
+		if (currentParams != params) {
+			if (currentParams != null) {
+				drtCfg.removeParameterSet(currentParams);
+			}
+			if (params != null) {
+				drtCfg.setDrtInsertionSearchParams(params);
+			}
+		}
+	}
+
+	private static Network createNetwork(Config config, Network network, DvrpConfigGroup dvrpCfg,
+			DrtConfigGroup drtCfg) {
+		if (!dvrpCfg.networkModes.isEmpty()) {
+			Network filteredNetwork = NetworkUtils.createNetwork(config.network());
+			new TransportModeNetworkFilter(network).filter(filteredNetwork, dvrpCfg.networkModes);
+			network = filteredNetwork;
+		}
+		if (drtCfg.useModeFilteredSubnetwork) {
+			DvrpModeRoutingNetworkModule.checkUseModeFilteredSubnetworkAllowed(config, drtCfg.getMode());
+			Network subnetwork = NetworkUtils.createNetwork(config.network());
+			new TransportModeNetworkFilter(network).filter(subnetwork, Collections.singleton(drtCfg.getMode()));
+			new NetworkCleaner().run(subnetwork);
+			network = subnetwork;
+		}
+		return network;
+	}
+
+	private static TravelTime createTravelTime(Config config, DvrpConfigGroup dvrpCfg) {
+		if (dvrpCfg.initialTravelTimesFile == null) {
+			return new QSimFreeSpeedTravelTime(config.qsim());
+		}
+		var timeDiscretizer = new TimeDiscretizer(config.travelTimeCalculator());
+		var linkTravelTimes = DvrpOfflineTravelTimes.loadLinkTravelTimes(timeDiscretizer,
+				ConfigGroup.getInputFileURL(config.getContext(), dvrpCfg.initialTravelTimesFile),
+				config.global().getDefaultDelimiter());
+		return DvrpOfflineTravelTimes.asTravelTime(timeDiscretizer, linkTravelTimes);
+	}
+
+	/**
+	 * Reads the requests of the given mode from the {@link DrtRequestSubmittedEvent}s, which contain the time
+	 * constraints of each request. The requests are sorted by submission time, as in the events file.
+	 */
+	static List<DrtRequest> readRequests(String eventsFile, String mode, Network network, DvrpLoadType loadType) {
+		List<DrtRequest> requests = new ArrayList<>();
+		EventsManager eventsManager = EventsUtils.createEventsManager();
+		eventsManager.addHandler((PassengerRequestSubmittedEventHandler)event -> {
+			if (event instanceof DrtRequestSubmittedEvent e && e.getMode().equals(mode)) {
+				requests.add(DrtRequest.newBuilder()
+						.id(e.getRequestId())
+						.passengerIds(e.getPersonIds())
+						.mode(mode)
+						.fromLink(network.getLinks().get(e.getFromLinkId()))
+						.toLink(network.getLinks().get(e.getToLinkId()))
+						.submissionTime(e.getTime())
+						.earliestStartTime(Double.isNaN(e.getEarliestDepartureTime()) ?
+								e.getTime() :
+								e.getEarliestDepartureTime())
+						.latestStartTime(e.getLatestPickupTime())
+						.latestArrivalTime(e.getLatestDropoffTime())
+						.maxRideDuration(Double.isNaN(e.getMaxRideDuration()) ?
+								Double.POSITIVE_INFINITY :
+								e.getMaxRideDuration())
+						.load(loadType.deserialize(e.getSerializedLoad()))
+						.build());
+			}
+		});
+		eventsManager.initProcessing();
+		DrtEventsReaders.createEventsReader(eventsManager).readFile(eventsFile);
+		eventsManager.finishProcessing();
+		return requests;
+	}
+
+	private static void writeResults(List<DrtDispatchBenchmarkResult> results, String outputFile) {
+		try (BufferedWriter writer = IOUtils.getBufferedWriter(outputFile)) {
+			writer.write(String.join(";", "name", "requests", "scheduled", "rejected", "searches", "latencyP50",
+					"latencyP90", "latencyP99", "latencyMax", "throughput", "meanWaitTime", "meanRideTime",
+					"fleetDriveTime", "fleetDriveDistance"));
+			writer.newLine();
+			for (DrtDispatchBenchmarkResult r : results) {
+				writer.write(String.join(";", r.name(), r.requestCount() + "", r.scheduledRequestCount() + "",
+						r.rejectedRequestCount() + "", r.searchCount() + "", r.latencyP50() + "", r.latencyP90() + "",
+						r.latencyP99() + "", r.latencyMax() + "", r.throughput() + "", r.meanWaitTime() + "",
+						r.meanRideTime() + "", r.fleetDriveTime() + "", r.fleetDriveDistance() + ""));
+				writer.newLine();
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+}
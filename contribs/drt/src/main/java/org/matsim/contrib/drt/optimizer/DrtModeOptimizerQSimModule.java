@@ -126,7 +126,7 @@ public class DrtModeOptimizerQSimModule extends AbstractDvrpModeQSimModule {
 
 		bindModal(VehicleDataEntryFactoryImpl.class).toProvider(modalProvider(getter -> {
 			DvrpLoadType loadType = getter.getModal(DvrpLoadType.class);
-			return new VehicleDataEntryFactoryImpl(loadType);
+			return new VehicleDataEntryFactoryImpl(loadType, drtCfg.incrementalVehicleEntries);
 		}));
 
 		bindModal(VehicleEntry.EntryFactory.class).to(modalKey(VehicleDataEntryFactoryImpl.class)).in(Singleton.class);
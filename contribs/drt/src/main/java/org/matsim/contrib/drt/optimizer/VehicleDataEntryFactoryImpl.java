@@ -23,7 +23,14 @@ import static org.matsim.contrib.drt.schedule.DrtTaskBaseType.STOP;
 import static org.matsim.contrib.drt.schedule.DrtTaskBaseType.getBaseTypeOrElseThrow;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.Nullable;
+
+import org.matsim.api.core.v01.Id;
 
 import org.matsim.contrib.drt.schedule.DrtStopTask;
 import org.matsim.contrib.drt.schedule.DrtCapacityChangeTask;
@@ -38,13 +45,29 @@ import org.matsim.contrib.dvrp.util.LinkTimePair;
 import com.google.common.collect.ImmutableList;
 
 /**
+ * Creates {@link VehicleEntry}s from the vehicle schedules.
+ * <p>
+ * In the incremental mode, the stops of each vehicle (the most expensive part of an entry) are cached together with the
+ * {@link Schedule#getModificationCount()} of the vehicle's schedule. As long as the schedule is not modified and the
+ * current task does not change, only the parts depending on the current time (start, first preceding stay time, slack
+ * times) are recomputed. This relies on all schedule modifications being reported to the schedule, see
+ * {@link AbstractTask#notifyModified()}, and is therefore disabled by default. The incremental mode is thread-safe for
+ * concurrent calls for different vehicles.
+ *
  * @author michalm
  */
 public class VehicleDataEntryFactoryImpl implements VehicleEntry.EntryFactory {
 	private final DvrpLoadType loadType;
+	@Nullable
+	private final Map<Id<DvrpVehicle>, CachedStops> cachedStops;
 
 	public VehicleDataEntryFactoryImpl(DvrpLoadType loadType) {
+		this(loadType, false);
+	}
+
+	public VehicleDataEntryFactoryImpl(DvrpLoadType loadType, boolean incremental) {
 		this.loadType = loadType;
+		this.cachedStops = incremental ? new ConcurrentHashMap<>() : null;
 	}
 
 	public VehicleEntry create(DvrpVehicle vehicle, double currentTime) {
@@ -74,7 +97,6 @@ public class VehicleDataEntryFactoryImpl implements VehicleEntry.EntryFactory {
 		}
 
 		List<? extends Task> tasks = schedule.getTasks();
-		List<DrtStopTask> stopTasks = new ArrayList<>();
 
 		// find stop tasks and note down stay time before each task
 		double accumulatedStayTime = 0.0;
@@ -82,9 +104,45 @@ public class VehicleDataEntryFactoryImpl implements VehicleEntry.EntryFactory {
 			accumulatedStayTime = Math.max(0.0, startTask.getEndTime() - currentTime);
 		}
 
+		CachedStops stops = cachedStops == null ? null : cachedStops.get(vehicle.getId());
+		if (stops == null || stops.modificationCount != schedule.getModificationCount()) {
+			stops = createStops(tasks.subList(nextTaskIdx, tasks.size()), schedule.getModificationCount());
+			if (cachedStops != null) {
+				cachedStops.put(vehicle.getId(), stops);
+			}
+		}
+
+		List<Double> precedingStayTimes = stops.precedingStayTimes;
+		if (accumulatedStayTime > 0 && !precedingStayTimes.isEmpty()) {
+			// only the stay time before the first stop depends on the current time
+			for (Task task : tasks.subList(nextTaskIdx, tasks.size())) {
+				if (STAY.isBaseTypeOf(task)) {
+					accumulatedStayTime += task.getEndTime() - task.getBeginTime();
+				} else if (STOP.isBaseTypeOf(task)) {
+					break;
+				}
+			}
+			precedingStayTimes = new ArrayList<>(precedingStayTimes);
+			precedingStayTimes.set(0, accumulatedStayTime);
+		}
+
+		Waypoint.Stop startStop = startTask != null && STOP.isBaseTypeOf(startTask)
+				? startTask instanceof DrtCapacityChangeTask capacityChangeTask ? new Waypoint.Stop(capacityChangeTask, loadType) : new Waypoint.Stop((DrtStopTask) startTask, loadType.getEmptyLoad(), loadType)
+				: null;
+
+		var slackTimes = computeSlackTimes(vehicle, currentTime, stops.stopArray, startStop, precedingStayTimes);
+
+		return new VehicleEntry(vehicle, new Waypoint.Start(startTask, start.link, start.time, stops.startOccupancy),
+				stops.stops, slackTimes, precedingStayTimes, currentTime);
+	}
+
+	private CachedStops createStops(List<? extends Task> plannedTasks, int modificationCount) {
+		List<DrtStopTask> stopTasks = new ArrayList<>();
 		List<Double> precedingStayTimes = new ArrayList<>();
 
-		for (Task task : tasks.subList(nextTaskIdx, tasks.size())) {
+		// stay times of the start task are added by the caller
+		double accumulatedStayTime = 0.0;
+		for (Task task : plannedTasks) {
 			if (STAY.isBaseTypeOf(task)) {
 				accumulatedStayTime += task.getEndTime() - task.getBeginTime();
 			} else if (STOP.isBaseTypeOf(task)) {
@@ -108,14 +166,11 @@ public class VehicleDataEntryFactoryImpl implements VehicleEntry.EntryFactory {
 			}
 		}
 
-		Waypoint.Stop startStop = startTask != null && STOP.isBaseTypeOf(startTask)
-				? startTask instanceof DrtCapacityChangeTask capacityChangeTask ? new Waypoint.Stop(capacityChangeTask, loadType) : new Waypoint.Stop((DrtStopTask) startTask, loadType.getEmptyLoad(), loadType)
-				: null;
-
-		var slackTimes = computeSlackTimes(vehicle, currentTime, stops, startStop, precedingStayTimes);
+		return new CachedStops(modificationCount, stops, ImmutableList.copyOf(stops), Collections.unmodifiableList(precedingStayTimes), outgoingOccupancy);
+	}
 
-		return new VehicleEntry(vehicle, new Waypoint.Start(startTask, start.link, start.time, outgoingOccupancy),
-				ImmutableList.copyOf(stops), slackTimes, precedingStayTimes, currentTime);
+	private record CachedStops(int modificationCount, Waypoint.Stop[] stopArray, ImmutableList<Waypoint.Stop> stops,
+							   List<Double> precedingStayTimes, DvrpLoad startOccupancy) {
 	}
 
 	static double[] computeSlackTimes(DvrpVehicle vehicle, double now, Waypoint.Stop[] stops, Waypoint.Stop start, List<Double> precedingStayTimes) {
@@ -19,15 +19,19 @@
 
 package org.matsim.contrib.drt.optimizer.insertion;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ForkJoinPool;
 import java.util.function.DoubleSupplier;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -49,6 +53,16 @@ import org.matsim.core.mobsim.framework.MobsimTimer;
 import com.google.common.annotations.VisibleForTesting;
 
 /**
+ * Inserts the unplanned requests one after another, in the order of submission (requests to retry first).
+ * <p>
+ * In batch mode ({@link DrtConfigGroup#batchRequestInsertion}), the best insertions of all requests of a time step are
+ * searched in parallel on the same vehicle entries, and then scheduled in the same order as in the sequential mode.
+ * If the vehicle of a request was already given another request of the batch, its best insertion is searched again
+ * in the next round, with the updated vehicle entries. Requests whose best insertion is still valid are scheduled
+ * without re-evaluation, even though a vehicle which got another request might now offer a better insertion, so the
+ * results may slightly differ from the sequential mode. The batch mode requires a thread-safe {@link DrtInsertionSearch};
+ * the {@link RequestFleetFilter} is called sequentially.
+ *
  * @author michalm
  */
 public class DefaultUnplannedRequestInserter implements UnplannedRequestInserter {
@@ -68,6 +82,7 @@ public class DefaultUnplannedRequestInserter implements UnplannedRequestInserter
 	private final ForkJoinPool forkJoinPool;
 	private final PassengerStopDurationProvider stopDurationProvider;
 	private final RequestFleetFilter requestFleetFilter;
+	private final boolean batchInsertion;
 
 	public DefaultUnplannedRequestInserter(DrtConfigGroup drtCfg, Fleet fleet, MobsimTimer mobsimTimer,
                                            EventsManager eventsManager, RequestInsertionScheduler insertionScheduler,
@@ -75,14 +90,16 @@ public class DefaultUnplannedRequestInserter implements UnplannedRequestInserter
                                            DrtRequestInsertionRetryQueue insertionRetryQueue, DrtOfferAcceptor drtOfferAcceptor,
                                            ForkJoinPool forkJoinPool, PassengerStopDurationProvider stopDurationProvider, RequestFleetFilter requestFleetFilter) {
 		this(drtCfg.getMode(), fleet, mobsimTimer::getTimeOfDay, eventsManager, insertionScheduler, vehicleEntryFactory,
-				insertionRetryQueue, insertionSearch, drtOfferAcceptor, forkJoinPool, stopDurationProvider, requestFleetFilter);
+				insertionRetryQueue, insertionSearch, drtOfferAcceptor, forkJoinPool, stopDurationProvider, requestFleetFilter,
+				drtCfg.batchRequestInsertion);
 	}
 
 	@VisibleForTesting
 	DefaultUnplannedRequestInserter(String mode, Fleet fleet, DoubleSupplier timeOfDay, EventsManager eventsManager,
                                     RequestInsertionScheduler insertionScheduler, VehicleEntry.EntryFactory vehicleEntryFactory,
                                     DrtRequestInsertionRetryQueue insertionRetryQueue, DrtInsertionSearch insertionSearch,
-                                    DrtOfferAcceptor drtOfferAcceptor, ForkJoinPool forkJoinPool, PassengerStopDurationProvider stopDurationProvider, RequestFleetFilter requestFleetFilter) {
+                                    DrtOfferAcceptor drtOfferAcceptor, ForkJoinPool forkJoinPool, PassengerStopDurationProvider stopDurationProvider, RequestFleetFilter requestFleetFilter,
+                                    boolean batchInsertion) {
 		this.mode = mode;
 		this.fleet = fleet;
 		this.timeOfDay = timeOfDay;
@@ -95,6 +112,7 @@ public class DefaultUnplannedRequestInserter implements UnplannedRequestInserter
 		this.forkJoinPool = forkJoinPool;
 		this.stopDurationProvider = stopDurationProvider;
         this.requestFleetFilter = requestFleetFilter;
+		this.batchInsertion = batchInsertion;
     }
 
 	@Override
@@ -113,6 +131,14 @@ public class DefaultUnplannedRequestInserter implements UnplannedRequestInserter
 				.filter(Objects::nonNull)
 				.collect(Collectors.toMap(e -> e.vehicle.getId(), e -> e))).join();
 
+		if (batchInsertion) {
+			List<DrtRequest> requests = new ArrayList<>(requestsToRetry);
+			requests.addAll(unplannedRequests);
+			scheduleUnplannedRequestsInBatch(requests, vehicleEntries, now);
+			unplannedRequests.clear();
+			return;
+		}
+
 		//first retry scheduling old requests
 		requestsToRetry.forEach(req -> scheduleUnplannedRequest(req, vehicleEntries, now));
 
@@ -123,13 +149,62 @@ public class DefaultUnplannedRequestInserter implements UnplannedRequestInserter
 		}
 	}
 
+	private void scheduleUnplannedRequestsInBatch(List<DrtRequest> requests,
+			Map<Id<DvrpVehicle>, VehicleEntry> vehicleEntries, double now) {
+		List<DrtRequest> pendingRequests = requests;
+		while (!pendingRequests.isEmpty()) {
+			// the fleet filter is not required to be thread-safe
+			List<Collection<VehicleEntry>> filteredFleets = new ArrayList<>(pendingRequests.size());
+			for (DrtRequest req : pendingRequests) {
+				filteredFleets.add(Collections.unmodifiableCollection(requestFleetFilter.filter(req, vehicleEntries, now)));
+			}
+
+			// vehicle entries are not modified while searching
+			List<DrtRequest> requestsToSearch = pendingRequests;
+			List<Optional<InsertionWithDetourData>> bestInsertions = forkJoinPool.submit(
+					() -> IntStream.range(0, requestsToSearch.size())
+							.parallel()
+							.mapToObj(i -> insertionSearch.findBestInsertion(requestsToSearch.get(i), filteredFleets.get(i)))
+							.toList()).join();
+
+			Set<Id<DvrpVehicle>> modifiedVehicles = new HashSet<>();
+			List<DrtRequest> requestsToReevaluate = new ArrayList<>();
+			for (int i = 0; i < requestsToSearch.size(); i++) {
+				DrtRequest req = requestsToSearch.get(i);
+				Optional<InsertionWithDetourData> best = bestInsertions.get(i);
+				if (best.isPresent() ?
+						modifiedVehicles.contains(best.get().insertion.vehicleEntry.vehicle.getId()) :
+						!modifiedVehicles.isEmpty()) {
+					// computed on an outdated vehicle entry, or no insertion was found before other requests were
+					// inserted, which may now allow pooling with them
+					requestsToReevaluate.add(req);
+				} else {
+					DvrpVehicle vehicle = scheduleBestInsertion(req, best, vehicleEntries, now);
+					if (vehicle != null) {
+						modifiedVehicles.add(vehicle.getId());
+					}
+				}
+			}
+			pendingRequests = requestsToReevaluate;
+		}
+	}
+
 	private void scheduleUnplannedRequest(DrtRequest req, Map<Id<DvrpVehicle>, VehicleEntry> vehicleEntries,
 			double now) {
 		Collection<VehicleEntry> filteredFleet = requestFleetFilter.filter(req, vehicleEntries, now);
 		Optional<InsertionWithDetourData> best = insertionSearch.findBestInsertion(req,
 				Collections.unmodifiableCollection(filteredFleet));
+		scheduleBestInsertion(req, best, vehicleEntries, now);
+	}
+
+	/**
+	 * @return the vehicle the request was scheduled for, or <code>null</code> if the request was not scheduled
+	 */
+	private DvrpVehicle scheduleBestInsertion(DrtRequest req, Optional<InsertionWithDetourData> best,
+			Map<Id<DvrpVehicle>, VehicleEntry> vehicleEntries, double now) {
 		if (best.isEmpty()) {
 			retryOrReject(req, now, NO_INSERTION_FOUND_CAUSE);
+			return null;
 		} else {
 			InsertionWithDetourData insertion = best.get();
 
@@ -148,6 +223,7 @@ public class DefaultUnplannedRequestInserter implements UnplannedRequestInserter
 				} else {
 					vehicleEntries.remove(vehicle.getId());
 				}
+				requestFleetFilter.vehicleEntryUpdated(vehicle.getId(), newVehicleEntry);
 
 				double expectedPickupTime = pickupDropoffTaskPair.pickupTask.getBeginTime();
 				expectedPickupTime = Math.max(expectedPickupTime, acceptedRequest.get().getEarliestStartTime());
@@ -159,8 +235,10 @@ public class DefaultUnplannedRequestInserter implements UnplannedRequestInserter
 				eventsManager.processEvent(
 						new PassengerRequestScheduledEvent(now, mode, req.getId(), req.getPassengerIds(), vehicle.getId(),
 								expectedPickupTime, expectedDropoffTime));
+				return vehicle;
 			} else {
 				retryOrReject(req, now, OFFER_REJECTED_CAUSE);
+				return null;
 			}
 		}
 	}
@@ -25,6 +25,9 @@ import org.matsim.contrib.drt.optimizer.VehicleEntry;
 import org.matsim.contrib.drt.passenger.DrtRequest;
 
 /**
+ * Implementations must be thread-safe to be used with {@link DefaultUnplannedRequestInserter} in batch mode, where the
+ * insertions of several requests are searched concurrently.
+ *
  * @author michalm
  */
 public interface DrtInsertionSearch {
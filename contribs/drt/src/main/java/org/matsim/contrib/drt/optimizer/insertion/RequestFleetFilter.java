@@ -17,6 +17,13 @@ public interface RequestFleetFilter {
         return vehicleEntries.values();
     }
 
+    /**
+     * Called when the entry of a vehicle is replaced after an insertion, before other requests of the same time step
+     * are filtered. The new entry is <code>null</code> if the vehicle has no entry anymore.
+     */
+    default void vehicleEntryUpdated(Id<DvrpVehicle> vehicleId, VehicleEntry entry) {
+    }
+
     RequestFleetFilter none = new RequestFleetFilter() {};
 
 }
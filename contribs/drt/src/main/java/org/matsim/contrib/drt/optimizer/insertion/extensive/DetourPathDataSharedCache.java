@@ -0,0 +1,160 @@
+/*
+ * *********************************************************************** *
+ * project: org.matsim.*
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** *
+ */
+
+package org.matsim.contrib.drt.optimizer.insertion.extensive;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.contrib.dvrp.path.OneToManyPathSearch;
+import org.matsim.contrib.dvrp.path.OneToManyPathSearch.PathData;
+
+import com.google.common.collect.Maps;
+
+/**
+ * Caches the path data calculated by {@link OneToManyPathSearch} for the detours of all requests, so that requests
+ * starting or ending at the same links do not need to search the same paths again.
+ * <p>
+ * The key consists of the link the search starts from, the target link, the search direction and the time bin of the
+ * start time of the search. A cached path is thus re-used for all start times within the same time bin, i.e. its
+ * travel time is an approximation for the other start times. The least recently used paths are evicted first. Cached
+ * paths are created eagerly, as lazily created paths depend on the state of the path search.
+ * <p>
+ * The DVRP travel times change over the simulated time (online estimation) and between iterations (offline
+ * estimation). The cache is cleared whenever the current time enters a new time bin. It is created for each QSim, so
+ * it is never used with the travel times of a previous iteration.
+ * <p>
+ * The cache is shared by all path searches of a {@link MultiInsertionDetourPathCalculator}, and is thus thread-safe.
+ */
+final class DetourPathDataSharedCache {
+	private static final Logger log = LogManager.getLogger(DetourPathDataSharedCache.class);
+
+	private final String mode;
+	private final double timeBinSize;
+	private final Map<Key, PathData> pathData;
+	private int currentTimeBin = Integer.MIN_VALUE;
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+	private long nextLogCount = 10_000;
+
+	private record Key(int fromLinkIndex, int toLinkIndex, boolean forward, int timeBin) {
+	}
+
+	DetourPathDataSharedCache(String mode, int maxSize, double timeBinSize) {
+		this.mode = mode;
+		this.timeBinSize = timeBinSize;
+		this.pathData = new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key, PathData> eldest) {
+				return size() > maxSize;
+			}
+		};
+	}
+
+	/**
+	 * Returns the path data from the cache, and calculates the missing path data with the given path search.
+	 *
+	 * @param now the current time, used to clear outdated path data
+	 */
+	Map<Link, PathData> calcPathDataMap(OneToManyPathSearch pathSearch, Link fromLink, Collection<Link> toLinks,
+			double startTime, boolean forward, double now) {
+		int timeBin = getTimeBin(startTime);
+		Map<Link, PathData> pathDataMap = Maps.newHashMapWithExpectedSize(toLinks.size());
+		List<Link> missingLinks = new ArrayList<>();
+		synchronized (this) {
+			int nowTimeBin = getTimeBin(now);
+			if (nowTimeBin > currentTimeBin) {
+				pathData.clear();
+				currentTimeBin = nowTimeBin;
+			}
+			for (Link toLink : toLinks) {
+				PathData cached = pathData.get(new Key(fromLink.getId().index(), toLink.getId().index(), forward, timeBin));
+				if (cached == null) {
+					missingLinks.add(toLink);
+				} else {
+					pathDataMap.put(toLink, cached);
+				}
+			}
+		}
+		long lookups = hits.addAndGet(pathDataMap.size()) + misses.addAndGet(missingLinks.size());
+		logStatistics(lookups);
+		if (missingLinks.isEmpty()) {
+			return pathDataMap;
+		}
+
+		Map<Link, PathData> calculated = pathSearch.calcPathDataMap(fromLink, missingLinks, startTime, forward);
+		// create the paths before the path search is used again
+		calculated.values().forEach(PathData::getPath);
+		pathDataMap.putAll(calculated);
+		synchronized (this) {
+			// not cached if the cache was cleared in the meantime
+			if (getTimeBin(now) == currentTimeBin) {
+				calculated.forEach((toLink, data) -> pathData.put(
+						new Key(fromLink.getId().index(), toLink.getId().index(), forward, timeBin), data));
+			}
+		}
+		return pathDataMap;
+	}
+
+	synchronized int size() {
+		return pathData.size();
+	}
+
+	long getHits() {
+		return hits.get();
+	}
+
+	long getMisses() {
+		return misses.get();
+	}
+
+	void logFinalStatistics() {
+		log.info(mode + " detour path cache: " + hits.get() + " hits, " + misses.get() + " misses, hit rate: "
+				+ getHitRate());
+	}
+
+	private String getHitRate() {
+		long lookups = hits.get() + misses.get();
+		return lookups == 0 ? "-" : String.format("%.1f%%", 100. * hits.get() / lookups);
+	}
+
+	private int getTimeBin(double time) {
+		return (int)(time / timeBinSize);
+	}
+
+	private void logStatistics(long lookups) {
+		if (lookups >= nextLogCount) {
+			synchronized (this) {
+				if (lookups >= nextLogCount) {
+					nextLogCount *= 4;
+					log.info(mode + " detour path cache: " + hits.get() + " hits, " + misses.get() + " misses, hit rate: "
+							+ getHitRate() + ", " + pathData.size() + " paths cached.");
+				}
+			}
+		}
+	}
+}
@@ -25,9 +25,11 @@ import java.util.Optional;
 
 import org.matsim.contrib.drt.optimizer.VehicleEntry;
 import org.matsim.contrib.drt.optimizer.insertion.*;
+import org.matsim.contrib.drt.optimizer.insertion.InsertionWithDetourData.InsertionDetourData;
 import org.matsim.contrib.drt.passenger.DrtRequest;
 import org.matsim.contrib.drt.stops.PassengerStopDurationProvider;
 import org.matsim.contrib.drt.stops.StopTimeCalculator;
+import org.matsim.contrib.dvrp.path.OneToManyPathSearch.PathData;
 
 /**
  * @author michalm
@@ -55,11 +57,24 @@ final class ExtensiveInsertionSearch implements DrtInsertionSearch {
 			return Optional.empty();
 		}
 
-		DetourPathDataCache pathData = detourPathCalculator.calculatePaths(drtRequest, insertions);
-		return bestInsertionFinder.findBestInsertion(drtRequest, insertions.stream().map(i -> {
-			var insertionDetourData = pathData.createInsertionDetourData(i);
-			return new InsertionWithDetourData(i, insertionDetourData,
-					detourTimeCalculator.calculateDetourTimeInfo(i, insertionDetourData, drtRequest));
-		}));
+		return detourPathCalculator.calculatePaths(drtRequest, insertions, pathData -> {
+			var bestInsertion = bestInsertionFinder.findBestInsertion(drtRequest, insertions.stream().map(i -> {
+				var insertionDetourData = pathData.createInsertionDetourData(i);
+				return new InsertionWithDetourData(i, insertionDetourData,
+						detourTimeCalculator.calculateDetourTimeInfo(i, insertionDetourData, drtRequest));
+			}));
+			// paths are created lazily from the path searches, which may be re-used for other requests afterwards
+			bestInsertion.ifPresent(insertion -> createPaths(insertion.detourData));
+			return bestInsertion;
+		});
+	}
+
+	private static void createPaths(InsertionDetourData detourData) {
+		for (PathData pathData : new PathData[] { detourData.detourToPickup, detourData.detourFromPickup,
+				detourData.detourToDropoff, detourData.detourFromDropoff }) {
+			if (pathData != null) {
+				pathData.getPath();
+			}
+		}
 	}
 }
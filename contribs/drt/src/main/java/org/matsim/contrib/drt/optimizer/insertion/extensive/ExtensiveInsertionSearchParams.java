@@ -23,6 +23,7 @@ package org.matsim.contrib.drt.optimizer.insertion.extensive;
 import org.matsim.contrib.drt.optimizer.insertion.DrtInsertionSearchParams;
 
 import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Positive;
 import jakarta.validation.constraints.PositiveOrZero;
 
 /**
@@ -39,6 +40,18 @@ public class ExtensiveInsertionSearchParams extends DrtInsertionSearchParams {
 	@DecimalMin("1.0")
 	public double admissibleBeelineSpeedFactor = 1.0;
 
+	@Parameter
+	@Comment("Maximum number of detour paths kept in a cache shared by all requests. Paths are re-used for searches"
+			+ " starting at the same link within the same time bin. 0 (default) disables the cache.")
+	@PositiveOrZero
+	public int pathCacheSize = 0;
+
+	@Parameter
+	@Comment("Size of the time bins of the shared detour path cache [s]. The cache is cleared whenever the simulation"
+			+ " enters a new time bin, as the DVRP travel times may have changed.")
+	@Positive
+	public double pathCacheTimeBinSize = 900;
+
 	public ExtensiveInsertionSearchParams() {
 		super(SET_NAME);
 	}
@@ -20,6 +20,8 @@
 
 package org.matsim.contrib.drt.optimizer.insertion.extensive;
 
+import java.util.concurrent.ForkJoinPool;
+
 import org.matsim.api.core.v01.network.Network;
 import org.matsim.contrib.drt.optimizer.QSimScopeForkJoinPoolHolder;
 import org.matsim.contrib.drt.optimizer.insertion.DetourTimeEstimator;
@@ -48,22 +50,15 @@ public class ExtensiveInsertionSearchQSimModule extends AbstractDvrpModeQSimModu
 
 	@Override
 	protected void configureQSim() {
-		bindModal(DetourTimeEstimator.class).toProvider(modalProvider(getter -> {
-			var insertionParams = (ExtensiveInsertionSearchParams) drtCfg.getDrtInsertionSearchParams();
-			var admissibleTimeEstimator = DetourTimeEstimator.createMatrixBasedEstimator(
-					insertionParams.admissibleBeelineSpeedFactor, getter.getModal(TravelTimeMatrix.class),
-					getter.getModal(TravelTime.class));
-			return admissibleTimeEstimator;
-		}));
-		
-		bindModal(DrtInsertionSearch.class).toProvider(modalProvider(getter -> {
-			var insertionCostCalculator = getter.getModal(InsertionCostCalculator.class);
-			var provider = ExtensiveInsertionProvider.create(drtCfg, insertionCostCalculator,
-					getter.getModal(QSimScopeForkJoinPoolHolder.class).getPool(),
-					getter.getModal(StopTimeCalculator.class), getter.getModal(DetourTimeEstimator.class));
-			return new ExtensiveInsertionSearch(provider, getter.getModal(MultiInsertionDetourPathCalculator.class),
-					insertionCostCalculator, getter.getModal(StopTimeCalculator.class));
-		})).asEagerSingleton();
+		bindModal(DetourTimeEstimator.class).toProvider(modalProvider(
+				getter -> createDetourTimeEstimator(drtCfg, getter.getModal(TravelTimeMatrix.class),
+						getter.getModal(TravelTime.class))));
+
+		bindModal(DrtInsertionSearch.class).toProvider(modalProvider(
+				getter -> createInsertionSearch(drtCfg, getter.getModal(InsertionCostCalculator.class),
+						getter.getModal(QSimScopeForkJoinPoolHolder.class).getPool(),
+						getter.getModal(StopTimeCalculator.class), getter.getModal(DetourTimeEstimator.class),
+						getter.getModal(MultiInsertionDetourPathCalculator.class)))).asEagerSingleton();
 
 		addModalComponent(MultiInsertionDetourPathCalculator.class,
 				new ModalProviders.AbstractProvider<>(getMode(), DvrpModes::mode) {
@@ -77,4 +72,25 @@ public class ExtensiveInsertionSearchQSimModule extends AbstractDvrpModeQSimModu
 					}
 				});
 	}
+
+	public static DetourTimeEstimator createDetourTimeEstimator(DrtConfigGroup drtCfg,
+			TravelTimeMatrix travelTimeMatrix, TravelTime travelTime) {
+		var insertionParams = (ExtensiveInsertionSearchParams)drtCfg.getDrtInsertionSearchParams();
+		return DetourTimeEstimator.createMatrixBasedEstimator(insertionParams.admissibleBeelineSpeedFactor,
+				travelTimeMatrix, travelTime);
+	}
+
+	/**
+	 * Can be used outside a QSim, e.g. for benchmarking. The caller is then responsible for notifying the detour path
+	 * calculator on mobsim cleanup.
+	 */
+	public static DrtInsertionSearch createInsertionSearch(DrtConfigGroup drtCfg,
+			InsertionCostCalculator insertionCostCalculator, ForkJoinPool forkJoinPool,
+			StopTimeCalculator stopTimeCalculator, DetourTimeEstimator admissibleTimeEstimator,
+			MultiInsertionDetourPathCalculator detourPathCalculator) {
+		var provider = ExtensiveInsertionProvider.create(drtCfg, insertionCostCalculator, forkJoinPool,
+				stopTimeCalculator, admissibleTimeEstimator);
+		return new ExtensiveInsertionSearch(provider, detourPathCalculator, insertionCostCalculator,
+				stopTimeCalculator);
+	}
 }
@@ -25,12 +25,18 @@ import static org.matsim.contrib.drt.optimizer.insertion.InsertionGenerator.Inse
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinWorkerThread;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Stream;
 
+import javax.annotation.Nullable;
+
 import org.matsim.api.core.v01.IdMap;
 import org.matsim.api.core.v01.network.Link;
 import org.matsim.api.core.v01.network.Network;
@@ -50,48 +56,100 @@ import org.matsim.core.router.util.TravelTime;
 import com.google.common.annotations.VisibleForTesting;
 
 /**
+ * Thread-safe: concurrent calls (e.g. in batch insertion) use separate sets of path searches, which are created on
+ * demand and then re-used. As paths may be created lazily from the state of the path searches, they must be
+ * retrieved before the path searches are released, see {@link #calculatePaths(DrtRequest, List, Function)}.
+ * <p>
+ * The four path searches of a request run in parallel on a small executor. Calls from a fork-join pool (i.e. batch
+ * insertion, which already processes the requests in parallel) run them one after another on the calling thread
+ * instead, so that the fork-join workers do not block waiting for the executor.
+ *
  * @author michalm
  */
-class MultiInsertionDetourPathCalculator implements MobsimBeforeCleanupListener {
+public class MultiInsertionDetourPathCalculator implements MobsimBeforeCleanupListener {
 	public static final int MAX_THREADS = 4;
 
-	private final OneToManyPathSearch toPickupPathSearch;
-	private final OneToManyPathSearch fromPickupPathSearch;
-	private final OneToManyPathSearch toDropoffPathSearch;
-	private final OneToManyPathSearch fromDropoffPathSearch;
+	private final Supplier<PathSearches> pathSearchesFactory;
+	private final Queue<PathSearches> idlePathSearches = new ConcurrentLinkedQueue<>();
 
 	private final ExecutorService executorService;
 
-	MultiInsertionDetourPathCalculator(Network network, TravelTime travelTime, TravelDisutility travelDisutility,
+	@Nullable
+	private final DetourPathDataSharedCache pathDataCache;
+
+	public MultiInsertionDetourPathCalculator(Network network, TravelTime travelTime, TravelDisutility travelDisutility,
 			DrtConfigGroup drtCfg) {
 		SpeedyGraph graph = SpeedyGraphBuilder.build(network);
 		IdMap<Node, Node> nodeMap = new IdMap<>(Node.class);
 		nodeMap.putAll(network.getNodes());
 
-		toPickupPathSearch = OneToManyPathSearch.createSearch(graph, nodeMap, travelTime, travelDisutility, true);
-		fromPickupPathSearch = OneToManyPathSearch.createSearch(graph, nodeMap, travelTime, travelDisutility, true);
-		toDropoffPathSearch = OneToManyPathSearch.createSearch(graph, nodeMap, travelTime, travelDisutility, true);
-		fromDropoffPathSearch = OneToManyPathSearch.createSearch(graph, nodeMap, travelTime, travelDisutility, true);
+		pathSearchesFactory = () -> new PathSearches(
+				OneToManyPathSearch.createSearch(graph, nodeMap, travelTime, travelDisutility, true),
+				OneToManyPathSearch.createSearch(graph, nodeMap, travelTime, travelDisutility, true),
+				OneToManyPathSearch.createSearch(graph, nodeMap, travelTime, travelDisutility, true),
+				OneToManyPathSearch.createSearch(graph, nodeMap, travelTime, travelDisutility, true));
+		idlePathSearches.add(pathSearchesFactory.get());
 		executorService = Executors.newFixedThreadPool(Math.min(drtCfg.numberOfThreads, MAX_THREADS));
+
+		pathDataCache = drtCfg.getDrtInsertionSearchParams() instanceof ExtensiveInsertionSearchParams params
+				&& params.pathCacheSize > 0 ?
+				new DetourPathDataSharedCache(drtCfg.getMode(), params.pathCacheSize, params.pathCacheTimeBinSize) :
+				null;
 	}
 
 	@VisibleForTesting
 	MultiInsertionDetourPathCalculator(OneToManyPathSearch toPickupPathSearch, OneToManyPathSearch fromPickupPathSearch,
 			OneToManyPathSearch toDropoffPathSearch, OneToManyPathSearch fromDropoffPathSearch, int numberOfThreads) {
-		this.toPickupPathSearch = toPickupPathSearch;
-		this.fromPickupPathSearch = fromPickupPathSearch;
-		this.toDropoffPathSearch = toDropoffPathSearch;
-		this.fromDropoffPathSearch = fromDropoffPathSearch;
+		pathSearchesFactory = () -> new PathSearches(toPickupPathSearch, fromPickupPathSearch, toDropoffPathSearch,
+				fromDropoffPathSearch);
 		executorService = Executors.newFixedThreadPool(Math.min(numberOfThreads, MAX_THREADS));
+		pathDataCache = null;
+	}
+
+	private record PathSearches(OneToManyPathSearch toPickup, OneToManyPathSearch fromPickup,
+			OneToManyPathSearch toDropoff, OneToManyPathSearch fromDropoff) {
 	}
 
 	DetourPathDataCache calculatePaths(DrtRequest drtRequest, List<Insertion> filteredInsertions) {
+		return calculatePaths(drtRequest, filteredInsertions, Function.identity());
+	}
+
+	/**
+	 * Calculates the paths and passes them to the given function. The path searches are only released (and may thus be
+	 * used for other requests) after the function has returned.
+	 */
+	<T> T calculatePaths(DrtRequest drtRequest, List<Insertion> filteredInsertions,
+			Function<DetourPathDataCache, T> pathDataConsumer) {
+		PathSearches pathSearches = idlePathSearches.poll();
+		if (pathSearches == null) {
+			pathSearches = pathSearchesFactory.get();
+		}
+		try {
+			return pathDataConsumer.apply(calculatePaths(pathSearches, drtRequest, filteredInsertions));
+		} finally {
+			idlePathSearches.add(pathSearches);
+		}
+	}
+
+	private DetourPathDataCache calculatePaths(PathSearches pathSearches, DrtRequest drtRequest,
+			List<Insertion> filteredInsertions) {
+		if (Thread.currentThread() instanceof ForkJoinWorkerThread) {
+			return new DetourPathDataCache(calcPathsToPickup(pathSearches.toPickup(), drtRequest, filteredInsertions),
+					calcPathsFromPickup(pathSearches.fromPickup(), drtRequest, filteredInsertions),
+					calcPathsToDropoff(pathSearches.toDropoff(), drtRequest, filteredInsertions),
+					calcPathsFromDropoff(pathSearches.fromDropoff(), drtRequest, filteredInsertions), PathData.EMPTY);
+		}
+
 		// with vehicle insertion filtering -- pathsToPickup is the most computationally demanding task, while
 		// pathsFromDropoff is the least demanding one
-		var pathsToPickupFuture = executorService.submit(() -> calcPathsToPickup(drtRequest, filteredInsertions));
-		var pathsFromPickupFuture = executorService.submit(() -> calcPathsFromPickup(drtRequest, filteredInsertions));
-		var pathsToDropoffFuture = executorService.submit(() -> calcPathsToDropoff(drtRequest, filteredInsertions));
-		var pathsFromDropoffFuture = executorService.submit(() -> calcPathsFromDropoff(drtRequest, filteredInsertions));
+		var pathsToPickupFuture = executorService.submit(
+				() -> calcPathsToPickup(pathSearches.toPickup(), drtRequest, filteredInsertions));
+		var pathsFromPickupFuture = executorService.submit(
+				() -> calcPathsFromPickup(pathSearches.fromPickup(), drtRequest, filteredInsertions));
+		var pathsToDropoffFuture = executorService.submit(
+				() -> calcPathsToDropoff(pathSearches.toDropoff(), drtRequest, filteredInsertions));
+		var pathsFromDropoffFuture = executorService.submit(
+				() -> calcPathsFromDropoff(pathSearches.fromDropoff(), drtRequest, filteredInsertions));
 
 		try {
 			return new DetourPathDataCache(pathsToPickupFuture.get(), pathsFromPickupFuture.get(),
@@ -101,38 +159,42 @@ class MultiInsertionDetourPathCalculator implements MobsimBeforeCleanupListener
 		}
 	}
 
-	private Map<Link, PathData> calcPathsToPickup(DrtRequest drtRequest, List<Insertion> filteredInsertions) {
+	private Map<Link, PathData> calcPathsToPickup(OneToManyPathSearch pathSearch, DrtRequest drtRequest,
+			List<Insertion> filteredInsertions) {
 		// calc backward dijkstra from pickup to ends of selected stops + starts
 		double earliestPickupTime = drtRequest.getEarliestStartTime(); // optimistic
 		Collection<Link> toLinks = getDetourLinks(filteredInsertions.stream(),
 				insertion -> insertion.pickup.previousWaypoint.getLink());
-		return toPickupPathSearch.calcPathDataMap(drtRequest.getFromLink(), toLinks, earliestPickupTime, false);
+		return calcPathDataMap(pathSearch, drtRequest, drtRequest.getFromLink(), toLinks, earliestPickupTime, false);
 	}
 
-	private Map<Link, PathData> calcPathsFromPickup(DrtRequest drtRequest, List<Insertion> filteredInsertions) {
+	private Map<Link, PathData> calcPathsFromPickup(OneToManyPathSearch pathSearch, DrtRequest drtRequest,
+			List<Insertion> filteredInsertions) {
 		// calc forward dijkstra from pickup to beginnings of selected stops + dropoff
 		double earliestPickupTime = drtRequest.getEarliestStartTime(); // optimistic
 		Collection<Link> toLinks = getDetourLinks(filteredInsertions.stream(),
 				insertion -> insertion.pickup.nextWaypoint.getLink());
-		return fromPickupPathSearch.calcPathDataMap(drtRequest.getFromLink(), toLinks, earliestPickupTime, true);
+		return calcPathDataMap(pathSearch, drtRequest, drtRequest.getFromLink(), toLinks, earliestPickupTime, true);
 	}
 
-	private Map<Link, PathData> calcPathsToDropoff(DrtRequest drtRequest, List<Insertion> filteredInsertions) {
+	private Map<Link, PathData> calcPathsToDropoff(OneToManyPathSearch pathSearch, DrtRequest drtRequest,
+			List<Insertion> filteredInsertions) {
 		// calc backward dijkstra from dropoff to ends of selected stops
 		double latestDropoffTime = drtRequest.getLatestArrivalTime(); // pessimistic
 		Collection<Link> toLinks = getDetourLinks(filteredInsertions.stream()
 						.filter(insertion -> !(insertion.dropoff.previousWaypoint instanceof Waypoint.Pickup)),
 				insertion -> insertion.dropoff.previousWaypoint.getLink());
-		return toDropoffPathSearch.calcPathDataMap(drtRequest.getToLink(), toLinks, latestDropoffTime, false);
+		return calcPathDataMap(pathSearch, drtRequest, drtRequest.getToLink(), toLinks, latestDropoffTime, false);
 	}
 
-	private Map<Link, PathData> calcPathsFromDropoff(DrtRequest drtRequest, List<Insertion> filteredInsertions) {
+	private Map<Link, PathData> calcPathsFromDropoff(OneToManyPathSearch pathSearch, DrtRequest drtRequest,
+			List<Insertion> filteredInsertions) {
 		// calc forward dijkstra from dropoff to beginnings of selected stops
 		double latestDropoffTime = drtRequest.getLatestArrivalTime(); // pessimistic
 		Collection<Link> toLinks = getDetourLinks(filteredInsertions.stream()
 						.filter(insertion -> !(insertion.dropoff.nextWaypoint instanceof Waypoint.End)),
 				insertion -> insertion.dropoff.nextWaypoint.getLink());
-		return fromDropoffPathSearch.calcPathDataMap(drtRequest.getToLink(), toLinks, latestDropoffTime, true);
+		return calcPathDataMap(pathSearch, drtRequest, drtRequest.getToLink(), toLinks, latestDropoffTime, true);
 	}
 
 	private Collection<Link> getDetourLinks(Stream<Insertion> filteredInsertions,
@@ -142,8 +204,21 @@ class MultiInsertionDetourPathCalculator implements MobsimBeforeCleanupListener
 		return detourLinks.values();
 	}
 
+	private Map<Link, PathData> calcPathDataMap(OneToManyPathSearch pathSearch, DrtRequest drtRequest, Link fromLink,
+			Collection<Link> toLinks, double startTime, boolean forward) {
+		if (pathDataCache == null) {
+			return pathSearch.calcPathDataMap(fromLink, toLinks, startTime, forward);
+		}
+		// requests are inserted when submitted (or retried later)
+		return pathDataCache.calcPathDataMap(pathSearch, fromLink, toLinks, startTime, forward,
+				drtRequest.getSubmissionTime());
+	}
+
 	@Override
 	public void notifyMobsimBeforeCleanup(@SuppressWarnings("rawtypes") MobsimBeforeCleanupEvent e) {
 		executorService.shutdown();
+		if (pathDataCache != null) {
+			pathDataCache.logFinalStatistics();
+		}
 	}
 }
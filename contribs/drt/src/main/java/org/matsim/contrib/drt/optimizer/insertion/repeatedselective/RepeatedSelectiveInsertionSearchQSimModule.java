@@ -20,6 +20,8 @@
 
 package org.matsim.contrib.drt.optimizer.insertion.repeatedselective;
 
+import java.util.concurrent.ForkJoinPool;
+
 import org.matsim.api.core.v01.network.Network;
 import org.matsim.contrib.drt.optimizer.QSimScopeForkJoinPoolHolder;
 import org.matsim.contrib.drt.optimizer.insertion.DetourTimeEstimator;
@@ -53,24 +55,17 @@ public class RepeatedSelectiveInsertionSearchQSimModule extends AbstractDvrpMode
 
     @Override
     protected void configureQSim() {
-		bindModal(DetourTimeEstimator.class).toProvider(modalProvider(getter -> {
-			var detourTimeEstimatorWithUpdatedTravelTimes = DetourTimeEstimatorWithAdaptiveTravelTimes.create(
-					SPEED_FACTOR, getter.getModal(AdaptiveTravelTimeMatrix.class), getter.getModal(TravelTime.class));
-			return detourTimeEstimatorWithUpdatedTravelTimes;
-		}));
-    	
-        addModalComponent(RepeatedSelectiveInsertionSearch.class, modalProvider(getter -> {
-			RepeatedSelectiveInsertionProvider provider = RepeatedSelectiveInsertionProvider.create(
-					getter.getModal(InsertionCostCalculator.class),
-					getter.getModal(QSimScopeForkJoinPoolHolder.class).getPool(),
-					getter.getModal(StopTimeCalculator.class), getter.getModal(DetourTimeEstimator.class));
-            var insertionCostCalculator = getter.getModal(InsertionCostCalculator.class);
-            return new RepeatedSelectiveInsertionSearch(provider,
-                    getter.getModal(SingleInsertionDetourPathCalculator.class),
-                    insertionCostCalculator, drtCfg, getter.get(MatsimServices.class),
-                    getter.getModal(StopTimeCalculator.class), getter.getModal(TravelTimeMatrix.class),
-                    getter.getModal(AdaptiveTravelTimeMatrix.class));
-        }));
+		bindModal(DetourTimeEstimator.class).toProvider(modalProvider(
+				getter -> createDetourTimeEstimator(getter.getModal(AdaptiveTravelTimeMatrix.class),
+						getter.getModal(TravelTime.class))));
+
+        addModalComponent(RepeatedSelectiveInsertionSearch.class, modalProvider(
+                getter -> createInsertionSearch(drtCfg, getter.getModal(InsertionCostCalculator.class),
+                        getter.getModal(QSimScopeForkJoinPoolHolder.class).getPool(),
+                        getter.getModal(StopTimeCalculator.class), getter.getModal(DetourTimeEstimator.class),
+                        getter.getModal(SingleInsertionDetourPathCalculator.class),
+                        getter.getModal(TravelTimeMatrix.class), getter.getModal(AdaptiveTravelTimeMatrix.class),
+                        getter.get(MatsimServices.class))));
         bindModal(DrtInsertionSearch.class).to(modalKey(RepeatedSelectiveInsertionSearch.class));
 
         addModalComponent(SingleInsertionDetourPathCalculator.class,
@@ -85,4 +80,24 @@ public class RepeatedSelectiveInsertionSearchQSimModule extends AbstractDvrpMode
                     }
                 });
     }
+
+    public static DetourTimeEstimator createDetourTimeEstimator(AdaptiveTravelTimeMatrix adaptiveTravelTimeMatrix,
+            TravelTime travelTime) {
+        return DetourTimeEstimatorWithAdaptiveTravelTimes.create(SPEED_FACTOR, adaptiveTravelTimeMatrix, travelTime);
+    }
+
+    /**
+     * Can be used outside a QSim, e.g. for benchmarking. The caller is then responsible for notifying the detour path
+     * calculator on mobsim cleanup. {@code matsimServices} is only used on mobsim cleanup of the search.
+     */
+    public static RepeatedSelectiveInsertionSearch createInsertionSearch(DrtConfigGroup drtCfg,
+            InsertionCostCalculator insertionCostCalculator, ForkJoinPool forkJoinPool,
+            StopTimeCalculator stopTimeCalculator, DetourTimeEstimator detourTimeEstimator,
+            SingleInsertionDetourPathCalculator detourPathCalculator, TravelTimeMatrix travelTimeMatrix,
+            AdaptiveTravelTimeMatrix adaptiveTravelTimeMatrix, MatsimServices matsimServices) {
+        RepeatedSelectiveInsertionProvider provider = RepeatedSelectiveInsertionProvider.create(
+                insertionCostCalculator, forkJoinPool, stopTimeCalculator, detourTimeEstimator);
+        return new RepeatedSelectiveInsertionSearch(provider, detourPathCalculator, insertionCostCalculator, drtCfg,
+                matsimServices, stopTimeCalculator, travelTimeMatrix, adaptiveTravelTimeMatrix);
+    }
 }
@@ -89,7 +89,7 @@ final class SelectiveInsertionSearch implements DrtInsertionSearch, MobsimBefore
 	private final Map<Integer, SummaryStatistics> pickupTimeLossStats = new LinkedHashMap<>();
 	private final Map<Integer, SummaryStatistics> dropoffTimeLossStats = new LinkedHashMap<>();
 
-	private void collectDifferences(DrtRequest request, DetourTimeInfo matrixTimeInfo, DetourTimeInfo networkTimeInfo) {
+	private synchronized void collectDifferences(DrtRequest request, DetourTimeInfo matrixTimeInfo, DetourTimeInfo networkTimeInfo) {
 		addRelativeDiff(matrixTimeInfo.pickupDetourInfo.pickupTimeLoss, networkTimeInfo.pickupDetourInfo.pickupTimeLoss,
 				networkTimeInfo.pickupDetourInfo.departureTime, pickupTimeLossStats);
 		addRelativeDiff(matrixTimeInfo.dropoffDetourInfo.dropoffTimeLoss,
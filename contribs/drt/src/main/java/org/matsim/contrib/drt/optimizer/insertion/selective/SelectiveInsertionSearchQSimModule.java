@@ -20,6 +20,8 @@
 
 package org.matsim.contrib.drt.optimizer.insertion.selective;
 
+import java.util.concurrent.ForkJoinPool;
+
 import org.matsim.api.core.v01.network.Network;
 import org.matsim.contrib.drt.optimizer.QSimScopeForkJoinPoolHolder;
 import org.matsim.contrib.drt.optimizer.insertion.DetourTimeEstimator;
@@ -49,29 +51,15 @@ public class SelectiveInsertionSearchQSimModule extends AbstractDvrpModeQSimModu
 
 	@Override
 	protected void configureQSim() {
-		bindModal(DetourTimeEstimator.class).toProvider(modalProvider(getter -> {
-			var insertionParams = (SelectiveInsertionSearchParams) drtCfg.getDrtInsertionSearchParams();
-			var restrictiveDetourTimeEstimator = DetourTimeEstimator.createMatrixBasedEstimator(
-					insertionParams.restrictiveBeelineSpeedFactor, getter.getModal(TravelTimeMatrix.class),
-					getter.getModal(TravelTime.class));
-			return restrictiveDetourTimeEstimator;
-		}));
-		
-		addModalComponent(SelectiveInsertionSearch.class, modalProvider(getter -> {
-			SelectiveInsertionProvider provider = SelectiveInsertionProvider.create(
-					getter.getModal(InsertionCostCalculator.class),
-					getter.getModal(QSimScopeForkJoinPoolHolder.class).getPool(),
-					getter.getModal(StopTimeCalculator.class), getter.getModal(DetourTimeEstimator.class));
-			// Use 0 as the cost for the selected insertion:
-			// - In the selective strategy, there is at most 1 insertion pre-selected. So no need to compute as there is
-			//   no other insertion to compare with.
-			// - We assume that the travel times obtained from DvrpTravelTimeMatrix are reasonably well estimated(*),
-			//   so we do not want to check for time window violations
-			//  Re (*) currently, free-speed travel times are quite accurate. We still need to adjust them to different times of day.
-			InsertionCostCalculator zeroCostInsertionCostCalculator = (drtRequest, insertion, detourTimeInfo) -> 0;
-			return new SelectiveInsertionSearch(provider, getter.getModal(SingleInsertionDetourPathCalculator.class),
-					zeroCostInsertionCostCalculator, drtCfg, getter.get(MatsimServices.class), getter.getModal(StopTimeCalculator.class));
-		}));
+		bindModal(DetourTimeEstimator.class).toProvider(modalProvider(
+				getter -> createDetourTimeEstimator(drtCfg, getter.getModal(TravelTimeMatrix.class),
+						getter.getModal(TravelTime.class))));
+
+		addModalComponent(SelectiveInsertionSearch.class, modalProvider(
+				getter -> createInsertionSearch(drtCfg, getter.getModal(InsertionCostCalculator.class),
+						getter.getModal(QSimScopeForkJoinPoolHolder.class).getPool(),
+						getter.getModal(StopTimeCalculator.class), getter.getModal(DetourTimeEstimator.class),
+						getter.getModal(SingleInsertionDetourPathCalculator.class), getter.get(MatsimServices.class))));
 		bindModal(DrtInsertionSearch.class).to(modalKey(SelectiveInsertionSearch.class));
 
 		addModalComponent(SingleInsertionDetourPathCalculator.class,
@@ -86,4 +74,32 @@ public class SelectiveInsertionSearchQSimModule extends AbstractDvrpModeQSimModu
 					}
 				});
 	}
+
+	public static DetourTimeEstimator createDetourTimeEstimator(DrtConfigGroup drtCfg,
+			TravelTimeMatrix travelTimeMatrix, TravelTime travelTime) {
+		var insertionParams = (SelectiveInsertionSearchParams)drtCfg.getDrtInsertionSearchParams();
+		return DetourTimeEstimator.createMatrixBasedEstimator(insertionParams.restrictiveBeelineSpeedFactor,
+				travelTimeMatrix, travelTime);
+	}
+
+	/**
+	 * Can be used outside a QSim, e.g. for benchmarking. The caller is then responsible for notifying the detour path
+	 * calculator on mobsim cleanup. {@code matsimServices} is only used on mobsim cleanup of the search.
+	 */
+	public static SelectiveInsertionSearch createInsertionSearch(DrtConfigGroup drtCfg,
+			InsertionCostCalculator insertionCostCalculator, ForkJoinPool forkJoinPool,
+			StopTimeCalculator stopTimeCalculator, DetourTimeEstimator restrictiveDetourTimeEstimator,
+			SingleInsertionDetourPathCalculator detourPathCalculator, MatsimServices matsimServices) {
+		SelectiveInsertionProvider provider = SelectiveInsertionProvider.create(insertionCostCalculator, forkJoinPool,
+				stopTimeCalculator, restrictiveDetourTimeEstimator);
+		// Use 0 as the cost for the selected insertion:
+		// - In the selective strategy, there is at most 1 insertion pre-selected. So no need to compute as there is
+		//   no other insertion to compare with.
+		// - We assume that the travel times obtained from DvrpTravelTimeMatrix are reasonably well estimated(*),
+		//   so we do not want to check for time window violations
+		//  Re (*) currently, free-speed travel times are quite accurate. We still need to adjust them to different times of day.
+		InsertionCostCalculator zeroCostInsertionCostCalculator = (drtRequest, insertion, detourTimeInfo) -> 0;
+		return new SelectiveInsertionSearch(provider, detourPathCalculator, zeroCostInsertionCostCalculator, drtCfg,
+				matsimServices, stopTimeCalculator);
+	}
 }
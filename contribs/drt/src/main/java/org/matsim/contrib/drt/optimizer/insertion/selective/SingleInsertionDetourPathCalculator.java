@@ -25,9 +25,12 @@ import static org.matsim.contrib.drt.optimizer.insertion.InsertionWithDetourData
 import static org.matsim.contrib.dvrp.path.OneToManyPathSearch.PathData;
 import static org.matsim.contrib.dvrp.path.VrpPaths.FIRST_LINK_TT;
 
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinWorkerThread;
 import java.util.concurrent.Future;
 
 import org.matsim.api.core.v01.network.Link;
@@ -49,6 +52,13 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.util.concurrent.Futures;
 
 /**
+ * Thread-safe: concurrent calls (e.g. in batch insertion) use separate sets of path searches, which are created on
+ * demand and then re-used.
+ * <p>
+ * The four path searches of an insertion run in parallel on a small executor. Calls from a fork-join pool (i.e. batch
+ * insertion, which already processes the requests in parallel) run them one after another on the calling thread
+ * instead, so that the fork-join workers do not block waiting for the executor.
+ *
  * @author Michal Maciejewski (michalm)
  */
 public class SingleInsertionDetourPathCalculator implements MobsimBeforeCleanupListener {
@@ -57,10 +67,10 @@ public class SingleInsertionDetourPathCalculator implements MobsimBeforeCleanupL
 
 	private final TravelTime travelTime;
 
-	private final LeastCostPathCalculator toPickupPathSearch;
-	private final LeastCostPathCalculator fromPickupPathSearch;
-	private final LeastCostPathCalculator toDropoffPathSearch;
-	private final LeastCostPathCalculator fromDropoffPathSearch;
+	private final Network network;
+	private final TravelDisutility travelDisutility;
+	private final LeastCostPathCalculatorFactory pathCalculatorFactory;
+	private final Queue<PathSearches> idlePathSearches = new ConcurrentLinkedQueue<>();
 
 	private final ExecutorService executorService;
 
@@ -73,15 +83,38 @@ public class SingleInsertionDetourPathCalculator implements MobsimBeforeCleanupL
 	SingleInsertionDetourPathCalculator(Network network, TravelTime travelTime, TravelDisutility travelDisutility,
 			int numberOfThreads, LeastCostPathCalculatorFactory pathCalculatorFactory) {
 		this.travelTime = travelTime;
+		this.network = network;
+		this.travelDisutility = travelDisutility;
+		this.pathCalculatorFactory = pathCalculatorFactory;
 
-		toPickupPathSearch = pathCalculatorFactory.createPathCalculator(network, travelDisutility, travelTime);
-		fromPickupPathSearch = pathCalculatorFactory.createPathCalculator(network, travelDisutility, travelTime);
-		toDropoffPathSearch = pathCalculatorFactory.createPathCalculator(network, travelDisutility, travelTime);
-		fromDropoffPathSearch = pathCalculatorFactory.createPathCalculator(network, travelDisutility, travelTime);
+		idlePathSearches.add(createPathSearches());
 		executorService = Executors.newFixedThreadPool(Math.min(numberOfThreads, MAX_THREADS));
 	}
 
+	private record PathSearches(LeastCostPathCalculator toPickup, LeastCostPathCalculator fromPickup,
+			LeastCostPathCalculator toDropoff, LeastCostPathCalculator fromDropoff) {
+	}
+
+	private PathSearches createPathSearches() {
+		return new PathSearches(pathCalculatorFactory.createPathCalculator(network, travelDisutility, travelTime),
+				pathCalculatorFactory.createPathCalculator(network, travelDisutility, travelTime),
+				pathCalculatorFactory.createPathCalculator(network, travelDisutility, travelTime),
+				pathCalculatorFactory.createPathCalculator(network, travelDisutility, travelTime));
+	}
+
 	public InsertionDetourData calculatePaths(DrtRequest drtRequest, Insertion insertion) {
+		PathSearches pathSearches = idlePathSearches.poll();
+		if (pathSearches == null) {
+			pathSearches = createPathSearches();
+		}
+		try {
+			return calculatePaths(pathSearches, drtRequest, insertion);
+		} finally {
+			idlePathSearches.add(pathSearches);
+		}
+	}
+
+	private InsertionDetourData calculatePaths(PathSearches pathSearches, DrtRequest drtRequest, Insertion insertion) {
 		Link pickup = drtRequest.getFromLink();
 		Link dropoff = drtRequest.getToLink();
 
@@ -91,24 +124,40 @@ public class SingleInsertionDetourPathCalculator implements MobsimBeforeCleanupL
 		// TODO use times from InsertionWithDetourData<Double> as approximate departure times for Dijkstra (will require
 		//  passing it as an argument, instead of Insertion)
 
+		if (Thread.currentThread() instanceof ForkJoinWorkerThread) {
+			PathData toPickup = calcPathData(pathSearches.toPickup(), insertion.pickup.previousWaypoint.getLink(), pickup,
+					earliestPickupTime);
+			PathData fromPickup = calcPathData(pathSearches.fromPickup(), pickup, insertion.pickup.nextWaypoint.getLink(),
+					earliestPickupTime);
+			PathData toDropoff = insertion.dropoff.previousWaypoint instanceof Waypoint.Pickup ?
+					null :
+					calcPathData(pathSearches.toDropoff(), insertion.dropoff.previousWaypoint.getLink(), dropoff,
+							latestDropoffTime);
+			PathData fromDropoff = insertion.dropoff.nextWaypoint instanceof Waypoint.End ?
+					PathData.EMPTY :
+					calcPathData(pathSearches.fromDropoff(), dropoff, insertion.dropoff.nextWaypoint.getLink(),
+							latestDropoffTime);
+			return new InsertionDetourData(toPickup, fromPickup, toDropoff, fromDropoff);
+		}
+
 		Future<PathData> toPickupFuture = executorService.submit(
-				() -> calcPathData(toPickupPathSearch, insertion.pickup.previousWaypoint.getLink(), pickup,
+				() -> calcPathData(pathSearches.toPickup(), insertion.pickup.previousWaypoint.getLink(), pickup,
 						earliestPickupTime));
 
 		Future<PathData> fromPickupFuture = executorService.submit(
-				() -> calcPathData(fromPickupPathSearch, pickup, insertion.pickup.nextWaypoint.getLink(),
+				() -> calcPathData(pathSearches.fromPickup(), pickup, insertion.pickup.nextWaypoint.getLink(),
 						earliestPickupTime));
 
 		Future<PathData> toDropoffFuture = insertion.dropoff.previousWaypoint instanceof Waypoint.Pickup ?
 				Futures.immediateFuture(null) :
 				executorService.submit(
-						() -> calcPathData(toDropoffPathSearch, insertion.dropoff.previousWaypoint.getLink(), dropoff,
+						() -> calcPathData(pathSearches.toDropoff(), insertion.dropoff.previousWaypoint.getLink(), dropoff,
 								latestDropoffTime));
 
 		Future<PathData> fromDropoffFuture = insertion.dropoff.nextWaypoint instanceof Waypoint.End ?
 				Futures.immediateFuture(PathData.EMPTY) :
 				executorService.submit(
-						() -> calcPathData(fromDropoffPathSearch, dropoff, insertion.dropoff.nextWaypoint.getLink(),
+						() -> calcPathData(pathSearches.fromDropoff(), dropoff, insertion.dropoff.nextWaypoint.getLink(),
 								latestDropoffTime));
 
 		try {
@@ -152,6 +152,20 @@ public class DrtConfigGroup extends ReflectiveConfigGroupWithConfigurableParamet
 	@Positive
 	public int numberOfThreads = Runtime.getRuntime().availableProcessors();
 
+	@Parameter
+	@Comment("If true, the stops of the vehicle entries used for request insertion are cached per vehicle"
+			+ " and only recomputed after the schedule of the vehicle was modified, which saves most of the work"
+			+ " for large fleets. Requires that custom tasks report all their modifications to the schedule"
+			+ " (see AbstractTask.notifyModified()); this holds for the standard DRT tasks. False by default.")
+	public boolean incrementalVehicleEntries = false;
+
+	@Parameter
+	@Comment("If true, the best insertions of all requests submitted in the same time step are searched in parallel,"
+			+ " and then scheduled one after another. Requests whose vehicle was already given another request are"
+			+ " searched again. May slightly change the results compared to the sequential insertion, but speeds up"
+			+ " the dispatching of many simultaneous requests. False by default.")
+	public boolean batchRequestInsertion = false;
+
 	@Parameter
 	@Comment("Store planned unshared drt route as a link sequence")
 	public boolean storeUnsharedPath = false; // If true, the planned unshared path is stored and exported in plans
@@ -69,11 +69,13 @@ public class DefaultDrtStopTask extends DefaultStayTask implements DrtStopTask {
 	@Override
 	public void addDropoffRequest(AcceptedDrtRequest request) {
 		dropoffRequests.put(request.getId(), request);
+		notifyModified();
 	}
 
 	@Override
 	public void addPickupRequest(AcceptedDrtRequest request) {
 		pickupRequests.put(request.getId(), request);
+		notifyModified();
 	}
 
 	@Override
@@ -88,10 +90,12 @@ public class DefaultDrtStopTask extends DefaultStayTask implements DrtStopTask {
 	@Override
 	public void removePickupRequest(Id<Request> requestId) {
 		pickupRequests.remove(requestId);
+		notifyModified();
 	}
 	
 	@Override
 	public void removeDropoffRequest(Id<Request> requestId) {
 		dropoffRequests.remove(requestId);
+		notifyModified();
 	}
 }
@@ -0,0 +1,142 @@
+/*
+ * *********************************************************************** *
+ * project: org.matsim.*
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** *
+ */
+
+package org.matsim.contrib.drt.benchmark;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.contrib.drt.optimizer.insertion.CostCalculationStrategy;
+import org.matsim.contrib.drt.optimizer.insertion.DefaultInsertionCostCalculator;
+import org.matsim.contrib.drt.optimizer.insertion.DetourTimeEstimator;
+import org.matsim.contrib.drt.optimizer.insertion.DrtInsertionSearch;
+import org.matsim.contrib.drt.optimizer.insertion.extensive.ExtensiveInsertionSearchParams;
+import org.matsim.contrib.drt.optimizer.insertion.extensive.ExtensiveInsertionSearchQSimModule;
+import org.matsim.contrib.drt.optimizer.insertion.extensive.MultiInsertionDetourPathCalculator;
+import org.matsim.contrib.drt.passenger.DrtRequest;
+import org.matsim.contrib.drt.run.DrtConfigGroup;
+import org.matsim.contrib.drt.stops.DefaultStopTimeCalculator;
+import org.matsim.contrib.dvrp.fleet.DvrpVehicle;
+import org.matsim.contrib.dvrp.fleet.FleetSpecification;
+import org.matsim.contrib.dvrp.fleet.FleetSpecificationImpl;
+import org.matsim.contrib.dvrp.fleet.ImmutableDvrpVehicleSpecification;
+import org.matsim.contrib.dvrp.load.IntegerLoadType;
+import org.matsim.contrib.dvrp.optimizer.Request;
+import org.matsim.contrib.dvrp.router.TimeAsTravelDisutility;
+import org.matsim.contrib.dvrp.trafficmonitoring.QSimFreeSpeedTravelTime;
+import org.matsim.core.network.NetworkUtils;
+import org.matsim.core.router.util.TravelTime;
+
+public class DrtDispatchBenchmarkTest {
+	private static final double SPEED = 10;
+
+	private final Network network = createLineNetwork();
+	private final IntegerLoadType loadType = new IntegerLoadType("passengers");
+	private final TravelTime travelTime = new QSimFreeSpeedTravelTime(1);
+	private final ForkJoinPool forkJoinPool = new ForkJoinPool(1);
+
+	@AfterEach
+	public void after() {
+		forkJoinPool.shutdown();
+	}
+
+	@Test
+	void sharedAndInfeasibleRequests() {
+		DrtConfigGroup drtCfg = new DrtConfigGroup();
+		drtCfg.stopDuration = 60;
+		drtCfg.setDrtInsertionSearchParams(new ExtensiveInsertionSearchParams());
+		var constraintsSet = drtCfg.addOrGetDrtOptimizationConstraintsParams()
+				.addOrGetDefaultDrtOptimizationConstraintsSet();
+
+		FleetSpecification fleetSpecification = new FleetSpecificationImpl();
+		fleetSpecification.addVehicleSpecification(ImmutableDvrpVehicleSpecification.newBuilder()
+				.id(Id.create("v", DvrpVehicle.class))
+				.startLinkId(Id.createLinkId("0_1"))
+				.capacity(loadType.fromInt(4))
+				.serviceBeginTime(0)
+				.serviceEndTime(10000)
+				.build());
+
+		var stopTimeCalculator = new DefaultStopTimeCalculator(drtCfg.stopDuration);
+		var detourPathCalculator = new MultiInsertionDetourPathCalculator(network, travelTime,
+				new TimeAsTravelDisutility(travelTime), drtCfg);
+		DrtInsertionSearch insertionSearch = ExtensiveInsertionSearchQSimModule.createInsertionSearch(drtCfg,
+				new DefaultInsertionCostCalculator(new CostCalculationStrategy.RejectSoftConstraintViolations(),
+						constraintsSet), forkJoinPool, stopTimeCalculator,
+				DetourTimeEstimator.createBeelineBasedEstimator(SPEED), detourPathCalculator);
+
+		List<DrtRequest> requests = List.of(//
+				request("shared_1", "1_2", "3_4", 600), //
+				request("shared_2", "1_2", "3_4", 600), //
+				// the vehicle needs more than 200 s to get there
+				request("too_late", "2_3", "3_4", 100));
+
+		var benchmark = new DrtDispatchBenchmark(drtCfg, network, fleetSpecification, loadType, travelTime,
+				forkJoinPool);
+		DrtDispatchBenchmarkResult result = benchmark.run("extensive", insertionSearch, requests);
+		detourPathCalculator.notifyMobsimBeforeCleanup(null);
+
+		assertThat(result.requestCount()).isEqualTo(3);
+		assertThat(result.scheduledRequestCount()).isEqualTo(2);
+		assertThat(result.rejectedRequestCount()).isEqualTo(1);
+		assertThat(result.searchCount()).isEqualTo(3);
+		assertThat(result.meanWaitTime()).isPositive();
+		assertThat(result.meanRideTime()).isPositive();
+		// both requests are served with one ride along the line
+		assertThat(result.fleetDriveDistance()).isEqualTo(3000);
+	}
+
+	private DrtRequest request(String id, String fromLinkId, String toLinkId, double latestStartTime) {
+		return DrtRequest.newBuilder()
+				.id(Id.create(id, Request.class))
+				.passengerIds(List.of(Id.createPersonId(id)))
+				.mode("drt")
+				.fromLink(network.getLinks().get(Id.createLinkId(fromLinkId)))
+				.toLink(network.getLinks().get(Id.createLinkId(toLinkId)))
+				.submissionTime(0)
+				.earliestStartTime(0)
+				.latestStartTime(latestStartTime)
+				.latestArrivalTime(2 * latestStartTime)
+				.maxRideDuration(Double.POSITIVE_INFINITY)
+				.load(loadType.fromInt(1))
+				.build();
+	}
+
+	private static Network createLineNetwork() {
+		Network network = NetworkUtils.createNetwork();
+		Node previous = NetworkUtils.createAndAddNode(network, Id.createNodeId(0), new Coord(0, 0));
+		for (int i = 1; i < 5; i++) {
+			Node node = NetworkUtils.createAndAddNode(network, Id.createNodeId(i), new Coord(i * 1000, 0));
+			NetworkUtils.createAndAddLink(network, Id.createLinkId((i - 1) + "_" + i), previous, node, 1000, SPEED,
+					1000, 1);
+			previous = node;
+		}
+		return network;
+	}
+}
@@ -126,6 +126,56 @@ public class VehicleDataEntryFactoryImplTest {
 		assertThat(computeSlackTimes(vehicle(500, 490), 100, new Stop[] { stop0, stop1 }, null, precedingStayTimes)).containsExactly(20, 20, 43, 10);
 	}
 
+	@Test
+	void create_incremental() {
+		var vehicle = vehicle(500, 120);
+		var schedule = vehicle.getSchedule();
+		schedule.addTask(0, new DrtStayTask(0, 100, depot));
+		var stopTask = new DefaultDrtStopTask(100, 120, depot);
+		schedule.addTask(1, stopTask);
+
+		var factory = new VehicleDataEntryFactoryImpl(loadType);
+		var incrementalFactory = new VehicleDataEntryFactoryImpl(loadType, true);
+
+		// schedule planned
+		VehicleEntry entry = incrementalFactory.create(vehicle, 0);
+		assertSameEntry(factory.create(vehicle, 0), entry);
+		assertThat(incrementalFactory.create(vehicle, 0).stops).isSameAs(entry.stops);
+
+		// the stay time before the stop depends on the current time, the stops do not
+		schedule.nextTask();
+		VehicleEntry entryAt50 = incrementalFactory.create(vehicle, 50);
+		assertThat(entryAt50.stops).isNotSameAs(entry.stops);
+		assertSameEntry(factory.create(vehicle, 50), entryAt50);
+		VehicleEntry entryAt60 = incrementalFactory.create(vehicle, 60);
+		assertThat(entryAt60.stops).isSameAs(entryAt50.stops);
+		assertThat(entryAt60.getPrecedingStayTime(0)).isEqualTo(40);
+		assertSameEntry(factory.create(vehicle, 60), entryAt60);
+
+		// schedule modified
+		stopTask.setEndTime(130);
+		schedule.getTasks().get(2).setBeginTime(130);
+		VehicleEntry entryAfterModification = incrementalFactory.create(vehicle, 60);
+		assertThat(entryAfterModification.stops).isNotSameAs(entryAt60.stops);
+		assertSameEntry(factory.create(vehicle, 60), entryAfterModification);
+	}
+
+	private void assertSameEntry(VehicleEntry expected, VehicleEntry actual) {
+		assertThat(actual.start.getLink()).isEqualTo(expected.start.getLink());
+		assertThat(actual.start.time).isEqualTo(expected.start.time);
+		assertThat(actual.start.getOutgoingOccupancy()).isEqualTo(expected.start.getOutgoingOccupancy());
+		assertThat(actual.stops).hasSameSizeAs(expected.stops);
+		assertThat(actual.getStartSlackTime()).isEqualTo(expected.getStartSlackTime());
+		for (int i = 0; i < expected.stops.size(); i++) {
+			assertThat(actual.stops.get(i).task).isSameAs(expected.stops.get(i).task);
+			assertThat(actual.stops.get(i).latestArrivalTime).isEqualTo(expected.stops.get(i).latestArrivalTime);
+			assertThat(actual.stops.get(i).getOutgoingOccupancy()).isEqualTo(expected.stops.get(i).getOutgoingOccupancy());
+			assertThat(actual.getPrecedingStayTime(i)).isEqualTo(expected.getPrecedingStayTime(i));
+			assertThat(actual.getSlackTime(i)).isEqualTo(expected.getSlackTime(i));
+		}
+		assertThat(actual.getSlackTime(expected.stops.size())).isEqualTo(expected.getSlackTime(expected.stops.size()));
+	}
+
 	private Stop stop(double beginTime, double latestArrivalTime, double endTime, double latestDepartureTime) {
 		return new Waypoint.Stop(new DefaultDrtStopTask(beginTime, endTime, null), latestArrivalTime, latestDepartureTime, loadType.getEmptyLoad(), loadType);
 	}
@@ -22,6 +22,7 @@ package org.matsim.contrib.drt.optimizer.insertion;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.fail;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.matsim.contrib.drt.optimizer.insertion.DefaultUnplannedRequestInserter.NO_INSERTION_FOUND_CAUSE;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
@@ -32,8 +33,12 @@ import static org.mockito.Mockito.when;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.lang3.mutable.MutableInt;
 import org.junit.jupiter.api.Test;
@@ -261,6 +266,127 @@ public class DefaultUnplannedRequestInserterTest {
 		assertThat(createEntryCounter.getValue()).isEqualTo(2);
 	}
 
+	@Test
+	void batchInsertion_reevaluateRequestsOfModifiedVehicles() {
+		var vehicle1 = vehicle("1");
+		var vehicle2 = vehicle("2");
+		var vehicle3 = vehicle("3");
+		var fleet = fleet(vehicle1, vehicle2, vehicle3);
+		var request2 = request("r2", "from2", "to2");
+		var request3 = request("r3", "from3", "to3");
+		var unplannedRequests = requests(request1, request2, request3);
+		double now = 15;
+
+		// vehicles take only one request: entries created after scheduling are full
+		Set<DvrpVehicle> scheduledVehicles = ConcurrentHashMap.newKeySet();
+		Set<VehicleEntry> fullEntries = ConcurrentHashMap.newKeySet();
+		VehicleEntry.EntryFactory entryFactory = (vehicle, currentTime) -> {
+			var entry = new VehicleEntry(vehicle, null, null, null, null, 0);
+			if (scheduledVehicles.contains(vehicle)) {
+				fullEntries.add(entry);
+			}
+			return entry;
+		};
+
+		DrtRequestInsertionRetryQueue retryQueue = new DrtRequestInsertionRetryQueue(
+				new DrtRequestInsertionRetryParams());//retry OFF, empty queue
+
+		// the vehicle with the lowest id is the best one, request3 only fits into vehicle2
+		var searchCounter = new AtomicInteger();
+		DrtInsertionSearch insertionSearch = (drtRequest, vEntries) -> {
+			searchCounter.incrementAndGet();
+			return vEntries.stream()
+					.filter(e -> !fullEntries.contains(e))
+					.filter(e -> drtRequest != request3 || e.vehicle == vehicle2)
+					.min(Comparator.comparing(e -> e.vehicle.getId()))
+					.map(e -> new InsertionWithDetourData(
+							new InsertionGenerator.Insertion(e, null, null, loadType.fromInt(1)), null,
+							new InsertionDetourTimeCalculator.DetourTimeInfo(
+									mock(InsertionDetourTimeCalculator.PickupDetourInfo.class),
+									mock(InsertionDetourTimeCalculator.DropoffDetourInfo.class))));
+		};
+
+		RequestInsertionScheduler insertionScheduler = (request, insertion) -> {
+			scheduledVehicles.add(insertion.insertion.vehicleEntry.vehicle);
+			var pickupTask = new DefaultDrtStopTask(now, now + 10, request.getFromLink());
+			var dropoffTask = new DefaultDrtStopTask(now + 40, now + 50, request.getToLink());
+			return new PickupDropoffTaskPair(pickupTask, dropoffTask);
+		};
+
+		//call insertion
+		newInserter(fleet, now, entryFactory, retryQueue, insertionSearch, insertionScheduler,
+				true).scheduleUnplannedRequests(unplannedRequests);
+
+		//requests are removed from unplanned requests
+		assertThat(unplannedRequests).isEmpty();
+
+		//request2 also chose vehicle1 in the first round, so it is searched again after request3 was scheduled
+		ArgumentCaptor<PassengerRequestScheduledEvent> captor = ArgumentCaptor.forClass(
+				PassengerRequestScheduledEvent.class);
+		verify(eventsManager, times(3)).processEvent(captor.capture());
+		assertThat(captor.getAllValues()).extracting(PassengerRequestScheduledEvent::getRequestId,
+				PassengerRequestScheduledEvent::getVehicleId)
+				.containsExactly(tuple(request1.getId(), vehicle1.getId()), tuple(request3.getId(), vehicle2.getId()),
+						tuple(request2.getId(), vehicle3.getId()));
+		assertThat(searchCounter.get()).isEqualTo(4);
+	}
+
+	@Test
+	void batchInsertion_reevaluateRequestsWithoutInsertionAfterPooling() {
+		var vehicle1 = vehicle("1");
+		var fleet = fleet(vehicle1);
+		var request2 = request("r2", "from2", "to2");
+		var unplannedRequests = requests(request1, request2);
+		double now = 15;
+
+		// request2 can only be pooled with request1, i.e. inserted into an entry created after scheduling request1
+		Set<VehicleEntry> entriesWithRequest1 = ConcurrentHashMap.newKeySet();
+		var scheduledRequests = new AtomicInteger();
+		VehicleEntry.EntryFactory entryFactory = (vehicle, currentTime) -> {
+			var entry = new VehicleEntry(vehicle, null, null, null, null, 0);
+			if (scheduledRequests.get() > 0) {
+				entriesWithRequest1.add(entry);
+			}
+			return entry;
+		};
+
+		DrtRequestInsertionRetryQueue retryQueue = new DrtRequestInsertionRetryQueue(
+				new DrtRequestInsertionRetryParams());//retry OFF, empty queue
+
+		var searchCounter = new AtomicInteger();
+		DrtInsertionSearch insertionSearch = (drtRequest, vEntries) -> {
+			searchCounter.incrementAndGet();
+			return vEntries.stream()
+					.filter(e -> drtRequest != request2 || entriesWithRequest1.contains(e))
+					.findFirst()
+					.map(e -> new InsertionWithDetourData(
+							new InsertionGenerator.Insertion(e, null, null, loadType.fromInt(1)), null,
+							new InsertionDetourTimeCalculator.DetourTimeInfo(
+									mock(InsertionDetourTimeCalculator.PickupDetourInfo.class),
+									mock(InsertionDetourTimeCalculator.DropoffDetourInfo.class))));
+		};
+
+		RequestInsertionScheduler insertionScheduler = (request, insertion) -> {
+			scheduledRequests.incrementAndGet();
+			var pickupTask = new DefaultDrtStopTask(now, now + 10, request.getFromLink());
+			var dropoffTask = new DefaultDrtStopTask(now + 40, now + 50, request.getToLink());
+			return new PickupDropoffTaskPair(pickupTask, dropoffTask);
+		};
+
+		//call insertion
+		newInserter(fleet, now, entryFactory, retryQueue, insertionSearch, insertionScheduler,
+				true).scheduleUnplannedRequests(unplannedRequests);
+
+		//request2 found no insertion in the first round, so it is searched again after request1 was scheduled
+		ArgumentCaptor<PassengerRequestScheduledEvent> captor = ArgumentCaptor.forClass(
+				PassengerRequestScheduledEvent.class);
+		verify(eventsManager, times(2)).processEvent(captor.capture());
+		assertThat(captor.getAllValues()).extracting(PassengerRequestScheduledEvent::getRequestId,
+				PassengerRequestScheduledEvent::getVehicleId)
+				.containsExactly(tuple(request1.getId(), vehicle1.getId()), tuple(request2.getId(), vehicle1.getId()));
+		assertThat(searchCounter.get()).isEqualTo(3);
+	}
+
 	private Collection<DrtRequest> requests(DrtRequest... requests) {
 		return new ArrayList<>(Arrays.asList(requests));//returned collection needs to be modifiable
 	}
@@ -290,10 +416,17 @@ public class DefaultUnplannedRequestInserterTest {
 	private DefaultUnplannedRequestInserter newInserter(Fleet fleet, double now,
 			VehicleEntry.EntryFactory vehicleEntryFactory, DrtRequestInsertionRetryQueue insertionRetryQueue,
 			DrtInsertionSearch insertionSearch, RequestInsertionScheduler insertionScheduler) {
+		return newInserter(fleet, now, vehicleEntryFactory, insertionRetryQueue, insertionSearch, insertionScheduler,
+				false);
+	}
+
+	private DefaultUnplannedRequestInserter newInserter(Fleet fleet, double now,
+			VehicleEntry.EntryFactory vehicleEntryFactory, DrtRequestInsertionRetryQueue insertionRetryQueue,
+			DrtInsertionSearch insertionSearch, RequestInsertionScheduler insertionScheduler, boolean batchInsertion) {
 		return new DefaultUnplannedRequestInserter(mode, fleet, () -> now, eventsManager, insertionScheduler,
 				vehicleEntryFactory, insertionRetryQueue, insertionSearch, new DefaultOfferAcceptor(),
 				forkJoinPoolExtension.forkJoinPool, StaticPassengerStopDurationProvider.of(10.0, 0.0),
-				RequestFleetFilter.none);
+				RequestFleetFilter.none, batchInsertion);
 	}
 
 	private Link link(String id) {
@@ -0,0 +1,121 @@
+/*
+ * *********************************************************************** *
+ * project: org.matsim.*
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** *
+ */
+
+package org.matsim.contrib.drt.optimizer.insertion.extensive;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.contrib.dvrp.path.OneToManyPathSearch;
+import org.matsim.contrib.dvrp.path.OneToManyPathSearch.PathData;
+import org.matsim.core.router.util.LeastCostPathCalculator.Path;
+import org.matsim.testcases.fakes.FakeLink;
+import org.matsim.testcases.fakes.FakeNode;
+
+public class DetourPathDataSharedCacheTest {
+	private final Link fromLink = link("from");
+	private final Link toLink1 = link("to1");
+	private final Link toLink2 = link("to2");
+	private final Link toLink3 = link("to3");
+
+	private final OneToManyPathSearch pathSearch = mock(OneToManyPathSearch.class);
+	private final List<Collection<Link>> searchedLinks = new ArrayList<>();
+
+	@Test
+	void calcPathDataMap() {
+		mockPathSearch();
+		var cache = new DetourPathDataSharedCache("drt", 100, 900);
+
+		var pathData = cache.calcPathDataMap(pathSearch, fromLink, List.of(toLink1, toLink2), 1000, true, 950);
+		assertThat(pathData).containsOnlyKeys(toLink1, toLink2);
+		assertThat(searchedLinks).containsExactly(List.of(toLink1, toLink2));
+
+		// same time bin: only the missing link is searched
+		var pathData2 = cache.calcPathDataMap(pathSearch, fromLink, List.of(toLink2, toLink3), 1700, true, 1000);
+		assertThat(pathData2.get(toLink2)).isSameAs(pathData.get(toLink2));
+		assertThat(searchedLinks).containsExactly(List.of(toLink1, toLink2), List.of(toLink3));
+		assertThat(cache.getHits()).isEqualTo(1);
+		assertThat(cache.getMisses()).isEqualTo(3);
+
+		// other direction and other time bin are not cached
+		cache.calcPathDataMap(pathSearch, fromLink, List.of(toLink1), 1000, false, 1000);
+		cache.calcPathDataMap(pathSearch, fromLink, List.of(toLink1), 1800, true, 1000);
+		assertThat(searchedLinks).hasSize(4);
+		assertThat(cache.size()).isEqualTo(5);
+
+		// the cache is cleared in a new time bin
+		cache.calcPathDataMap(pathSearch, fromLink, List.of(toLink1), 1800, true, 1800);
+		assertThat(searchedLinks).hasSize(5);
+		assertThat(cache.size()).isEqualTo(1);
+		assertThat(cache.getHits()).isEqualTo(1);
+	}
+
+	@Test
+	void leastRecentlyUsedPathsAreEvicted() {
+		mockPathSearch();
+		var cache = new DetourPathDataSharedCache("drt", 2, 900);
+
+		cache.calcPathDataMap(pathSearch, fromLink, List.of(toLink1), 0, true, 0);
+		cache.calcPathDataMap(pathSearch, fromLink, List.of(toLink2), 0, true, 0);
+		cache.calcPathDataMap(pathSearch, fromLink, List.of(toLink1), 0, true, 0);// hit
+		cache.calcPathDataMap(pathSearch, fromLink, List.of(toLink3), 0, true, 0);// evicts toLink2
+		assertThat(cache.size()).isEqualTo(2);
+
+		cache.calcPathDataMap(pathSearch, fromLink, List.of(toLink1), 0, true, 0);// hit
+		cache.calcPathDataMap(pathSearch, fromLink, List.of(toLink2), 0, true, 0);// miss
+		assertThat(cache.getHits()).isEqualTo(2);
+		assertThat(cache.getMisses()).isEqualTo(4);
+	}
+
+	private void mockPathSearch() {
+		when(pathSearch.calcPathDataMap(any(), any(), anyDouble(), anyBoolean())).thenAnswer(invocation -> {
+			Collection<Link> toLinks = invocation.getArgument(1);
+			searchedLinks.add(List.copyOf(toLinks));
+			Map<Link, PathData> pathDataMap = new HashMap<>();
+			for (Link toLink : toLinks) {
+				var path = new Path(List.of(fromLink.getToNode(), toLink.getFromNode()), List.of(), 100, 200);
+				pathDataMap.put(toLink, new PathData(path, 10));
+			}
+			return pathDataMap;
+		});
+	}
+
+	private Link link(String id) {
+		return new FakeLink(Id.createLinkId(id), node(id + "_from"), node(id + "_to"));
+	}
+
+	private Node node(String id) {
+		return new FakeNode(Id.createNodeId(id));
+	}
+}
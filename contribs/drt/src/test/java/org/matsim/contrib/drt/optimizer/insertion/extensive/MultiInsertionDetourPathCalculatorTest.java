@@ -29,6 +29,7 @@ import static org.mockito.Mockito.when;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
 
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
@@ -98,6 +99,30 @@ public class MultiInsertionDetourPathCalculatorTest {
 		assertThat(insertionWithDetourData.detourFromDropoff).isEqualTo(pathFromDropoff);
 	}
 
+	@Test
+	void calculatePaths_onForkJoinPool() {
+		var pathToPickup = mockCalcPathData(pickupLink, beforePickupLink, request.getEarliestStartTime(), false, 11);
+		var pathFromPickup = mockCalcPathData(pickupLink, afterPickupLink, request.getEarliestStartTime(), true, 22);
+		var pathToDropoff = mockCalcPathData(dropoffLink, beforeDropoffLink, request.getLatestArrivalTime(), false, 33);
+		var pathFromDropoff = mockCalcPathData(dropoffLink, afterDropoffLink, request.getLatestArrivalTime(), true, 44);
+
+		var pickup = insertionPoint(waypoint(beforePickupLink), waypoint(afterPickupLink));
+		var dropoff = insertionPoint(waypoint(beforeDropoffLink), waypoint(afterDropoffLink));
+		var insertion = new InsertionGenerator.Insertion(null, pickup, dropoff, loadType.fromInt(1));
+
+		// as in batch insertion, the paths are calculated on the fork-join worker itself
+		var forkJoinPool = new ForkJoinPool(1);
+		var insertionWithDetourData = forkJoinPool.submit(
+				() -> detourPathCalculator.calculatePaths(request, List.of(insertion))
+						.createInsertionDetourData(insertion)).join();
+		forkJoinPool.shutdown();
+
+		assertThat(insertionWithDetourData.detourToPickup).isEqualTo(pathToPickup);
+		assertThat(insertionWithDetourData.detourFromPickup).isEqualTo(pathFromPickup);
+		assertThat(insertionWithDetourData.detourToDropoff).isEqualTo(pathToDropoff);
+		assertThat(insertionWithDetourData.detourFromDropoff).isEqualTo(pathFromDropoff);
+	}
+
 	@Test
 	void calculatePaths_dropoffAfterPickup_dropoffAtEnd() {
 		//compute only 2 paths (instead of 4)
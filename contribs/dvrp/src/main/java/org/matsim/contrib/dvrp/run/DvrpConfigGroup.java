@@ -102,7 +102,8 @@ public class DvrpConfigGroup extends ReflectiveConfigGroupWithConfigurableParame
 	public double travelTimeEstimationBeta = 0; // [s], 0 ==> only offline TT estimation
 
 	@Parameter
-	@Comment("File containing the initial link travel time estimates. Ignored if null")
+	@Comment("File containing the initial link travel time estimates. Either csv, or binary (*.bin, *.bin.gz) as written by"
+			+ " the travelTimeCalculator (see writeLinkTravelTimesInterval). Ignored if null")
 	@Nullable
 	public String initialTravelTimesFile = null;
 
@@ -31,6 +31,7 @@ public abstract class AbstractTask implements Task {
 	// ==== BEGIN: fields managed by ScheduleImpl
 	int taskIdx;
 	TaskStatus status;
+	ScheduleImpl schedule;
 	// ==== END: fields managed by ScheduleImpl
 
 	private final TaskType taskType;
@@ -76,13 +77,31 @@ public abstract class AbstractTask implements Task {
 	public final void setBeginTime(double beginTime) {
 		Preconditions.checkState(status != TaskStatus.STARTED && status != TaskStatus.PERFORMED,
 				"It is too late to change the beginTime");
-		this.beginTime = beginTime;
+		if (this.beginTime != beginTime) {
+			this.beginTime = beginTime;
+			notifyModified();
+		}
 	}
 
 	@Override
 	public final void setEndTime(double endTime) {
 		Preconditions.checkState(status != TaskStatus.PERFORMED, "It is too late to change the endTime");
-		this.endTime = endTime;
+		if (this.endTime != endTime) {
+			this.endTime = endTime;
+			notifyModified();
+		}
+	}
+
+	/**
+	 * Increments the modification count of the schedule containing this task (if any). Subclasses with additional
+	 * mutable state call this whenever that state changes.
+	 *
+	 * @see Schedule#getModificationCount()
+	 */
+	protected final void notifyModified() {
+		if (schedule != null) {
+			schedule.modificationCount++;
+		}
 	}
 
 	@Override
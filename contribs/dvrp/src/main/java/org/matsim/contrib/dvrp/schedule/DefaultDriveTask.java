@@ -50,6 +50,7 @@ public class DefaultDriveTask extends AbstractTask implements DriveTask {
 
 		path = divertedPath;
 		setEndTime(newEndTime);
+		notifyModified();
 	}
 
 	@Override
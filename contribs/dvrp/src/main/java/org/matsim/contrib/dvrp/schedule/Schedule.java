@@ -83,6 +83,14 @@ public interface Schedule {
 	 */
 	double getEndTime();
 
+	/**
+	 * Counter incremented whenever a task is added or removed, the current task changes, or a task of this schedule
+	 * is modified (begin/end time, diverted path, or e.g. requests served at a stop; see
+	 * {@link AbstractTask#notifyModified()}). Data derived from the schedule can be cached as long as the count stays
+	 * the same. The count does not change while a vehicle moves along its current drive task.
+	 */
+	int getModificationCount();
+
 	// schedule modification functionality:
 
 	/**
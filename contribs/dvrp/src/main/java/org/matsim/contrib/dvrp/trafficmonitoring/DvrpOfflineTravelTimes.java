@@ -35,6 +35,7 @@ import org.matsim.api.core.v01.IdMap;
 import org.matsim.api.core.v01.network.Link;
 import org.matsim.contrib.common.timeprofile.TimeDiscretizer;
 import org.matsim.core.router.util.TravelTime;
+import org.matsim.core.trafficmonitoring.LinkTravelTimeStore;
 import org.matsim.core.utils.io.IOUtils;
 
 /**
@@ -83,6 +84,28 @@ public class DvrpOfflineTravelTimes {
 		}
 	}
 
+	/**
+	 * Saves the travel times in the binary format of {@link LinkTravelTimeStore} (as floats), which is much smaller and
+	 * faster to load than csv.
+	 */
+	public static void saveBinaryLinkTravelTimes(TimeDiscretizer timeDiscretizer, double[][] linkTravelTimes,
+			String filename) {
+		var store = new LinkTravelTimeStore(timeDiscretizer.getTimeInterval(), timeDiscretizer.getIntervalCount(), false);
+		for (int idx = 0; idx < linkTravelTimes.length; idx++) {
+			double[] ttRow = linkTravelTimes[idx];
+
+			// rows in linkTTs that are null are skipped
+			if (ttRow != null) {
+				checkArgument(ttRow.length == timeDiscretizer.getIntervalCount());
+				Id<Link> linkId = Id.get(idx, Link.class);
+				for (int t = 0; t < ttRow.length; t++) {
+					store.setTravelTime(linkId, t, ttRow[t]);
+				}
+			}
+		}
+		store.write(filename);
+	}
+
 	public static double[][] convertToLinkTravelTimeMatrix(TravelTime travelTime, Collection<? extends Link> links,
 			TimeDiscretizer timeDiscretizer) {
 		var linkTTs = new double[Id.getNumberOfIds(Link.class)][];
@@ -138,4 +161,16 @@ public class DvrpOfflineTravelTimes {
 
 		return linkTravelTimeArray;
 	}
+
+	/**
+	 * Loads travel times saved by {@link #saveBinaryLinkTravelTimes} or written by
+	 * {@link org.matsim.core.trafficmonitoring.TravelTimeCalculator#writeLinkTravelTimes}, without replaying the events.
+	 * The file's time bins may differ from the discretizer's, as the travel times are sampled at the start of each bin.
+	 * Links without travel times in the file get free speed travel times.
+	 */
+	public static double[][] loadBinaryLinkTravelTimes(TimeDiscretizer timeDiscretizer, URL url,
+			Collection<? extends Link> links) {
+		var store = LinkTravelTimeStore.read(url, false);
+		return convertToLinkTravelTimeMatrix(store, links, timeDiscretizer);
+	}
 }
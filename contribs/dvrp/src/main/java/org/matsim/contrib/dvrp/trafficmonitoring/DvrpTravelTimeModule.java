@@ -21,6 +21,7 @@ package org.matsim.contrib.dvrp.trafficmonitoring;
 
 import java.net.URL;
 
+import org.matsim.api.core.v01.network.Network;
 import org.matsim.contrib.dvrp.run.DvrpConfigGroup;
 import org.matsim.contrib.common.timeprofile.TimeDiscretizer;
 import org.matsim.core.config.ConfigGroup;
@@ -30,6 +31,7 @@ import org.matsim.withinday.trafficmonitoring.WithinDayTravelTime;
 
 import com.google.inject.Inject;
 import com.google.inject.Key;
+import com.google.inject.Provider;
 import com.google.inject.name.Names;
 
 /**
@@ -45,12 +47,22 @@ public class DvrpTravelTimeModule extends AbstractModule {
 
 	public void install() {
 		if (dvrpCfg.initialTravelTimesFile != null) {
-			addTravelTimeBinding(DvrpTravelTimeModule.DVRP_INITIAL).toProvider(() -> {
-				URL url = ConfigGroup.getInputFileURL(getConfig().getContext(), dvrpCfg.initialTravelTimesFile);
-				var timeDiscretizer = new TimeDiscretizer(getConfig().travelTimeCalculator());
-				var linkTravelTimes = DvrpOfflineTravelTimes.loadLinkTravelTimes(timeDiscretizer, url,
-						getConfig().global().getDefaultDelimiter());
-				return DvrpOfflineTravelTimes.asTravelTime(timeDiscretizer, linkTravelTimes);
+			addTravelTimeBinding(DvrpTravelTimeModule.DVRP_INITIAL).toProvider(new Provider<TravelTime>() {
+				@Inject
+				private Network network;
+
+				@Override
+				public TravelTime get() {
+					URL url = ConfigGroup.getInputFileURL(getConfig().getContext(), dvrpCfg.initialTravelTimesFile);
+					var timeDiscretizer = new TimeDiscretizer(getConfig().travelTimeCalculator());
+					// binary files as written by LinkTravelTimeStore, otherwise csv
+					String file = dvrpCfg.initialTravelTimesFile;
+					var linkTravelTimes = file.endsWith(".bin") || file.endsWith(".bin.gz") ?
+							DvrpOfflineTravelTimes.loadBinaryLinkTravelTimes(timeDiscretizer, url, network.getLinks().values()) :
+							DvrpOfflineTravelTimes.loadLinkTravelTimes(timeDiscretizer, url,
+									getConfig().global().getDefaultDelimiter());
+					return DvrpOfflineTravelTimes.asTravelTime(timeDiscretizer, linkTravelTimes);
+				}
 			}).asEagerSingleton();
 		} else {
 			addTravelTimeBinding(DvrpTravelTimeModule.DVRP_INITIAL).to(QSimFreeSpeedTravelTime.class)
@@ -58,8 +58,9 @@ import java.util.stream.Collectors;
  * combination. - average the n x n adaption times and store this value as the zone-to-zone adaption time.
  * <p>
  * A basic implementation for calculating the travel times between m zones would result in m^2 * n^2 pt route calculations, which could take a very long time. The actual algorithm makes use of
- * LeastCostPathTrees, reducing the computational effort down to the calculation of m*n LeastCostPathTrees. In addition, it supports running the calculation in parallel to reduce the time required to
- * compute one matrix.
+ * LeastCostPathTrees, reducing the computational effort down to the calculation of m*n LeastCostPathTrees. Each of these is a profile query
+ * ({@link SwissRailRaptor#calcLeastCostProfile}) which finds the least-cost connections of all departures in the time window in a single sweep. In addition, it supports running the calculation in parallel to
+ * reduce the time required to compute one matrix.
  * <p>
  * If no connection can be found between two zones (can happen when there is no transit stop in a zone), the corresponding matrix cells contain the value "0" for the perceived frequency, and
  * "Infinity" for all other skim matrices.
@@ -71,8 +72,17 @@ public class PTSkimMatrices {
     private PTSkimMatrices() {
     }
 
+    /**
+     * @deprecated the connections are no longer searched at fixed steps, but for all departures in the time window. Use the variant without <code>stepSize_seconds</code>.
+     */
+    @Deprecated
     public static <T> PTSkimMatrices.PtIndicators<T> calculateSkimMatrices(SwissRailRaptorData raptorData, Map<T, Coord[]> coordsPerZone, double minDepartureTime, double maxDepartureTime,
             double stepSize_seconds, RaptorParameters parameters, int numberOfThreads, BiPredicate<TransitLine, TransitRoute> trainDetector, CoordAggregator coordAggregator) {
+        return calculateSkimMatrices(raptorData, coordsPerZone, minDepartureTime, maxDepartureTime, parameters, numberOfThreads, trainDetector, coordAggregator);
+    }
+
+    public static <T> PTSkimMatrices.PtIndicators<T> calculateSkimMatrices(SwissRailRaptorData raptorData, Map<T, Coord[]> coordsPerZone, double minDepartureTime, double maxDepartureTime,
+            RaptorParameters parameters, int numberOfThreads, BiPredicate<TransitLine, TransitRoute> trainDetector, CoordAggregator coordAggregator) {
         // prepare calculation
         Set<T> zoneIds = coordsPerZone.keySet();
         PtIndicators<T> pti = new PtIndicators<>(zoneIds);
@@ -85,7 +95,7 @@ public class PTSkimMatrices {
         Thread[] threads = new Thread[numberOfThreads];
         for (int i = 0; i < numberOfThreads; i++) {
             SwissRailRaptor raptor = new SwissRailRaptor.Builder(raptorData, config).build();
-            RowWorker<T> worker = new RowWorker<>(originZones, zoneIds, coordsPerZone, pti, raptor, parameters, minDepartureTime, maxDepartureTime, stepSize_seconds, counter, trainDetector, coordAggregator);
+            RowWorker<T> worker = new RowWorker<>(originZones, zoneIds, coordsPerZone, pti, raptor, parameters, minDepartureTime, maxDepartureTime, counter, trainDetector, coordAggregator);
             threads[i] = new Thread(worker, "PT-FrequencyMatrix-" + Time.writeTime(minDepartureTime) + "-" + Time.writeTime(maxDepartureTime) + "-" + i);
             threads[i].start();
         }
@@ -141,13 +151,12 @@ public class PTSkimMatrices {
         private final RaptorParameters parameters;
         private final double minDepartureTime;
         private final double maxDepartureTime;
-        private final double stepSize;
         private final Counter counter;
         private final BiPredicate<TransitLine, TransitRoute> trainDetector;
 		private final CoordAggregator coordAggregator;
 
 		RowWorker(ConcurrentLinkedQueue<T> originZones, Set<T> destinationZones, Map<T, Coord[]> coordsPerZone, PtIndicators<T> pti, SwissRailRaptor raptor, RaptorParameters parameters,
-				  double minDepartureTime, double maxDepartureTime, double stepSize, Counter counter, BiPredicate<TransitLine, TransitRoute> trainDetector, CoordAggregator coordAggregator) {
+				  double minDepartureTime, double maxDepartureTime, Counter counter, BiPredicate<TransitLine, TransitRoute> trainDetector, CoordAggregator coordAggregator) {
             this.originZones = originZones;
             this.destinationZones = destinationZones;
             this.coordsPerZone = coordsPerZone;
@@ -156,7 +165,6 @@ public class PTSkimMatrices {
             this.parameters = parameters;
             this.minDepartureTime = minDepartureTime;
             this.maxDepartureTime = maxDepartureTime;
-            this.stepSize = stepSize;
             this.counter = counter;
             this.trainDetector = trainDetector;
 			this.coordAggregator = coordAggregator;
@@ -202,26 +210,20 @@ public class PTSkimMatrices {
                 accessTimes.put(stop.getId(), accessTime);
             }
 
-            List<Map<Id<TransitStopFacility>, TravelInfo>> trees = new ArrayList<>();
-
             double timeWindow = this.maxDepartureTime - this.minDepartureTime;
-            double endTime = this.maxDepartureTime + timeWindow;
-            for (double time = this.minDepartureTime - timeWindow; time < endTime; time += this.stepSize) {
-                Map<Id<TransitStopFacility>, TravelInfo> tree = this.raptor.calcTree(fromStops, time, this.parameters, null);
-                trees.add(tree);
-            }
+            Map<Id<TransitStopFacility>, List<TravelInfo>> profile = this.raptor.calcLeastCostProfile(fromStops, this.minDepartureTime - timeWindow, this.maxDepartureTime + timeWindow, this.parameters, null);
 
             for (T toZoneId : this.destinationZones) {
                 Coord[] toCoords = this.coordsPerZone.get(toZoneId);
                 if (toCoords != null) {
                     for (Coord toCoord : toCoords) {
-                        calcForOD(fromZoneId, toZoneId, toCoord, accessTimes, trees, (float) fromCoordWeight);
+                        calcForOD(fromZoneId, toZoneId, toCoord, accessTimes, profile, (float) fromCoordWeight);
                     }
                 }
             }
         }
 
-        private void calcForOD(T fromZoneId, T toZoneId, Coord toCoord, Map<Id<TransitStopFacility>, Double> accessTimes, List<Map<Id<TransitStopFacility>, TravelInfo>> trees, float fromCoordWeight) {
+        private void calcForOD(T fromZoneId, T toZoneId, Coord toCoord, Map<Id<TransitStopFacility>, Double> accessTimes, Map<Id<TransitStopFacility>, List<TravelInfo>> profile, float fromCoordWeight) {
             double walkSpeed = this.parameters.getBeelineWalkSpeed();
 
             Collection<TransitStopFacility> toStops = findStopCandidates(toCoord, this.raptor, this.parameters);
@@ -232,7 +234,7 @@ public class PTSkimMatrices {
                 egressTimes.put(stop.getId(), egressTime);
             }
 
-            List<ODConnection> connections = buildODConnections(trees, accessTimes, egressTimes);
+            List<ODConnection> connections = buildODConnections(profile, accessTimes, egressTimes);
             if (connections.isEmpty()) {
                 return;
             }
@@ -307,19 +309,21 @@ public class PTSkimMatrices {
             this.pti.dataCountMatrix.add(fromZoneId, toZoneId, fromCoordWeight);
         }
 
-        private List<ODConnection> buildODConnections(List<Map<Id<TransitStopFacility>, TravelInfo>> trees, Map<Id<TransitStopFacility>, Double> accessTimes,
+        private List<ODConnection> buildODConnections(Map<Id<TransitStopFacility>, List<TravelInfo>> profile, Map<Id<TransitStopFacility>, Double> accessTimes,
                 Map<Id<TransitStopFacility>, Double> egressTimes) {
             List<ODConnection> connections = new ArrayList<>();
 
-            for (Map<Id<TransitStopFacility>, TravelInfo> tree : trees) {
-                for (Map.Entry<Id<TransitStopFacility>, Double> egressEntry : egressTimes.entrySet()) {
-                    Id<TransitStopFacility> egressStopId = egressEntry.getKey();
-                    Double egressTime = egressEntry.getValue();
-                    TravelInfo info = tree.get(egressStopId);
-                    if (info != null && !info.isWalkOnly()) {
-                        Double accessTime = accessTimes.get(info.departureStop);
-                        ODConnection connection = new ODConnection(info.ptDepartureTime, info.ptTravelTime, accessTime, egressTime, info.transferCount, info);
-                        connections.add(connection);
+            for (Map.Entry<Id<TransitStopFacility>, Double> egressEntry : egressTimes.entrySet()) {
+                Id<TransitStopFacility> egressStopId = egressEntry.getKey();
+                Double egressTime = egressEntry.getValue();
+                List<TravelInfo> infos = profile.get(egressStopId);
+                if (infos != null) {
+                    for (TravelInfo info : infos) {
+                        if (!info.isWalkOnly()) {
+                            Double accessTime = accessTimes.get(info.departureStop);
+                            ODConnection connection = new ODConnection(info.ptDepartureTime, info.ptTravelTime, accessTime, egressTime, info.transferCount, info);
+                            connections.add(connection);
+                        }
                     }
                 }
             }
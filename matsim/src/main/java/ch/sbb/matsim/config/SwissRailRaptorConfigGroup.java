@@ -66,6 +66,12 @@ public class SwissRailRaptorConfigGroup extends ReflectiveConfigGroup {
     private static final String PARAM_INTERMODAL_LEG_ONLYHANDLING_DESC = "Define how routes containing only intermodal legs are handled: Useful options: alllow, avoid, forbid";
     private static final String PARAM_TRANSFER_CALCULATION = "transferCalculation";
     private static final String PARAM_TRANFER_CALCULATION_DESC = "Defines whether all potential transfers are precomputed at the beginning of the simulation (Initial) or whether they are constructed on-demand when needed (Adaptive). The former incurs potentially long up-front caclulations, but quicker routing. The latter avoids any initial computation, but may require longer routing time.";
+    private static final String PARAM_ROUTE_CACHE_SIZE = "routeCacheSize";
+    private static final String PARAM_ROUTE_CACHE_SIZE_DESC = "Maximum number of routes kept in a cache of found routes, keyed by the access stops, the egress stops, the departure time bin and the routing parameters. Routes that were not used for the longest time are evicted first. A cached route is re-used with the actual access and egress legs if its first vehicle can still be reached. The cache is cleared when the transit schedule or, with capacity constraints, the occupancy data changes. Only useful if the same routing parameters are used for many persons. 0 disables the cache (default).";
+    private static final String PARAM_ROUTE_CACHE_TIME_BIN_SIZE = "routeCacheTimeBinSize";
+    private static final String PARAM_ROUTE_CACHE_TIME_BIN_SIZE_DESC = "Size of the departure time bins of the route cache, in seconds. Requests departing in the same time bin may get the same route, even if a slightly better route departing between the two departure times exists.";
+    private static final String PARAM_TRANSFER_CACHE_DIRECTORY = "transferCacheDirectory";
+    private static final String PARAM_TRANSFER_CACHE_DIRECTORY_DESC = "Directory in which the transfers calculated at startup (transferCalculation=Initial) are stored in a binary file, named by a hash of the transit schedule and the transfer settings. If a file for the same schedule and settings exists, the transfers are read from it instead of being calculated again. The directory can be shared by several runs. Not set by default, i.e. the transfers are always calculated.";
 
     private boolean useRangeQuery = false;
     private boolean useIntermodality = false;
@@ -80,6 +86,9 @@ public class SwissRailRaptorConfigGroup extends ReflectiveConfigGroup {
     private double transferWalkMargin = 5;
 	private IntermodalLegOnlyHandling intermodalLegOnlyHandling = IntermodalLegOnlyHandling.forbid;
 	private RaptorTransferCalculation transferCalculation = RaptorTransferCalculation.Initial;
+	private int routeCacheSize = 0;
+	private double routeCacheTimeBinSize = 300;
+	private String transferCacheDirectory = null;
 
     private ScoringParameters scoringParameters = ScoringParameters.Default;
 
@@ -149,6 +158,36 @@ public class SwissRailRaptorConfigGroup extends ReflectiveConfigGroup {
 		return transferCalculation;
 	}
 
+	@StringGetter(PARAM_ROUTE_CACHE_SIZE)
+	public int getRouteCacheSize() {
+		return this.routeCacheSize;
+	}
+
+	@StringSetter(PARAM_ROUTE_CACHE_SIZE)
+	public void setRouteCacheSize(int routeCacheSize) {
+		this.routeCacheSize = routeCacheSize;
+	}
+
+	@StringGetter(PARAM_ROUTE_CACHE_TIME_BIN_SIZE)
+	public double getRouteCacheTimeBinSize() {
+		return this.routeCacheTimeBinSize;
+	}
+
+	@StringSetter(PARAM_ROUTE_CACHE_TIME_BIN_SIZE)
+	public void setRouteCacheTimeBinSize(double routeCacheTimeBinSize) {
+		this.routeCacheTimeBinSize = routeCacheTimeBinSize;
+	}
+
+	@StringGetter(PARAM_TRANSFER_CACHE_DIRECTORY)
+	public String getTransferCacheDirectory() {
+		return this.transferCacheDirectory;
+	}
+
+	@StringSetter(PARAM_TRANSFER_CACHE_DIRECTORY)
+	public void setTransferCacheDirectory(String transferCacheDirectory) {
+		this.transferCacheDirectory = transferCacheDirectory;
+	}
+
 	@StringGetter(PARAM_USE_RANGE_QUERY)
     public boolean isUseRangeQuery() {
         return this.useRangeQuery;
@@ -724,6 +763,9 @@ public class SwissRailRaptorConfigGroup extends ReflectiveConfigGroup {
         comments.put(PARAM_TRANSFER_WALK_MARGIN, PARAM_TRANSFER_WALK_MARGIN_DESC);
 		comments.put(PARAM_INTERMODAL_ACCESS_EGRESS_MODE_SELECTION,PARAM_INTERMODAL_ACCESS_EGRESS_MODE_SELECTION_DESC);
 		comments.put(PARAM_TRANSFER_CALCULATION, PARAM_TRANFER_CALCULATION_DESC);
+		comments.put(PARAM_ROUTE_CACHE_SIZE, PARAM_ROUTE_CACHE_SIZE_DESC);
+		comments.put(PARAM_ROUTE_CACHE_TIME_BIN_SIZE, PARAM_ROUTE_CACHE_TIME_BIN_SIZE_DESC);
+		comments.put(PARAM_TRANSFER_CACHE_DIRECTORY, PARAM_TRANSFER_CACHE_DIRECTORY_DESC);
         return comments;
     }
 
@@ -754,5 +796,7 @@ public class SwissRailRaptorConfigGroup extends ReflectiveConfigGroup {
 
             }
         }
+		Verify.verify(this.routeCacheSize >= 0, "routeCacheSize must not be negative.");
+		Verify.verify(this.routeCacheTimeBinSize > 0.0, "routeCacheTimeBinSize must be positive.");
 	}
 }
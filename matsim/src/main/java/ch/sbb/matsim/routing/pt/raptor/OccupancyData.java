@@ -50,6 +50,7 @@ public class OccupancyData {
 	final Map<Id<Vehicle>, VehicleData> vehicleData = new HashMap<>();
 	final Map<Id<Person>, PassengerData> paxData = new HashMap<>();
 	private CacheData cache = null;
+	private volatile int version = 0;
 
 	public void reset() {
 		LOG.info("[SwissRailRaptor] Resetting ExecutionData");
@@ -57,6 +58,19 @@ public class OccupancyData {
 		this.vehicleData.clear();
 		this.paxData.clear();
 		this.cache = null;
+		this.version++;
+	}
+
+	/**
+	 * @return a number that changes whenever the departure data changes, so routes found with older data can be detected.
+	 */
+	int getVersion() {
+		return this.version;
+	}
+
+	/** Only called by the single thread that records the departure data, see {@link OccupancyTracker}. */
+	void markModified() {
+		this.version++;
 	}
 
 	public DepartureData getNextAvailableDeparture(Id<TransitLine> transitLine, Id<TransitRoute> transitRoute, Id<TransitStopFacility> stopFacility, double time) {
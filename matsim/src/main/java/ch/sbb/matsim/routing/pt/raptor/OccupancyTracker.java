@@ -133,6 +133,7 @@ public class OccupancyTracker implements PersonDepartureEventHandler, AgentWaiti
 			DepartureData dep = stop.getOrCreate(vehData.departureId);
 			dep.vehDepTime = event.getTime();
 			dep.paxCountAtDeparture = vehData.currentPaxCount;
+			this.data.markModified();
 		}
 	}
 
@@ -156,6 +157,7 @@ public class OccupancyTracker implements PersonDepartureEventHandler, AgentWaiti
 			stop.getOrCreate(vehData.departureId).addWaitingPerson(waitStart);
 			passengerData.vehBoardingTime = event.getTime();
 			passengerData.departureId = vehData.departureId;
+			this.data.markModified();
 		}
 	}
 
@@ -22,6 +22,7 @@ package ch.sbb.matsim.routing.pt.raptor;
 
 import ch.sbb.matsim.config.SwissRailRaptorConfigGroup;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -125,6 +126,10 @@ public class RaptorParameters {
         this.marginalUtilityOfTravelTime_utl_s.put(mode, marginalUtilityOfTravelTime_utl_s);
     }
 
+    Map<String, Double> getMarginalUtilitiesOfTravelTime_utl_s() {
+        return Collections.unmodifiableMap(this.marginalUtilityOfTravelTime_utl_s);
+    }
+
     public double getMarginalUtilityOfWaitingPt_utl_s() {
         return this.marginalUtilityOfWaitingPt_utl_s;
     }
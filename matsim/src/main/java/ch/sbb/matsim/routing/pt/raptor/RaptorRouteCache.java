@@ -0,0 +1,395 @@
+/* *********************************************************************** *
+ * project: org.matsim.* 												   *
+ *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package ch.sbb.matsim.routing.pt.raptor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.matsim.facilities.Facility;
+import org.matsim.pt.transitSchedule.api.TransitStopFacility;
+
+import ch.sbb.matsim.config.SwissRailRaptorConfigGroup;
+import ch.sbb.matsim.routing.pt.raptor.RaptorRoute.RoutePart;
+
+/**
+ * Caches the routes found by {@link SwissRailRaptor} for repeated queries between the same access and egress stops.
+ * <p>
+ * The key consists of the (sorted) indices of the access stops and of the egress stops, the departure time bin and the
+ * values of the {@link RaptorParameters} which influence the costs between the stops. A cached route only stores the
+ * part between the first boarding and the last alighting stop, together with the access and egress costs of the request
+ * it was found for. Requests from different locations which reach the same stops thus share the cached routes; on a
+ * lookup, the access and egress legs and their costs are rebuilt from the actual {@link InitialStop}s of the request.
+ * <p>
+ * A cached route is only used if it is still the least cost route for the new access and egress costs: its access and
+ * egress stops, including the waiting time at the first stop, must not have become more expensive, relative to the
+ * original request, than the cheapest change over all access and egress stops. No access stop may be reached earlier than in the original request either, as earlier
+ * departures might be caught then. Otherwise, the request counts as a miss. Up to {@value #MAX_ROUTES_PER_KEY} routes
+ * are kept per key. A cached route is also only re-used if the actual access leg still reaches its first vehicle.
+ * Requests departing later in the same time bin may thus get a route which leaves slightly later than the best route for
+ * their departure time. The costs of the waiting time at the first stop are updated for the actual arrival at the stop.
+ * <p>
+ * Routes with intermodal access or egress legs given as plan elements are not cached, as their legs are not copied. The
+ * least recently used keys are evicted first. The cache is cleared whenever the version of the {@link OccupancyData}
+ * changes. A new cache is created together with a new {@link SwissRailRaptorData} when the schedule changes.
+ * <p>
+ * The key does not contain the person, so the cache is only used if the in-vehicle and transfer costs do not depend on
+ * the person beyond its {@link RaptorParameters}, see {@link #supports(RaptorInVehicleCostCalculator,
+ * RaptorTransferCostCalculator)}.
+ * <p>
+ * The cache is shared by all {@link SwissRailRaptor} instances using the same data, and is thus thread-safe.
+ */
+final class RaptorRouteCache {
+
+	private static final Logger log = LogManager.getLogger(RaptorRouteCache.class);
+
+	static final int MAX_ROUTES_PER_KEY = 8;
+
+	private final SwissRailRaptorData data;
+	private final double timeBinSize;
+	private final Map<Key, List<CachedRoute>> routes;
+	private int occupancyVersion;
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+	private long nextLogCount = 1000;
+
+	RaptorRouteCache(SwissRailRaptorData data, int maxSize, double timeBinSize) {
+		this.data = data;
+		this.timeBinSize = timeBinSize;
+		this.routes = new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key, List<CachedRoute>> eldest) {
+				return size() > maxSize;
+			}
+		};
+		this.occupancyVersion = data.occupancyData == null ? 0 : data.occupancyData.getVersion();
+	}
+
+	/**
+	 * @return <code>true</code> if the cost calculators are known to calculate the same costs for all persons with the
+	 * same {@link RaptorParameters}. Subclasses are not accepted, as they might add person-dependent costs.
+	 */
+	static boolean supports(RaptorInVehicleCostCalculator inVehicleCostCalculator, RaptorTransferCostCalculator transferCostCalculator) {
+		Class<?> inVehicleType = inVehicleCostCalculator.getClass();
+		return (inVehicleType == DefaultRaptorInVehicleCostCalculator.class || inVehicleType == CapacityDependentInVehicleCostCalculator.class)
+				&& transferCostCalculator.getClass() == DefaultRaptorTransferCostCalculator.class;
+	}
+
+	Key createKey(double departureTime, List<InitialStop> accessStops, List<InitialStop> egressStops, RaptorParameters parameters) {
+		StopCosts access = getStopCosts(accessStops);
+		StopCosts egress = getStopCosts(egressStops);
+		double[] accessArrivalTimes = access.times;
+		for (int i = 0; i < accessArrivalTimes.length; i++) {
+			accessArrivalTimes[i] += departureTime;
+		}
+		return new Key(access.stopIndices, egress.stopIndices, (int) (departureTime / this.timeBinSize),
+				new ParametersKey(parameters), access.costs, egress.costs, accessArrivalTimes);
+	}
+
+	/**
+	 * @return a cached route with access and egress legs built from the given stops, or <code>null</code> if there is
+	 * no cached route for this key which is also the least cost route for these stops and this departure time.
+	 */
+	RaptorRoute get(Key key, Facility fromFacility, Facility toFacility, double departureTime, List<InitialStop> accessStops, List<InitialStop> egressStops) {
+		List<CachedRoute> cached;
+		synchronized (this) {
+			checkOccupancyVersion();
+			cached = this.routes.get(key);
+		}
+		RaptorRoute route = null;
+		if (cached != null) {
+			for (int i = cached.size() - 1; i >= 0 && route == null; i--) {
+				route = cached.get(i).createRoute(key, fromFacility, toFacility, departureTime, accessStops, egressStops);
+			}
+		}
+		long lookups;
+		if (route == null) {
+			lookups = this.misses.incrementAndGet() + this.hits.get();
+		} else {
+			lookups = this.hits.incrementAndGet() + this.misses.get();
+		}
+		logStatistics(lookups);
+		return route;
+	}
+
+	void put(Key key, RaptorRoute route, List<InitialStop> accessStops, List<InitialStop> egressStops) {
+		CachedRoute cached = CachedRoute.create(key, route, accessStops, egressStops);
+		if (cached != null) {
+			synchronized (this) {
+				checkOccupancyVersion();
+				// the lists are never modified, so they can be read outside of the lock
+				List<CachedRoute> previous = this.routes.get(key);
+				List<CachedRoute> updated = new ArrayList<>(MAX_ROUTES_PER_KEY);
+				if (previous != null) {
+					updated.addAll(previous.subList(Math.max(0, previous.size() - MAX_ROUTES_PER_KEY + 1), previous.size()));
+				}
+				updated.add(cached);
+				this.routes.put(key, updated);
+			}
+		}
+	}
+
+	/**
+	 * @return the number of keys with cached routes
+	 */
+	synchronized int size() {
+		return this.routes.size();
+	}
+
+	long getHits() {
+		return this.hits.get();
+	}
+
+	long getMisses() {
+		return this.misses.get();
+	}
+
+	private void checkOccupancyVersion() {
+		if (this.data.occupancyData != null && this.data.occupancyData.getVersion() != this.occupancyVersion) {
+			if (!this.routes.isEmpty()) {
+				log.info("[SwissRailRaptor] occupancy data changed, clearing the route cache. " + this.hits.get() + " hits, " + this.misses.get() + " misses so far.");
+			}
+			this.routes.clear();
+			this.occupancyVersion = this.data.occupancyData.getVersion();
+		}
+	}
+
+	private void logStatistics(long lookups) {
+		if (lookups >= this.nextLogCount) {
+			synchronized (this) {
+				if (lookups >= this.nextLogCount) {
+					this.nextLogCount *= 4;
+					log.info("[SwissRailRaptor] route cache: " + this.hits.get() + " hits, " + this.misses.get() + " misses, " + this.routes.size() + " keys cached.");
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return the sorted distinct indices of the stops, each with the lowest access cost and time of any initial stop at it
+	 */
+	private StopCosts getStopCosts(List<InitialStop> stops) {
+		int[] indices = new int[stops.size()];
+		for (int i = 0; i < indices.length; i++) {
+			Integer index = this.data.stopFacilityIndices.get(stops.get(i).stop);
+			indices[i] = index == null ? -1 : index;
+		}
+		int[] stopIndices = Arrays.stream(indices).sorted().distinct().toArray();
+		double[] costs = new double[stopIndices.length];
+		double[] times = new double[stopIndices.length];
+		Arrays.fill(costs, Double.POSITIVE_INFINITY);
+		Arrays.fill(times, Double.POSITIVE_INFINITY);
+		for (int i = 0; i < indices.length; i++) {
+			int position = Arrays.binarySearch(stopIndices, indices[i]);
+			costs[position] = Math.min(costs[position], stops.get(i).accessCost);
+			times[position] = Math.min(times[position], stops.get(i).accessTime);
+		}
+		return new StopCosts(stopIndices, costs, times);
+	}
+
+	private record StopCosts(int[] stopIndices, double[] costs, double[] times) {
+	}
+
+	/**
+	 * The values of the {@link RaptorParameters} which influence the costs between the access and the egress stops.
+	 * The other values only influence the choice of the access and egress stops, which are part of the key anyway.
+	 */
+	private record ParametersKey(SwissRailRaptorConfigGroup config, Map<String, Double> marginalUtilitiesOfTravelTime_utl_s,
+			double marginalUtilityOfWaitingPt_utl_s, double transferPenaltyFixCostPerTransfer, double transferPenaltyPerTravelTimeHour,
+			double transferPenaltyMinimum, double transferPenaltyMaximum, boolean useTransportModeUtilities, int maxTransfers,
+			boolean exactDeparturesOnly) {
+
+		ParametersKey(RaptorParameters parameters) {
+			this(parameters.getConfig(), Map.copyOf(parameters.getMarginalUtilitiesOfTravelTime_utl_s()),
+					parameters.getMarginalUtilityOfWaitingPt_utl_s(), parameters.getTransferPenaltyFixCostPerTransfer(),
+					parameters.getTransferPenaltyPerTravelTimeHour(), parameters.getTransferPenaltyMinimum(),
+					parameters.getTransferPenaltyMaximum(), parameters.isUseTransportModeUtilities(), parameters.getMaxTransfers(),
+					parameters.isExactDeparturesOnly());
+		}
+	}
+
+	static final class Key {
+		private final int[] accessStops;
+		private final int[] egressStops;
+		private final int timeBin;
+		private final ParametersKey parameters;
+		private final int hashCode;
+
+		/** the lowest access and egress costs and the earliest arrival at each stop of the request, not part of the key */
+		private final double[] accessCosts;
+		private final double[] egressCosts;
+		private final double[] accessArrivalTimes;
+
+		private Key(int[] accessStops, int[] egressStops, int timeBin, ParametersKey parameters, double[] accessCosts,
+				double[] egressCosts, double[] accessArrivalTimes) {
+			this.accessStops = accessStops;
+			this.egressStops = egressStops;
+			this.timeBin = timeBin;
+			this.parameters = parameters;
+			this.accessCosts = accessCosts;
+			this.egressCosts = egressCosts;
+			this.accessArrivalTimes = accessArrivalTimes;
+			this.hashCode = 31 * (31 * (31 * Arrays.hashCode(accessStops) + Arrays.hashCode(egressStops)) + timeBin) + parameters.hashCode();
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			return o instanceof Key other
+					&& this.timeBin == other.timeBin
+					&& Arrays.equals(this.accessStops, other.accessStops)
+					&& Arrays.equals(this.egressStops, other.egressStops)
+					&& this.parameters.equals(other.parameters);
+		}
+
+		@Override
+		public int hashCode() {
+			return this.hashCode;
+		}
+	}
+
+	/**
+	 * The part of a route between the access and the egress leg, together with the access and egress costs and the
+	 * access arrival times of the request it was found for.
+	 */
+	private static final class CachedRoute {
+		private final RoutePart access;
+		private final List<RoutePart> core;
+		private final RoutePart egress;
+		private final double coreCosts;
+		private final double accessCost;
+		private final double egressCost;
+		private final double[] accessCosts;
+		private final double[] egressCosts;
+		private final double[] accessArrivalTimes;
+
+		private CachedRoute(RoutePart access, List<RoutePart> core, RoutePart egress, double coreCosts, double accessCost,
+				double egressCost, double[] accessCosts, double[] egressCosts, double[] accessArrivalTimes) {
+			this.access = access;
+			this.core = core;
+			this.egress = egress;
+			this.coreCosts = coreCosts;
+			this.accessCost = accessCost;
+			this.egressCost = egressCost;
+			this.accessCosts = accessCosts;
+			this.egressCosts = egressCosts;
+			this.accessArrivalTimes = accessArrivalTimes;
+		}
+
+		static CachedRoute create(Key key, RaptorRoute route, List<InitialStop> accessStops, List<InitialStop> egressStops) {
+			List<RoutePart> parts = route.parts;
+			if (parts.size() < 3 || Double.isInfinite(route.getTotalCosts())) {
+				return null;
+			}
+			RoutePart access = parts.get(0);
+			RoutePart egress = parts.get(parts.size() - 1);
+			if (access.fromStop != null || egress.toStop != null || parts.get(1).line == null) {
+				// no plain access and egress leg, e.g. intermodal legs with plan elements
+				return null;
+			}
+			for (RoutePart part : parts) {
+				if (part.planElements != null) {
+					return null;
+				}
+			}
+			InitialStop accessStop = findInitialStop(accessStops, access.toStop);
+			InitialStop egressStop = findInitialStop(egressStops, egress.fromStop);
+			if (accessStop == null || egressStop == null || (int) (egress.depTime + egressStop.accessTime) != egress.arrivalTime) {
+				// e.g. the last transfer was merged into the egress leg
+				return null;
+			}
+			double coreCosts = route.getTotalCosts() - accessStop.accessCost - egressStop.accessCost;
+			return new CachedRoute(access, List.copyOf(parts.subList(1, parts.size() - 1)), egress, coreCosts,
+					accessStop.accessCost, egressStop.accessCost, key.accessCosts, key.egressCosts, key.accessArrivalTimes);
+		}
+
+		RaptorRoute createRoute(Key key, Facility fromFacility, Facility toFacility, double departureTime, List<InitialStop> accessStops, List<InitialStop> egressStops) {
+			InitialStop accessStop = findInitialStop(accessStops, this.access.toStop);
+			InitialStop egressStop = findInitialStop(egressStops, this.egress.fromStop);
+			if (accessStop == null || egressStop == null) {
+				return null;
+			}
+			RoutePart firstPt = this.core.get(0);
+			// times at stops are whole seconds, like in SwissRailRaptorCore
+			int arrivalAtStop = (int) (departureTime + accessStop.accessTime);
+			if (arrivalAtStop > firstPt.vehicleDepTime) {
+				return null;
+			}
+			// the core costs contain the waiting time at the first stop, which changes with the arrival at the stop
+			double waitingCostPerSecond = -key.parameters.marginalUtilityOfWaitingPt_utl_s();
+			double waitingCostChange = -(arrivalAtStop - this.access.arrivalTime) * waitingCostPerSecond;
+			// any other route costs at least its original costs plus the lowest change of the access and egress costs
+			double costChange = accessStop.accessCost - this.accessCost + waitingCostChange + egressStop.accessCost - this.egressCost;
+			double minAccessCostChange = Double.POSITIVE_INFINITY;
+			for (int i = 0; i < this.accessCosts.length; i++) {
+				double arrivalTimeChange = key.accessArrivalTimes[i] - this.accessArrivalTimes[i];
+				if (arrivalTimeChange < 0) {
+					// earlier departures might be caught at this stop
+					return null;
+				}
+				minAccessCostChange = Math.min(minAccessCostChange, key.accessCosts[i] - this.accessCosts[i] - arrivalTimeChange * waitingCostPerSecond);
+			}
+			if (costChange > minAccessCostChange + minCostChange(key.egressCosts, this.egressCosts)) {
+				return null;
+			}
+			RaptorRoute route = new RaptorRoute(fromFacility, toFacility, this.coreCosts + waitingCostChange + accessStop.accessCost + egressStop.accessCost);
+			route.addNonPt(null, accessStop.stop, departureTime, arrivalAtStop - departureTime, accessStop.distance, accessStop.mode);
+			// the agent starts waiting for the first vehicle when arriving at the stop
+			route.addPt(firstPt.fromStop, firstPt.toStop, firstPt.line, firstPt.route, firstPt.mode, arrivalAtStop, firstPt.boardingTime, firstPt.vehicleDepTime, firstPt.arrivalTime, firstPt.distance);
+			for (RoutePart part : this.core.subList(1, this.core.size())) {
+				if (part.line == null) {
+					route.addNonPt(part.fromStop, part.toStop, part.depTime, part.arrivalTime - part.depTime, part.distance, part.mode);
+				} else {
+					route.addPt(part.fromStop, part.toStop, part.line, part.route, part.mode, part.depTime, part.boardingTime, part.vehicleDepTime, part.arrivalTime, part.distance);
+				}
+			}
+			double egressDepTime = this.core.get(this.core.size() - 1).arrivalTime;
+			int arrivalAtDestination = (int) (egressDepTime + egressStop.accessTime);
+			route.addNonPt(egressStop.stop, null, egressDepTime, arrivalAtDestination - egressDepTime, egressStop.distance, egressStop.mode);
+			return route;
+		}
+
+		private static double minCostChange(double[] costs, double[] originalCosts) {
+			double min = Double.POSITIVE_INFINITY;
+			for (int i = 0; i < costs.length; i++) {
+				min = Math.min(min, costs[i] - originalCosts[i]);
+			}
+			return min;
+		}
+
+		/**
+		 * @return the cheapest stop without plan elements at the given stop facility, or <code>null</code> if there is none.
+		 */
+		private static InitialStop findInitialStop(List<InitialStop> stops, TransitStopFacility stopFacility) {
+			InitialStop best = null;
+			for (InitialStop stop : stops) {
+				if (stop.stop == stopFacility && stop.planElements == null && (best == null || stop.accessCost < best.accessCost)) {
+					best = stop;
+				}
+			}
+			return best;
+		}
+	}
+}
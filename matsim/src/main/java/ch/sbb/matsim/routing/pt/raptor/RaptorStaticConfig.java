@@ -89,6 +89,10 @@ public class RaptorStaticConfig {
     private RaptorOptimization optimization = RaptorOptimization.OneToOneRouting;
     private RaptorTransferCalculation transferCalculation = RaptorTransferCalculation.Initial;
 
+    private int routeCacheSize = 0;
+    private double routeCacheTimeBinSize = 300;
+    private String transferCacheDirectory = null;
+
 	private SwissRailRaptorConfigGroup.IntermodalLegOnlyHandling intermodalLegOnlyHandling = SwissRailRaptorConfigGroup.IntermodalLegOnlyHandling.forbid;
 
     public double getBeelineWalkConnectionDistance() {
@@ -192,4 +196,28 @@ public class RaptorStaticConfig {
     public void setTransferCalculation(RaptorTransferCalculation transferCalculation) {
         this.transferCalculation = transferCalculation;
     }
+
+    public int getRouteCacheSize() {
+        return this.routeCacheSize;
+    }
+
+    public void setRouteCacheSize(int routeCacheSize) {
+        this.routeCacheSize = routeCacheSize;
+    }
+
+    public double getRouteCacheTimeBinSize() {
+        return this.routeCacheTimeBinSize;
+    }
+
+    public void setRouteCacheTimeBinSize(double routeCacheTimeBinSize) {
+        this.routeCacheTimeBinSize = routeCacheTimeBinSize;
+    }
+
+    public String getTransferCacheDirectory() {
+        return this.transferCacheDirectory;
+    }
+
+    public void setTransferCacheDirectory(String transferCacheDirectory) {
+        this.transferCacheDirectory = transferCacheDirectory;
+    }
 }
@@ -0,0 +1,228 @@
+/* *********************************************************************** *
+ * project: org.matsim.* 												   *
+ *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package ch.sbb.matsim.routing.pt.raptor;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.List;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.matsim.pt.transitSchedule.api.MinimalTransferTimes;
+import org.matsim.pt.transitSchedule.api.TransitSchedule;
+import org.matsim.pt.transitSchedule.api.TransitStopFacility;
+
+import ch.sbb.matsim.routing.pt.raptor.SwissRailRaptorData.RRoute;
+import ch.sbb.matsim.routing.pt.raptor.SwissRailRaptorData.RRouteStop;
+import ch.sbb.matsim.routing.pt.raptor.SwissRailRaptorData.RTransfer;
+
+/**
+ * Stores the transfers calculated by {@link SwissRailRaptorData#create} in a binary file, so later runs with the same
+ * transit schedule and transfer settings do not need to calculate them again.
+ * <p>
+ * The file name contains a SHA-256 hash of everything the transfers depend on: the route stops with their stop
+ * facilities, coordinates and offsets, the first and last departure of each route, the minimal transfer times of the
+ * schedule and the transfer settings of the {@link RaptorStaticConfig}. The network is not part of the hash, as it
+ * does not influence the transfers. The file is memory-mapped when read. Layout (big endian):
+ * <pre>
+ * file := MAGIC:long VERSION:int hash:byte[32] routeStopCount:int transferCount:int transfer*
+ * transfer := fromRouteStop:int toRouteStop:int transferTime:int transferDistance:int
+ * </pre>
+ * The transfers are sorted by their from route stop. A file is written to a temporary file first and then moved,
+ * so concurrent runs sharing the directory never read a partially written file. Problems with the cache are only
+ * logged; the transfers are then calculated as without the cache.
+ */
+final class RaptorTransferCache {
+
+	private static final Logger log = LogManager.getLogger(RaptorTransferCache.class);
+
+	static final long MAGIC = 0x5352525452414E53L; // "SRRTRANS"
+	static final int VERSION = 1;
+	private static final int HEADER_SIZE = 8 + 4 + 32 + 4 + 4;
+
+	private final Path file;
+	private final byte[] hash;
+	private final int routeStopCount;
+
+	RaptorTransferCache(String directory, TransitSchedule schedule, RRoute[] routes, RRouteStop[] routeStops, RaptorStaticConfig config) {
+		this.hash = calculateHash(schedule, routes, routeStops, config);
+		this.file = Path.of(directory, "srrTransfers_" + HexFormat.of().formatHex(this.hash) + ".bin");
+		this.routeStopCount = routeStops.length;
+	}
+
+	Path getFile() {
+		return this.file;
+	}
+
+	/**
+	 * @return the cached transfers, or <code>null</code> if there is no valid file for this schedule and configuration.
+	 */
+	RTransfer[] read() {
+		if (!Files.isRegularFile(this.file)) {
+			log.info("SwissRailRaptor: no cached transfers found in " + this.file);
+			return null;
+		}
+		try (FileChannel channel = FileChannel.open(this.file, StandardOpenOption.READ)) {
+			ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			if (buffer.remaining() < HEADER_SIZE || buffer.getLong() != MAGIC || buffer.getInt() != VERSION) {
+				log.warn("SwissRailRaptor: " + this.file + " is not a transfer cache file of this version, transfers will be calculated.");
+				return null;
+			}
+			byte[] fileHash = new byte[this.hash.length];
+			buffer.get(fileHash);
+			int fileRouteStopCount = buffer.getInt();
+			int transferCount = buffer.getInt();
+			if (!MessageDigest.isEqual(fileHash, this.hash) || fileRouteStopCount != this.routeStopCount || buffer.remaining() != transferCount * 16L) {
+				log.warn("SwissRailRaptor: " + this.file + " does not match the transit schedule, transfers will be calculated.");
+				return null;
+			}
+			IntBuffer values = buffer.asIntBuffer();
+			RTransfer[] transfers = new RTransfer[transferCount];
+			int lastFromRouteStop = 0;
+			for (int i = 0; i < transferCount; i++) {
+				int fromRouteStop = values.get();
+				int toRouteStop = values.get();
+				int transferTime = values.get();
+				int transferDistance = values.get();
+				if (fromRouteStop < lastFromRouteStop || fromRouteStop >= this.routeStopCount || toRouteStop < 0 || toRouteStop >= this.routeStopCount) {
+					log.warn("SwissRailRaptor: " + this.file + " contains invalid transfers, transfers will be calculated.");
+					return null;
+				}
+				transfers[i] = new RTransfer(fromRouteStop, toRouteStop, transferTime, transferDistance);
+				lastFromRouteStop = fromRouteStop;
+			}
+			log.info("SwissRailRaptor: read " + transferCount + " cached transfers from " + this.file);
+			return transfers;
+		} catch (IOException e) {
+			log.warn("SwissRailRaptor: could not read cached transfers from " + this.file + ", transfers will be calculated.", e);
+			return null;
+		}
+	}
+
+	/**
+	 * Writes the transfers, which must be sorted by their from route stop.
+	 */
+	void write(RTransfer[] transfers) {
+		Path tmpFile = null;
+		try {
+			Files.createDirectories(this.file.getParent());
+			tmpFile = Files.createTempFile(this.file.getParent(), "srrTransfers_", ".tmp");
+			try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmpFile), 1 << 16))) {
+				out.writeLong(MAGIC);
+				out.writeInt(VERSION);
+				out.write(this.hash);
+				out.writeInt(this.routeStopCount);
+				out.writeInt(transfers.length);
+				for (RTransfer transfer : transfers) {
+					out.writeInt(transfer.fromRouteStop);
+					out.writeInt(transfer.toRouteStop);
+					out.writeInt(transfer.transferTime);
+					out.writeInt(transfer.transferDistance);
+				}
+			}
+			try {
+				Files.move(tmpFile, this.file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(tmpFile, this.file, StandardCopyOption.REPLACE_EXISTING);
+			}
+			log.info("SwissRailRaptor: wrote " + transfers.length + " transfers to " + this.file);
+		} catch (IOException e) {
+			log.warn("SwissRailRaptor: could not write transfers to " + this.file, e);
+			if (tmpFile != null) {
+				try {
+					Files.deleteIfExists(tmpFile);
+				} catch (IOException ignored) {
+					// nothing more we can do
+				}
+			}
+		}
+	}
+
+	private static byte[] calculateHash(TransitSchedule schedule, RRoute[] routes, RRouteStop[] routeStops, RaptorStaticConfig config) {
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new RuntimeException(e);
+		}
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new DigestOutputStream(OutputStream.nullOutputStream(), digest), 1 << 16))) {
+			out.writeInt(VERSION);
+			out.writeDouble(config.getBeelineWalkConnectionDistance());
+			out.writeDouble(config.getBeelineWalkSpeed());
+			out.writeDouble(config.getBeelineWalkDistanceFactor());
+			out.writeDouble(config.getMinimalTransferTime());
+			out.writeUTF(config.getOptimization().name());
+
+			out.writeInt(routes.length);
+			for (RRoute route : routes) {
+				out.writeInt(route.indexFirstRouteStop);
+				out.writeInt(route.countRouteStops);
+				out.writeDouble(route.earliestDepartureTime);
+				out.writeDouble(route.latestDepartureTime);
+			}
+			out.writeInt(routeStops.length);
+			for (RRouteStop routeStop : routeStops) {
+				TransitStopFacility stop = routeStop.routeStop.getStopFacility();
+				out.writeUTF(stop.getId().toString());
+				out.writeDouble(stop.getCoord().getX());
+				out.writeDouble(stop.getCoord().getY());
+				out.writeUTF(routeStop.line.getId().toString());
+				out.writeUTF(routeStop.route.getId().toString());
+				out.writeInt(routeStop.arrivalOffset);
+				out.writeInt(routeStop.departureOffset);
+				out.writeBoolean(routeStop.routeStop.isAllowBoarding());
+				out.writeBoolean(routeStop.routeStop.isAllowAlighting());
+			}
+
+			// the iteration order of the minimal transfer times is not defined, so sort them first
+			List<String> minimalTransferTimes = new ArrayList<>();
+			MinimalTransferTimes.MinimalTransferTimesIterator iter = schedule.getMinimalTransferTimes().iterator();
+			while (iter.hasNext()) {
+				iter.next();
+				minimalTransferTimes.add(iter.getFromStopId() + "\t" + iter.getToStopId() + "\t" + iter.getSeconds());
+			}
+			Collections.sort(minimalTransferTimes);
+			out.writeInt(minimalTransferTimes.size());
+			for (String minimalTransferTime : minimalTransferTimes) {
+				out.writeUTF(minimalTransferTime);
+			}
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+		return digest.digest();
+	}
+}
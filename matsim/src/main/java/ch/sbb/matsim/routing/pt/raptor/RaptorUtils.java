@@ -76,6 +76,9 @@ public final class RaptorUtils {
 			staticConfig.addModeToModeTransferPenalty(penalty.fromMode,penalty.toMode,penalty.transferPenalty);
 		}
         staticConfig.setUseCapacityConstraints(srrConfig.isUseCapacityConstraints());
+        staticConfig.setRouteCacheSize(srrConfig.getRouteCacheSize());
+        staticConfig.setRouteCacheTimeBinSize(srrConfig.getRouteCacheTimeBinSize());
+        staticConfig.setTransferCacheDirectory(srrConfig.getTransferCacheDirectory());
 
         return staticConfig;
     }
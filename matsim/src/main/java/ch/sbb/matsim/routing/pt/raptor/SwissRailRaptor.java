@@ -62,8 +62,10 @@ public class SwissRailRaptor implements TransitRouter {
     private final RaptorParametersForPerson parametersForPerson;
     private final RaptorRouteSelector defaultRouteSelector;
     private final RaptorStopFinder stopFinder;
+    private final RaptorRouteCache routeCache;
 
     private boolean treeWarningShown = false;
+    private static boolean routeCacheWarningShown = false;
 
     public SwissRailRaptor(SwissRailRaptorData data,
                            RaptorParametersForPerson parametersForPerson,
@@ -76,6 +78,15 @@ public class SwissRailRaptor implements TransitRouter {
         this.parametersForPerson = parametersForPerson;
         this.defaultRouteSelector = routeSelector;
         this.stopFinder = stopFinder;
+        if (data.routeCache != null && !RaptorRouteCache.supports(inVehicleCostCalculator, transferCostCalculator)) {
+            if (!routeCacheWarningShown) {
+                log.warn("[SwissRailRaptor] the route cache is not used, as the in-vehicle or transfer costs may depend on the person.");
+                routeCacheWarningShown = true;
+            }
+            this.routeCache = null;
+        } else {
+            this.routeCache = data.routeCache;
+        }
     }
 
     @Override
@@ -93,7 +104,7 @@ public class SwissRailRaptor implements TransitRouter {
         List<InitialStop> accessStops = findAccessStops(fromFacility, toFacility, person, departureTime, routingAttributes, parameters);
         List<InitialStop> egressStops = findEgressStops(fromFacility, toFacility, person, departureTime, routingAttributes, parameters);
 
-        RaptorRoute foundRoute = this.raptor.calcLeastCostRoute(departureTime, fromFacility, toFacility, accessStops, egressStops, parameters, person);
+        RaptorRoute foundRoute = calcLeastCostRoute(departureTime, fromFacility, toFacility, accessStops, egressStops, parameters, person);
         RaptorRoute directWalk = createDirectWalk(fromFacility, toFacility, departureTime, person, parameters);
 
         /*
@@ -123,6 +134,22 @@ public class SwissRailRaptor implements TransitRouter {
         return legs;
     }
 
+	private RaptorRoute calcLeastCostRoute(double departureTime, Facility fromFacility, Facility toFacility, List<InitialStop> accessStops, List<InitialStop> egressStops, RaptorParameters parameters, Person person) {
+		RaptorRouteCache cache = this.routeCache;
+		if (cache == null) {
+			return this.raptor.calcLeastCostRoute(departureTime, fromFacility, toFacility, accessStops, egressStops, parameters, person);
+		}
+		RaptorRouteCache.Key key = cache.createKey(departureTime, accessStops, egressStops, parameters);
+		RaptorRoute route = cache.get(key, fromFacility, toFacility, departureTime, accessStops, egressStops);
+		if (route == null) {
+			route = this.raptor.calcLeastCostRoute(departureTime, fromFacility, toFacility, accessStops, egressStops, parameters, person);
+			if (route != null) {
+				cache.put(key, route, accessStops, egressStops);
+			}
+		}
+		return route;
+	}
+
 	private boolean hasNoPtLeg(List<RoutePart> parts) {
 		for (RoutePart part : parts) {
 			// if the route part has a TransitLine, it must be a real pt leg
@@ -240,6 +267,26 @@ public class SwissRailRaptor implements TransitRouter {
         return this.calcLeastCostTree(accessStops, departureTime, parameters, person, null);
     }
 
+    /**
+     * Calculates the least-cost journeys from the given stops to all other stops for all departures at the given stops
+     * between <code>earliestDepartureTime</code> and <code>latestDepartureTime</code>. Unlike calculating a tree for
+     * every departure time, all departures are handled in a single sweep. Only the least-cost journey per departure is
+     * kept at each stop, so the result is a single-criterion cost profile, not a Pareto set of journeys.
+     *
+     * @return for each reached stop, the journeys ordered by departure time, see {@link SwissRailRaptorCore#calcLeastCostProfile}
+     */
+    public Map<Id<TransitStopFacility>, List<SwissRailRaptorCore.TravelInfo>> calcLeastCostProfile(Collection<TransitStopFacility> fromStops, double earliestDepartureTime, double latestDepartureTime, RaptorParameters parameters, Person person) {
+        if (this.data.config.getOptimization() != RaptorStaticConfig.RaptorOptimization.OneToAllRouting && !this.treeWarningShown) {
+            log.warn("SwissRailRaptorData was not initialized with full support for tree calculations and may result in unexpected results. Use `RaptorStaticConfig.setOptimization(RaptorOptimization.OneToAllRouting)` to fix this issue.");
+            this.treeWarningShown = true;
+        }
+        List<InitialStop> accessStops = new ArrayList<>();
+        for (TransitStopFacility stop : fromStops) {
+            accessStops.add(new InitialStop(stop, 0, 0, 0, null));
+        }
+        return this.raptor.calcLeastCostProfile(earliestDepartureTime, latestDepartureTime, accessStops, parameters, person);
+    }
+
 	/** Calculates a least-cost-tree for every actual departure time between <code>earliestDepartureTime</code>
 	 *  and <code>latestDepartureTime</code> at the provided stop-facility.
 	 *  This method returns nothing, instead users have to use the <code>observer</code> to collect
@@ -603,6 +603,156 @@ public class SwissRailRaptorCore {
         return result;
     }
 
+    /**
+     * Calculates a single-criterion cost profile: the least-cost journeys from the start stops to all stops for all
+     * departures at the start stops between <code>earliestDepTime</code> and <code>latestDepTime</code>, in a single
+     * sweep. The departures are handled from the latest to the earliest without resetting the labels in between (as in
+     * rRAPTOR, see Delling et al.), so the search for an earlier departure only has to improve on the journeys found for
+     * the later departures.
+     * <p>
+     * As in {@link #calcRoutes}, the algorithm works with cost instead of time. To make the labels of the different
+     * departures comparable, the cost of waiting from <code>earliestDepTime</code> until the departure is added to
+     * each journey. An earlier departure thus only replaces the journey to a stop if it is cheaper than waiting for the
+     * later departure, which is the case if it arrives earlier when cost is mostly based on time.
+     * <p>
+     * Unlike rRAPTOR, each stop only keeps a single cost label instead of one label per round. The result thus contains
+     * at most one journey per departure and stop, the one with the least cost, and is no Pareto set over arrival time and
+     * number of transfers: a journey with fewer transfers, but higher cost, is not found.
+     *
+     * @return for each reached stop, the least-cost journeys ordered by departure time. Journeys which depart earlier,
+     * but do not arrive earlier or with fewer transfers than a later journey, are removed.
+     */
+    public Map<Id<TransitStopFacility>, List<TravelInfo>> calcLeastCostProfile(double earliestDepTime, double latestDepTime, Collection<InitialStop> startStops, RaptorParameters parameters, Person person) {
+        reset();
+
+        CachingTransferProvider transferProvider = this.data.new CachingTransferProvider();
+        double waitingCost_per_s = -parameters.getMarginalUtilityOfWaitingPt_utl_s();
+
+        List<DepartureAtRouteStop> departures = new ArrayList<>();
+        for (InitialStop stop : startStops) {
+            int[] routeStopIndices = this.data.routeStopsPerStopFacility.get(stop.stop);
+            if (routeStopIndices == null) {
+                continue;
+            }
+            for (int routeStopIndex : routeStopIndices) {
+                RRouteStop routeStop = this.data.routeStops[routeStopIndex];
+                if (routeStop.routeStop == routeStop.route.getStops().get(routeStop.route.getStops().size() - 1)) {
+                    // this is the last stop of a route
+                    continue;
+                }
+                if (!routeStop.routeStop.isAllowBoarding()) {
+                    continue;
+                }
+                RRoute route = this.data.routes[routeStop.transitRouteIndex];
+                for (int depIndex = route.indexFirstDeparture; depIndex < route.indexFirstDeparture + route.countDepartures; depIndex++) {
+                    int depTimeAtStop = this.data.departures[depIndex] + routeStop.departureOffset;
+                    double depTimeAtOrigin = depTimeAtStop - stop.accessTime;
+                    if (depTimeAtOrigin >= earliestDepTime && depTimeAtOrigin <= latestDepTime) {
+                        double costOffset = (depTimeAtOrigin - earliestDepTime) * waitingCost_per_s;
+                        departures.add(new DepartureAtRouteStop(routeStop, routeStopIndex, depIndex, depTimeAtStop, costOffset, stop));
+                    }
+                }
+            }
+        }
+        // latest departure first, all departures at the same time are handled together
+        departures.sort((d1, d2) -> Double.compare(d2.depTime - d2.accessStop.accessTime, d1.depTime - d1.accessStop.accessTime));
+
+        Map<Id<TransitStopFacility>, List<TravelInfo>> profile = new HashMap<>();
+        PathElement[] recordedPathPerStop = new PathElement[this.data.countStops];
+        BitSet changedStops = new BitSet(this.data.countStops);
+        int maxTransfers = parameters.getMaxTransfers();
+
+        int nextDeparture = 0;
+        while (nextDeparture < departures.size()) {
+            double depTimeAtOrigin = departures.get(nextDeparture).depTime - departures.get(nextDeparture).accessStop.accessTime;
+            this.improvedRouteStopIndices.clear();
+            changedStops.clear();
+            BitSet initialRouteStopIndices = new BitSet();
+            BitSet initialStopIndices = new BitSet();
+            for (; nextDeparture < departures.size(); nextDeparture++) {
+                DepartureAtRouteStop departure = departures.get(nextDeparture);
+                if (departure.depTime - departure.accessStop.accessTime != depTimeAtOrigin) {
+                    break;
+                }
+                double arrivalCost = departure.accessStop.accessCost + departure.costOffset;
+                if (arrivalCost <= this.leastArrivalCostAtRouteStop[departure.routeStopIndex]) {
+                    RRouteStop toRouteStop = departure.routeStop;
+                    PathElement pe = new PathElement(null, toRouteStop, TIME_UNDEFINED, TIME_UNDEFINED, TIME_UNDEFINED, departure.depTime, arrivalCost, 0, departure.accessStop.distance, 0, true, null, departure.accessStop);
+                    this.arrivalPathPerRouteStop[departure.routeStopIndex] = pe;
+                    this.leastArrivalCostAtRouteStop[departure.routeStopIndex] = arrivalCost;
+                    if (arrivalCost <= this.leastArrivalCostAtStop[toRouteStop.stopFacilityIndex]) {
+                        this.arrivalPathPerStop[toRouteStop.stopFacilityIndex] = pe;
+                        this.leastArrivalCostAtStop[toRouteStop.stopFacilityIndex] = arrivalCost;
+                        initialStopIndices.set(toRouteStop.stopFacilityIndex);
+                    }
+                    this.improvedRouteStopIndices.set(departure.routeStopIndex);
+                    // make sure we can transfer even at the start stop
+                    initialRouteStopIndices.set(departure.routeStopIndex);
+                }
+            }
+            changedStops.or(initialStopIndices);
+
+            int transfers = 0;
+            while (!this.improvedRouteStopIndices.isEmpty()) {
+                exploreRoutes(parameters, person, transferProvider);
+                changedStops.or(this.improvedStops);
+
+                if (initialRouteStopIndices != null) {
+                    this.improvedRouteStopIndices.or(initialRouteStopIndices);
+                    this.improvedStops.or(initialStopIndices);
+                    initialRouteStopIndices = null;
+                }
+
+                if (this.improvedStops.isEmpty() || transfers > maxTransfers) {
+                    break;
+                }
+
+                handleTransfers(true, parameters, transferProvider);
+                changedStops.or(this.tmpImprovedStops);
+                transfers++;
+            }
+
+            // record the journeys improved by this departure
+            for (int stopIndex = changedStops.nextSetBit(0); stopIndex >= 0; stopIndex = changedStops.nextSetBit(stopIndex + 1)) {
+                PathElement pe = this.arrivalPathPerStop[stopIndex];
+                if (pe != null && pe != recordedPathPerStop[stopIndex]) {
+                    recordedPathPerStop[stopIndex] = pe;
+                    Id<TransitStopFacility> stopId = pe.toRouteStop.routeStop.getStopFacility().getId();
+                    profile.computeIfAbsent(stopId, id -> new ArrayList<>()).add(getTravelInfo(pe, parameters));
+                }
+            }
+        }
+
+        for (List<TravelInfo> journeys : profile.values()) {
+            filterDominatedJourneys(journeys);
+        }
+        return profile;
+    }
+
+    /**
+     * Removes the journeys for which a later journey arrives at the same time or earlier with at most the same
+     * number of transfers, and orders the remaining journeys by departure time. The journeys are expected in the order
+     * they were found, i.e. later departures first.
+     */
+    private static void filterDominatedJourneys(List<TravelInfo> journeys) {
+        List<TravelInfo> nonDominated = new ArrayList<>(journeys.size());
+        for (TravelInfo journey : journeys) {
+            boolean dominated = false;
+            for (TravelInfo later : nonDominated) {
+                if (later.ptArrivalTime <= journey.ptArrivalTime && later.transferCount <= journey.transferCount) {
+                    dominated = true;
+                    break;
+                }
+            }
+            if (!dominated) {
+                nonDominated.add(journey);
+            }
+        }
+        Collections.reverse(nonDominated);
+        journeys.clear();
+        journeys.addAll(nonDominated);
+    }
+
 		private void observeArrival(PathElement pe, RaptorObserver observer) {
 			PathElement backpointer = pe.comingFrom;
 			if (backpointer != null) {
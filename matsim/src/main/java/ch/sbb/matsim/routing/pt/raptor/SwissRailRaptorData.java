@@ -22,6 +22,7 @@ package ch.sbb.matsim.routing.pt.raptor;
 
 import java.util.*;
 import java.util.function.Supplier;
+import java.util.stream.IntStream;
 
 import javax.annotation.Nullable;
 
@@ -76,6 +77,9 @@ public class SwissRailRaptorData {
     final IdMap<TransitStopFacility, Map<TransitStopFacility, Double>> staticTransferTimes;
     final RTransfer[][] transferCache;
 
+    // cache of found routes, null if disabled
+    final RaptorRouteCache routeCache;
+
     private SwissRailRaptorData(RaptorStaticConfig config, int countStops,
                                 RRoute[] routes, int[] departures, Vehicle[] departureVehicles, Id<Departure>[] departureIds, RRouteStop[] routeStops,
                                 RTransfer[] transfers, Map<TransitStopFacility, Integer> stopFacilityIndices,
@@ -99,6 +103,8 @@ public class SwissRailRaptorData {
         // data needed if cached transfer construction is activated
         this.staticTransferTimes = staticTransferTimes;
         this.transferCache = new RTransfer[routeStops.length][];
+
+        this.routeCache = config.getRouteCacheSize() > 0 ? new RaptorRouteCache(this, config.getRouteCacheSize(), config.getRouteCacheTimeBinSize()) : null;
     }
 
     public static SwissRailRaptorData create(TransitSchedule schedule, @Nullable Vehicles transitVehicles, RaptorStaticConfig staticConfig, Network network, OccupancyData occupancyData) {
@@ -151,7 +157,11 @@ public class SwissRailRaptorData {
                 if (useModeMapping) {
                     mode = staticConfig.getPassengerMode(route.getTransportMode());
                 }
-                RRoute rroute = new RRoute(indexRouteStops, route.getStops().size(), indexFirstDeparture, route.getDepartures().size());
+                Departure earliestDeparture = getEarliestDeparture(route);
+                Departure latestDeparture = getLatestDeparture(route);
+                RRoute rroute = new RRoute(indexRouteStops, route.getStops().size(), indexFirstDeparture, route.getDepartures().size(),
+                        earliestDeparture == null ? Double.NaN : earliestDeparture.getDepartureTime(),
+                        latestDeparture == null ? Double.NaN : latestDeparture.getDepartureTime());
                 routes[indexRoutes] = rroute;
                 NetworkRoute networkRoute = route.getRoute();
                 List<Id<Link>> allLinkIds = new ArrayList<>();
@@ -206,33 +216,29 @@ public class SwissRailRaptorData {
         int countStopFacilities = stops.size();
 
         // if cached transfer calculation is active, don't generate any transfers here
-		final Map<Integer, RTransfer[]> allTransfers;
-
-		if (staticConfig.getTransferCalculation().equals(RaptorTransferCalculation.Initial)) {
-			allTransfers = calculateRouteStopTransfers(schedule, stopsQT, routeStopsPerStopFacility, routeStops,
-					staticConfig);
-		} else {
-			allTransfers = Collections.emptyMap();
-		}
-
-        long countTransfers = 0;
-        for (RTransfer[] transfers : allTransfers.values()) {
-            countTransfers += transfers.length;
-        }
-        if (countTransfers > Integer.MAX_VALUE) {
-            throw new RuntimeException("TransitSchedule has too many Transfers: " + countTransfers);
+        RTransfer[] transfers = null;
+        if (staticConfig.getTransferCalculation().equals(RaptorTransferCalculation.Initial)) {
+            RaptorTransferCache transferFileCache = staticConfig.getTransferCacheDirectory() == null ? null : new RaptorTransferCache(staticConfig.getTransferCacheDirectory(), schedule, routes, routeStops, staticConfig);
+            if (transferFileCache != null) {
+                transfers = transferFileCache.read();
+            }
+            if (transfers == null) {
+                RTransfer[][] allTransfers = calculateRouteStopTransfers(schedule, stopsQT, routeStopsPerStopFacility, routes, routeStops, staticConfig);
+                transfers = flattenTransfers(allTransfers);
+                if (transferFileCache != null) {
+                    transferFileCache.write(transfers);
+                }
+            }
+        } else {
+            transfers = new RTransfer[0];
         }
-        RTransfer[] transfers = new RTransfer[(int) countTransfers];
         int indexTransfer = 0;
-        for (int routeStopIndex = 0; routeStopIndex < routeStops.length; routeStopIndex++) {
-            RTransfer[] stopTransfers = allTransfers.get(routeStopIndex);
-            int transferCount = stopTransfers == null ? 0 : stopTransfers.length;
-            if (transferCount > 0) {
-                RRouteStop routeStop = routeStops[routeStopIndex];
-                routeStop.indexFirstTransfer = indexTransfer;
-                routeStop.countTransfers = transferCount;
-                System.arraycopy(stopTransfers, 0, transfers, indexTransfer, transferCount);
-                indexTransfer += transferCount;
+        while (indexTransfer < transfers.length) {
+            RRouteStop routeStop = routeStops[transfers[indexTransfer].fromRouteStop];
+            routeStop.indexFirstTransfer = indexTransfer;
+            while (indexTransfer < transfers.length && transfers[indexTransfer].fromRouteStop == routeStop.index) {
+                routeStop.countTransfers++;
+                indexTransfer++;
             }
         }
 
@@ -264,45 +270,51 @@ public class SwissRailRaptorData {
         return data;
     }
 
-    // calculate possible transfers between TransitRouteStops
-    private static Map<Integer, RTransfer[]> calculateRouteStopTransfers(TransitSchedule schedule, QuadTree<TransitStopFacility> stopsQT, Map<TransitStopFacility, int[]> routeStopsPerStopFacility, RRouteStop[] routeStops, RaptorStaticConfig config) {
-        Map<Integer, RTransfer[]> transfers = new HashMap<>(stopsQT.size() * 5);
+    /**
+     * Calculates the possible transfers between TransitRouteStops. The transfers of the stop facilities are calculated
+     * in parallel; each stop facility only writes the transfers of its own route stops, so the result does not depend
+     * on the number of threads.
+     *
+     * @return the transfers per from route stop, indexed by the route stop index. Route stops without transfers have
+     * <code>null</code> entries.
+     */
+    private static RTransfer[][] calculateRouteStopTransfers(TransitSchedule schedule, QuadTree<TransitStopFacility> stopsQT, Map<TransitStopFacility, int[]> routeStopsPerStopFacility, RRoute[] routes, RRouteStop[] routeStops, RaptorStaticConfig config) {
         double maxBeelineWalkConnectionDistance = config.getBeelineWalkConnectionDistance();
         double beelineWalkSpeed = config.getBeelineWalkSpeed();
         double beelineDistanceFactor = config.getBeelineWalkDistanceFactor();
         double minimalTransferTime = config.getMinimalTransferTime();
+        RaptorOptimization optimization = config.getOptimization();
 
-        Map<TransitStopFacility, List<TransitStopFacility>> stopToStopsTransfers = new HashMap<>();
-
-        // first, add transfers based on distance
-        for (TransitStopFacility fromStop : routeStopsPerStopFacility.keySet()) {
-            Coord fromCoord = fromStop.getCoord();
-            Collection<TransitStopFacility> nearbyStops = stopsQT.getDisk(fromCoord.getX(), fromCoord.getY(), maxBeelineWalkConnectionDistance);
-            stopToStopsTransfers.computeIfAbsent(fromStop, stop -> new ArrayList<>(5)).addAll(nearbyStops);
-        }
-
-        // take the transfers from the schedule into account
-        MinimalTransferTimes.MinimalTransferTimesIterator iter = schedule.getMinimalTransferTimes().iterator();
+        // take the transfers from the schedule into account, in addition to the transfers based on distance
+        Map<TransitStopFacility, List<TransitStopFacility>> scheduledTransfers = new HashMap<>();
+        MinimalTransferTimes mtt = schedule.getMinimalTransferTimes();
+        MinimalTransferTimes.MinimalTransferTimesIterator iter = mtt.iterator();
         while (iter.hasNext()) {
             iter.next();
-            Id<TransitStopFacility> fromStopId = iter.getFromStopId();
-            TransitStopFacility fromStop = schedule.getFacilities().get(fromStopId);
-            Id<TransitStopFacility> toStopId = iter.getToStopId();
-            TransitStopFacility toStop = schedule.getFacilities().get(toStopId);
-            List<TransitStopFacility> destinationStops = stopToStopsTransfers.computeIfAbsent(fromStop, stop -> new ArrayList<>(5));
-            if (!destinationStops.contains(toStop)) {
-                destinationStops.add(toStop);
+            TransitStopFacility fromStop = schedule.getFacilities().get(iter.getFromStopId());
+            TransitStopFacility toStop = schedule.getFacilities().get(iter.getToStopId());
+            if (routeStopsPerStopFacility.containsKey(fromStop) && routeStopsPerStopFacility.containsKey(toStop)) {
+                scheduledTransfers.computeIfAbsent(fromStop, stop -> new ArrayList<>(2)).add(toStop);
             }
         }
 
-        // now calculate the transfers between the route stops
-        MinimalTransferTimes mtt = schedule.getMinimalTransferTimes();
-        ArrayList<RTransfer> stopTransfers = new ArrayList<>();
-        for (Map.Entry<TransitStopFacility, List<TransitStopFacility>> e : stopToStopsTransfers.entrySet()) {
-            TransitStopFacility fromStop = e.getKey();
+        RTransfer[][] transfers = new RTransfer[routeStops.length][];
+        TransitStopFacility[] fromStops = routeStopsPerStopFacility.keySet().toArray(new TransitStopFacility[0]);
+        IntStream.range(0, fromStops.length).parallel().forEach(i -> {
+            TransitStopFacility fromStop = fromStops[i];
             Coord fromCoord = fromStop.getCoord();
+            List<TransitStopFacility> nearbyStops = new ArrayList<>(stopsQT.getDisk(fromCoord.getX(), fromCoord.getY(), maxBeelineWalkConnectionDistance));
+            for (TransitStopFacility toStop : scheduledTransfers.getOrDefault(fromStop, Collections.emptyList())) {
+                if (!nearbyStops.contains(toStop)) {
+                    nearbyStops.add(toStop);
+                }
+            }
+
             int[] fromRouteStopIndices = routeStopsPerStopFacility.get(fromStop);
-            Collection<TransitStopFacility> nearbyStops = e.getValue();
+            List<List<RTransfer>> stopTransfers = new ArrayList<>(fromRouteStopIndices.length);
+            for (int j = 0; j < fromRouteStopIndices.length; j++) {
+                stopTransfers.add(new ArrayList<>());
+            }
             for (TransitStopFacility toStop : nearbyStops) {
                 int[] toRouteStopIndices = routeStopsPerStopFacility.get(toStop);
                 double beelineDistance = CoordUtils.calcEuclideanDistance(fromCoord, toStop.getCoord());
@@ -313,37 +325,47 @@ public class SwissRailRaptorData {
 
                 transferTime = mtt.get(fromStop.getId(), toStop.getId(), transferTime);
 
-                final double fixedTransferTime = transferTime; // variables must be effective final to be used in lambdas (below)
-
-                for (int fromRouteStopIndex : fromRouteStopIndices) {
-                    RRouteStop fromRouteStop = routeStops[fromRouteStopIndex];
-                    stopTransfers.clear();
+                for (int j = 0; j < fromRouteStopIndices.length; j++) {
+                    RRouteStop fromRouteStop = routeStops[fromRouteStopIndices[j]];
                     for (int toRouteStopIndex : toRouteStopIndices) {
                         RRouteStop toRouteStop = routeStops[toRouteStopIndex];
-                        if (isUsefulTransfer(fromRouteStop, toRouteStop, maxBeelineWalkConnectionDistance, config.getOptimization())
+                        if (isUsefulTransfer(fromRouteStop, toRouteStop, routes, maxBeelineWalkConnectionDistance, optimization)
                             && isTransferAllowed(fromRouteStop, toRouteStop)
                         ) {
-                            RTransfer newTransfer = new RTransfer(fromRouteStopIndex, toRouteStopIndex, fixedTransferTime, beelineDistance * beelineDistanceFactor);
-                            stopTransfers.add(newTransfer);
+                            stopTransfers.get(j).add(new RTransfer(fromRouteStop.index, toRouteStopIndex, transferTime, beelineDistance * beelineDistanceFactor));
                         }
                     }
-                    RTransfer[] newTransfers = stopTransfers.toArray(new RTransfer[0]);
-                    transfers.compute(fromRouteStopIndex, (routeStopIndex, currentTransfers) -> {
-                        if (currentTransfers == null) {
-                            return newTransfers;
-                        }
-                        RTransfer[] tmp = new RTransfer[currentTransfers.length + newTransfers.length];
-                        System.arraycopy(currentTransfers, 0, tmp, 0, currentTransfers.length);
-                        System.arraycopy(newTransfers, 0, tmp, currentTransfers.length, newTransfers.length);
-                        return tmp;
-                    });
                 }
             }
+            for (int j = 0; j < fromRouteStopIndices.length; j++) {
+                if (!stopTransfers.get(j).isEmpty()) {
+                    transfers[fromRouteStopIndices[j]] = stopTransfers.get(j).toArray(new RTransfer[0]);
+                }
+            }
+        });
+        return transfers;
+    }
+
+    private static RTransfer[] flattenTransfers(RTransfer[][] transfersPerRouteStop) {
+        long countTransfers = 0;
+        for (RTransfer[] stopTransfers : transfersPerRouteStop) {
+            countTransfers += stopTransfers == null ? 0 : stopTransfers.length;
+        }
+        if (countTransfers > Integer.MAX_VALUE) {
+            throw new RuntimeException("TransitSchedule has too many Transfers: " + countTransfers);
+        }
+        RTransfer[] transfers = new RTransfer[(int) countTransfers];
+        int indexTransfer = 0;
+        for (RTransfer[] stopTransfers : transfersPerRouteStop) {
+            if (stopTransfers != null) {
+                System.arraycopy(stopTransfers, 0, transfers, indexTransfer, stopTransfers.length);
+                indexTransfer += stopTransfers.length;
+            }
         }
         return transfers;
     }
 
-    private static boolean isUsefulTransfer(RRouteStop fromRouteStop, RRouteStop toRouteStop, double maxBeelineWalkConnectionDistance, RaptorStaticConfig.RaptorOptimization optimization) {
+    private static boolean isUsefulTransfer(RRouteStop fromRouteStop, RRouteStop toRouteStop, RRoute[] routes, double maxBeelineWalkConnectionDistance, RaptorStaticConfig.RaptorOptimization optimization) {
         if (fromRouteStop == toRouteStop) {
             return false;
         }
@@ -357,7 +379,7 @@ public class SwissRailRaptorData {
         }
         // if the first departure at fromRouteStop arrives after the last departure at toRouteStop,
         // we'll never get any connection here
-        if (hasNoPossibleDeparture(fromRouteStop, toRouteStop)) {
+        if (hasNoPossibleDeparture(fromRouteStop, toRouteStop, routes)) {
             return false;
         }
         // if the stop facilities are different, and the destination stop is part
@@ -398,14 +420,14 @@ public class SwissRailRaptorData {
         return routeStop.routeStop == lastRouteStop;
     }
 
-    private static boolean hasNoPossibleDeparture(RRouteStop fromRouteStop, RRouteStop toRouteStop) {
-        Departure earliestDep = getEarliestDeparture(fromRouteStop.route);
-        Departure latestDep = getLatestDeparture(toRouteStop.route);
-        if (earliestDep == null || latestDep == null) {
+    private static boolean hasNoPossibleDeparture(RRouteStop fromRouteStop, RRouteStop toRouteStop, RRoute[] routes) {
+        double earliestDepTime = routes[fromRouteStop.transitRouteIndex].earliestDepartureTime;
+        double latestDepTime = routes[toRouteStop.transitRouteIndex].latestDepartureTime;
+        if (Double.isNaN(earliestDepTime) || Double.isNaN(latestDepTime)) {
             return true;
         }
-        double earliestArrival = earliestDep.getDepartureTime() + fromRouteStop.arrivalOffset;
-        double latestDeparture = latestDep.getDepartureTime() + toRouteStop.departureOffset;
+        double earliestArrival = earliestDepTime + fromRouteStop.arrivalOffset;
+        double latestDeparture = latestDepTime + toRouteStop.departureOffset;
         return earliestArrival > latestDeparture;
     }
 
@@ -541,12 +563,16 @@ public class SwissRailRaptorData {
         final int countRouteStops;
         final int indexFirstDeparture;
         final int countDepartures;
+        final double earliestDepartureTime; // NaN if the route has no departures
+        final double latestDepartureTime; // NaN if the route has no departures
 
-        RRoute(int indexFirstRouteStop, int countRouteStops, int indexFirstDeparture, int countDepartures) {
+        RRoute(int indexFirstRouteStop, int countRouteStops, int indexFirstDeparture, int countDepartures, double earliestDepartureTime, double latestDepartureTime) {
             this.indexFirstRouteStop = indexFirstRouteStop;
             this.countRouteStops = countRouteStops;
             this.indexFirstDeparture = indexFirstDeparture;
             this.countDepartures = countDepartures;
+            this.earliestDepartureTime = earliestDepartureTime;
+            this.latestDepartureTime = latestDepartureTime;
         }
     }
 
@@ -696,7 +722,7 @@ public class SwissRailRaptorData {
                 	transferTime = transferTimes.getOrDefault(toRouteFacility, transferTime);
                 }
 
-        		if (SwissRailRaptorData.isUsefulTransfer(fromRouteStop, toRouteStop, beelineWalkConnectionDistance, optimization)) {
+        		if (SwissRailRaptorData.isUsefulTransfer(fromRouteStop, toRouteStop, this.routes, beelineWalkConnectionDistance, optimization)) {
         			transfers.add(new RTransfer(fromRouteStop.index, toRouteStop.index, transferTime, beelineDistance * beelineDistanceFactor));
         		}
         	}
@@ -24,13 +24,12 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.matsim.api.core.v01.Id;
 import org.matsim.api.core.v01.IdMap;
-import org.matsim.api.core.v01.events.LinkLeaveEvent;
 import org.matsim.api.core.v01.events.VehicleEntersTrafficEvent;
-import org.matsim.api.core.v01.events.handler.LinkLeaveEventHandler;
 import org.matsim.api.core.v01.events.handler.VehicleEntersTrafficEventHandler;
 import org.matsim.api.core.v01.network.Link;
 import org.matsim.api.core.v01.network.Network;
 import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.events.handler.LinkEnterLeaveHandler;
 import org.matsim.vehicles.Vehicle;
 
 import jakarta.inject.Inject;
@@ -44,7 +43,7 @@ import java.util.TreeSet;
  *
  * @author mrieser
  */
-public class VolumesAnalyzer implements LinkLeaveEventHandler, VehicleEntersTrafficEventHandler {
+public class VolumesAnalyzer implements LinkEnterLeaveHandler, VehicleEntersTrafficEventHandler {
 
 	private final static Logger log = LogManager.getLogger(VolumesAnalyzer.class);
 	private final int timeBinSize;
@@ -91,22 +90,26 @@ public class VolumesAnalyzer implements LinkLeaveEventHandler, VehicleEntersTraf
 	}
 
 	@Override
-	public void handleEvent(final LinkLeaveEvent event) {
-		int[] volumes = this.links.get(event.getLinkId());
+	public void handleLinkEnter(final double time, final Id<Vehicle> vehicleId, final Id<Link> linkId) {
+	}
+
+	@Override
+	public void handleLinkLeave(final double time, final Id<Vehicle> vehicleId, final Id<Link> linkId) {
+		int[] volumes = this.links.get(linkId);
 		if (volumes == null) {
 			volumes = new int[this.maxSlotIndex + 1]; // initialized to 0 by default, according to JVM specs
-			this.links.put(event.getLinkId(), volumes);
+			this.links.put(linkId, volumes);
 		}
-		int timeslot = getTimeSlotIndex(event.getTime());
+		int timeslot = getTimeSlotIndex(time);
 		volumes[timeslot]++;
 
 		if (this.observeModes) {
-			Map<String, int[]> modeVolumes = this.linksPerMode.get(event.getLinkId());
+			Map<String, int[]> modeVolumes = this.linksPerMode.get(linkId);
 			if (modeVolumes == null) {
 				modeVolumes = new HashMap<>();
-				this.linksPerMode.put(event.getLinkId(), modeVolumes);
+				this.linksPerMode.put(linkId, modeVolumes);
 			}
-			String mode = this.enRouteModes.get(event.getVehicleId());
+			String mode = this.enRouteModes.get(vehicleId);
 			volumes = modeVolumes.get(mode);
 			if (volumes == null) {
 				volumes = new int[this.maxSlotIndex + 1]; // initialized to 0 by default, according to JVM specs
@@ -0,0 +1,172 @@
+package org.matsim.api.core.v01;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * A map from {@link Id}s to primitive <code>double</code> values, stored in an array indexed by {@link Id#index()} like
+ * in {@link IdMap}. In contrast to an <code>IdMap&lt;T, Double&gt;</code>, the values are not boxed, so that putting a
+ * value does not allocate anything. Typically used in event handlers, e.g. for the departure times of persons.
+ * <p>
+ * As the map does not implement {@link java.util.Map}, missing keys are reported by a <code>noEntryValue</code>, which
+ * is {@link Double#NaN} unless specified otherwise.
+ *
+ * @see IdIntMap
+ * @see IdLongMap
+ */
+public class IdDoubleMap<T> {
+
+	private static final int INCREMENT = 100;
+	private static final float INCREMENT_FACTOR = 1.5f;
+	private final Class<T> idClass;
+	private final double noEntryValue;
+	private final BitSet keys = new BitSet();
+	private int size = 0;
+	private double[] data;
+
+	/**
+	 * Creates a map whose <code>noEntryValue</code> is {@link Double#NaN}; note that {@link IdIntMap} and {@link IdLongMap} use <code>0</code> instead.
+	 */
+	public IdDoubleMap(Class<T> idClass) {
+		this(idClass, Double.NaN);
+	}
+
+	/**
+	 * @param noEntryValue the value returned by {@link #get}, {@link #put} and {@link #remove} for keys without a value
+	 */
+	public IdDoubleMap(Class<T> idClass, double noEntryValue) {
+		this(idClass, Math.max(Id.getNumberOfIds(idClass), INCREMENT), noEntryValue);
+	}
+
+	/**
+	 * @param size the initial capacity, i.e. the number of {@link Id} indices covered; the map grows as needed
+	 * @param noEntryValue the value returned by {@link #get}, {@link #put} and {@link #remove} for keys without a value
+	 */
+	public IdDoubleMap(Class<T> idClass, int size, double noEntryValue) {
+		this.idClass = idClass;
+		this.noEntryValue = noEntryValue;
+		this.data = new double[size];
+	}
+
+	public int size() {
+		return this.size;
+	}
+
+	public boolean isEmpty() {
+		return this.size == 0;
+	}
+
+	/**
+	 * The value returned by {@link #get}, {@link #put} and {@link #remove} for keys without a value.
+	 */
+	public double getNoEntryValue() {
+		return this.noEntryValue;
+	}
+
+	public boolean containsKey(Id<T> key) {
+		return this.keys.get(key.index());
+	}
+
+	public boolean containsKey(int index) {
+		return this.keys.get(index);
+	}
+
+	public double get(Id<T> key) {
+		return get(key.index());
+	}
+
+	public double get(int index) {
+		return this.keys.get(index) ? this.data[index] : this.noEntryValue;
+	}
+
+	public double getOrDefault(Id<T> key, double defaultValue) {
+		int index = key.index();
+		return this.keys.get(index) ? this.data[index] : defaultValue;
+	}
+
+	/**
+	 * @return the previous value of the key, or the <code>noEntryValue</code> if it had none
+	 */
+	public double put(Id<T> key, double value) {
+		return put(key.index(), value);
+	}
+
+	public double put(int index, double value) {
+		ensureCapacity(index);
+		double oldValue = this.noEntryValue;
+		if (this.keys.get(index)) {
+			oldValue = this.data[index];
+		} else {
+			this.keys.set(index);
+			this.size++;
+		}
+		this.data[index] = value;
+		return oldValue;
+	}
+
+	/**
+	 * Adds the amount to the value of the key, or puts the amount if the key has no value yet.
+	 *
+	 * @return the new value of the key
+	 */
+	public double add(Id<T> key, double amount) {
+		int index = key.index();
+		ensureCapacity(index);
+		if (this.keys.get(index)) {
+			this.data[index] += amount;
+		} else {
+			this.keys.set(index);
+			this.size++;
+			this.data[index] = amount;
+		}
+		return this.data[index];
+	}
+
+	/**
+	 * @return the removed value of the key, or the <code>noEntryValue</code> if it had none
+	 */
+	public double remove(Id<T> key) {
+		return remove(key.index());
+	}
+
+	public double remove(int index) {
+		if (this.keys.get(index)) {
+			this.keys.clear(index);
+			this.size--;
+			return this.data[index];
+		}
+		return this.noEntryValue;
+	}
+
+	public void clear() {
+		this.size = 0;
+		this.keys.clear();
+		Arrays.fill(this.data, 0);
+	}
+
+	public IdSet<T> keySet() {
+		IdSet<T> set = new IdSet<>(this.idClass, this.data.length);
+		for (int index = this.keys.nextSetBit(0); index >= 0; index = this.keys.nextSetBit(index + 1)) {
+			set.add(Id.get(index, this.idClass));
+		}
+		return set;
+	}
+
+	public void forEach(IdDoubleConsumer<T> action) {
+		for (int index = this.keys.nextSetBit(0); index >= 0; index = this.keys.nextSetBit(index + 1)) {
+			action.accept(Id.get(index, this.idClass), this.data[index]);
+		}
+	}
+
+	private void ensureCapacity(int index) {
+		if (index >= this.data.length) {
+			int newSize = Math.max(index + INCREMENT, (int)(this.data.length * INCREMENT_FACTOR));
+			this.data = Arrays.copyOf(this.data, newSize);
+		}
+	}
+
+	@FunctionalInterface
+	public interface IdDoubleConsumer<T> {
+		void accept(Id<T> id, double value);
+	}
+}
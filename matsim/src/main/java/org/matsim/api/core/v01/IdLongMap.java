@@ -0,0 +1,174 @@
+package org.matsim.api.core.v01;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * A map from {@link Id}s to primitive <code>long</code> values, stored in an array indexed by {@link Id#index()} like
+ * in {@link IdMap}. In contrast to an <code>IdMap&lt;T, Long&gt;</code>, the values are not boxed, so that putting a
+ * value does not allocate anything. Typically used in event handlers, e.g. for accumulating durations in milliseconds.
+ * <p>
+ * As the map does not implement {@link java.util.Map}, missing keys are reported by a <code>noEntryValue</code>, which
+ * is <code>0</code> unless specified otherwise.
+ *
+ * @see IdDoubleMap
+ * @see IdIntMap
+ */
+public class IdLongMap<T> {
+
+	private static final int INCREMENT = 100;
+	private static final float INCREMENT_FACTOR = 1.5f;
+	private final Class<T> idClass;
+	private final long noEntryValue;
+	private final BitSet keys = new BitSet();
+	private int size = 0;
+	private long[] data;
+
+	/**
+	 * Creates a map whose <code>noEntryValue</code> is <code>0</code>; note that
+	 * {@link IdDoubleMap} uses {@link Double#NaN} instead. A stored <code>0</code> can thus only be told apart
+	 * from a missing key with {@link #containsKey}.
+	 */
+	public IdLongMap(Class<T> idClass) {
+		this(idClass, 0L);
+	}
+
+	/**
+	 * @param noEntryValue the value returned by {@link #get}, {@link #put} and {@link #remove} for keys without a value
+	 */
+	public IdLongMap(Class<T> idClass, long noEntryValue) {
+		this(idClass, Math.max(Id.getNumberOfIds(idClass), INCREMENT), noEntryValue);
+	}
+
+	/**
+	 * @param size the initial capacity, i.e. the number of {@link Id} indices covered; the map grows as needed
+	 * @param noEntryValue the value returned by {@link #get}, {@link #put} and {@link #remove} for keys without a value
+	 */
+	public IdLongMap(Class<T> idClass, int size, long noEntryValue) {
+		this.idClass = idClass;
+		this.noEntryValue = noEntryValue;
+		this.data = new long[size];
+	}
+
+	public int size() {
+		return this.size;
+	}
+
+	public boolean isEmpty() {
+		return this.size == 0;
+	}
+
+	/**
+	 * The value returned by {@link #get}, {@link #put} and {@link #remove} for keys without a value.
+	 */
+	public long getNoEntryValue() {
+		return this.noEntryValue;
+	}
+
+	public boolean containsKey(Id<T> key) {
+		return this.keys.get(key.index());
+	}
+
+	public boolean containsKey(int index) {
+		return this.keys.get(index);
+	}
+
+	public long get(Id<T> key) {
+		return get(key.index());
+	}
+
+	public long get(int index) {
+		return this.keys.get(index) ? this.data[index] : this.noEntryValue;
+	}
+
+	public long getOrDefault(Id<T> key, long defaultValue) {
+		int index = key.index();
+		return this.keys.get(index) ? this.data[index] : defaultValue;
+	}
+
+	/**
+	 * @return the previous value of the key, or the <code>noEntryValue</code> if it had none
+	 */
+	public long put(Id<T> key, long value) {
+		return put(key.index(), value);
+	}
+
+	public long put(int index, long value) {
+		ensureCapacity(index);
+		long oldValue = this.noEntryValue;
+		if (this.keys.get(index)) {
+			oldValue = this.data[index];
+		} else {
+			this.keys.set(index);
+			this.size++;
+		}
+		this.data[index] = value;
+		return oldValue;
+	}
+
+	/**
+	 * Adds the amount to the value of the key, or puts the amount if the key has no value yet.
+	 *
+	 * @return the new value of the key
+	 */
+	public long add(Id<T> key, long amount) {
+		int index = key.index();
+		ensureCapacity(index);
+		if (this.keys.get(index)) {
+			this.data[index] += amount;
+		} else {
+			this.keys.set(index);
+			this.size++;
+			this.data[index] = amount;
+		}
+		return this.data[index];
+	}
+
+	/**
+	 * @return the removed value of the key, or the <code>noEntryValue</code> if it had none
+	 */
+	public long remove(Id<T> key) {
+		return remove(key.index());
+	}
+
+	public long remove(int index) {
+		if (this.keys.get(index)) {
+			this.keys.clear(index);
+			this.size--;
+			return this.data[index];
+		}
+		return this.noEntryValue;
+	}
+
+	public void clear() {
+		this.size = 0;
+		this.keys.clear();
+		Arrays.fill(this.data, 0);
+	}
+
+	public IdSet<T> keySet() {
+		IdSet<T> set = new IdSet<>(this.idClass, this.data.length);
+		for (int index = this.keys.nextSetBit(0); index >= 0; index = this.keys.nextSetBit(index + 1)) {
+			set.add(Id.get(index, this.idClass));
+		}
+		return set;
+	}
+
+	public void forEach(IdLongConsumer<T> action) {
+		for (int index = this.keys.nextSetBit(0); index >= 0; index = this.keys.nextSetBit(index + 1)) {
+			action.accept(Id.get(index, this.idClass), this.data[index]);
+		}
+	}
+
+	private void ensureCapacity(int index) {
+		if (index >= this.data.length) {
+			int newSize = Math.max(index + INCREMENT, (int)(this.data.length * INCREMENT_FACTOR));
+			this.data = Arrays.copyOf(this.data, newSize);
+		}
+	}
+
+	@FunctionalInterface
+	public interface IdLongConsumer<T> {
+		void accept(Id<T> id, long value);
+	}
+}
@@ -19,10 +19,16 @@
 
 package org.matsim.core.api.experimental.events;
 
+import org.matsim.api.core.v01.Id;
 import org.matsim.api.core.v01.events.Event;
+import org.matsim.api.core.v01.events.LinkEnterEvent;
+import org.matsim.api.core.v01.events.LinkLeaveEvent;
+import org.matsim.api.core.v01.network.Link;
 import org.matsim.core.events.EventArray;
 import org.matsim.core.events.handler.EventHandler;
+import org.matsim.core.events.handler.LinkEnterLeaveHandler;
 import org.matsim.core.mobsim.framework.Steppable;
+import org.matsim.vehicles.Vehicle;
 
 /**
  * This should be split into two interfaces:
@@ -41,6 +47,22 @@ public interface EventsManager {
 		}
 	}
 
+	/**
+	 * Submit a {@link LinkEnterEvent} by its attributes. Implementations which can pass it to
+	 * {@link LinkEnterLeaveHandler}s without creating the event object override this, the others process the event as
+	 * usual. Link events are by far the most frequent events of a simulation, so the mobsim uses this method.
+	 */
+	default void processLinkEnterEvent(final double time, final Id<Vehicle> vehicleId, final Id<Link> linkId) {
+		processEvent(new LinkEnterEvent(time, vehicleId, linkId));
+	}
+
+	/**
+	 * Submit a {@link LinkLeaveEvent} by its attributes, see {@link #processLinkEnterEvent}.
+	 */
+	default void processLinkLeaveEvent(final double time, final Id<Vehicle> vehicleId, final Id<Link> linkId) {
+		processEvent(new LinkLeaveEvent(time, vehicleId, linkId));
+	}
+
 	public void addHandler(final EventHandler handler);
 	
 	public void removeHandler(final EventHandler handler);
@@ -158,6 +158,12 @@ public final class ConfigConsistencyCheckerImpl implements ConfigConsistencyChec
 			log.warn("We don't know if non-Dijkstra routing works together with LinkToLink routing.");
 		}
 
+		if ( config.controller().getRoutingAlgorithmType() == RoutingAlgorithmType.SpeedyCH &&
+				config.routing().getRoutingRandomness() != 0.0 ) {
+			log.warn("SpeedyCH uses the same travel costs for all persons and thus cannot be combined with routingRandomness;" +
+					" SpeedyALT is used instead. Set routingRandomness to 0 to route with SpeedyCH.");
+		}
+
 	}
 
 
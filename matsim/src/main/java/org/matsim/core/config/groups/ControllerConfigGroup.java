@@ -34,11 +34,11 @@ import java.util.*;
 public final class ControllerConfigGroup extends ReflectiveConfigGroup {
 	private static final Logger log = LogManager.getLogger( ControllerConfigGroup.class );
 
-	public enum RoutingAlgorithmType {Dijkstra, AStarLandmarks, SpeedyALT}
+	public enum RoutingAlgorithmType {Dijkstra, AStarLandmarks, SpeedyALT, SpeedyCH}
 
 	public enum EventTypeToCreateScoringFunctions {IterationStarts, BeforeMobsim}
 
-	public enum EventsFileFormat {xml, pb, json}
+	public enum EventsFileFormat {xml, pb, json, binary}
 
 	public enum CompressionType {
 		none(""),
@@ -70,6 +70,7 @@ public final class ControllerConfigGroup extends ReflectiveConfigGroup {
 	private static final String SNAPSHOT_FORMAT = "snapshotFormat";
 	private static final String WRITE_EVENTS_INTERVAL = "writeEventsInterval";
 	private static final String WRITE_PLANS_INTERVAL = "writePlansInterval";
+	private static final String WRITE_PLANS_ASYNCHRONOUSLY = "writePlansAsynchronously";
 	private static final String WRITE_TRIPS_INTERVAL = "writeTripsInterval";
 	private static final String OVERWRITE_FILE = "overwriteFiles";
 	private static final String CREATE_GRAPHS = "createGraphs";
@@ -100,6 +101,7 @@ public final class ControllerConfigGroup extends ReflectiveConfigGroup {
 
 	private int writeEventsInterval= 50;
 	private int writePlansInterval= 50;
+	private boolean writePlansAsynchronously = false;
 	private int writeTripsInterval = 50;
 	private String mobsim = MobsimType.qsim.toString();
 	private int writeSnapshotsInterval = 1;
@@ -130,6 +132,8 @@ public final class ControllerConfigGroup extends ReflectiveConfigGroup {
                 "to a file. `0' disables trips writing completely.");
 		map.put(WRITE_PLANS_INTERVAL, "iterationNumber % writePlansInterval == 0 defines (hopefully) in which iterations plans are " +
                 "written to a file. `0' disables plans writing completely.  Some plans in early iterations are always written");
+		map.put(WRITE_PLANS_ASYNCHRONOUSLY, "Default=false. If true, plans are copied when they are dumped and written on a background thread, " +
+				"while the mobsim of the iteration already runs. Needs memory for a copy of the population while writing.");
 		map.put(LINKTOLINK_ROUTING_ENABLED, "Default=false. If enabled, the router takes travel times needed for turning moves into account."
 		        + " Can only be used with Dijkstra routing. Cannot be used when TravelTimeCalculator.separateModes is enabled.");
 		map.put(FIRST_ITERATION, "Default=0. First Iteration of a simulation.");
@@ -353,6 +357,16 @@ public final class ControllerConfigGroup extends ReflectiveConfigGroup {
 		this.writePlansInterval = writePlansInterval;
 	}
 
+	@StringGetter( WRITE_PLANS_ASYNCHRONOUSLY )
+	public boolean isWritePlansAsynchronously() {
+		return this.writePlansAsynchronously;
+	}
+
+	@StringSetter( WRITE_PLANS_ASYNCHRONOUSLY )
+	public void setWritePlansAsynchronously(final boolean writePlansAsynchronously) {
+		this.writePlansAsynchronously = writePlansAsynchronously;
+	}
+
 	@StringGetter( WRITE_SNAPSHOTS_INTERVAL )
 	public int getWriteSnapshotsInterval() {
 		return writeSnapshotsInterval;
@@ -22,6 +22,7 @@ package org.matsim.core.config.groups;
 
 import java.util.Map;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Positive;
 import jakarta.validation.constraints.PositiveOrZero;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -40,6 +41,8 @@ public final class GlobalConfigGroup extends ReflectiveConfigGroup {
 	@Override public Map<String, String> getComments() {
 		Map<String,String> map = super.getComments();
 		map.put(NUMBER_OF_THREADS, NUMBER_OF_THREADS_CMT ) ;
+		map.put(REPLANNING_SCHEDULING, REPLANNING_SCHEDULING_CMT ) ;
+		map.put(NUMBER_OF_COMPRESSION_THREADS, NUMBER_OF_COMPRESSION_THREADS_CMT ) ;
 		return map ;
 	}
 	// ---
@@ -100,6 +103,49 @@ public final class GlobalConfigGroup extends ReflectiveConfigGroup {
 		this.numberOfThreads = numberOfThreads;
 	}
 	// ---
+	public enum ReplanningScheduling { roundRobin, workStealing }
+	private ReplanningScheduling replanningScheduling = ReplanningScheduling.roundRobin;
+	private static final String REPLANNING_SCHEDULING = "replanningScheduling";
+	private static final String REPLANNING_SCHEDULING_CMT = "How the plans are distributed to the threads of multi-threaded replanning modules.  "
+			+ ReplanningScheduling.roundRobin + ": the plans are assigned to the threads in turn before the threads start, which gives reproducible results.  "
+			+ ReplanningScheduling.workStealing + ": idle threads take the next chunk of plans, so that a few slow plans do not leave the other threads idle.  "
+			+ "Faster, but the results are no longer reproducible if the plan algorithms use random numbers.";
+	/**
+	 * @return {@link #REPLANNING_SCHEDULING_CMT}
+	 */
+	@StringGetter( REPLANNING_SCHEDULING )
+	public ReplanningScheduling getReplanningScheduling() {
+		return this.replanningScheduling;
+	}
+	/**
+	 * @param replanningScheduling -- {@link #REPLANNING_SCHEDULING_CMT}
+	 */
+	@StringSetter( REPLANNING_SCHEDULING )
+	public void setReplanningScheduling(final ReplanningScheduling replanningScheduling) {
+		this.replanningScheduling = replanningScheduling;
+	}
+	// ---
+	@Positive
+	private int numberOfCompressionThreads = 1;
+	private static final String NUMBER_OF_COMPRESSION_THREADS = "numberOfCompressionThreads";
+	private static final String NUMBER_OF_COMPRESSION_THREADS_CMT = "Number of threads used to compress gzip and zstd output files.  "
+			+ "With more than 1, compressed input files are also decompressed on a separate thread.  "
+			+ "Applied when the controler starts; files read before, e.g. the scenario, are not affected.";
+	/**
+	 * @return {@link #NUMBER_OF_COMPRESSION_THREADS_CMT}
+	 */
+	@StringGetter( NUMBER_OF_COMPRESSION_THREADS )
+	public int getNumberOfCompressionThreads() {
+		return this.numberOfCompressionThreads;
+	}
+	/**
+	 * @param numberOfCompressionThreads -- {@link #NUMBER_OF_COMPRESSION_THREADS_CMT}
+	 */
+	@StringSetter( NUMBER_OF_COMPRESSION_THREADS )
+	public void setNumberOfCompressionThreads(final int numberOfCompressionThreads) {
+		this.numberOfCompressionThreads = numberOfCompressionThreads;
+	}
+	// ---
 	private String coordinateSystem = "Atlantis" ;
 	// see https://matsim.atlassian.net/browse/MATSIM-898
 	private static final String COORDINATE_SYSTEM = "coordinateSystem";
@@ -110,6 +110,9 @@ public final class PlansConfigGroup extends ReflectiveConfigGroup {
 		comments.put(REMOVING_UNNECESSARY_PLAN_ATTRIBUTES, "(not tested) will remove plan attributes that are presumably not used, such as " +
                 "activityStartTime. default=false. Use with Caution!");
 
+		comments.put(COMPACTING_PLANS, "If true, plans are stored in a compact binary form and only materialized when they are accessed. " +
+				"Unselected plans are compacted again before each mobsim. Reduces the memory needed for populations with many plans per person. default=false.");
+
 		comments.put( INPUT_CRS , "The Coordinates Reference System in which the coordinates are expressed in the input file." +
 				" At import, the coordinates will be converted to the coordinate system defined in \"global\", and will" +
 				"be converted back at export. If not specified, no conversion happens." );
@@ -247,6 +250,17 @@ public final class PlansConfigGroup extends ReflectiveConfigGroup {
 	}
 
 
+	private static final String COMPACTING_PLANS = "compactingPlans";
+	private boolean compactingPlans = false;
+	@StringGetter(COMPACTING_PLANS)
+	public boolean isCompactingPlans() {
+		return this.compactingPlans;
+	}
+	@StringSetter(COMPACTING_PLANS)
+	public void setCompactingPlans(final boolean compactingPlans) {
+		this.compactingPlans = compactingPlans;
+	}
+
 	@StringGetter( INPUT_CRS )
 	public String getInputCRS() {
 		return inputCRS;
@@ -61,6 +61,8 @@ public final class QSimConfigGroup extends ReflectiveConfigGroup {
 	/* package */ final static String NOTIFY_ABOUT_STUCK_VEHICLES_STRING =
 		"Boolean. `true': when a vehicle is moved to the next link because the stuck time is exceeded, a PersonStuckAndContinueEvent is thrown.";
 	private static final String NUMBER_OF_THREADS = "numberOfThreads";
+	private static final String NETSIM_ENGINE_TYPE = "netsimEngineType";
+	private static final String AGENT_QUEUE_TYPE = "agentQueueType";
 	private static final String TRAFFIC_DYNAMICS = "trafficDynamics";
 	private static final String SIM_STARTTIME_INTERPRETATION = "simStarttimeInterpretation";
 	private static final String USE_PERSON_ID_FOR_MISSING_VEHICLE_ID = "usePersonIdForMissingVehicleId";
@@ -95,6 +97,14 @@ public final class QSimConfigGroup extends ReflectiveConfigGroup {
 	private boolean usePersonIdForMissingVehicleId = true;
 	@Positive
 	private int numberOfThreads = 1;
+
+	public enum NetsimEngineType {threadpool, domainDecomposition}
+
+	private NetsimEngineType netsimEngineType = NetsimEngineType.threadpool;
+
+	public enum AgentQueueType {priorityQueue, calendarQueue}
+
+	private AgentQueueType agentQueueType = AgentQueueType.priorityQueue;
 	//	private static final String CREATING_VEHICLES_FOR_ALL_NETWORK_MODES = "creatingVehiclesForAllNetworkModes";
 //	private boolean creatingVehiclesForAllNetworkModes = true;
 	// ---
@@ -214,6 +224,14 @@ public final class QSimConfigGroup extends ReflectiveConfigGroup {
 			}
 			map.put(LINK_DYNAMICS, "default: FIFO; options:" + stb);
 		}
+		map.put(NETSIM_ENGINE_TYPE, "Defines how the network is simulated on several threads. `" + NetsimEngineType.threadpool + "': nodes and links are "
+				+ "assigned round robin, and all threads wait for each other twice per time step. `" + NetsimEngineType.domainDecomposition
+				+ "': the network is split into geographic regions, weighted with the load of the previous iteration, and each thread only "
+				+ "waits for the threads of neighbouring regions. Only relevant if numberOfThreads > 1.");
+		map.put(AGENT_QUEUE_TYPE, "Defines how the activity engine and the teleportation engine keep the agents until the end of their activity or "
+				+ "teleportation. `" + AgentQueueType.priorityQueue + "': a priority queue, where rescheduling an activity end costs time linear in the "
+				+ "number of agents. `" + AgentQueueType.calendarQueue + "': one bucket per time step, where adding, removing and rescheduling agents "
+				+ "takes constant time. Recommended for within-day replanning and for large populations.");
 		map.put(USE_PERSON_ID_FOR_MISSING_VEHICLE_ID, "If a route does not reference a vehicle, agents will use the vehicle with the same id as their own.");
 		map.put(FAST_CAPACITY_UPDATE, "If false, the qsim accumulates fractional flows up to one flow unit in every time step.  If true, "
 				+ "flows are updated only if an agent wants to enter the link or an agent is added to buffer. "
@@ -498,6 +516,26 @@ public final class QSimConfigGroup extends ReflectiveConfigGroup {
 		this.numberOfThreads = numberOfThreads;
 	}
 
+	@StringGetter(NETSIM_ENGINE_TYPE)
+	public NetsimEngineType getNetsimEngineType() {
+		return this.netsimEngineType;
+	}
+
+	@StringSetter(NETSIM_ENGINE_TYPE)
+	public void setNetsimEngineType(final NetsimEngineType netsimEngineType) {
+		this.netsimEngineType = netsimEngineType;
+	}
+
+	@StringGetter(AGENT_QUEUE_TYPE)
+	public AgentQueueType getAgentQueueType() {
+		return this.agentQueueType;
+	}
+
+	@StringSetter(AGENT_QUEUE_TYPE)
+	public void setAgentQueueType(final AgentQueueType agentQueueType) {
+		this.agentQueueType = agentQueueType;
+	}
+
 	@StringGetter(SIM_STARTTIME_INTERPRETATION)
 	public StarttimeInterpretation getSimStarttimeInterpretation() {
 		return simStarttimeInterpretation;
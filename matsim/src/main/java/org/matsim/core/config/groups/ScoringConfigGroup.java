@@ -80,6 +80,8 @@ public final class ScoringConfigGroup extends ConfigGroup {
 
 	private static final String WRITE_SCORE_EXPLANATIONS = "writeScoreExplanations";
 
+	private static final String NUMBER_OF_SCORING_SHARDS = "numberOfScoringShards";
+
 	private final ReflectiveDelegate delegate = new ReflectiveDelegate();
 
 	private boolean usesDeprecatedSyntax = false ;
@@ -423,6 +425,11 @@ public final class ScoringConfigGroup extends ConfigGroup {
 		map.put(WRITE_SCORE_EXPLANATIONS,
 				 "Write detailed score composition into plan attributes after execution.");
 
+		map.put(NUMBER_OF_SCORING_SHARDS,
+				"Number of parts the population is split into for scoring. Each part gets its own thread which builds the experienced "
+						+ "legs and activities and calls the scoring functions. Scores are the same as with 1 (the default), but scoring "
+						+ "functions and leg or activity handlers must then not share state between persons without synchronization.");
+
 		return map;
 	}
 
@@ -705,6 +712,14 @@ public final class ScoringConfigGroup extends ConfigGroup {
 		return delegate.getPathSizeLogitBeta();
 	}
 
+	public int getNumberOfScoringShards() {
+		return delegate.getNumberOfScoringShards();
+	}
+
+	public void setNumberOfScoringShards(int numberOfScoringShards) {
+		delegate.setNumberOfScoringShards(numberOfScoringShards);
+	}
+
 	public void setPathSizeLogitBeta(double beta) {
 		delegate.setPathSizeLogitBeta(beta);
 	}
@@ -1600,6 +1615,8 @@ public final class ScoringConfigGroup extends ConfigGroup {
 
 		private boolean explainScores = false;
 
+		private int numberOfScoringShards = 1;
+
 		@StringGetter(FRACTION_OF_ITERATIONS_TO_START_SCORE_MSA)
 		public Double getFractionOfIterationsToStartScoreMSA() {
 			return fractionOfIterationsToStartScoreMSA;
@@ -1683,5 +1700,19 @@ public final class ScoringConfigGroup extends ConfigGroup {
 		public boolean isWriteScoreExplanations() {
 			return explainScores;
 		}
+
+		@StringGetter(NUMBER_OF_SCORING_SHARDS)
+		public int getNumberOfScoringShards() {
+			return numberOfScoringShards;
+		}
+
+		@StringSetter(NUMBER_OF_SCORING_SHARDS)
+		public void setNumberOfScoringShards(int numberOfScoringShards) {
+			testForLocked();
+			if (numberOfScoringShards < 1) {
+				throw new IllegalArgumentException(NUMBER_OF_SCORING_SHARDS + " must be at least 1, but is " + numberOfScoringShards);
+			}
+			this.numberOfScoringShards = numberOfScoringShards;
+		}
 	}
 }
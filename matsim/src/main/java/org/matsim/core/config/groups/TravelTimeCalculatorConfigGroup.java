@@ -51,6 +51,9 @@ public final class TravelTimeCalculatorConfigGroup extends ReflectiveConfigGroup
 	private static final String FILTERMODES = "filterModes";
 	private static final String SEPARATEMODES = "separateModes";
 
+	private static final String TRAVEL_TIME_STORAGE = "travelTimeStorage";
+	private static final String WRITE_LINK_TRAVEL_TIMES_INTERVAL = "writeLinkTravelTimesInterval";
+
 	private String travelTimeAggregator = "optimistic";
 	private String travelTimeGetter = "average";
 	private double traveltimeBinSize = 15 * 60; // use a default of 15min time-bins for analyzing the travel times
@@ -63,6 +66,9 @@ public final class TravelTimeCalculatorConfigGroup extends ReflectiveConfigGroup
 	private boolean filterModes = false;
 	private boolean separateModes = true;
 
+	private TravelTimeStorage travelTimeStorage = TravelTimeStorage.array;
+	private int writeLinkTravelTimesInterval = 0;
+
 	public TravelTimeCalculatorConfigGroup() {
 		super(GROUPNAME);
 		analyzedModes.add( TransportMode.car ) ;
@@ -83,9 +89,16 @@ public final class TravelTimeCalculatorConfigGroup extends ReflectiveConfigGroup
 							 "respected by the travel time collector. 'car' is default which includes also buses from the pt simulation module.");
 		map.put(FILTERMODES, "(only for backwards compatiblity; only used if " + SEPARATEMODES + "==false)  Only modes included in analyzedModes are included." ) ;
 		map.put(SEPARATEMODES, "(only for backwards compatibility) If false, link travel times are measured and aggregated over all vehicles using the link." ) ;
+		map.put(TRAVEL_TIME_STORAGE, "How link travel times are stored. 'array' uses one double array per link; 'floatStore' uses float arrays " +
+				"over all links, which needs less memory for large networks and small time bins; 'floatStoreOffHeap' allocates them " +
+				"outside of the Java heap. Link-to-link travel times always use 'array'.") ;
+		map.put(WRITE_LINK_TRAVEL_TIMES_INTERVAL, "iterationNumber % " + WRITE_LINK_TRAVEL_TIMES_INTERVAL + " == 0 defines in which iterations the " +
+				"link travel times are written to a binary file, which can be read by LinkTravelTimeStore.read(). (0 disables this)") ;
 		return map;
 	}
 
+	public enum TravelTimeStorage { array, floatStore, floatStoreOffHeap }
+
 	enum DifferentModesHandling { separateAccordingToAnalyzedModes, jointButRestrictedToAnalyzedModes, jointAndUsingAllModes }
 
 	// ---
@@ -195,5 +208,25 @@ public final class TravelTimeCalculatorConfigGroup extends ReflectiveConfigGroup
 	public void setSeparateModes(boolean separateModes) {
 		this.separateModes = separateModes;
 	}
+	// ---
+	@StringGetter(TRAVEL_TIME_STORAGE)
+	public TravelTimeStorage getTravelTimeStorage() {
+		return this.travelTimeStorage;
+	}
+
+	@StringSetter(TRAVEL_TIME_STORAGE)
+	public void setTravelTimeStorage(TravelTimeStorage travelTimeStorage) {
+		this.travelTimeStorage = travelTimeStorage;
+	}
+	// ---
+	@StringGetter(WRITE_LINK_TRAVEL_TIMES_INTERVAL)
+	public int getWriteLinkTravelTimesInterval() {
+		return this.writeLinkTravelTimesInterval;
+	}
+
+	@StringSetter(WRITE_LINK_TRAVEL_TIMES_INTERVAL)
+	public void setWriteLinkTravelTimesInterval(int writeLinkTravelTimesInterval) {
+		this.writeLinkTravelTimesInterval = writeLinkTravelTimesInterval;
+	}
 
 }
@@ -26,6 +26,7 @@ import org.matsim.core.config.Config;
 import org.matsim.core.config.groups.ControllerConfigGroup;
 import org.matsim.core.controler.listener.ControlerListener;
 import org.matsim.core.gbl.MatsimRandom;
+import org.matsim.core.utils.io.IOUtils;
 import org.matsim.utils.MemoryObserver;
 
 import java.io.UncheckedIOException;
@@ -74,6 +75,9 @@ import java.io.UncheckedIOException;
 
     protected final void run(final Config config) {
         MemoryObserver.start(config.controller().getMemoryObserverInterval());
+        // the number of compression threads is static, so it is restored after the run not to affect later runs
+        int previousCompressionThreads = IOUtils.getCompressionThreads();
+        IOUtils.setCompressionThreads(config.global().getNumberOfCompressionThreads());
         MatsimRuntimeModifications.MyRunnable runnable = new MatsimRuntimeModifications.MyRunnable() {
             @Override
             public void run() throws MatsimRuntimeModifications.UnexpectedShutdownException {
@@ -89,7 +93,11 @@ import java.io.UncheckedIOException;
                 controlerListenerManagerImpl.fireControlerShutdownEvent(unexpected, thisIteration == null ? -1 : thisIteration);
             }
         };
-        MatsimRuntimeModifications.run(runnable);
+        try {
+            MatsimRuntimeModifications.run(runnable);
+        } finally {
+            IOUtils.setCompressionThreads(previousCompressionThreads);
+        }
         OutputDirectoryLogging.closeOutputDirLogging();
         MemoryObserver.stop();
     }
@@ -34,6 +34,7 @@ import org.matsim.core.controler.events.StartupEvent;
 import org.matsim.core.controler.listener.StartupListener;
 import org.matsim.core.events.EventsManagerModule;
 import org.matsim.core.mobsim.DefaultMobsimModule;
+import org.matsim.core.population.PlanCompactionModule;
 import org.matsim.core.population.VspPlansCleanerModule;
 import org.matsim.core.replanning.StrategyManagerModule;
 import org.matsim.core.replanning.annealing.ReplanningAnnealer;
@@ -76,6 +77,7 @@ public final class ControlerDefaultsModule extends AbstractModule {
         install(new ModeStatsModule());
         install(new CountsModule());
         install(new VspPlansCleanerModule());
+        install(new PlanCompactionModule());
         install(new SnapshotWritersModule());
         install(new DependencyGraphModule());
         install(new PlanInheritanceModule());
@@ -0,0 +1,136 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * AsyncPopulationWriter.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.controler.corelisteners;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.api.core.v01.population.Plan;
+import org.matsim.api.core.v01.population.Population;
+import org.matsim.api.core.v01.population.PopulationWriter;
+import org.matsim.core.config.groups.PlansConfigGroup;
+import org.matsim.core.population.PopulationUtils;
+import org.matsim.core.utils.geometry.CoordinateTransformation;
+import org.matsim.core.utils.geometry.transformations.IdentityTransformation;
+import org.matsim.utils.objectattributes.AttributeConverter;
+import org.matsim.utils.objectattributes.attributable.AttributesUtils;
+
+/**
+ * Writes populations on a background thread, so that the controler can continue with the next iteration while the
+ * plans are written.
+ * <p>
+ * To avoid races with replanning, {@link #write} first copies the persons and all their plans, and the copy is written.
+ * The copy only takes a fraction of the time needed to format and compress the plans. Attribute values are not copied,
+ * but shared, like in {@link PopulationUtils#copyFromTo(Plan, Plan)}. Writes are done one after the other;
+ * {@link #awaitWrites()} blocks until all submitted writes are finished, and is called at shutdown. Not thread-safe,
+ * i.e. {@link #write} and {@link #awaitWrites()} are expected to be called by the controler thread.
+ */
+final class AsyncPopulationWriter {
+	private static final Logger log = LogManager.getLogger(AsyncPopulationWriter.class);
+
+	private ExecutorService executor = null;
+	private final List<Future<?>> writes = new ArrayList<>();
+
+	void write(Population population, Network network, CoordinateTransformation transformation, String filename) {
+		write(population, network, transformation, Collections.emptyMap(), filename);
+	}
+
+	void write(Population population, Network network, CoordinateTransformation transformation,
+			Map<Class<?>, AttributeConverter<?>> attributeConverters, String filename) {
+		Population copy = copyPopulation(population, network);
+		if (this.executor == null) {
+			this.executor = Executors.newSingleThreadExecutor(r -> {
+				Thread thread = new Thread(r, "AsyncPopulationWriter");
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+		this.writes.add(this.executor.submit(() -> {
+			PopulationWriter writer = new PopulationWriter(transformation == null ? new IdentityTransformation() : transformation, copy, network);
+			writer.putAttributeConverters(attributeConverters);
+			writer.write(filename);
+			log.info("finished writing " + filename);
+		}));
+	}
+
+	/**
+	 * Blocks until all populations are written, and rethrows the first exception of a write, if any. Stops the
+	 * background thread until the next write.
+	 */
+	void awaitWrites() {
+		RuntimeException exception = null;
+		for (Future<?> write : this.writes) {
+			try {
+				write.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new RuntimeException(e);
+			} catch (ExecutionException e) {
+				log.error("writing plans failed", e.getCause());
+				if (exception == null) {
+					exception = e.getCause() instanceof RuntimeException re ? re : new RuntimeException(e.getCause());
+				}
+			}
+		}
+		this.writes.clear();
+		if (this.executor != null) {
+			this.executor.shutdown();
+			this.executor = null;
+		}
+		if (exception != null) {
+			throw exception;
+		}
+	}
+
+	/**
+	 * Copies all persons with their plans and attributes into a new population.
+	 */
+	static Population copyPopulation(Population population, Network network) {
+		Population copy = PopulationUtils.createPopulation(new PlansConfigGroup(), network);
+		copy.setName(population.getName());
+		AttributesUtils.copyAttributesFromTo(population, copy);
+		for (Person person : population.getPersons().values()) {
+			Person personCopy = copy.getFactory().createPerson(person.getId());
+			for (Plan plan : person.getPlans()) {
+				Plan planCopy = copy.getFactory().createPlan();
+				// (also copies the plan id, iteration created and mutator, which are stored as attributes)
+				PopulationUtils.copyFromTo(plan, planCopy, true);
+				personCopy.addPlan(planCopy);
+				if (plan == person.getSelectedPlan()) {
+					personCopy.setSelectedPlan(planCopy);
+				}
+			}
+			AttributesUtils.copyAttributesFromTo(person, personCopy);
+			copy.addPerson(personCopy);
+		}
+		return copy;
+	}
+}
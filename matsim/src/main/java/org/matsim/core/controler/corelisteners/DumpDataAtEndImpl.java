@@ -117,7 +117,14 @@ final class DumpDataAtEndImpl implements DumpDataAtEnd, ShutdownListener {
 		if ( event.isUnexpected() ) {
 			return ;
 		}
-		dumpPlans();
+		// with asynchronous writing, the final plans are written while the other data is dumped
+		AsyncPopulationWriter asyncWriter = this.controllerConfigGroup.isWritePlansAsynchronously() ? new AsyncPopulationWriter() : null;
+		if (asyncWriter != null) {
+			asyncWriter.write(this.population, this.network, null, this.attributeConverters,
+					this.controlerIO.getOutputFilename(Controler.DefaultFiles.population));
+		} else {
+			dumpPlans();
+		}
 		dumpNetwork();
 		dumpConfig();
 		dumpFacilities();
@@ -138,6 +145,10 @@ final class DumpDataAtEndImpl implements DumpDataAtEnd, ShutdownListener {
 		dumpOutputActivities(event.getIteration());
 		dumpExperiencedPlans(event.getIteration());
 
+		if (asyncWriter != null) {
+			asyncWriter.awaitWrites();
+		}
+
 		if (controllerConfigGroup.getCleanItersAtEnd() == ControllerConfigGroup.CleanIterations.delete) {
 			this.controlerIO.deleteIterationDirectory();
 		}
@@ -157,6 +168,11 @@ final class DumpDataAtEndImpl implements DumpDataAtEnd, ShutdownListener {
 					case json:
 						file = Controler.DefaultFiles.eventsJson;
 						break;
+					case binary:
+						// binary events are written uncompressed
+						IOUtils.copyFile(this.controlerIO.getIterationFilename(iteration, Controler.DefaultFiles.eventsBinary, ControllerConfigGroup.CompressionType.none),
+								this.controlerIO.getOutputFilename(Controler.DefaultFiles.eventsBinary, ControllerConfigGroup.CompressionType.none));
+						continue;
 					default:
 						continue;
 				}
@@ -31,7 +31,9 @@ import org.matsim.core.config.groups.ControllerConfigGroup;
 import org.matsim.core.controler.Controler;
 import org.matsim.core.controler.OutputDirectoryHierarchy;
 import org.matsim.core.controler.events.BeforeMobsimEvent;
+import org.matsim.core.controler.events.ShutdownEvent;
 import org.matsim.core.controler.listener.BeforeMobsimListener;
+import org.matsim.core.controler.listener.ShutdownListener;
 
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
@@ -44,11 +46,14 @@ import org.matsim.core.utils.geometry.transformations.TransformationFactory;
  * ({@link ControllerConfigGroup#getWritePlansInterval()} as well as in the first
  * iteration, just in case someone might check that the replanning worked
  * correctly in the first iteration.
+ * <p>
+ * With {@link ControllerConfigGroup#isWritePlansAsynchronously()}, the plans are copied and written on a background
+ * thread while the mobsim runs; only the shutdown waits for the writing to finish.
  *
  * @author mrieser
  */
 @Singleton
-final class PlansDumpingImpl implements PlansDumping, BeforeMobsimListener {
+final class PlansDumpingImpl implements PlansDumping, BeforeMobsimListener, ShutdownListener {
 
 	static final private Logger log = LogManager.getLogger(PlansDumpingImpl.class);
 
@@ -61,10 +66,13 @@ final class PlansDumpingImpl implements PlansDumping, BeforeMobsimListener {
 
 	private int writeMoreUntilIteration;
 
+	private final AsyncPopulationWriter asyncWriter;
+
 	@Inject
 	PlansDumpingImpl(ControllerConfigGroup config) {
 		this.writePlansInterval = config.getWritePlansInterval();
 		this.writeMoreUntilIteration = config.getWritePlansUntilIteration() ;
+		this.asyncWriter = config.isWritePlansAsynchronously() ? new AsyncPopulationWriter() : null;
 	}
 
 	@Override
@@ -78,7 +86,13 @@ final class PlansDumpingImpl implements PlansDumping, BeforeMobsimListener {
 			final String inputCRS = config.plans().getInputCRS();
 			final String internalCRS = config.global().getCoordinateSystem();
 
-			if ( inputCRS == null ) {
+			if ( asyncWriter != null ) {
+				CoordinateTransformation transformation = inputCRS == null ? null :
+						TransformationFactory.getCoordinateTransformation( internalCRS, inputCRS );
+				asyncWriter.write(population, network, transformation, controlerIO.getIterationFilename(event.getIteration(), Controler.DefaultFiles.population));
+				log.info("plans copied, writing them in the background.");
+			}
+			else if ( inputCRS == null ) {
 				new PopulationWriter(population, network).write(controlerIO.getIterationFilename(event.getIteration(), Controler.DefaultFiles.population));
 			}
 			else {
@@ -96,4 +110,12 @@ final class PlansDumpingImpl implements PlansDumping, BeforeMobsimListener {
 		}
 	}
 
+	@Override
+	public void notifyShutdown(ShutdownEvent event) {
+		if ( asyncWriter != null ) {
+			log.info("waiting for plans dumps to be written...");
+			asyncWriter.awaitWrites();
+		}
+	}
+
 }
@@ -2,12 +2,35 @@ package org.matsim.core.events;
 
 import java.util.Arrays;
 
+import org.matsim.api.core.v01.Id;
 import org.matsim.api.core.v01.events.Event;
+import org.matsim.api.core.v01.events.LinkEnterEvent;
+import org.matsim.api.core.v01.events.LinkLeaveEvent;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.vehicles.Vehicle;
 
+/**
+ * A growable array of events.
+ * <p>
+ * Link enter and leave events can also be added by their attributes, see {@link EventsManager#processLinkEnterEvent}.
+ * They have no event object in {@link #array()}; {@link #process(int, EventsManager)} passes them on by their
+ * attributes, while {@link #get(int)} creates their event objects.
+ */
 public class EventArray {
+	private static final byte EVENT = 0;
+	private static final byte LINK_ENTER = 1;
+	private static final byte LINK_LEAVE = 2;
+
 	private Event[] array;
 	private int size;
 
+	/** only allocated once the first link event is added by its attributes */
+	private byte[] types = null;
+	private double[] times = null;
+	private Id<Vehicle>[] vehicleIds = null;
+	private Id<Link>[] linkIds = null;
+
 	public EventArray(int capacity) {
 		this.array = new Event[capacity];
 	}
@@ -18,34 +41,132 @@ public class EventArray {
 
 	public void add(Event element) {
 		if (size == array.length) {
-			array = Arrays.copyOf(array, array.length + array.length/2);
+			grow();
 		}
 		array[size] = element;
+		if (types != null) {
+			types[size] = EVENT;
+		}
 		size++;
 	}
 
+	public void addLinkEnter(double time, Id<Vehicle> vehicleId, Id<Link> linkId) {
+		addLinkEvent(LINK_ENTER, time, vehicleId, linkId);
+	}
+
+	public void addLinkLeave(double time, Id<Vehicle> vehicleId, Id<Link> linkId) {
+		addLinkEvent(LINK_LEAVE, time, vehicleId, linkId);
+	}
+
+	/**
+	 * Adds the event at <code>index</code> of <code>other</code>, without creating the event objects of link events.
+	 */
+	public void addFrom(EventArray other, int index) {
+		assert index < other.size;
+		byte type = other.types == null ? EVENT : other.types[index];
+		if (type == EVENT) {
+			add(other.array[index]);
+		} else {
+			addLinkEvent(type, other.times[index], other.vehicleIds[index], other.linkIds[index]);
+		}
+	}
+
 	public void removeLast() {
 		array[size - 1] = null;
+		if (vehicleIds != null) {
+			vehicleIds[size - 1] = null;
+			linkIds[size - 1] = null;
+		}
 		size--;
 	}
 
 	public int size() {
 		return size;
 	}
+
+	/**
+	 * @return the event at <code>index</code>; the event objects of link events added by their attributes are created
+	 */
 	public Event get(int index) {
 		assert index < size;
+		byte type = types == null ? EVENT : types[index];
+		if (type == LINK_ENTER) {
+			return new LinkEnterEvent(times[index], vehicleIds[index], linkIds[index]);
+		} else if (type == LINK_LEAVE) {
+			return new LinkLeaveEvent(times[index], vehicleIds[index], linkIds[index]);
+		}
 		assert array[index] != null;
 		return array[index];
 	}
 
+	/**
+	 * Passes the event at <code>index</code> to the events manager, link events added by their attributes with
+	 * {@link EventsManager#processLinkEnterEvent} and {@link EventsManager#processLinkLeaveEvent}.
+	 */
+	public void process(int index, EventsManager eventsManager) {
+		assert index < size;
+		byte type = types == null ? EVENT : types[index];
+		if (type == LINK_ENTER) {
+			eventsManager.processLinkEnterEvent(times[index], vehicleIds[index], linkIds[index]);
+		} else if (type == LINK_LEAVE) {
+			eventsManager.processLinkLeaveEvent(times[index], vehicleIds[index], linkIds[index]);
+		} else {
+			eventsManager.processEvent(array[index]);
+		}
+	}
+
+	/**
+	 * @return whether link events were added by their attributes, which have no event object in {@link #array()}
+	 */
+	public boolean hasLinkEvents() {
+		return types != null;
+	}
+
 	public void clear() {
 		for (int i = 0; i < size; i++) {
 			array[i] = null;
 		}
+		if (vehicleIds != null) {
+			Arrays.fill(vehicleIds, 0, size, null);
+			Arrays.fill(linkIds, 0, size, null);
+		}
 		size = 0;
 	}
 
+	/**
+	 * @return the event objects; <code>null</code> for link events added by their attributes, see {@link #hasLinkEvents()}
+	 */
 	public Event[] array() {
 		return array;
 	}
-}
\ No newline at end of file
+
+	@SuppressWarnings("unchecked")
+	private void addLinkEvent(byte type, double time, Id<Vehicle> vehicleId, Id<Link> linkId) {
+		if (size == array.length) {
+			grow();
+		}
+		if (types == null) {
+			types = new byte[array.length];
+			times = new double[array.length];
+			vehicleIds = new Id[array.length];
+			linkIds = new Id[array.length];
+		}
+		array[size] = null;
+		types[size] = type;
+		times[size] = time;
+		vehicleIds[size] = vehicleId;
+		linkIds[size] = linkId;
+		size++;
+	}
+
+	private void grow() {
+		int capacity = Math.max(array.length + array.length/2, array.length + 1);
+		array = Arrays.copyOf(array, capacity);
+		if (types != null) {
+			types = Arrays.copyOf(types, capacity);
+			times = Arrays.copyOf(times, capacity);
+			vehicleIds = Arrays.copyOf(vehicleIds, capacity);
+			linkIds = Arrays.copyOf(linkIds, capacity);
+		}
+	}
+}
@@ -0,0 +1,220 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * EventQueue.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.events;
+
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.events.Event;
+import org.matsim.api.core.v01.events.LinkEnterEvent;
+import org.matsim.api.core.v01.events.LinkLeaveEvent;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.vehicles.Vehicle;
+
+/**
+ * An unbounded blocking FIFO queue of events, used to pass events to the events processing threads.
+ * <p>
+ * Link enter and leave events submitted with {@link EventsManager#processLinkEnterEvent} and
+ * {@link EventsManager#processLinkLeaveEvent} are stored by their attributes, so no event objects are created for
+ * them. The queue is a circular buffer which only grows if it is full, so adding and taking events does not allocate
+ * once it is large enough.
+ */
+final class EventQueue {
+
+	private static final byte EVENT = 0;
+	private static final byte LINK_ENTER = 1;
+	private static final byte LINK_LEAVE = 2;
+
+	private byte[] types;
+	private Event[] events;
+	private double[] times;
+	private Id<Vehicle>[] vehicleIds;
+	private Id<Link>[] linkIds;
+	private int head = 0;
+	private int size = 0;
+
+	EventQueue() {
+		this(1024);
+	}
+
+	@SuppressWarnings("unchecked")
+	EventQueue(int capacity) {
+		capacity = Math.max(capacity, 16);
+		this.types = new byte[capacity];
+		this.events = new Event[capacity];
+		this.times = new double[capacity];
+		this.vehicleIds = new Id[capacity];
+		this.linkIds = new Id[capacity];
+	}
+
+	synchronized void add(final Event event) {
+		int index = claim();
+		this.types[index] = EVENT;
+		this.events[index] = event;
+	}
+
+	synchronized void addLinkEnter(final double time, final Id<Vehicle> vehicleId, final Id<Link> linkId) {
+		addLinkEvent(LINK_ENTER, time, vehicleId, linkId);
+	}
+
+	synchronized void addLinkLeave(final double time, final Id<Vehicle> vehicleId, final Id<Link> linkId) {
+		addLinkEvent(LINK_LEAVE, time, vehicleId, linkId);
+	}
+
+	/**
+	 * Adds a copy of an entry taken from another queue.
+	 */
+	synchronized void add(final Entry entry) {
+		if (entry.type == EVENT) {
+			add(entry.event);
+		} else {
+			addLinkEvent(entry.type, entry.time, entry.vehicleId, entry.linkId);
+		}
+	}
+
+	/**
+	 * Moves all entries of this queue to the end of the target queue.
+	 */
+	synchronized void drainTo(final EventQueue target) {
+		synchronized (target) {
+			for (int i = 0; i < this.size; i++) {
+				int from = (this.head + i) % this.events.length;
+				int to = target.claim();
+				target.types[to] = this.types[from];
+				target.events[to] = this.events[from];
+				target.times[to] = this.times[from];
+				target.vehicleIds[to] = this.vehicleIds[from];
+				target.linkIds[to] = this.linkIds[from];
+				this.events[from] = null;
+				this.vehicleIds[from] = null;
+				this.linkIds[from] = null;
+			}
+			this.head = 0;
+			this.size = 0;
+		}
+	}
+
+	/**
+	 * Waits until the queue is not empty, and moves its first entry to the given entry.
+	 */
+	synchronized void take(final Entry entry) throws InterruptedException {
+		while (this.size == 0) {
+			wait();
+		}
+		int index = this.head;
+		entry.type = this.types[index];
+		entry.event = this.events[index];
+		entry.time = this.times[index];
+		entry.vehicleId = this.vehicleIds[index];
+		entry.linkId = this.linkIds[index];
+		this.events[index] = null;
+		this.vehicleIds[index] = null;
+		this.linkIds[index] = null;
+		this.head = (index + 1) % this.events.length;
+		this.size--;
+	}
+
+	synchronized int size() {
+		return this.size;
+	}
+
+	private void addLinkEvent(final byte type, final double time, final Id<Vehicle> vehicleId, final Id<Link> linkId) {
+		int index = claim();
+		this.types[index] = type;
+		this.times[index] = time;
+		this.vehicleIds[index] = vehicleId;
+		this.linkIds[index] = linkId;
+	}
+
+	/**
+	 * Returns the index of a new last entry, and wakes up a waiting consumer. Must be called while holding the lock.
+	 */
+	private int claim() {
+		if (this.size == this.events.length) {
+			grow();
+		}
+		int index = (this.head + this.size) % this.events.length;
+		this.size++;
+		notifyAll();
+		return index;
+	}
+
+	@SuppressWarnings("unchecked")
+	private void grow() {
+		int length = this.events.length;
+		int capacity = length * 2;
+		this.types = unwrap(this.types, new byte[capacity], length);
+		this.events = unwrap(this.events, new Event[capacity], length);
+		this.times = unwrap(this.times, new double[capacity], length);
+		this.vehicleIds = unwrap(this.vehicleIds, new Id[capacity], length);
+		this.linkIds = unwrap(this.linkIds, new Id[capacity], length);
+		this.head = 0;
+	}
+
+	/**
+	 * Copies the entries of the full circular buffer <code>from</code> to the beginning of <code>to</code>.
+	 */
+	private <T> T unwrap(T from, T to, int length) {
+		System.arraycopy(from, this.head, to, 0, length - this.head);
+		System.arraycopy(from, 0, to, length - this.head, this.head);
+		return to;
+	}
+
+	/**
+	 * An entry taken from the queue. Consumers reuse the same instance for all entries they take.
+	 */
+	static final class Entry {
+		private byte type;
+		private Event event;
+		private double time;
+		private Id<Vehicle> vehicleId;
+		private Id<Link> linkId;
+
+		double getTime() {
+			return this.type == EVENT ? this.event.getTime() : this.time;
+		}
+
+		/**
+		 * @return the event object, or <code>null</code> for link events, which are stored by their attributes
+		 */
+		Event getEvent() {
+			return this.type == EVENT ? this.event : null;
+		}
+
+		/**
+		 * Creates the event object of link events, e.g. for error messages.
+		 */
+		Event toEvent() {
+			return switch (this.type) {
+				case LINK_ENTER -> new LinkEnterEvent(this.time, this.vehicleId, this.linkId);
+				case LINK_LEAVE -> new LinkLeaveEvent(this.time, this.vehicleId, this.linkId);
+				default -> this.event;
+			};
+		}
+
+		void processWith(final EventsManager eventsManager) {
+			switch (this.type) {
+				case LINK_ENTER -> eventsManager.processLinkEnterEvent(this.time, this.vehicleId, this.linkId);
+				case LINK_LEAVE -> eventsManager.processLinkLeaveEvent(this.time, this.vehicleId, this.linkId);
+				default -> eventsManager.processEvent(this.event);
+			}
+		}
+	}
+}
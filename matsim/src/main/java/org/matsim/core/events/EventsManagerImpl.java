@@ -31,8 +31,10 @@ import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.matsim.api.core.v01.Id;
 import org.matsim.api.core.v01.events.*;
 import org.matsim.api.core.v01.events.handler.*;
+import org.matsim.api.core.v01.network.Link;
 import org.matsim.core.api.experimental.events.AgentWaitingForPtEvent;
 import org.matsim.core.api.experimental.events.EventsManager;
 import org.matsim.core.api.experimental.events.VehicleArrivesAtFacilityEvent;
@@ -42,6 +44,8 @@ import org.matsim.core.api.experimental.events.handler.VehicleArrivesAtFacilityE
 import org.matsim.core.api.experimental.events.handler.VehicleDepartsAtFacilityEventHandler;
 import org.matsim.core.events.handler.BasicEventHandler;
 import org.matsim.core.events.handler.EventHandler;
+import org.matsim.core.events.handler.LinkEnterLeaveHandler;
+import org.matsim.vehicles.Vehicle;
 
 /**
  * EventHandling
@@ -109,27 +113,95 @@ public final class EventsManagerImpl implements EventsManager {
 
 	@Override
 	public void processEvent(final Event event) {
-		this.counter++;
-		if (this.counter == this.nextCounterMsg) {
-			this.nextCounterMsg *= 4;
-			log.info(" event # " + this.counter);
-		}
+		countEvent();
 		for (HandlerInfo info : getHandlersForClass( event.getClass() )) {
 			synchronized(info.eventHandler) {
-				if (callHandlerFast(info.eventClass, event, info.eventHandler )) {
-					continue;
+				callHandler(info, event);
+			}
+		}
+	}
+
+	/**
+	 * Calls the {@link LinkEnterLeaveHandler}s directly. The event object is only created if another handler requires it.
+	 */
+	@Override
+	public void processLinkEnterEvent(final double time, final Id<Vehicle> vehicleId, final Id<Link> linkId) {
+		countEvent();
+		LinkEnterEvent event = null;
+		for (HandlerInfo info : getHandlersForClass(LinkEnterEvent.class)) {
+			synchronized(info.eventHandler) {
+				if (info.eventClass == LinkEnterEvent.class && info.eventHandler instanceof LinkEnterLeaveHandler handler) {
+					handler.handleLinkEnter(time, vehicleId, linkId);
+				} else {
+					if (event == null) {
+						event = new LinkEnterEvent(time, vehicleId, linkId);
+					}
+					callHandler(info, event);
 				}
-				try {
-					info.method.invoke(info.eventHandler, event );
-				} catch (IllegalArgumentException | IllegalAccessException e) {
-					throw new RuntimeException("problem invoking EventHandler " + info.eventHandler.getClass().getCanonicalName() + " for event-class " + info.eventClass.getCanonicalName(), e);
-				} catch (InvocationTargetException e) {
-					throw new RuntimeException("problem invoking EventHandler " + info.eventHandler.getClass().getCanonicalName() + " for event-class " + info.eventClass.getCanonicalName(), e.getCause());
+			}
+		}
+	}
+
+	/**
+	 * Calls the {@link LinkEnterLeaveHandler}s directly. The event object is only created if another handler requires it.
+	 */
+	@Override
+	public void processLinkLeaveEvent(final double time, final Id<Vehicle> vehicleId, final Id<Link> linkId) {
+		countEvent();
+		LinkLeaveEvent event = null;
+		for (HandlerInfo info : getHandlersForClass(LinkLeaveEvent.class)) {
+			synchronized(info.eventHandler) {
+				if (info.eventClass == LinkLeaveEvent.class && info.eventHandler instanceof LinkEnterLeaveHandler handler) {
+					handler.handleLinkLeave(time, vehicleId, linkId);
+				} else {
+					if (event == null) {
+						event = new LinkLeaveEvent(time, vehicleId, linkId);
+					}
+					callHandler(info, event);
 				}
 			}
 		}
 	}
 
+	/**
+	 * @return whether any handler requires {@link LinkEnterEvent} or {@link LinkLeaveEvent} objects, i.e. is not a
+	 * {@link LinkEnterLeaveHandler}
+	 */
+	boolean requiresLinkEventObjects() {
+		for (HandlerInfo info : getHandlersForClass(LinkEnterEvent.class)) {
+			if (info.eventClass != LinkEnterEvent.class || !(info.eventHandler instanceof LinkEnterLeaveHandler)) {
+				return true;
+			}
+		}
+		for (HandlerInfo info : getHandlersForClass(LinkLeaveEvent.class)) {
+			if (info.eventClass != LinkLeaveEvent.class || !(info.eventHandler instanceof LinkEnterLeaveHandler)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private void countEvent() {
+		this.counter++;
+		if (this.counter == this.nextCounterMsg) {
+			this.nextCounterMsg *= 4;
+			log.info(" event # " + this.counter);
+		}
+	}
+
+	private static void callHandler(final HandlerInfo info, final Event event) {
+		if (callHandlerFast(info.eventClass, event, info.eventHandler )) {
+			return;
+		}
+		try {
+			info.method.invoke(info.eventHandler, event );
+		} catch (IllegalArgumentException | IllegalAccessException e) {
+			throw new RuntimeException("problem invoking EventHandler " + info.eventHandler.getClass().getCanonicalName() + " for event-class " + info.eventClass.getCanonicalName(), e);
+		} catch (InvocationTargetException e) {
+			throw new RuntimeException("problem invoking EventHandler " + info.eventHandler.getClass().getCanonicalName() + " for event-class " + info.eventClass.getCanonicalName(), e.getCause());
+		}
+	}
+
 
 	@Override
 	public void addHandler (final EventHandler handler) {
@@ -228,6 +300,9 @@ public final class EventsManagerImpl implements EventsManager {
 			HandlerData dat = findHandler(eventKlass);
 			if (dat != null) {
 				for (EventHandler handler : dat.handlerList) {
+					if (isLinkEventOfMoreGeneralHandler(eventClass, eventKlass, handler)) {
+						continue;
+					}
 					info.add(new HandlerInfo(eventKlass, handler, dat.method));
 				}
 			}
@@ -239,6 +314,15 @@ public final class EventsManagerImpl implements EventsManager {
 		return cache;
 	}
 
+	/**
+	 * {@link LinkEnterLeaveHandler}s get link enter and leave events only through their link event methods, even if they
+	 * also handle more general events, e.g. as a {@link BasicEventHandler}.
+	 */
+	private static boolean isLinkEventOfMoreGeneralHandler(final Class<? extends Event> eventClass, final Class<? extends Event> handledClass, final EventHandler handler) {
+		return (eventClass == LinkEnterEvent.class || eventClass == LinkLeaveEvent.class) && handledClass != eventClass
+				&& handler instanceof LinkEnterLeaveHandler;
+	}
+
 	// this method is purely for performance reasons and need not be implemented
 	private static boolean callHandlerFast(final Class<? extends Event> klass, final Event ev,
 			final EventHandler handler) {
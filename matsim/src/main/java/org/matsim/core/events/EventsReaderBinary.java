@@ -0,0 +1,390 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.events;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.matsim.api.core.v01.events.Event;
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.events.MatsimEventsReader.CustomEventMapper;
+import org.matsim.core.events.algorithms.EventWriterBinary;
+import org.xml.sax.Attributes;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Reads events written by {@link EventWriterBinary}. Files are memory-mapped block by block; blocks whose time range
+ * lies outside of {@link #setTimeRange(double, double)}, and groups of event types not selected with
+ * {@link #setEventTypes(Set)}, are skipped without decoding them. Only the string dictionary of skipped blocks is read.
+ * <p>
+ * The events are created by the same code as for xml events files, so the typed events and custom event mappers behave
+ * exactly the same, but neither the time nor any other text is parsed. Values of number columns are turned back into
+ * their text, as the events are created from their attributes.
+ */
+public final class EventsReaderBinary {
+
+	private final static Logger log = LogManager.getLogger(EventsReaderBinary.class);
+
+	private static final int BLOCK_HEADER_BYTES = 4 + 8 + 8 + 4 + 4;
+
+	private final EventsReaderXMLv1 delegate;
+	private final List<String> dictionary = new ArrayList<>();
+	private double fromTime = Double.NEGATIVE_INFINITY;
+	private double toTime = Double.POSITIVE_INFINITY;
+	private Set<String> eventTypes = null;
+	private int skippedBlocks = 0;
+
+	public EventsReaderBinary(final EventsManager events) {
+		this.delegate = new EventsReaderXMLv1(events);
+	}
+
+	public void addCustomEventMapper(String eventType, CustomEventMapper cem) {
+		this.delegate.addCustomEventMapper(eventType, cem);
+	}
+
+	/**
+	 * Only events with <code>fromTime &lt;= time &lt;= toTime</code> are read.
+	 */
+	public void setTimeRange(double fromTime, double toTime) {
+		this.fromTime = fromTime;
+		this.toTime = toTime;
+	}
+
+	/**
+	 * Only events of the given types are read, or all events if <code>null</code>.
+	 */
+	public void setEventTypes(Set<String> eventTypes) {
+		this.eventTypes = eventTypes;
+	}
+
+	public void readFile(final String filename) {
+		this.dictionary.clear();
+		this.skippedBlocks = 0;
+		try (FileChannel channel = FileChannel.open(Path.of(filename), StandardOpenOption.READ)) {
+			ByteBuffer fileHeader = ByteBuffer.allocate(12);
+			readFully(channel, fileHeader, 0);
+			checkHeader(fileHeader.getLong(), fileHeader.getInt(), filename);
+
+			long position = 12;
+			long size = channel.size();
+			ByteBuffer blockHeader = ByteBuffer.allocate(BLOCK_HEADER_BYTES);
+			while (position < size) {
+				blockHeader.clear();
+				readFully(channel, blockHeader, position);
+				int blockBytes = blockHeader.getInt();
+				double minTime = blockHeader.getDouble();
+				double maxTime = blockHeader.getDouble();
+				int eventCount = blockHeader.getInt();
+				int dictionaryBytes = blockHeader.getInt();
+
+				ByteBuffer dictionaryBuffer = ByteBuffer.allocate(dictionaryBytes);
+				readFully(channel, dictionaryBuffer, position + BLOCK_HEADER_BYTES);
+				readDictionary(dictionaryBuffer);
+
+				long groupsPosition = position + BLOCK_HEADER_BYTES + dictionaryBytes;
+				int groupsBytes = blockBytes - (BLOCK_HEADER_BYTES - 4) - dictionaryBytes;
+				if (overlaps(minTime, maxTime)) {
+					readGroups(channel.map(FileChannel.MapMode.READ_ONLY, groupsPosition, groupsBytes), eventCount);
+				} else {
+					this.skippedBlocks++;
+				}
+				position = groupsPosition + groupsBytes;
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		log.info("read binary events from " + filename + ", skipped " + this.skippedBlocks + " blocks outside of the time range.");
+	}
+
+	/**
+	 * Reads the events sequentially from a stream, e.g. if the file cannot be memory-mapped.
+	 */
+	public void parse(final InputStream stream) {
+		this.dictionary.clear();
+		this.skippedBlocks = 0;
+		try (DataInputStream in = new DataInputStream(stream)) {
+			checkHeader(in.readLong(), in.readInt(), "stream");
+			while (true) {
+				int blockBytes;
+				try {
+					blockBytes = in.readInt();
+				} catch (EOFException e) {
+					break;
+				}
+				byte[] block = new byte[blockBytes];
+				in.readFully(block);
+				ByteBuffer buffer = ByteBuffer.wrap(block);
+				double minTime = buffer.getDouble();
+				double maxTime = buffer.getDouble();
+				int eventCount = buffer.getInt();
+				int dictionaryBytes = buffer.getInt();
+				readDictionary(buffer.slice(buffer.position(), dictionaryBytes));
+				buffer.position(buffer.position() + dictionaryBytes);
+				if (overlaps(minTime, maxTime)) {
+					readGroups(buffer.slice(), eventCount);
+				} else {
+					this.skippedBlocks++;
+				}
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static void checkHeader(long magic, int version, String source) {
+		if (magic != EventWriterBinary.MAGIC) {
+			throw new IllegalArgumentException(source + " is not a binary MATSim events file.");
+		}
+		if (version != EventWriterBinary.VERSION) {
+			throw new IllegalArgumentException("Unsupported version " + version + " of binary events in " + source);
+		}
+	}
+
+	private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer, position + buffer.position()) < 0) {
+				throw new EOFException("Unexpected end of binary events file.");
+			}
+		}
+		buffer.flip();
+	}
+
+	private boolean overlaps(double minTime, double maxTime) {
+		return maxTime >= this.fromTime && minTime <= this.toTime;
+	}
+
+	private void readDictionary(ByteBuffer buffer) {
+		int count = buffer.getInt();
+		for (int i = 0; i < count; i++) {
+			byte[] bytes = new byte[buffer.getInt()];
+			buffer.get(bytes);
+			this.dictionary.add(new String(bytes, StandardCharsets.UTF_8));
+		}
+	}
+
+	private void readGroups(ByteBuffer buffer, int eventCount) {
+		int groupCount = buffer.getInt();
+		List<Group> groups = new ArrayList<>(groupCount);
+		int[] eventGroups = new int[eventCount];
+		int[] eventRows = new int[eventCount];
+		Arrays.fill(eventGroups, -1);
+
+		for (int g = 0; g < groupCount; g++) {
+			String type = this.dictionary.get(buffer.getInt());
+			int count = buffer.getInt();
+			String[] keys = new String[buffer.getInt()];
+			boolean[] numeric = new boolean[keys.length];
+			for (int k = 0; k < keys.length; k++) {
+				keys[k] = this.dictionary.get(buffer.getInt());
+				numeric[k] = buffer.get() == EventWriterBinary.NUMBER_COLUMN;
+			}
+			int groupBytes = buffer.getInt();
+			if (this.eventTypes != null && !this.eventTypes.contains(type)) {
+				buffer.position(buffer.position() + groupBytes);
+				continue;
+			}
+			Group group = new Group(type, keys, numeric, count, buffer.slice(buffer.position(), groupBytes));
+			buffer.position(buffer.position() + groupBytes);
+			for (int row = 0; row < count; row++) {
+				int position = group.position(row);
+				eventGroups[position] = groups.size();
+				eventRows[position] = row;
+			}
+			groups.add(group);
+		}
+
+		ColumnAttributes attributes = new ColumnAttributes();
+		for (int i = 0; i < eventCount; i++) {
+			if (eventGroups[i] < 0) {
+				continue;
+			}
+			Group group = groups.get(eventGroups[i]);
+			int row = eventRows[i];
+			double time = group.time(row);
+			if (time < this.fromTime || time > this.toTime) {
+				continue;
+			}
+			attributes.fill(group, row);
+			this.delegate.startEvent(time, attributes);
+		}
+	}
+
+	/**
+	 * Columns of all events of one type within a block, backed by the (memory-mapped) block.
+	 */
+	private final class Group {
+		private final String type;
+		private final String[] keys;
+		private final boolean[] numeric;
+		private final int count;
+		private final int[] columnOffsets;
+		private final ByteBuffer columns;
+
+		Group(String type, String[] keys, boolean[] numeric, int count, ByteBuffer columns) {
+			this.type = type;
+			this.keys = keys;
+			this.numeric = numeric;
+			this.count = count;
+			this.columns = columns;
+			this.columnOffsets = new int[keys.length];
+			int offset = 12 * count;
+			for (int k = 0; k < keys.length; k++) {
+				this.columnOffsets[k] = offset;
+				offset += (numeric[k] ? 8 : 4) * count;
+			}
+		}
+
+		int position(int row) {
+			return this.columns.getInt(4 * row);
+		}
+
+		double time(int row) {
+			return this.columns.getDouble(4 * this.count + 8 * row);
+		}
+
+		/**
+		 * @return the text of the value, or <code>null</code> if the value is <code>null</code>
+		 */
+		String value(int attribute, int row) {
+			if (this.numeric[attribute]) {
+				return Double.toString(Double.longBitsToDouble(number(attribute, row)));
+			}
+			int index = this.columns.getInt(this.columnOffsets[attribute] + 4 * row);
+			return index == EventWriterBinary.NULL ? null : dictionary.get(index);
+		}
+
+		boolean isMissing(int attribute, int row) {
+			if (this.numeric[attribute]) {
+				return number(attribute, row) == EventWriterBinary.MISSING_NUMBER;
+			}
+			return this.columns.getInt(this.columnOffsets[attribute] + 4 * row) == EventWriterBinary.MISSING;
+		}
+
+		private long number(int attribute, int row) {
+			return this.columns.getLong(this.columnOffsets[attribute] + 8 * row);
+		}
+	}
+
+	/**
+	 * Exposes one row of a group as SAX attributes, so the events can be created by {@link EventsReaderXMLv1}. The time
+	 * is passed on as number and is thus not part of the attributes.
+	 */
+	private static final class ColumnAttributes implements Attributes {
+		private String[] names = new String[16];
+		private String[] values = new String[16];
+		private int length = 0;
+
+		void fill(Group group, int row) {
+			if (this.names.length < group.keys.length + 1) {
+				this.names = new String[group.keys.length + 1];
+				this.values = new String[group.keys.length + 1];
+			}
+			this.names[0] = Event.ATTRIBUTE_TYPE;
+			this.values[0] = group.type;
+			this.length = 1;
+			for (int k = 0; k < group.keys.length; k++) {
+				if (!group.isMissing(k, row)) {
+					this.names[this.length] = group.keys[k];
+					this.values[this.length] = group.value(k, row);
+					this.length++;
+				}
+			}
+		}
+
+		@Override
+		public int getLength() {
+			return this.length;
+		}
+
+		@Override
+		public String getURI(int index) {
+			return "";
+		}
+
+		@Override
+		public String getLocalName(int index) {
+			return index >= 0 && index < this.length ? this.names[index] : null;
+		}
+
+		@Override
+		public String getQName(int index) {
+			return getLocalName(index);
+		}
+
+		@Override
+		public String getType(int index) {
+			return index >= 0 && index < this.length ? "CDATA" : null;
+		}
+
+		@Override
+		public String getValue(int index) {
+			return index >= 0 && index < this.length ? this.values[index] : null;
+		}
+
+		@Override
+		public int getIndex(String uri, String localName) {
+			return getIndex(localName);
+		}
+
+		@Override
+		public int getIndex(String qName) {
+			for (int i = 0; i < this.length; i++) {
+				if (this.names[i].equals(qName)) {
+					return i;
+				}
+			}
+			return -1;
+		}
+
+		@Override
+		public String getType(String uri, String localName) {
+			return getType(getIndex(localName));
+		}
+
+		@Override
+		public String getType(String qName) {
+			return getType(getIndex(qName));
+		}
+
+		@Override
+		public String getValue(String uri, String localName) {
+			return getValue(localName);
+		}
+
+		@Override
+		public String getValue(String qName) {
+			int index = getIndex(qName);
+			return index < 0 ? null : this.values[index];
+		}
+	}
+}
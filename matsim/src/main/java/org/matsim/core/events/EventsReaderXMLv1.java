@@ -96,7 +96,14 @@ public final class EventsReaderXMLv1 extends MatsimXmlEventsParser {
 	}
 
 	private void startEvent(final Attributes atts) {
-		double time = Double.parseDouble(atts.getValue("time"));
+		startEvent(Double.parseDouble(atts.getValue("time")), atts);
+	}
+
+	/**
+	 * Creates the event from its time and its other attributes. Used by {@link EventsReaderBinary}, which stores the time
+	 * as number.
+	 */
+	/* package */ void startEvent(final double time, final Attributes atts) {
 		String eventType = atts.getValue("type");
 
 		// === material related to wait2link below here ===
@@ -61,13 +61,15 @@ public final class EventsUtils {
 
 
 	/**
-	 * The SimStepParallelEventsManagerImpl can handle events from multiple threads.
+	 * The SimStepParallelEventsManagerImpl and the RingBufferEventsManager can handle events from multiple threads.
 	 * The (Parallel)EventsMangerImpl cannot, therefore it has to be wrapped into a
 	 * SynchronizedEventsManagerImpl.
 	 */
 	public static EventsManager getParallelFeedableInstance(EventsManager events) {
 		if (events instanceof SimStepParallelEventsManagerImpl) {
 			return events;
+		} else if (events instanceof RingBufferEventsManager) {
+			return events;
 		} else if (events instanceof ParallelEventsManager) {
 			return events;
 		} else if (events instanceof SynchronizedEventsManagerImpl) {
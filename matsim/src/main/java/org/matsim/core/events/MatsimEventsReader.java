@@ -20,7 +20,9 @@
 
 package org.matsim.core.events;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.net.URL;
 import java.util.LinkedHashMap;
 import java.util.Locale;
@@ -82,6 +84,10 @@ public final class MatsimEventsReader implements MatsimReader {
 			EventsReaderJson reader = new EventsReaderJson(this.events);
 			customEventMappers.forEach(reader::addCustomEventMapper);
 			reader.parse(filename);
+		} else if (lcFilename.endsWith(".bin")) {
+			EventsReaderBinary reader = new EventsReaderBinary(this.events);
+			customEventMappers.forEach(reader::addCustomEventMapper);
+			reader.readFile(filename);
 		} else if (lcFilename.endsWith(".txt") || lcFilename.endsWith(".txt.gz")) {
 			throw new RuntimeException("text events are no longer supported. Please use MATSim 0.6.1 or earlier to read text events.");
 		} else {
@@ -107,6 +113,11 @@ public final class MatsimEventsReader implements MatsimReader {
 				customEventMappers.forEach(reader::addCustomEventMapper);
 				reader.parse(stream);
 				break;
+			case binary:
+				EventsReaderBinary binaryReader = new EventsReaderBinary(this.events);
+				customEventMappers.forEach(binaryReader::addCustomEventMapper);
+				binaryReader.parse(stream);
+				break;
 		}
 	}
 
@@ -118,6 +129,14 @@ public final class MatsimEventsReader implements MatsimReader {
 			EventsReaderJson reader = new EventsReaderJson(this.events);
 			customEventMappers.forEach(reader::addCustomEventMapper);
 			reader.parse(url);
+		} else if (url.getFile().endsWith(".bin")) {
+			EventsReaderBinary reader = new EventsReaderBinary(this.events);
+			customEventMappers.forEach(reader::addCustomEventMapper);
+			try (InputStream stream = url.openStream()) {
+				reader.parse(stream);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
 		}
 	}
 
@@ -30,12 +30,20 @@ import java.util.concurrent.TimeUnit;
 import jakarta.inject.Inject;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.matsim.api.core.v01.Id;
 import org.matsim.api.core.v01.events.Event;
+import org.matsim.api.core.v01.network.Link;
 import org.matsim.core.api.experimental.events.EventsManager;
 import org.matsim.core.config.Config;
 import org.matsim.core.events.handler.EventHandler;
+import org.matsim.vehicles.Vehicle;
 
 /**
+ * Link enter and leave events submitted with {@link #processLinkEnterEvent} and {@link #processLinkLeaveEvent} are
+ * collected in an {@link EventArray} by their attributes, and passed on in batches, so no event objects are created
+ * for them unless a handler requires them. Other events pass the collected link events on first, so the order of
+ * events is kept.
+ *
  * @author cdobler
  */
 public final class ParallelEventsManager implements EventsManager {
@@ -52,6 +60,8 @@ public final class ParallelEventsManager implements EventsManager {
 	private int iteration = 0;
 	private boolean init = false;
 	private final BlockingQueue<EventArray> eventQueue;
+	private final Object pendingLock = new Object();
+	private EventArray pendingLinkEvents;
 
 	private final int eventsQueueSize;
 	//private final int eventsQueueSize = 1048576 * 32;
@@ -84,6 +94,7 @@ public final class ParallelEventsManager implements EventsManager {
 		this.eventsArraySize = syncOnTimeSteps ? 512 : 32768;
 		this.eventsQueueSize = eventsQueueSize;
 		this.eventQueue = new ArrayBlockingQueue<>(eventsQueueSize);
+		this.pendingLinkEvents = new EventArray(this.eventsArraySize);
 		this.uncaughtExceptionHandler = new ExceptionHandler();
 	}
 
@@ -152,17 +163,47 @@ public final class ParallelEventsManager implements EventsManager {
 
 		EventArray array = new EventArray(1);
 		array.add(event);
-		try {
-			this.eventQueue.put(array);
-		} catch (InterruptedException e) {
-			throw new RuntimeException("Exception while adding event.", e);
+		synchronized (this.pendingLock) {
+			putPendingLinkEvents();
+			put(array);
 		}
 	}
 
 	@Override
-	public void processEvents(final EventArray events) {
+	public void processLinkEnterEvent(final double time, final Id<Vehicle> vehicleId, final Id<Link> linkId) {
+		if (!init) throw new IllegalStateException(".initProcessing() has to be called before processing events!");
+
+		synchronized (this.pendingLock) {
+			this.pendingLinkEvents.addLinkEnter(time, vehicleId, linkId);
+			if (this.pendingLinkEvents.size() >= this.eventsArraySize) {
+				putPendingLinkEvents();
+			}
+		}
+	}
+
+	@Override
+	public void processLinkLeaveEvent(final double time, final Id<Vehicle> vehicleId, final Id<Link> linkId) {
 		if (!init) throw new IllegalStateException(".initProcessing() has to be called before processing events!");
 
+		synchronized (this.pendingLock) {
+			this.pendingLinkEvents.addLinkLeave(time, vehicleId, linkId);
+			if (this.pendingLinkEvents.size() >= this.eventsArraySize) {
+				putPendingLinkEvents();
+			}
+		}
+	}
+
+	/**
+	 * Passes the collected link events on. Must be called while holding the pending lock.
+	 */
+	private void putPendingLinkEvents() {
+		if (this.pendingLinkEvents.size() > 0) {
+			put(this.pendingLinkEvents);
+			this.pendingLinkEvents = new EventArray(this.eventsArraySize);
+		}
+	}
+
+	private void put(EventArray events) {
 		try {
 			this.eventQueue.put(events);
 		} catch (InterruptedException e) {
@@ -170,6 +211,16 @@ public final class ParallelEventsManager implements EventsManager {
 		}
 	}
 
+	@Override
+	public void processEvents(final EventArray events) {
+		if (!init) throw new IllegalStateException(".initProcessing() has to be called before processing events!");
+
+		synchronized (this.pendingLock) {
+			putPendingLinkEvents();
+			put(events);
+		}
+	}
+
 	@Override
 	public void addHandler(final EventHandler handler) {
 		if (init)
@@ -239,6 +290,9 @@ public final class ParallelEventsManager implements EventsManager {
 	}
 
 	public void flush() {
+		synchronized (this.pendingLock) {
+			putPendingLinkEvents();
+		}
 		try {
 			this.distributor.flush();
 		} catch (InterruptedException e) {
@@ -250,6 +304,8 @@ public final class ParallelEventsManager implements EventsManager {
 
 		private final ArrayList<ProcessEventsRunnable> runnables;
 		private final BlockingQueue<EventArray> eventQueue;
+	private final Object pendingLock = new Object();
+	private EventArray pendingLinkEvents;
 
 		// When set to true, the distributor will process all events until all events in the event manager are processed.
 		// This is used when the simulation needs to sync with event processing and make sure there are no unprocessed
@@ -330,8 +386,7 @@ public final class ParallelEventsManager implements EventsManager {
 					// this is the non-optimized path, where we receive small number of events at a time
 					else {
 						for (int i = 0; i < earray.size(); i++) {
-							Event event = earray.get(i);
-							events.add(event);
+							events.addFrom(earray, i);
 							// if the buffer is full or if we need to flush
 							if (events.size() == eventsArraySize || shouldFlush) {
 								distribute(events);
@@ -375,7 +430,7 @@ public final class ParallelEventsManager implements EventsManager {
 
 					if (events != null) {
 						for (int i = 0; i < events.size(); i++) {
-							this.eventsManager.processEvent(events.get(i));
+							events.process(i, this.eventsManager);
 						}
 					}
 
@@ -25,10 +25,13 @@ import jakarta.inject.Inject;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.matsim.api.core.v01.Id;
 import org.matsim.api.core.v01.events.Event;
+import org.matsim.api.core.v01.network.Link;
 import org.matsim.core.api.experimental.events.EventsManager;
 import org.matsim.core.config.Config;
 import org.matsim.core.events.handler.EventHandler;
+import org.matsim.vehicles.Vehicle;
 
 /**
  *
@@ -121,6 +124,38 @@ public final class ParallelEventsManagerImpl implements EventsManager {
 		}
 	}
 
+	/**
+	 * Passes the event to the threads by its attributes, see {@link ProcessEventThread}.
+	 */
+	@Override
+	public void processLinkEnterEvent(final double time, final Id<Vehicle> vehicleId, final Id<Link> linkId) {
+		if (parallelMode) {
+			for (int i = 0; i < eventsProcessThread.length; i++) {
+				eventsProcessThread[i].processLinkEnterEvent(time, vehicleId, linkId);
+			}
+		} else {
+			for (int i = 0; i < eventsProcessThread.length; i++) {
+				eventsProcessThread[i].getEvents().processLinkEnterEvent(time, vehicleId, linkId);
+			}
+		}
+	}
+
+	/**
+	 * Passes the event to the threads by its attributes, see {@link ProcessEventThread}.
+	 */
+	@Override
+	public void processLinkLeaveEvent(final double time, final Id<Vehicle> vehicleId, final Id<Link> linkId) {
+		if (parallelMode) {
+			for (int i = 0; i < eventsProcessThread.length; i++) {
+				eventsProcessThread[i].processLinkLeaveEvent(time, vehicleId, linkId);
+			}
+		} else {
+			for (int i = 0; i < eventsProcessThread.length; i++) {
+				eventsProcessThread[i].getEvents().processLinkLeaveEvent(time, vehicleId, linkId);
+			}
+		}
+	}
+
 	@Override
 	public void addHandler(final EventHandler handler) {
 		synchronized (this) {
@@ -0,0 +1,468 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * RingBufferEventsManager.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.events;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+import jakarta.inject.Inject;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.events.Event;
+import org.matsim.api.core.v01.events.LinkEnterEvent;
+import org.matsim.api.core.v01.events.LinkLeaveEvent;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.config.groups.EventsManagerConfigGroup;
+import org.matsim.core.events.handler.EventHandler;
+import org.matsim.core.events.handler.LinkEnterLeaveHandler;
+import org.matsim.core.gbl.Gbl;
+import org.matsim.vehicles.Vehicle;
+
+/**
+ * An EventsManager that, like {@link SimStepParallelEventsManagerImpl}, handles the events in separate threads and
+ * ensures that all events of a time step are processed before the simulation goes on. Instead of one blocking queue
+ * per thread, all events are written once into a ring buffer which is read by all events processing threads. Each
+ * thread processes all events available in the ring buffer as one batch for its own group of handlers.
+ * <p>
+ * Publishing an event only claims a slot in the ring buffer and marks it as published, there are no locks and no
+ * per-event allocations. An {@link EventArray} passed to {@link #processEvents(EventArray)} claims all of its slots at
+ * once. Events may be created from multiple threads, e.g. by a multithreaded QSim, or by event handlers. The producers
+ * only have to wait if the ring buffer is full, i.e. if the slowest events processing thread is
+ * {@link EventsManagerConfigGroup#getEventsQueueSize()} events behind.
+ * <p>
+ * Link enter and leave events submitted with {@link #processLinkEnterEvent} and {@link #processLinkLeaveEvent} are
+ * stored in the slot by their attributes, next to the event references. If all their handlers are
+ * {@link LinkEnterLeaveHandler}s, no event objects are created for them at all. Otherwise, they are created once when
+ * they are submitted, as for all other events.
+ */
+public final class RingBufferEventsManager implements EventsManager {
+
+	private final static Logger log = LogManager.getLogger(RingBufferEventsManager.class);
+
+	private static final int SPIN_TRIES = 100;
+	private static final int YIELD_TRIES = 200;
+	private static final long PARK_NANOS = 20_000;
+
+	private static final byte EVENT = 0;
+	private static final byte LINK_ENTER = 1;
+	private static final byte LINK_LEAVE = 2;
+
+	private final int numOfThreads;
+	private final int bufferSize;
+	private final int indexMask;
+	private final int indexShift;
+
+	private final Event[] ring;
+	/** the kind of event in each slot, and the attributes of link events, which have no event object in the ring */
+	private final byte[] types;
+	private final double[] times;
+	private final Id<Vehicle>[] vehicleIds;
+	private final Id<Link>[] linkIds;
+	private final AtomicIntegerArray published;
+	private final AtomicLong cursor = new AtomicLong(0);
+	/** a lower bound of the first sequence that cannot be published yet, stale values only cause a recheck */
+	private volatile long capacityLimit = 0;
+
+	private final EventsManagerImpl delegate;
+	private final EventsManagerImpl[] eventsManagers;
+	private int handlerCount = 0;
+	private volatile boolean linkEventObjects = false;
+
+	private Consumer[] consumers;
+	private volatile boolean running = false;
+	private boolean parallelMode = false;
+	private final AtomicReference<Throwable> hadException = new AtomicReference<>();
+
+	@Inject
+	RingBufferEventsManager(EventsManagerConfigGroup config) {
+		this(config.getNumberOfThreads() != null ? config.getNumberOfThreads() : 1, config.getEventsQueueSize());
+	}
+
+	public RingBufferEventsManager(int numOfThreads) {
+		this(numOfThreads, 65536 * 2);
+	}
+
+	@SuppressWarnings("unchecked")
+	public RingBufferEventsManager(int numOfThreads, int eventsQueueSize) {
+		if (numOfThreads < 1) {
+			throw new IllegalArgumentException("At least one thread is required to process events, but got " + numOfThreads);
+		}
+		this.numOfThreads = numOfThreads;
+		this.bufferSize = eventsQueueSize <= 1 ? 2 : Integer.highestOneBit(eventsQueueSize - 1) << 1;
+		this.indexMask = this.bufferSize - 1;
+		this.indexShift = Integer.numberOfTrailingZeros(this.bufferSize);
+		log.info("number of threads=" + numOfThreads + ", ring buffer size=" + this.bufferSize);
+
+		this.ring = new Event[this.bufferSize];
+		this.types = new byte[this.bufferSize];
+		this.times = new double[this.bufferSize];
+		this.vehicleIds = new Id[this.bufferSize];
+		this.linkIds = new Id[this.bufferSize];
+		this.published = new AtomicIntegerArray(this.bufferSize);
+		for (int i = 0; i < this.bufferSize; i++) {
+			this.published.set(i, -1);
+		}
+
+		this.delegate = new EventsManagerImpl();
+		this.eventsManagers = new EventsManagerImpl[numOfThreads];
+		for (int i = 0; i < numOfThreads; i++) this.eventsManagers[i] = new EventsManagerImpl();
+	}
+
+	@Override
+	public void processEvent(final Event event) {
+		if (!this.parallelMode) {
+			this.delegate.processEvent(event);
+			return;
+		}
+		publish(claim(), event);
+	}
+
+	@Override
+	public void processEvents(final EventArray events) {
+		if (!this.parallelMode) {
+			for (int i = 0; i < events.size(); i++) {
+				events.process(i, this.delegate);
+			}
+			return;
+		}
+		if (events.hasLinkEvents()) {
+			// link events without event objects cannot be published at once
+			for (int i = 0; i < events.size(); i++) {
+				events.process(i, this);
+			}
+			return;
+		}
+		int size = events.size();
+		if (size == 0) {
+			return;
+		}
+		Event[] array = events.array();
+		long first = this.cursor.getAndAdd(size);
+		long limit = this.capacityLimit;
+		for (int i = 0; i < size; i++) {
+			long sequence = first + i;
+			if (sequence >= limit) {
+				limit = waitForCapacity(sequence);
+			}
+			publish(sequence, array[i]);
+		}
+	}
+
+	@Override
+	public void processLinkEnterEvent(final double time, final Id<Vehicle> vehicleId, final Id<Link> linkId) {
+		if (!this.parallelMode) {
+			this.delegate.processLinkEnterEvent(time, vehicleId, linkId);
+		} else if (this.linkEventObjects) {
+			processEvent(new LinkEnterEvent(time, vehicleId, linkId));
+		} else {
+			publishLinkEvent(claim(), LINK_ENTER, time, vehicleId, linkId);
+		}
+	}
+
+	@Override
+	public void processLinkLeaveEvent(final double time, final Id<Vehicle> vehicleId, final Id<Link> linkId) {
+		if (!this.parallelMode) {
+			this.delegate.processLinkLeaveEvent(time, vehicleId, linkId);
+		} else if (this.linkEventObjects) {
+			processEvent(new LinkLeaveEvent(time, vehicleId, linkId));
+		} else {
+			publishLinkEvent(claim(), LINK_LEAVE, time, vehicleId, linkId);
+		}
+	}
+
+	private long claim() {
+		long sequence = this.cursor.getAndIncrement();
+		if (sequence >= this.capacityLimit) {
+			waitForCapacity(sequence);
+		}
+		return sequence;
+	}
+
+	private void publish(long sequence, Event event) {
+		int index = (int) sequence & this.indexMask;
+		this.ring[index] = event;
+		this.types[index] = EVENT;
+		this.published.setRelease(index, (int) (sequence >>> this.indexShift));
+	}
+
+	private void publishLinkEvent(long sequence, byte type, double time, Id<Vehicle> vehicleId, Id<Link> linkId) {
+		int index = (int) sequence & this.indexMask;
+		this.ring[index] = null;
+		this.types[index] = type;
+		this.times[index] = time;
+		this.vehicleIds[index] = vehicleId;
+		this.linkIds[index] = linkId;
+		this.published.setRelease(index, (int) (sequence >>> this.indexShift));
+	}
+
+	/**
+	 * Waits until the slot of the given sequence is no longer needed by any events processing thread.
+	 *
+	 * @return the first sequence for which the ring buffer has no capacity yet
+	 */
+	private long waitForCapacity(long sequence) {
+		int tries = 0;
+		while (true) {
+			long min = Long.MAX_VALUE;
+			for (Consumer consumer : this.consumers) {
+				min = Math.min(min, consumer.sequence.get());
+			}
+			if (sequence < min + this.bufferSize) {
+				this.capacityLimit = min + this.bufferSize;
+				return min + this.bufferSize;
+			}
+			if (Thread.currentThread() instanceof Consumer consumer && consumer.manager == this
+					&& sequence >= consumer.sequence.get() + this.bufferSize) {
+				/*
+				 * An event handler created more events than fit into the ring buffer while this thread is still
+				 * processing the event that triggered them. Waiting would never end. The claimed slot is never
+				 * published, so the other threads stop waiting for it once the exception is recorded.
+				 */
+				IllegalStateException e = new IllegalStateException("The events queue is too small for the events created by event handlers. " +
+						"Consider increasing eventsQueueSize, currently the ring buffer holds " + this.bufferSize + " events.");
+				this.hadException.compareAndSet(null, e);
+				throw e;
+			}
+			idle(tries++);
+		}
+	}
+
+	private boolean isPublished(long sequence) {
+		return this.published.getAcquire((int) sequence & this.indexMask) == (int) (sequence >>> this.indexShift);
+	}
+
+	@Override
+	public void addHandler(final EventHandler handler) {
+		this.delegate.addHandler(handler);
+
+		this.eventsManagers[this.handlerCount % this.numOfThreads].addHandler(handler);
+		this.handlerCount++;
+		this.linkEventObjects = this.delegate.requiresLinkEventObjects();
+	}
+
+	@Override
+	public void removeHandler(final EventHandler handler) {
+		this.delegate.removeHandler(handler);
+
+		for (EventsManager eventsManager : this.eventsManagers) eventsManager.removeHandler(handler);
+		this.linkEventObjects = this.delegate.requiresLinkEventObjects();
+	}
+
+	@Override
+	public void resetHandlers(int iteration) {
+		this.delegate.resetHandlers(iteration);
+	}
+
+	@Override
+	public void initProcessing() {
+		this.delegate.initProcessing();
+		for (EventsManager eventsManager : this.eventsManagers) eventsManager.initProcessing();
+
+		this.hadException.set(null);
+		this.running = true;
+		long start = this.cursor.get();
+		this.consumers = new Consumer[this.numOfThreads];
+		for (int i = 0; i < this.numOfThreads; i++) {
+			this.consumers[i] = new Consumer(this, this.eventsManagers[i], start);
+			this.consumers[i].setDaemon(true);
+			this.consumers[i].setName(RingBufferEventsManager.class.getSimpleName() + "_" + i);
+		}
+		for (Consumer consumer : this.consumers) {
+			consumer.start();
+		}
+
+		/*
+		 * During the simulation Events are processed in
+		 * the events processing threads.
+		 */
+		this.parallelMode = true;
+	}
+
+	/*
+	 * Events created after this method has been called are processed
+	 * directly in the calling thread.
+	 */
+	@Override
+	public synchronized void finishProcessing() {
+		if (this.parallelMode) {
+			awaitProcessed();
+			this.running = false;
+			for (Consumer consumer : this.consumers) {
+				try {
+					consumer.join();
+				} catch (InterruptedException e) {
+					throw new RuntimeException("Exception while waiting on join...", e);
+				}
+			}
+			Arrays.fill(this.ring, null);
+			Arrays.fill(this.vehicleIds, null);
+			Arrays.fill(this.linkIds, null);
+		}
+
+		this.delegate.finishProcessing();
+		for (EventsManager eventsManager : this.eventsManagers) eventsManager.finishProcessing();
+
+		/*
+		 * After the simulation Events are processed in
+		 * the Main Thread.
+		 */
+		this.parallelMode = false;
+
+		if (this.hadException.get() != null) {
+			throw new RuntimeException("Exception while processing events. Cannot guarantee that all events have been fully processed.", this.hadException.get());
+		}
+	}
+
+	@Override
+	public void afterSimStep(double time) {
+		Gbl.assertIf(this.parallelMode);
+		awaitProcessed();
+
+		if (this.hadException.get() != null) {
+			throw new RuntimeException(this.hadException.get());
+		}
+	}
+
+	/**
+	 * Waits until all events processing threads have processed all events, including the ones that event handlers
+	 * created while we were waiting, or until one of them failed.
+	 */
+	private void awaitProcessed() {
+		long target;
+		do {
+			target = this.cursor.get();
+			for (Consumer consumer : this.consumers) {
+				int tries = 0;
+				while (consumer.processed.get() < target) {
+					if (this.hadException.get() != null) {
+						return;
+					}
+					idle(tries++);
+				}
+			}
+		} while (this.cursor.get() != target);
+	}
+
+	private static void idle(int tries) {
+		if (tries < SPIN_TRIES) {
+			Thread.onSpinWait();
+		} else if (tries < YIELD_TRIES) {
+			Thread.yield();
+		} else {
+			LockSupport.parkNanos(PARK_NANOS);
+		}
+	}
+
+	private static final class Consumer extends Thread {
+
+		private final RingBufferEventsManager manager;
+		private final EventsManager eventsManager;
+		/** the next sequence this thread will read; all slots before it may be overwritten */
+		private final AtomicLong sequence;
+		/** all events before this sequence have been handled */
+		private final AtomicLong processed;
+		private double lastEventTime = Double.NEGATIVE_INFINITY;
+
+		Consumer(RingBufferEventsManager manager, EventsManager eventsManager, long start) {
+			this.manager = manager;
+			this.eventsManager = eventsManager;
+			this.sequence = new AtomicLong(start);
+			this.processed = new AtomicLong(start);
+		}
+
+		@Override
+		public void run() {
+			RingBufferEventsManager m = this.manager;
+			long next = this.sequence.get();
+			int tries = 0;
+			while (true) {
+				long claimed = m.cursor.get();
+				long end = next;
+				while (end < claimed && m.isPublished(end)) {
+					int index = (int) end & m.indexMask;
+					byte type = m.types[index];
+					Event event = m.ring[index];
+					double time = m.times[index];
+					Id<Vehicle> vehicleId = m.vehicleIds[index];
+					Id<Link> linkId = m.linkIds[index];
+					end++;
+					// release the slot before handling the event, so handlers creating events cannot block on it
+					this.sequence.setRelease(end);
+					process(type, event, time, vehicleId, linkId);
+				}
+				if (end > next) {
+					next = end;
+					this.processed.set(next);
+					tries = 0;
+				} else if (!m.running && (next >= claimed || m.hadException.get() != null)) {
+					break;
+				} else {
+					idle(tries++);
+				}
+			}
+			Gbl.printCurrentThreadCpuTime();
+		}
+
+		private void process(byte type, Event event, double time, Id<Vehicle> vehicleId, Id<Link> linkId) {
+			if (this.manager.hadException.get() != null) {
+				// keep consuming, so producers are not blocked, but do not process events anymore
+				return;
+			}
+			try {
+				if (type == EVENT) {
+					time = event.getTime();
+				}
+				if (time < this.lastEventTime) {
+					// link events have no event object in the ring buffer, so it is only created for the message
+					throw eventsNotOrdered(type == LINK_ENTER ? new LinkEnterEvent(time, vehicleId, linkId)
+							: type == LINK_LEAVE ? new LinkLeaveEvent(time, vehicleId, linkId) : event);
+				}
+				this.lastEventTime = time;
+				if (type == LINK_ENTER) {
+					this.eventsManager.processLinkEnterEvent(time, vehicleId, linkId);
+				} else if (type == LINK_LEAVE) {
+					this.eventsManager.processLinkLeaveEvent(time, vehicleId, linkId);
+				} else {
+					this.eventsManager.processEvent(event);
+				}
+			} catch (Throwable e) {
+				if (this.manager.hadException.compareAndSet(null, e)) {
+					log.error("Thread " + getName() + " caught an exception while handling events, the remaining events are skipped.", e);
+				}
+			}
+		}
+
+		private RuntimeException eventsNotOrdered(Event event) {
+			return new RuntimeException("Events in the queue are not ordered chronologically. " +
+					"This should never happen. Is the RingBufferEventsManager registered " +
+					"as a MobsimAfterSimStepListener? LastEventTime = " + this.lastEventTime +
+					" currentEvent.time = " + event.getTime() + " currentEvent.type = " + event.getEventType() +
+					" full event: " + event);
+		}
+	}
+
+}
@@ -23,10 +23,8 @@ package org.matsim.core.events;
 import java.lang.Thread.UncaughtExceptionHandler;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Queue;
 import java.util.concurrent.BrokenBarrierException;
 import java.util.concurrent.CyclicBarrier;
-import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -34,17 +32,24 @@ import jakarta.inject.Inject;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.matsim.api.core.v01.Id;
 import org.matsim.api.core.v01.events.Event;
+import org.matsim.api.core.v01.network.Link;
 import org.matsim.core.api.experimental.events.EventsManager;
 import org.matsim.core.config.groups.EventsManagerConfigGroup;
 import org.matsim.core.events.handler.EventHandler;
 import org.matsim.core.gbl.Gbl;
+import org.matsim.vehicles.Vehicle;
 
 /**
  * An EventsHandler that handles all occurring Events in separate Threads.
  * When a Time Step of the QSim ends, all Events that have been created
  * in that Time Step are processed before the simulation can go on.
  * This is necessary e.g. when using Within-day Replanning.
+ * <p>
+ * Link enter and leave events submitted with {@link #processLinkEnterEvent} and {@link #processLinkLeaveEvent} are
+ * passed to the events processing threads by their attributes, see {@link EventQueue}. The event objects are only
+ * created by the {@link EventsManagerImpl}s of the threads, and only if one of their handlers requires them.
  *
  * @author cdobler
  */
@@ -105,6 +110,35 @@ class SimStepParallelEventsManagerImpl implements EventsManager {
 		}
 	}
 
+	@Override
+	public void processLinkEnterEvent(final double time, final Id<Vehicle> vehicleId, final Id<Link> linkId) {
+		this.counter.incrementAndGet();
+
+		if (parallelMode) {
+			runnables[0].eventsQueue.addLinkEnter(time, vehicleId, linkId);
+		} else {
+			delegate.processLinkEnterEvent(time, vehicleId, linkId);
+		}
+	}
+
+	@Override
+	public void processLinkLeaveEvent(final double time, final Id<Vehicle> vehicleId, final Id<Link> linkId) {
+		this.counter.incrementAndGet();
+
+		if (parallelMode) {
+			runnables[0].eventsQueue.addLinkLeave(time, vehicleId, linkId);
+		} else {
+			delegate.processLinkLeaveEvent(time, vehicleId, linkId);
+		}
+	}
+
+	/**
+	 * @return whether any handler requires link enter or leave event objects, see {@link EventsManagerImpl}
+	 */
+	boolean requiresLinkEventObjects() {
+		return delegate.requiresLinkEventObjects();
+	}
+
 	@Override
 	public void addHandler(final EventHandler handler) {
 		delegate.addHandler(handler);
@@ -131,10 +165,10 @@ class SimStepParallelEventsManagerImpl implements EventsManager {
 		delegate.initProcessing();
 		for (EventsManager eventsManager : this.eventsManagers) eventsManager.initProcessing();
 
-		Queue<Event>[] eventsQueuesArray = new Queue[this.numOfThreads];
-		List<Queue<Event>> eventsQueues = new ArrayList<Queue<Event>>();
+		EventQueue[] eventsQueuesArray = new EventQueue[this.numOfThreads];
+		List<EventQueue> eventsQueues = new ArrayList<>();
 		for (int i = 0; i < numOfThreads; i++) {
-			Queue<Event> eventsQueue = new LinkedBlockingQueue<>();
+			EventQueue eventsQueue = new EventQueue();
 			eventsQueues.add(eventsQueue);
 			eventsQueuesArray[i] = eventsQueue;
 		}
@@ -254,13 +288,14 @@ class SimStepParallelEventsManagerImpl implements EventsManager {
 		private final CyclicBarrier waitForEmptyQueuesBarrier;
 		private final CyclicBarrier simStepEndBarrier;
 		private final CyclicBarrier iterationEndBarrier;
-		private final Queue<Event> eventsQueue;
-		private final Queue<Event> nextEventsQueue;
+		private final EventQueue eventsQueue;
+		private final EventQueue nextEventsQueue;
+		private final EventQueue.Entry entry = new EventQueue.Entry();
 		private double lastEventTime = 0.0;
 
 		public ProcessEventsRunnable(EventsManager eventsManager, ProcessedEventsChecker processedEventsChecker,
 				CyclicBarrier waitForEmptyQueuesBarrier,CyclicBarrier simStepEndBarrier,
-				CyclicBarrier iterationEndBarrier, Queue<Event> eventsQueue, Queue<Event> nextEventsQueue) {
+				CyclicBarrier iterationEndBarrier, EventQueue eventsQueue, EventQueue nextEventsQueue) {
 			this.eventsManager = eventsManager;
 			this.processedEventsChecker = processedEventsChecker;
 			this.waitForEmptyQueuesBarrier = waitForEmptyQueuesBarrier;
@@ -283,19 +318,22 @@ class SimStepParallelEventsManagerImpl implements EventsManager {
 				 */
 				lastEventTime = 0.0;
 				while (true) {
-					Event event = ((LinkedBlockingQueue<Event>) eventsQueue).take();
+					eventsQueue.take(entry);
+					// null for link events, which are passed by their attributes
+					Event event = entry.getEvent();
 
 					/*
 					 * Check whether the events are ordered chronologically.
 					 */
-					if (event.getTime() < this.lastEventTime) {
+					if (entry.getTime() < this.lastEventTime) {
+						Event unordered = entry.toEvent();
 						throw new RuntimeException("Events in the queue are not ordered chronologically. " +
 								"This should never happen. Is the SimTimeStepParallelEventsManager registered " +
 								"as a MobsimAfterSimStepListener? LastEventTime = " + this.lastEventTime +
-							  " currentEvent.time = " + event.getTime() + " currentEvent.type = " + event.getEventType() +
-							  " full event: " + event.toString());
+							  " currentEvent.time = " + unordered.getTime() + " currentEvent.type = " + unordered.getEventType() +
+							  " full event: " + unordered.toString());
 					} else {
-						this.lastEventTime = event.getTime();
+						this.lastEventTime = entry.getTime();
 					}
 
 					if (event instanceof LastEventOfSimStep) {
@@ -331,7 +369,7 @@ class SimStepParallelEventsManagerImpl implements EventsManager {
 						 * since it is not done in the main thread.
 						 */
 						if (nextEventsQueue != null) {
-							nextEventsQueue.add(event);
+							nextEventsQueue.add(entry);
 						}
 
 						/*
@@ -343,7 +381,7 @@ class SimStepParallelEventsManagerImpl implements EventsManager {
 							break;
 						}
 					}
-					eventsManager.processEvent(event);
+					entry.processWith(eventsManager);
 				}
 				iterationEndBarrier.await();
 			} catch (InterruptedException | BrokenBarrierException e) {
@@ -361,11 +399,11 @@ class SimStepParallelEventsManagerImpl implements EventsManager {
 	private static class ProcessedEventsChecker implements Runnable {
 
 		private final EventsManager evenentsManger;
-		private final Queue<Event>[] eventQueues;
+		private final EventQueue[] eventQueues;
 		private boolean allEventsProcessed;
 		private double time;
 
-		public ProcessedEventsChecker(EventsManager evenentsManger, Queue<Event>[] eventQueues) {
+		public ProcessedEventsChecker(EventsManager evenentsManger, EventQueue[] eventQueues) {
 			this.evenentsManger = evenentsManger;
 			this.eventQueues = eventQueues;
 
@@ -382,7 +420,7 @@ class SimStepParallelEventsManagerImpl implements EventsManager {
 
 		@Override
 		public void run() {
-			for (Queue<Event> eventsQueue : eventQueues) {
+			for (EventQueue eventsQueue : eventQueues) {
 				/*
 				 * Some EventHandlers might have created additional Events [1] which
 				 * could be located in the list AFTER the LastEventOfSimStep, meaning
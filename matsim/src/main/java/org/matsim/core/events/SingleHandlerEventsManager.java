@@ -29,6 +29,7 @@ import java.util.Set;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.matsim.api.core.v01.Id;
 import org.matsim.api.core.v01.events.ActivityEndEvent;
 import org.matsim.api.core.v01.events.ActivityStartEvent;
 import org.matsim.api.core.v01.events.Event;
@@ -60,6 +61,7 @@ import org.matsim.api.core.v01.events.handler.TransitDriverStartsEventHandler;
 import org.matsim.api.core.v01.events.handler.VehicleAbortsEventHandler;
 import org.matsim.api.core.v01.events.handler.VehicleEntersTrafficEventHandler;
 import org.matsim.api.core.v01.events.handler.VehicleLeavesTrafficEventHandler;
+import org.matsim.api.core.v01.network.Link;
 import org.matsim.core.api.experimental.events.AgentWaitingForPtEvent;
 import org.matsim.core.api.experimental.events.EventsManager;
 import org.matsim.core.api.experimental.events.TeleportationArrivalEvent;
@@ -71,7 +73,9 @@ import org.matsim.core.api.experimental.events.handler.VehicleArrivesAtFacilityE
 import org.matsim.core.api.experimental.events.handler.VehicleDepartsAtFacilityEventHandler;
 import org.matsim.core.events.handler.BasicEventHandler;
 import org.matsim.core.events.handler.EventHandler;
+import org.matsim.core.events.handler.LinkEnterLeaveHandler;
 import org.matsim.core.utils.misc.ClassUtils;
+import org.matsim.vehicles.Vehicle;
 
 /**
  * Implementation of an EventsManager that serves exactly one EventHandler.
@@ -112,6 +116,7 @@ public final class SingleHandlerEventsManager implements EventsManager {
 	private final boolean isVehicleLeavesTrafficHandler;
 	private final boolean isVehicleAbortsHandler;
 	private final boolean isBasicEventHandler;
+	private final boolean isLinkEnterLeaveHandler;
 	
 	private long counter = 0;
 	private long nextCounterMsg = 1;
@@ -141,6 +146,7 @@ public final class SingleHandlerEventsManager implements EventsManager {
 		this.isVehicleLeavesTrafficHandler = this.eventHandler instanceof VehicleLeavesTrafficEventHandler;
 		this.isVehicleAbortsHandler = this.eventHandler instanceof VehicleAbortsEventHandler;
 		this.isBasicEventHandler = this.eventHandler instanceof BasicEventHandler;
+		this.isLinkEnterLeaveHandler = this.eventHandler instanceof LinkEnterLeaveHandler;
 
 		// identify the implemented Handler Interfaces
 		Set<Class<?>> addedHandlers = new HashSet<Class<?>>();
@@ -175,12 +181,44 @@ public final class SingleHandlerEventsManager implements EventsManager {
 		
 		if (!this.isActive) return;
 		
+		countEvent();
+		computeEvent(event);
+	}
+
+	private void countEvent() {
 		this.counter++;
 		if (this.counter == this.nextCounterMsg) {
 			this.nextCounterMsg *= 4;
 			log.info(" event # " + this.counter);
 		}
-		computeEvent(event);
+	}
+
+	/**
+	 * Calls a {@link LinkEnterLeaveHandler} directly, the event object is only created for other handlers.
+	 */
+	@Override
+	public void processLinkEnterEvent(final double time, final Id<Vehicle> vehicleId, final Id<Link> linkId) {
+		if (!this.isLinkEnterLeaveHandler) {
+			processEvent(new LinkEnterEvent(time, vehicleId, linkId));
+			return;
+		}
+		if (!this.isActive) return;
+		countEvent();
+		((LinkEnterLeaveHandler) this.eventHandler).handleLinkEnter(time, vehicleId, linkId);
+	}
+
+	/**
+	 * Calls a {@link LinkEnterLeaveHandler} directly, the event object is only created for other handlers.
+	 */
+	@Override
+	public void processLinkLeaveEvent(final double time, final Id<Vehicle> vehicleId, final Id<Link> linkId) {
+		if (!this.isLinkEnterLeaveHandler) {
+			processEvent(new LinkLeaveEvent(time, vehicleId, linkId));
+			return;
+		}
+		if (!this.isActive) return;
+		countEvent();
+		((LinkEnterLeaveHandler) this.eventHandler).handleLinkLeave(time, vehicleId, linkId);
 	}
 
 	@Override
@@ -295,7 +333,8 @@ public final class SingleHandlerEventsManager implements EventsManager {
 	private boolean callHandlerFast(final Event ev) {
 		boolean ret = false;
 		Class<?> klass = ev.getClass(); 
-		if (this.isBasicEventHandler) {
+		// LinkEnterLeaveHandlers get link events only through their link event methods, see EventsManagerImpl
+		if (this.isBasicEventHandler && !(this.isLinkEnterLeaveHandler && (klass == LinkEnterEvent.class || klass == LinkLeaveEvent.class))) {
 			((BasicEventHandler) this.eventHandler).handleEvent(ev);
 			ret = true;
 		}
@@ -20,9 +20,12 @@
 
 package org.matsim.core.events;
 
+import org.matsim.api.core.v01.Id;
 import org.matsim.api.core.v01.events.Event;
+import org.matsim.api.core.v01.network.Link;
 import org.matsim.core.api.experimental.events.EventsManager;
 import org.matsim.core.events.handler.EventHandler;
+import org.matsim.vehicles.Vehicle;
 
 
 /**
@@ -32,7 +35,7 @@ import org.matsim.core.events.handler.EventHandler;
  * The method processEvent is synchronized in this
  * implementation to avoid thread interference errors.
  * This class is just a delegate that uses all the logic that can be found in another EventsManager instance
- * except the synchronization of processEvent().
+ * except the synchronization of processEvent(), processLinkEnterEvent() and processLinkLeaveEvent().
  * 
  * @author dgrether
  *
@@ -54,6 +57,16 @@ class SynchronizedEventsManagerImpl implements EventsManager {
 	public synchronized void processEvent(Event event) {
 		this.delegate.processEvent(event);
 	}
+
+	@Override
+	public synchronized void processLinkEnterEvent(final double time, final Id<Vehicle> vehicleId, final Id<Link> linkId) {
+		this.delegate.processLinkEnterEvent(time, vehicleId, linkId);
+	}
+
+	@Override
+	public synchronized void processLinkLeaveEvent(final double time, final Id<Vehicle> vehicleId, final Id<Link> linkId) {
+		this.delegate.processLinkLeaveEvent(time, vehicleId, linkId);
+	}
 	
 	@Override
 	public void removeHandler(EventHandler handler) {
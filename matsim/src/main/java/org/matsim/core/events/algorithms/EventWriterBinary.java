@@ -0,0 +1,331 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.events.algorithms;
+
+import org.matsim.api.core.v01.events.Event;
+import org.matsim.core.events.EventsReaderBinary;
+import org.matsim.core.events.handler.BasicEventHandler;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes events in a binary, column-oriented format that can be read back by {@link EventsReaderBinary} without any
+ * text parsing. Events are collected in blocks of {@link #BLOCK_SIZE} events. Within a block, the events are grouped by
+ * type and stored as columns: the position of each event in the block, its time, and one column per attribute.
+ * <p>
+ * An attribute column is stored as numbers if all its values within the block are numbers which are written exactly
+ * as {@link Double#toString(double)} would, e.g. coordinates or distances. Such values are restored to the same text
+ * when reading. All other attribute values (ids, modes, activity types, ...) are interned in a string dictionary and
+ * stored as int indices, so numbers do not fill up the dictionary. Each block starts with its time range and the
+ * dictionary entries it introduces, so a reader can skip blocks by time or event type.
+ * <p>
+ * The file is written uncompressed, so it can be memory-mapped when reading.
+ * <p>
+ * Layout (big endian):
+ * <pre>
+ * file   := MAGIC:long VERSION:int block*
+ * block  := byteLength:int minTime:double maxTime:double eventCount:int dictionaryByteLength:int dictionary groupCount:int group*
+ * dictionary := stringCount:int (byteLength:int utf8:byte[])*
+ * group  := type:int count:int attributeCount:int (key:int kind:byte)[attributeCount] byteLength:int
+ *           position:int[count] time:double[count] column[attributeCount]
+ * column := value:int[count] if kind is {@link #STRING_COLUMN}, value:double[count] if kind is {@link #NUMBER_COLUMN}
+ * </pre>
+ * Values of string columns are dictionary indices, {@link #MISSING} if the event does not have the attribute, or
+ * {@link #NULL} if the attribute value is <code>null</code>. Values of number columns are the raw bits of the doubles,
+ * or {@link #MISSING_NUMBER} if the event does not have the attribute.
+ */
+public class EventWriterBinary implements EventWriter, BasicEventHandler {
+
+	public static final long MAGIC = 0x4D4154534D45564CL; // "MATSMEVL"
+	public static final int VERSION = 2;
+	public static final int MISSING = -1;
+	public static final int NULL = -2;
+	/** a NaN with a payload, which is never the result of parsing a number */
+	public static final long MISSING_NUMBER = 0x7ff8_0000_0000_0001L;
+	public static final byte STRING_COLUMN = 0;
+	public static final byte NUMBER_COLUMN = 1;
+
+	static final int BLOCK_SIZE = 65536;
+
+	private final DataOutputStream out;
+
+	private final Map<String, Integer> dictionary = new HashMap<>();
+	private final List<String> newStrings = new ArrayList<>();
+	private final Map<String, Group> groups = new LinkedHashMap<>();
+	private int eventCount = 0;
+	private double minTime = Double.POSITIVE_INFINITY;
+	private double maxTime = Double.NEGATIVE_INFINITY;
+
+	public EventWriterBinary(final String filename) {
+		try {
+			this.out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(filename), 1 << 16));
+			writeHeader();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	public EventWriterBinary(final OutputStream stream) {
+		try {
+			this.out = new DataOutputStream(new BufferedOutputStream(stream, 1 << 16));
+			writeHeader();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private void writeHeader() throws IOException {
+		this.out.writeLong(MAGIC);
+		this.out.writeInt(VERSION);
+	}
+
+	@Override
+	public void handleEvent(final Event event) {
+		Map<String, String> attributes = event.getAttributes();
+		String type = event.getEventType();
+		Group group = this.groups.computeIfAbsent(type, t -> new Group(intern(t)));
+		int row = group.add(this.eventCount, event.getTime());
+		for (Map.Entry<String, String> e : attributes.entrySet()) {
+			String key = e.getKey();
+			if (key.equals(Event.ATTRIBUTE_TIME) || key.equals(Event.ATTRIBUTE_TYPE)) {
+				continue;
+			}
+			group.column(intern(key)).set(row, e.getValue());
+		}
+		this.eventCount++;
+		this.minTime = Math.min(this.minTime, event.getTime());
+		this.maxTime = Math.max(this.maxTime, event.getTime());
+		if (this.eventCount == BLOCK_SIZE) {
+			writeBlock();
+		}
+	}
+
+	/* package */ int getDictionarySize() {
+		return this.dictionary.size();
+	}
+
+	private int intern(String string) {
+		Integer index = this.dictionary.get(string);
+		if (index == null) {
+			index = this.dictionary.size();
+			this.dictionary.put(string, index);
+			this.newStrings.add(string);
+		}
+		return index;
+	}
+
+	private void writeBlock() {
+		if (this.eventCount == 0) {
+			return;
+		}
+		try {
+			ByteArrayOutputStream dictionaryBytes = new ByteArrayOutputStream();
+			DataOutputStream dictionaryOut = new DataOutputStream(dictionaryBytes);
+			dictionaryOut.writeInt(this.newStrings.size());
+			for (String string : this.newStrings) {
+				byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+				dictionaryOut.writeInt(bytes.length);
+				dictionaryOut.write(bytes);
+			}
+			dictionaryOut.flush();
+
+			ByteArrayOutputStream groupBytes = new ByteArrayOutputStream();
+			DataOutputStream groupOut = new DataOutputStream(groupBytes);
+			groupOut.writeInt(this.groups.size());
+			for (Group group : this.groups.values()) {
+				group.write(groupOut);
+			}
+			groupOut.flush();
+
+			this.out.writeInt(8 + 8 + 4 + 4 + dictionaryBytes.size() + groupBytes.size());
+			this.out.writeDouble(this.minTime);
+			this.out.writeDouble(this.maxTime);
+			this.out.writeInt(this.eventCount);
+			this.out.writeInt(dictionaryBytes.size());
+			dictionaryBytes.writeTo(this.out);
+			groupBytes.writeTo(this.out);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		this.newStrings.clear();
+		this.groups.clear();
+		this.eventCount = 0;
+		this.minTime = Double.POSITIVE_INFINITY;
+		this.maxTime = Double.NEGATIVE_INFINITY;
+	}
+
+	@Override
+	public void closeFile() {
+		writeBlock();
+		try {
+			this.out.close();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	@Override
+	public void reset(final int iter) {
+	}
+
+	/**
+	 * Columns of all events of one type within a block.
+	 */
+	private final class Group {
+		private final int type;
+		private int size = 0;
+		private int[] positions = new int[64];
+		private double[] times = new double[64];
+		private final Map<Integer, Column> columns = new LinkedHashMap<>();
+
+		Group(int type) {
+			this.type = type;
+		}
+
+		int add(int position, double time) {
+			if (this.size == this.positions.length) {
+				int capacity = this.size * 2;
+				this.positions = Arrays.copyOf(this.positions, capacity);
+				this.times = Arrays.copyOf(this.times, capacity);
+				for (Column column : this.columns.values()) {
+					column.grow(capacity);
+				}
+			}
+			this.positions[this.size] = position;
+			this.times[this.size] = time;
+			return this.size++;
+		}
+
+		Column column(int key) {
+			return this.columns.computeIfAbsent(key, k -> new Column(this.positions.length));
+		}
+
+		void write(DataOutputStream out) throws IOException {
+			out.writeInt(this.type);
+			out.writeInt(this.size);
+			out.writeInt(this.columns.size());
+			int columnBytes = 0;
+			for (Map.Entry<Integer, Column> e : this.columns.entrySet()) {
+				out.writeInt(e.getKey());
+				out.writeByte(e.getValue().numbers != null ? NUMBER_COLUMN : STRING_COLUMN);
+				columnBytes += e.getValue().numbers != null ? 8 : 4;
+			}
+			out.writeInt(this.size * (4 + 8 + columnBytes));
+			for (int i = 0; i < this.size; i++) {
+				out.writeInt(this.positions[i]);
+			}
+			for (int i = 0; i < this.size; i++) {
+				out.writeDouble(this.times[i]);
+			}
+			for (Column column : this.columns.values()) {
+				column.write(out, this.size);
+			}
+		}
+
+		/**
+		 * The values of one attribute. They are kept as numbers as long as all values are numbers, and are interned as
+		 * strings from the first value which is not.
+		 */
+		private final class Column {
+			private long[] numbers;
+			private int[] strings = null;
+
+			Column(int capacity) {
+				this.numbers = new long[capacity];
+				Arrays.fill(this.numbers, MISSING_NUMBER);
+			}
+
+			void set(int row, String value) {
+				if (this.numbers != null) {
+					if (value != null && isNumber(value)) {
+						this.numbers[row] = Double.doubleToRawLongBits(Double.parseDouble(value));
+						return;
+					}
+					convertToStrings();
+				}
+				this.strings[row] = value == null ? NULL : intern(value);
+			}
+
+			private void convertToStrings() {
+				this.strings = new int[this.numbers.length];
+				Arrays.fill(this.strings, MISSING);
+				for (int i = 0; i < Group.this.size; i++) {
+					if (this.numbers[i] != MISSING_NUMBER) {
+						this.strings[i] = intern(Double.toString(Double.longBitsToDouble(this.numbers[i])));
+					}
+				}
+				this.numbers = null;
+			}
+
+			void grow(int capacity) {
+				int size = Group.this.size;
+				if (this.numbers != null) {
+					this.numbers = Arrays.copyOf(this.numbers, capacity);
+					Arrays.fill(this.numbers, size, capacity, MISSING_NUMBER);
+				} else {
+					this.strings = Arrays.copyOf(this.strings, capacity);
+					Arrays.fill(this.strings, size, capacity, MISSING);
+				}
+			}
+
+			void write(DataOutputStream out, int size) throws IOException {
+				for (int i = 0; i < size; i++) {
+					if (this.numbers != null) {
+						out.writeLong(this.numbers[i]);
+					} else {
+						out.writeInt(this.strings[i]);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return whether the value is a number which is written the same by {@link Double#toString(double)}, so it can be
+	 * stored as double without changing its text
+	 */
+	/* package */ static boolean isNumber(String value) {
+		if (value.isEmpty()) {
+			return false;
+		}
+		char first = value.charAt(0);
+		if (first != '-' && (first < '0' || first > '9')) {
+			return false;
+		}
+		try {
+			return Double.toString(Double.parseDouble(value)).equals(value);
+		} catch (NumberFormatException e) {
+			return false;
+		}
+	}
+}
@@ -0,0 +1,64 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * LinkEnterLeaveHandler.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.events.handler;
+
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.events.LinkEnterEvent;
+import org.matsim.api.core.v01.events.LinkLeaveEvent;
+import org.matsim.api.core.v01.events.handler.LinkEnterEventHandler;
+import org.matsim.api.core.v01.events.handler.LinkLeaveEventHandler;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.vehicles.Vehicle;
+
+/**
+ * Handles link enter and leave events by their attributes, without requiring an event object.
+ * <p>
+ * The mobsim submits these events with {@link EventsManager#processLinkEnterEvent} and
+ * {@link EventsManager#processLinkLeaveEvent}. If all handlers of link events implement this interface,
+ * {@link org.matsim.core.events.EventsManagerImpl} and {@link org.matsim.core.events.RingBufferEventsManager} do not
+ * create {@link LinkEnterEvent}s and {@link LinkLeaveEvent}s at all. As soon as one handler requires the event
+ * objects, e.g. an events writer or a {@link BasicEventHandler}, they are created as before.
+ * <p>
+ * Events which are created nevertheless, e.g. when reading an events file, are passed to the same methods. Thus,
+ * implementations should neither override the <code>handleEvent</code> methods nor implement
+ * {@link LinkEnterEventHandler} or {@link LinkLeaveEventHandler} separately, which would register them twice.
+ * <p>
+ * Implementations which also handle more general events, e.g. as a {@link BasicEventHandler}, get link enter and leave
+ * events only through {@link #handleLinkEnter} and {@link #handleLinkLeave}, and not through the more general
+ * <code>handleEvent</code> method.
+ */
+public interface LinkEnterLeaveHandler extends LinkEnterEventHandler, LinkLeaveEventHandler {
+
+	void handleLinkEnter(double time, Id<Vehicle> vehicleId, Id<Link> linkId);
+
+	void handleLinkLeave(double time, Id<Vehicle> vehicleId, Id<Link> linkId);
+
+	@Override
+	default void handleEvent(LinkEnterEvent event) {
+		handleLinkEnter(event.getTime(), event.getVehicleId(), event.getLinkId());
+	}
+
+	@Override
+	default void handleEvent(LinkLeaveEvent event) {
+		handleLinkLeave(event.getTime(), event.getVehicleId(), event.getLinkId());
+	}
+}
@@ -152,6 +152,11 @@ class HLink {
     private int nextFreeFlowSlot;
 	private int lastPush;
 	private final int stuckTimePeriod;
+	// Boundary links connect two realms: agents are pushed by the realm of the from-node and popped by the realm of
+	// the to-node. The storage capacity released by pops is collected separately and handed back to the upstream
+	// realm between two time steps, so that both realms never write the same field concurrently.
+	private boolean boundary;
+	private float releasedCapacity;
 
     public HLink(int id, int capacity, int length, int velocity,  float flowCapacityperSecond, int stuckTimePeriod) {
         this.id = id;
@@ -177,6 +182,7 @@ class HLink {
 		this.lastPush = 0;
 		this.lastUpdate = 0;
 		this.currentCapacity = initialCapacity;
+		this.releasedCapacity = 0;
 		this.flowLeftInTimestep = flowCapacityPerS;
 
 	}
@@ -202,9 +208,45 @@ class HLink {
 		}
 	}
 
+	/**
+	 * Takes the storage capacity for an agent entering a boundary link without adding it to the queue. The agent is
+	 * added to the queue by the downstream realm at the beginning of the next time step.
+	 */
+	public boolean reserve(int timestep, float storageCapacityPCU) {
+		float effectiveStorageCapacity = Math.min(storageCapacityPCU, initialCapacity);
+		if (currentCapacity - effectiveStorageCapacity >= 0
+				|| (stuckTimePeriod != Integer.MAX_VALUE && (lastPush + stuckTimePeriod) < timestep)) {
+			lastPush = timestep;
+			currentCapacity = currentCapacity - effectiveStorageCapacity;
+			return true;
+		}
+		return false;
+	}
+
 	public void pop(float storageCapacityPCE) {
 		queue.pop();
-		currentCapacity += storageCapacityPCE;
+		if (boundary) {
+			releasedCapacity += storageCapacityPCE;
+		} else {
+			currentCapacity += storageCapacityPCE;
+		}
+	}
+
+	/**
+	 * Makes the storage capacity released since the last call available to the upstream realm again. Must only be
+	 * called while no realm is processing a time step.
+	 */
+	public void releaseCapacity() {
+		currentCapacity += releasedCapacity;
+		releasedCapacity = 0;
+	}
+
+	public boolean isBoundary() {
+		return boundary;
+	}
+
+	public void setBoundary(boolean boundary) {
+		this.boundary = boundary;
 	}
 
     public int nexttime () {
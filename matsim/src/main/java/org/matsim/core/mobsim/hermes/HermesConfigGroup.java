@@ -64,6 +64,11 @@ public final class HermesConfigGroup extends ReflectiveConfigGroup {
 
     private static final String DETPTDESC = "treats PT as deterministic. PT vehicles will run with a steady speed. Should be used with separate network layers for PT and other network modes.";
     private boolean deterministicPt = false;
+
+    private static final String NUMBER_OF_REALMS = "numberOfRealms";
+    private static final String NUMBER_OF_REALMS_DESC = "Number of realms the network is partitioned into. Each realm simulates the links of one spatial partition"
+            + " on its own thread, and the realms exchange agents crossing partition boundaries after every time step."
+            + " Public transport is only supported with a single realm.";
     public static final boolean DEBUG_REALMS = false;
     public static final boolean DEBUG_EVENTS = false;
     public static final boolean CONCURRENT_EVENT_PROCESSING = true;
@@ -77,6 +82,9 @@ public final class HermesConfigGroup extends ReflectiveConfigGroup {
     @Positive
     private int stuckTime = 10;
 
+    @Positive
+    private int numberOfRealms = 1;
+
     public Set<String> getMainModes() {
         return mainModes;
     }
@@ -123,6 +131,16 @@ public final class HermesConfigGroup extends ReflectiveConfigGroup {
         this.stuckTime = stuckTime;
     }
 
+    @StringGetter(NUMBER_OF_REALMS)
+    public int getNumberOfRealms() {
+        return numberOfRealms;
+    }
+
+    @StringSetter(NUMBER_OF_REALMS)
+    public void setNumberOfRealms(int numberOfRealms) {
+        this.numberOfRealms = numberOfRealms;
+    }
+
     @StringSetter(FLOW_CAPACITY_FACTOR)
     public void setFlowCapacityFactor(double flowCapacityFactor) {
         this.flowCapacityFactor = flowCapacityFactor;
@@ -159,6 +177,7 @@ public final class HermesConfigGroup extends ReflectiveConfigGroup {
         comments.put(END_TIME, "Simulation End Time");
         comments.put(STUCKTIMEPARAM, STUCKTIMEPARAMDESC);
         comments.put(DETPT, DETPTDESC);
+        comments.put(NUMBER_OF_REALMS, NUMBER_OF_REALMS_DESC);
         return comments;
     }
 
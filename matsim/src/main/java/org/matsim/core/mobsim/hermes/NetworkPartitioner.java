@@ -0,0 +1,96 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+package org.matsim.core.mobsim.hermes;
+
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.network.Node;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Splits the network into spatial partitions, one per {@link Realm}, using recursive coordinate bisection on the node
+ * coordinates. Each cut is placed along the longer side of the bounding box such that both sides get a number of
+ * incoming links proportional to the number of partitions they will be split into, since a realm simulates the links
+ * ending in its nodes. The result only depends on the network, so repeated runs produce the same partitions.
+ */
+final class NetworkPartitioner {
+
+	private NetworkPartitioner() {
+	}
+
+	/**
+	 * @return the partition of every node, indexed by {@link Id#index()} of the node id.
+	 */
+	static int[] partitionNodes(Network network, int partitions) {
+		Node[] nodes = network.getNodes().values().toArray(new Node[0]);
+		Arrays.sort(nodes, Comparator.comparingInt(n -> n.getId().index()));
+		int[] nodePartitions = new int[Id.getNumberOfIds(Node.class)];
+		bisect(nodes, 0, nodes.length, 0, partitions, nodePartitions);
+		return nodePartitions;
+	}
+
+	private static void bisect(Node[] nodes, int from, int to, int firstPartition, int partitions, int[] nodePartitions) {
+		if (partitions == 1 || to - from <= 1) {
+			for (int i = from; i < to; i++) {
+				nodePartitions[nodes[i].getId().index()] = firstPartition;
+			}
+			return;
+		}
+
+		double minX = Double.POSITIVE_INFINITY;
+		double minY = Double.POSITIVE_INFINITY;
+		double maxX = Double.NEGATIVE_INFINITY;
+		double maxY = Double.NEGATIVE_INFINITY;
+		long totalWeight = 0;
+		for (int i = from; i < to; i++) {
+			Node node = nodes[i];
+			minX = Math.min(minX, node.getCoord().getX());
+			minY = Math.min(minY, node.getCoord().getY());
+			maxX = Math.max(maxX, node.getCoord().getX());
+			maxY = Math.max(maxY, node.getCoord().getY());
+			totalWeight += weight(node);
+		}
+
+		// ties are broken by node index to keep the partitioning deterministic
+		Comparator<Node> byIndex = Comparator.comparingInt(n -> n.getId().index());
+		Comparator<Node> comparator = (maxX - minX) >= (maxY - minY) ?
+				Comparator.<Node>comparingDouble(n -> n.getCoord().getX()).thenComparing(byIndex) :
+				Comparator.<Node>comparingDouble(n -> n.getCoord().getY()).thenComparing(byIndex);
+		Arrays.sort(nodes, from, to, comparator);
+
+		int leftPartitions = partitions / 2;
+		long leftWeight = totalWeight * leftPartitions / partitions;
+		long weight = 0;
+		int split = from;
+		while (split < to && weight < leftWeight) {
+			weight += weight(nodes[split]);
+			split++;
+		}
+		split = Math.max(from + 1, Math.min(to - 1, split));
+
+		bisect(nodes, from, split, firstPartition, leftPartitions, nodePartitions);
+		bisect(nodes, split, to, firstPartition + leftPartitions, partitions - leftPartitions, nodePartitions);
+	}
+
+	private static int weight(Node node) {
+		return Math.max(1, node.getInLinks().size());
+	}
+}
@@ -0,0 +1,146 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+package org.matsim.core.mobsim.hermes;
+
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.events.EventArray;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Runs several {@link Realm}s, each simulating one partition of the network, on their own threads. The realms advance
+ * in lock-step: after every time step they meet at a barrier, whose action hands the storage capacity released on
+ * boundary links back to the upstream realms and, every hour, passes the events of all realms to the events manager.
+ * Events are merged per time step in the order of the realms, so the output does not depend on thread scheduling.
+ */
+final class ParallelRealms {
+
+	private final Realm[] realms;
+	private final HLink[] boundaryLinks;
+	private final EventsManager eventsManager;
+	private int secs;
+
+	ParallelRealms(Realm[] realms, HLink[] links, EventsManager eventsManager) {
+		this.realms = realms;
+		List<HLink> boundaryLinks = new ArrayList<>();
+		for (HLink link : links) {
+			if (link != null && link.isBoundary()) {
+				boundaryLinks.add(link);
+			}
+		}
+		this.boundaryLinks = boundaryLinks.toArray(new HLink[0]);
+		this.eventsManager = eventsManager;
+	}
+
+	void run() throws Exception {
+		CyclicBarrier barrier = new CyclicBarrier(realms.length, this::finishTimestep);
+		ExecutorService pool = Executors.newFixedThreadPool(realms.length, new NamedThreadFactory());
+		try {
+			List<Future<Void>> futures = new ArrayList<>();
+			for (Realm realm : realms) {
+				futures.add(pool.submit(() -> {
+					try {
+						realm.runPartition(barrier);
+					} catch (Exception | Error e) {
+						// release the other realms waiting at the barrier
+						barrier.reset();
+						throw e;
+					}
+					return null;
+				}));
+			}
+			ExecutionException failure = null;
+			for (Future<Void> future : futures) {
+				try {
+					future.get();
+				} catch (ExecutionException e) {
+					// report the realm that failed first rather than the ones that found the barrier broken
+					if (failure == null || failure.getCause() instanceof BrokenBarrierException) {
+						failure = e;
+					}
+				}
+			}
+			if (failure != null) {
+				throw new RuntimeException(failure.getCause());
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	private void finishTimestep() {
+		for (HLink link : boundaryLinks) {
+			link.releaseCapacity();
+		}
+		if (HermesConfigGroup.CONCURRENT_EVENT_PROCESSING && secs % 3600 == 0) {
+			EventArray events = mergeEvents(realms);
+			if (events.size() > 0) {
+				eventsManager.processEvents(events);
+			}
+		}
+		secs++;
+	}
+
+	/**
+	 * Takes the events of all realms and merges them by time. Events with the same time stay in the order of the realms.
+	 */
+	static EventArray mergeEvents(Realm[] realms) {
+		EventArray[] events = new EventArray[realms.length];
+		int[] positions = new int[realms.length];
+		for (int i = 0; i < realms.length; i++) {
+			events[i] = realms[i].takeSortedEvents();
+		}
+		EventArray merged = new EventArray();
+		while (true) {
+			int next = -1;
+			double time = Double.POSITIVE_INFINITY;
+			for (int i = 0; i < realms.length; i++) {
+				if (positions[i] < events[i].size() && events[i].get(positions[i]).getTime() < time) {
+					next = i;
+					time = events[i].get(positions[i]).getTime();
+				}
+			}
+			if (next == -1) {
+				return merged;
+			}
+			while (positions[next] < events[next].size() && events[next].get(positions[next]).getTime() == time) {
+				merged.add(events[next].get(positions[next]++));
+			}
+		}
+	}
+
+	private static class NamedThreadFactory implements ThreadFactory {
+		private int count = 0;
+
+		@Override
+		public Thread newThread(Runnable r) {
+			Thread thread = new Thread(r, "Hermes_Realm_" + count++);
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+}
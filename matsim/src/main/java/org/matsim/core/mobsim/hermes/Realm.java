@@ -37,6 +37,7 @@ import org.matsim.vehicles.Vehicle;
 
 import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.concurrent.CyclicBarrier;
 
 class Realm {
 	private final ScenarioImporter si;
@@ -61,10 +62,26 @@ class Realm {
     private final EventsManager eventsManager;
     // Current timestamp
     private int secs;
+    // Index of this realm. With a single realm, the partition arrays and boundaries are null.
+    private final int realmId;
+    // Realm simulating each link (the realm of its to-node), indexed by link id.
+    private final int[] linkRealms;
+    // Realm pushing agents into each link (the realm of its from-node), indexed by link id.
+    private final int[] linkSourceRealms;
+    // Boundaries to and from the other realms, indexed by realm id.
+    private RealmBoundary[] outgoing;
+    private RealmBoundary[] incoming;
     Logger log = LogManager.getLogger(Realm.class);
 
     public Realm(ScenarioImporter scenario, EventsManager eventsManager) {
+        this(scenario, eventsManager, 0, null, null);
+    }
+
+    public Realm(ScenarioImporter scenario, EventsManager eventsManager, int realmId, int[] linkRealms, int[] linkSourceRealms) {
         this.si = scenario;
+        this.realmId = realmId;
+        this.linkRealms = linkRealms;
+        this.linkSourceRealms = linkSourceRealms;
         this.links = scenario.hermesLinks;
         // The plus one is necessary because we peek into the next slot on each tick.
         this.delayedLinksByWakeupTime = new ArrayList<>();
@@ -93,6 +110,11 @@ class Realm {
         delayedAgentsByWakeupTime.get(Math.min(until, HermesConfigGroup.SIM_STEPS + 1)).add(agent);
     }
 
+    private void sendDelayedAgent(Agent agent, int until, int realm) {
+        if (HermesConfigGroup.DEBUG_REALMS) log(secs, String.format("agent %d delayed until %d in realm %d", agent.id, until, realm));
+        outgoing[realm].addDelayedAgent(secs, agent, until);
+    }
+
     private void addDelayedLink(HLink link, int until) {
         if (HermesConfigGroup.DEBUG_REALMS)
             log(secs, String.format("link %d delayed until %d size %d peek agent %d", link.id(), until, link.queue().size(), link.queue().peek().id));
@@ -119,6 +141,11 @@ class Realm {
 
     protected boolean processAgentLink(Agent agent, long planentry, int currLinkId) {
         int linkid = Agent.getLinkPlanEntry(planentry);
+        if (linkSourceRealms != null && linkSourceRealms[linkid] != realmId) {
+            // The link is entered from another realm (non-contiguous route), the agent retries from there.
+            sendDelayedAgent(agent, secs + 1, linkSourceRealms[linkid]);
+            return true;
+        }
         double velocity = Agent.getVelocityPlanEntry(planentry);
         HLink next = links[linkid];
         int prev_finishtime = agent.linkFinishTime;
@@ -128,6 +155,17 @@ class Realm {
         int traveltime = (HermesConfigGroup.LINK_ADVANCE_DELAY + (int) Math.round(Math.max(1, next.length() / Math.min(velocity, next.velocity()))));
         agent.linkFinishTime = secs + traveltime;
         float storageCapacityPCU = agent.getStorageCapacityPCUE();
+        if (next.isBoundary()) {
+            if (next.reserve(secs, storageCapacityPCU)) {
+                advanceAgentandSetEventTime(agent);
+                // The downstream realm adds the agent to the link queue at the beginning of the next step.
+                outgoing[linkRealms[linkid]].addLinkAgent(secs, agent);
+                return true;
+            } else {
+                agent.linkFinishTime = prev_finishtime;
+                return false;
+            }
+        }
         if (next.push(agent,secs,storageCapacityPCU)) {
             advanceAgentandSetEventTime(agent);
             // If the agent we just added is the head, add to delayed links
@@ -148,12 +186,29 @@ class Realm {
 
     protected boolean processAgentSleepUntil(Agent agent, long planentry) {
         int sleep = Agent.getSleepPlanEntry(planentry);
-        addDelayedAgent(agent, Math.max(sleep, secs + 1));
+        int realm = wakeupRealm(agent);
+        if (realm == realmId) {
+            addDelayedAgent(agent, Math.max(sleep, secs + 1));
+        } else {
+            sendDelayedAgent(agent, Math.max(sleep, secs + 1), realm);
+        }
         updateCapacities(agent);
         advanceAgentandSetEventTime(agent);
         return true;
     }
 
+    // The realm that should wake up an agent which starts sleeping now: the one pushing it into the next link.
+    private int wakeupRealm(Agent agent) {
+        if (linkSourceRealms == null || agent.plan.size < agent.planIndex + 3) {
+            return realmId;
+        }
+        long nextEntry = agent.plan.get(agent.planIndex + 2);
+        if (Agent.getPlanHeader(nextEntry) != Agent.LinkType) {
+            return realmId;
+        }
+        return linkSourceRealms[Agent.getLinkPlanEntry(nextEntry)];
+    }
+
     private void updateCapacities(Agent agent) {
         if (agent.isTransitVehicle()) {
             return;
@@ -316,46 +371,84 @@ class Realm {
     }
 
     public void run() throws Exception {
+        while (secs != HermesConfigGroup.SIM_STEPS) {
+            processTimestep();
+            if (HermesConfigGroup.CONCURRENT_EVENT_PROCESSING && secs % 3600 == 0 && sortedEvents.size() > 0) {
+                eventsManager.processEvents(sortedEvents);
+                sortedEvents = new EventArray();
+            }
+            secs += 1;
+        }
+    }
+
+    /**
+     * Runs this realm as one of several partitions in lock-step with the others. Boundary links and events are
+     * consolidated by the action of the barrier after every step, see {@link ParallelRealms}.
+     */
+    void runPartition(CyclicBarrier barrier) throws Exception {
+        while (secs != HermesConfigGroup.SIM_STEPS) {
+            receiveFromBoundaries();
+            processTimestep();
+            barrier.await();
+            secs += 1;
+        }
+    }
+
+    private void processTimestep() {
         int routed = 0;
         Agent agent;
         HLink link;
 
-        while (secs != HermesConfigGroup.SIM_STEPS) {
-            if (secs % 3600 == 0) {
-                log.info("Hermes running at " + Time.writeTime(secs));
+        if (secs % 3600 == 0 && realmId == 0) {
+            log.info("Hermes running at " + Time.writeTime(secs));
+        }
+        while ((agent = delayedAgentsByWakeupTime.get(secs).poll()) != null) {
+            if (HermesConfigGroup.DEBUG_REALMS) {
+                log(secs, String.format("Processing agent %d", agent.id));
             }
-            while ((agent = delayedAgentsByWakeupTime.get(secs).poll()) != null) {
-                if (HermesConfigGroup.DEBUG_REALMS) {
-                    log(secs, String.format("Processing agent %d", agent.id));
-                }
-                routed += processAgentActivities(agent);
+            routed += processAgentActivities(agent);
 
+        }
+        delayedAgentsByWakeupTime.set(secs, null);
+        if (si.isDeterministicPt()) {
+            for (Event e : si.getDeterministicPtEvents().get(secs)) {
+                sortedEvents.add(e);
             }
-            delayedAgentsByWakeupTime.set(secs, null);
-            if (si.isDeterministicPt()) {
-                for (Event e : si.getDeterministicPtEvents().get(secs)) {
-                    sortedEvents.add(e);
-                }
-                si.getDeterministicPtEvents().get(secs).clear();
+            si.getDeterministicPtEvents().get(secs).clear();
+        }
+
+        while ((link = delayedLinksByWakeupTime.get(secs).poll()) != null) {
+            if (HermesConfigGroup.DEBUG_REALMS) {
+                log(secs, String.format("Processing link %d", link.id()));
             }
+            routed += processLinks(link);
+        }
+        delayedLinksByWakeupTime.set(secs, null);
+        if (HermesConfigGroup.DEBUG_REALMS && routed > 0) {
+            log(secs, String.format("Processed %d agents", routed));
+        }
+    }
 
-            while ((link = delayedLinksByWakeupTime.get(secs).poll()) != null) {
-                if (HermesConfigGroup.DEBUG_REALMS) {
-                    log(secs, String.format("Processing link %d", link.id()));
-                }
-                routed += processLinks(link);
+    // Picks up the agents handed over by other realms in the previous step.
+    private void receiveFromBoundaries() {
+        for (RealmBoundary boundary : incoming) {
+            if (boundary == null) {
+                continue;
             }
-            delayedLinksByWakeupTime.set(secs, null);
-            if (HermesConfigGroup.DEBUG_REALMS && routed > 0) {
-                log(secs, String.format("Processed %d agents", routed));
+            ArrayDeque<Agent> linkAgents = boundary.linkAgents(secs - 1);
+            Agent agent;
+            while ((agent = linkAgents.poll()) != null) {
+                HLink link = links[Agent.getLinkPlanEntry(agent.currPlan())];
+                link.queue().push(agent);
+                if (link.queue().peek() == agent) {
+                    addDelayedLink(link, Math.max(agent.linkFinishTime, secs));
+                }
             }
-            if (HermesConfigGroup.CONCURRENT_EVENT_PROCESSING && secs % 3600 == 0 && sortedEvents.size() > 0) {
-                eventsManager.processEvents(sortedEvents);
-                sortedEvents = new EventArray();
+            ArrayDeque<RealmBoundary.DelayedAgent> delayedAgents = boundary.delayedAgents(secs - 1);
+            RealmBoundary.DelayedAgent delayed;
+            while ((delayed = delayedAgents.poll()) != null) {
+                addDelayedAgent(delayed.agent(), Math.max(delayed.until(), secs));
             }
-
-            routed = 0;
-            secs += 1;
         }
     }
 
@@ -400,6 +493,17 @@ class Realm {
         }
     }
 
+    void connect(RealmBoundary[] outgoing, RealmBoundary[] incoming) {
+        this.outgoing = outgoing;
+        this.incoming = incoming;
+    }
+
+    EventArray takeSortedEvents() {
+        EventArray events = this.sortedEvents;
+        this.sortedEvents = new EventArray();
+        return events;
+    }
+
     ArrayList<ArrayDeque<HLink>> delayedLinks() { return this.delayedLinksByWakeupTime; }
 
     ArrayList<ArrayDeque<Agent>> delayedAgents() {
@@ -0,0 +1,60 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+package org.matsim.core.mobsim.hermes;
+
+import java.util.ArrayDeque;
+
+/**
+ * Hands agents over from one {@link Realm} to another. Each boundary is written by exactly one realm (the source) and
+ * read by exactly one realm (the target). The queues are double buffered by the parity of the time step: agents handed
+ * over in step t are only picked up by the target realm at the beginning of step t + 1, after the barrier separating
+ * both steps. Hence, no locking is required.
+ */
+final class RealmBoundary {
+
+	record DelayedAgent(Agent agent, int until) {
+	}
+
+	// Agents that entered a boundary link owned by the target realm.
+	private final ArrayDeque<Agent>[] linkAgents;
+	// Agents that continue their plan in the target realm after sleeping.
+	private final ArrayDeque<DelayedAgent>[] delayedAgents;
+
+	@SuppressWarnings("unchecked")
+	RealmBoundary() {
+		this.linkAgents = new ArrayDeque[] { new ArrayDeque<>(), new ArrayDeque<>() };
+		this.delayedAgents = new ArrayDeque[] { new ArrayDeque<>(), new ArrayDeque<>() };
+	}
+
+	void addLinkAgent(int timestep, Agent agent) {
+		linkAgents[timestep & 1].add(agent);
+	}
+
+	void addDelayedAgent(int timestep, Agent agent, int until) {
+		delayedAgents[timestep & 1].add(new DelayedAgent(agent, until));
+	}
+
+	ArrayDeque<Agent> linkAgents(int timestep) {
+		return linkAgents[timestep & 1];
+	}
+
+	ArrayDeque<DelayedAgent> delayedAgents(int timestep) {
+		return delayedAgents[timestep & 1];
+	}
+}
@@ -77,7 +77,11 @@ class ScenarioImporter {
 	// Array of links that define the network.
 	protected HLink[] hermesLinks;
 
-	protected Realm realm;
+	protected Realm[] realms;
+	// Realm of the to-node and of the from-node of each link (null if a single realm is used).
+	protected int[] linkRealms;
+	protected int[] linkSourceRealms;
+	private int numberOfRealms;
 	private final boolean deterministicPt;
 	// Agents waiting in pt stations. Should be used as follows:
 	// agent_stops.get(curr station id).get(line id) -> queue of agents
@@ -107,6 +111,7 @@ class ScenarioImporter {
 		this.eventsManager = eventsManager;
 		generateVehicleCategories();
 		generateLinks();
+		generatePartitions();
 		generatePT();
 		generateAgents();
 
@@ -213,6 +218,32 @@ class ScenarioImporter {
 		}
 	}
 
+	private void generatePartitions() {
+		numberOfRealms = scenario.getConfig().hermes().getNumberOfRealms();
+		if (numberOfRealms > 1 && !scenario.getTransitSchedule().getTransitLines().isEmpty()) {
+			log.warn("Hermes does not support public transport with several realms, using a single realm.");
+			numberOfRealms = 1;
+		}
+		if (numberOfRealms == 1) {
+			return;
+		}
+
+		int[] nodeRealms = NetworkPartitioner.partitionNodes(scenario.getNetwork(), numberOfRealms);
+		linkRealms = new int[hermesLinks.length];
+		linkSourceRealms = new int[hermesLinks.length];
+		int boundaryLinks = 0;
+		for (Link link : scenario.getNetwork().getLinks().values()) {
+			int linkId = link.getId().index();
+			linkRealms[linkId] = nodeRealms[link.getToNode().getId().index()];
+			linkSourceRealms[linkId] = nodeRealms[link.getFromNode().getId().index()];
+			if (linkRealms[linkId] != linkSourceRealms[linkId]) {
+				hermesLinks[linkId].setBoundary(true);
+				boundaryLinks++;
+			}
+		}
+		log.info(String.format("Hermes partitioned the network into %d realms with %d boundary links", numberOfRealms, boundaryLinks));
+	}
+
 	private void initRoutesStations() {
 		TransitSchedule ts = this.scenario.getTransitSchedule();
 
@@ -272,7 +303,27 @@ class ScenarioImporter {
 	}
 
 	private void generateRealms() {
-		realm = new Realm(this, eventsManager);
+		realms = new Realm[numberOfRealms];
+		for (int i = 0; i < numberOfRealms; i++) {
+			realms[i] = new Realm(this, eventsManager, i, linkRealms, linkSourceRealms);
+		}
+		if (numberOfRealms > 1) {
+			RealmBoundary[][] boundaries = new RealmBoundary[numberOfRealms][numberOfRealms];
+			for (int from = 0; from < numberOfRealms; from++) {
+				for (int to = 0; to < numberOfRealms; to++) {
+					if (from != to) {
+						boundaries[from][to] = new RealmBoundary();
+					}
+				}
+			}
+			for (int i = 0; i < numberOfRealms; i++) {
+				RealmBoundary[] incoming = new RealmBoundary[numberOfRealms];
+				for (int from = 0; from < numberOfRealms; from++) {
+					incoming[from] = boundaries[from][i];
+				}
+				realms[i].connect(boundaries[i], incoming);
+			}
+		}
 
 		// Put agents in their initial location (link or activity center)
 		for (Agent agent : hermesAgents) {
@@ -294,7 +345,7 @@ class ScenarioImporter {
 				case Agent.SleepForType:
 				case Agent.SleepUntilType:
 					int sleep = Agent.getSleepPlanEntry(planentry);
-					realm.delayedAgents().get(Math.min(sleep, scenario.getConfig().hermes().getEndTime() + 1)).add(agent);
+					realms[initialRealm(agent)].delayedAgents().get(Math.min(sleep, scenario.getConfig().hermes().getEndTime() + 1)).add(agent);
 					break;
 				default:
 					LogManager.getLogger(getClass()).error(String.format("ERROR -> unknown plan element type %d", type));
@@ -305,12 +356,24 @@ class ScenarioImporter {
 			if (link != null) {
 				int nextwakeup = link.nexttime();
 				if (nextwakeup > 0) {
-					realm.delayedLinks().get(nextwakeup).add(link);
+					realms[linkRealms == null ? 0 : linkRealms[link.id()]].delayedLinks().get(nextwakeup).add(link);
 				}
 			}
 		}
 	}
 
+	// Agents starting with an activity wake up in the realm that pushes them into their first link.
+	private int initialRealm(Agent agent) {
+		if (linkSourceRealms == null || agent.plan().size() < 2) {
+			return 0;
+		}
+		long planentry = agent.plan().get(1);
+		if (Agent.getPlanHeader(planentry) != Agent.LinkType) {
+			return 0;
+		}
+		return linkSourceRealms[Agent.getLinkPlanEntry(planentry)];
+	}
+
 	private void processPlanActivity(
 			Id<Person> id,
 			PlanArray flatplan,
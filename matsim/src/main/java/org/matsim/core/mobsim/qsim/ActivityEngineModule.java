@@ -22,13 +22,19 @@
  package org.matsim.core.mobsim.qsim;
 
 import com.google.inject.Singleton;
+import org.matsim.core.config.groups.QSimConfigGroup;
 
 public class ActivityEngineModule extends AbstractQSimModule {
 	public static final String COMPONENT_NAME = "ActivityEngine";
 
 	@Override
 	protected void configureQSim() {
-		bind( ActivityEngineDefaultImpl.class ).in( Singleton.class );
-		addQSimComponentBinding( COMPONENT_NAME ).to( ActivityEngineDefaultImpl.class );
+		if ( getConfig().qsim().getAgentQueueType() == QSimConfigGroup.AgentQueueType.calendarQueue ) {
+			bind( ActivityEngineWithCalendarQueue.class ).in( Singleton.class );
+			addQSimComponentBinding( COMPONENT_NAME ).to( ActivityEngineWithCalendarQueue.class );
+		} else {
+			bind( ActivityEngineDefaultImpl.class ).in( Singleton.class );
+			addQSimComponentBinding( COMPONENT_NAME ).to( ActivityEngineDefaultImpl.class );
+		}
 	}
 }
@@ -0,0 +1,145 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * ActivityEngineWithCalendarQueue.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.mobsim.qsim;
+
+import jakarta.inject.Inject;
+
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.events.PersonStuckEvent;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.config.groups.QSimConfigGroup;
+import org.matsim.core.mobsim.framework.MobsimAgent;
+import org.matsim.core.mobsim.framework.MobsimAgent.State;
+
+/**
+ * An {@link ActivityEngine} which keeps the agents in a {@link CalendarQueue} instead of a priority queue, see
+ * {@link QSimConfigGroup.AgentQueueType#calendarQueue}. Rescheduling the end of an activity, as done by within-day
+ * replanning, takes constant time instead of time linear in the number of agents at activities.
+ * <p>
+ * Otherwise, it behaves like {@link ActivityEngineDefaultImpl}: the agents end their activities in the same order.
+ */
+final class ActivityEngineWithCalendarQueue implements ActivityEngine {
+
+	private final EventsManager eventsManager;
+
+	/**
+	 * Agents with the same activity end time leave in the order of descending id, as in {@link ActivityEngineDefaultImpl}.
+	 */
+	private final CalendarQueue<MobsimAgent> activityEnds;
+
+	private InternalInterface internalInterface;
+
+	// See ActivityEngineDefaultImpl.handleActivity for the reason for this.
+	private boolean beforeFirstSimStep = true;
+
+	@Inject
+	ActivityEngineWithCalendarQueue(EventsManager eventsManager, QSimConfigGroup qsimConfig) {
+		this.eventsManager = eventsManager;
+		this.activityEnds = new CalendarQueue<>(qsimConfig.getTimeStepSize(), (a0, a1) -> a1.getId().compareTo(a0.getId()));
+	}
+
+	@Override
+	public void onPrepareSim() {
+		// Nothing to do here
+	}
+
+	@Override
+	public void doSimStep(double time) {
+		beforeFirstSimStep = false;
+		MobsimAgent agent;
+		while ((agent = activityEnds.poll(time)) != null) {
+			unregisterAgentAtActivityLocation(agent);
+			agent.endActivityAndComputeNextState(time);
+			internalInterface.arrangeNextAgentState(agent);
+		}
+	}
+
+	@Override
+	public void afterSim() {
+		double now = this.internalInterface.getMobsim().getSimTimer().getTimeOfDay();
+		for (MobsimAgent agent : activityEnds.getSortedElements()) {
+			// since we are at an activity, it is not plausible to assume that the agents know mode or destination
+			// link id.  Thus generating the event with ``null'' in the corresponding entries.  kai, mar'12
+			eventsManager.processEvent(new PersonStuckEvent(now, agent.getId(), null, null));
+		}
+		activityEnds.clear();
+	}
+
+	@Override
+	public void setInternalInterface(InternalInterface internalInterface) {
+		this.internalInterface = internalInterface;
+	}
+
+	@Override
+	public boolean handleActivity(MobsimAgent agent) {
+		if (agent.getActivityEndTime() == Double.POSITIVE_INFINITY) {
+			// This is the last planned activity.
+			// So the agent goes to sleep.
+			internalInterface.getMobsim().getAgentCounter().decLiving();
+		} else if (agent.getActivityEndTime() <= internalInterface.getMobsim().getSimTimer().getTimeOfDay() && !beforeFirstSimStep) {
+			// This activity is already over (planned for 0 duration)
+			// So we proceed immediately.
+			agent.endActivityAndComputeNextState(internalInterface.getMobsim().getSimTimer().getTimeOfDay());
+			internalInterface.arrangeNextAgentState(agent) ;
+		} else {
+			// The agent commences an activity on this link.
+			activityEnds.add(agent, agent.getActivityEndTime());
+			internalInterface.registerAdditionalAgentOnLink(agent);
+		}
+		return true;
+	}
+
+	@Override
+	public void rescheduleActivityEnd(final MobsimAgent agent) {
+		if ( agent.getState()!=State.ACTIVITY ) {
+			return ;
+		}
+
+		double newActivityEndTime = agent.getActivityEndTime();
+		boolean wasQueued = activityEnds.remove(agent);
+
+		// see ActivityEngineDefaultImpl.rescheduleActivityEnd
+		if (!wasQueued) {
+			if (newActivityEndTime != Double.POSITIVE_INFINITY) {
+				// re-activate the agent
+				activityEnds.add(agent, newActivityEndTime);
+				internalInterface.registerAdditionalAgentOnLink(agent);
+				((AgentCounter) internalInterface.getMobsim().getAgentCounter()).incLiving();
+			}
+		} else if (newActivityEndTime == Double.POSITIVE_INFINITY) {
+			// the current activity has become the last activity, so the agent is de-activated
+			unregisterAgentAtActivityLocation(agent);
+			internalInterface.getMobsim().getAgentCounter().decLiving();
+		} else {
+			activityEnds.add(agent, newActivityEndTime);
+		}
+	}
+
+	private void unregisterAgentAtActivityLocation(final MobsimAgent agent) {
+		Id<Person> agentId = agent.getId();
+		Id<Link> linkId = agent.getCurrentLinkId();
+		if (linkId != null) { // may be bushwacking
+			internalInterface.unregisterAdditionalAgentOnLink(agentId, linkId);
+		}
+	}
+}
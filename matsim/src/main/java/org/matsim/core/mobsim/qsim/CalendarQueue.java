@@ -0,0 +1,226 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * CalendarQueue.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.mobsim.qsim;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * A queue of elements which are due at a given time, e.g. agents at the end of their activity, with one bucket per
+ * time step.
+ * <p>
+ * Adding and removing an element takes constant time, independent of the number of elements in the queue. An element is
+ * found by identity, and is contained at most once: adding it again replaces its previous time. When the elements due
+ * at a time step are polled, they are sorted by time and the given tie breaker, i.e. in the same order as from a
+ * priority queue with the same comparator. This sorting only concerns the elements of the time step.
+ * <p>
+ * The queue is not thread-safe. The engines using it rely on the {@link InternalInterface} of the QSim, which is
+ * synchronized.
+ */
+final class CalendarQueue<T> {
+
+	private static final class Entry<T> {
+		private final T element;
+		private final double time;
+		private Bucket<T> bucket = null;
+		private int position;
+
+		Entry(T element, double time) {
+			this.element = element;
+			this.time = time;
+		}
+	}
+
+	private static final class Bucket<T> {
+		private final long index;
+		private final List<Entry<T>> entries = new ArrayList<>();
+
+		Bucket(long index) {
+			this.index = index;
+		}
+
+		void add(Entry<T> entry) {
+			entry.bucket = this;
+			entry.position = this.entries.size();
+			this.entries.add(entry);
+		}
+
+		void remove(Entry<T> entry) {
+			Entry<T> last = this.entries.remove(this.entries.size() - 1);
+			if (last != entry) {
+				this.entries.set(entry.position, last);
+				last.position = entry.position;
+			}
+			entry.bucket = null;
+		}
+	}
+
+	private final double bucketSize;
+	private final Comparator<Entry<T>> order;
+	private final Map<Long, Bucket<T>> buckets = new HashMap<>();
+	private final Map<T, Entry<T>> entries = new IdentityHashMap<>();
+	/** the entries not later than {@link #releasedUntil}, in the order in which they are polled */
+	private final PriorityQueue<Entry<T>> due;
+	/** all buckets before this one are empty */
+	private long firstBucket = Long.MIN_VALUE;
+	private double releasedUntil = Double.NEGATIVE_INFINITY;
+
+	/**
+	 * @param bucketSize the time span of each bucket, typically the time step size of the QSim
+	 * @param tieBreaker the order of elements with the same time
+	 */
+	CalendarQueue(double bucketSize, Comparator<? super T> tieBreaker) {
+		if (!(bucketSize > 0)) {
+			throw new IllegalArgumentException("bucket size must be positive, got " + bucketSize);
+		}
+		this.bucketSize = bucketSize;
+		this.order = Comparator.<Entry<T>>comparingDouble(entry -> entry.time).thenComparing((e0, e1) -> tieBreaker.compare(e0.element, e1.element));
+		this.due = new PriorityQueue<>(this.order);
+	}
+
+	/**
+	 * Adds the element with the given time, or moves it to the given time if it is already contained.
+	 */
+	void add(T element, double time) {
+		remove(element);
+		Entry<T> entry = new Entry<>(element, time);
+		this.entries.put(element, entry);
+		if (time <= this.releasedUntil) {
+			this.due.add(entry);
+		} else {
+			long index = bucketIndex(time);
+			this.buckets.computeIfAbsent(index, Bucket::new).add(entry);
+		}
+	}
+
+	/**
+	 * Removes the element, and returns whether it was contained.
+	 */
+	boolean remove(T element) {
+		Entry<T> entry = this.entries.remove(element);
+		if (entry == null) {
+			return false;
+		}
+		Bucket<T> bucket = entry.bucket;
+		if (bucket == null) {
+			this.due.remove(entry);
+		} else {
+			bucket.remove(entry);
+			if (bucket.entries.isEmpty()) {
+				this.buckets.remove(bucket.index);
+			}
+		}
+		return true;
+	}
+
+	boolean contains(T element) {
+		return this.entries.containsKey(element);
+	}
+
+	/**
+	 * Removes and returns the next element with a time not later than <code>now</code>, or <code>null</code> if there is
+	 * none. Elements which are added while polling, with a time not later than <code>now</code>, are returned by the same
+	 * sequence of calls.
+	 */
+	T poll(double now) {
+		if (now > this.releasedUntil) {
+			release(now);
+		}
+		Entry<T> entry = this.due.peek();
+		if (entry == null || entry.time > now) {
+			return null;
+		}
+		this.due.poll();
+		this.entries.remove(entry.element);
+		return entry.element;
+	}
+
+	private void release(double now) {
+		long lastBucket = bucketIndex(now);
+		if (this.firstBucket == Long.MIN_VALUE || lastBucket - this.firstBucket > this.buckets.size()) {
+			// there are fewer buckets than time steps to look at, e.g. at the beginning of the simulation
+			for (Bucket<T> bucket : new ArrayList<>(this.buckets.values())) {
+				if (bucket.index <= lastBucket) {
+					release(bucket, now);
+				}
+			}
+		} else {
+			for (long index = this.firstBucket; index <= lastBucket; index++) {
+				Bucket<T> bucket = this.buckets.get(index);
+				if (bucket != null) {
+					release(bucket, now);
+				}
+			}
+		}
+		// the last bucket may still contain entries after now if the time steps are not aligned with the buckets
+		this.firstBucket = lastBucket;
+		this.releasedUntil = now;
+	}
+
+	private void release(Bucket<T> bucket, double now) {
+		for (int i = bucket.entries.size() - 1; i >= 0; i--) {
+			Entry<T> entry = bucket.entries.get(i);
+			if (entry.time <= now) {
+				bucket.remove(entry);
+				this.due.add(entry);
+			}
+		}
+		if (bucket.entries.isEmpty()) {
+			this.buckets.remove(bucket.index);
+		}
+	}
+
+	private long bucketIndex(double time) {
+		return (long) Math.floor(time / this.bucketSize);
+	}
+
+	int size() {
+		return this.entries.size();
+	}
+
+	boolean isEmpty() {
+		return this.entries.isEmpty();
+	}
+
+	/**
+	 * Returns all elements, sorted by time and the tie breaker.
+	 */
+	List<T> getSortedElements() {
+		List<Entry<T>> sorted = new ArrayList<>(this.entries.values());
+		sorted.sort(this.order);
+		List<T> elements = new ArrayList<>(sorted.size());
+		for (Entry<T> entry : sorted) {
+			elements.add(entry.element);
+		}
+		return elements;
+	}
+
+	void clear() {
+		this.buckets.clear();
+		this.entries.clear();
+		this.due.clear();
+	}
+}
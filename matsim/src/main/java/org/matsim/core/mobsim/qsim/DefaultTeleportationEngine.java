@@ -39,6 +39,7 @@ import org.matsim.api.core.v01.network.Link;
 import org.matsim.api.core.v01.population.Person;
 import org.matsim.core.api.experimental.events.EventsManager;
 import org.matsim.core.api.experimental.events.TeleportationArrivalEvent;
+import org.matsim.core.config.groups.QSimConfigGroup;
 import org.matsim.core.mobsim.framework.MobsimAgent;
 import org.matsim.core.network.NetworkUtils;
 import org.matsim.core.utils.collections.Tuple;
@@ -49,6 +50,9 @@ import org.matsim.vis.snapshotwriters.TeleportationVisData;
 /**
  * Includes all agents that have transportation modes unknown to the
  * NetsimEngine (often all != "car") or have two activities on the same link
+ * <p>
+ * With {@link QSimConfigGroup.AgentQueueType#calendarQueue}, the teleported agents are kept in a {@link CalendarQueue}
+ * instead of a priority queue.  They arrive in the same order.
  */
 public final class DefaultTeleportationEngine implements TeleportationEngine {
 	private static final Logger log = LogManager.getLogger( DefaultTeleportationEngine.class ) ;
@@ -68,6 +72,7 @@ public final class DefaultTeleportationEngine implements TeleportationEngine {
 			return ret;
 		}
 	});
+	private final CalendarQueue<MobsimAgent> teleportationCalendar;
 	private final LinkedHashMap<Id<Person>, TeleportationVisData> teleportationData = new LinkedHashMap<>();
 	private InternalInterface internalInterface;
 	private Scenario scenario;
@@ -84,6 +89,12 @@ public final class DefaultTeleportationEngine implements TeleportationEngine {
 		this.scenario = scenario;
 		this.eventsManager = eventsManager;
 		this.withTravelTimeCheck = withTravelTimeCheck;
+		QSimConfigGroup qsimConfig = scenario.getConfig().qsim();
+		if (qsimConfig.getAgentQueueType() == QSimConfigGroup.AgentQueueType.calendarQueue) {
+			this.teleportationCalendar = new CalendarQueue<>(qsimConfig.getTimeStepSize(), (a0, a1) -> a1.getId().compareTo(a0.getId()));
+		} else {
+			this.teleportationCalendar = null;
+		}
 	}
 
 	@Override
@@ -103,7 +114,11 @@ public final class DefaultTeleportationEngine implements TeleportationEngine {
 		}
 
 		double arrivalTime = now + travelTime ;
-		this.teleportationList.add(new Tuple<>(arrivalTime, agent));
+		if (this.teleportationCalendar != null) {
+			this.teleportationCalendar.add(agent, arrivalTime);
+		} else {
+			this.teleportationList.add(new Tuple<>(arrivalTime, agent));
+		}
 
 		// === below here is only visualization, no dynamics ===
 		Id<Person> agentId = agent.getId();
@@ -133,24 +148,34 @@ public final class DefaultTeleportationEngine implements TeleportationEngine {
 	}
 
 	private void handleTeleportationArrivals(double now) {
+		if (teleportationCalendar != null) {
+			MobsimAgent personAgent;
+			while ((personAgent = teleportationCalendar.poll(now)) != null) {
+				arrive(personAgent, now);
+			}
+			return;
+		}
 		while (!teleportationList.isEmpty()) {
 			Tuple<Double, MobsimAgent> entry = teleportationList.peek();
 			if (entry.getFirst() <= now) {
 				teleportationList.poll();
-				MobsimAgent personAgent = entry.getSecond();
-				personAgent.notifyArrivalOnLinkByNonNetworkMode(personAgent.getDestinationLinkId());
-				double distance = personAgent.getExpectedTravelDistance();
-				this.eventsManager.processEvent(
-						new TeleportationArrivalEvent(now, personAgent.getId(), distance, personAgent.getMode()));
-				personAgent.endLegAndComputeNextState(now);
-				this.teleportationData.remove(personAgent.getId());
-				internalInterface.arrangeNextAgentState(personAgent);
+				arrive(entry.getSecond(), now);
 			} else {
 				break;
 			}
 		}
 	}
 
+	private void arrive(MobsimAgent personAgent, double now) {
+		personAgent.notifyArrivalOnLinkByNonNetworkMode(personAgent.getDestinationLinkId());
+		double distance = personAgent.getExpectedTravelDistance();
+		this.eventsManager.processEvent(
+				new TeleportationArrivalEvent(now, personAgent.getId(), distance, personAgent.getMode()));
+		personAgent.endLegAndComputeNextState(now);
+		this.teleportationData.remove(personAgent.getId());
+		internalInterface.arrangeNextAgentState(personAgent);
+	}
+
 	@Override
 	public void onPrepareSim() {
 	}
@@ -163,6 +188,12 @@ public final class DefaultTeleportationEngine implements TeleportationEngine {
 			eventsManager.processEvent(new PersonStuckEvent(now, agent.getId(), agent.getDestinationLinkId(), agent.getMode()));
 		}
 		teleportationList.clear();
+		if (teleportationCalendar != null) {
+			for (MobsimAgent agent : teleportationCalendar.getSortedElements()) {
+				eventsManager.processEvent(new PersonStuckEvent(now, agent.getId(), agent.getDestinationLinkId(), agent.getMode()));
+			}
+			teleportationCalendar.clear();
+		}
 	}
 
 	@Override
@@ -35,8 +35,10 @@ import org.matsim.core.mobsim.qsim.components.QSimComponentsModule;
 import org.matsim.core.mobsim.qsim.messagequeueengine.MessageQueueModule;
 import org.matsim.core.mobsim.qsim.pt.TransitEngineModule;
 import org.matsim.core.mobsim.qsim.qnetsimengine.QNetsimEngineModule;
+import org.matsim.core.mobsim.qsim.qnetsimengine.QNetworkLoad;
 
 import com.google.inject.Key;
+import com.google.inject.Singleton;
 import com.google.inject.TypeLiteral;
 import com.google.inject.name.Names;
 
@@ -98,6 +100,9 @@ public final class QSimModule extends AbstractModule {
 		// Set<AbstractQSimModule>.  Don't know why this is needed.  kai, jun'23
 
 		bind(Mobsim.class).toProvider(QSimProvider.class);
+
+		bind(QNetworkLoad.class).in(Singleton.class);
+		// (bound here rather than in the QSim, so that the network load of one iteration is available in the next one)
 	}
 
 	static public Collection<AbstractQSimModule> getDefaultQSimModules() {
@@ -20,6 +20,7 @@
 
 package org.matsim.core.mobsim.qsim.qnetsimengine;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -380,9 +381,11 @@ abstract class AbstractQNetsimEngine<A extends AbstractQNetsimEngineRunner> impl
 		int nodes[] = new int[this.engines.size()];
 		int links[] = new int[this.engines.size()];
 
-		int roundRobin = 0;
-		for (QNodeI node : qNetwork.getNetsimNodes().values()) {
-			int i = roundRobin % this.engines.size();
+		List<QNodeI> netsimNodes = new ArrayList<>(qNetwork.getNetsimNodes().values());
+		int[] runners = assignNodesToRunners(netsimNodes, this.engines.size());
+		for (int n = 0; n < netsimNodes.size(); n++) {
+			QNodeI node = netsimNodes.get(n);
+			int i = runners[n];
 			if( node instanceof AbstractQNode){
 				((AbstractQNode) node).setNetElementActivationRegistry(this.engines.get(i));
 			}
@@ -409,8 +412,6 @@ abstract class AbstractQNetsimEngine<A extends AbstractQNetsimEngineRunner> impl
 				links[i]++;
 
 			}
-
-			roundRobin++;
 		}
 
 		// print some statistics
@@ -421,6 +422,18 @@ abstract class AbstractQNetsimEngine<A extends AbstractQNetsimEngineRunner> impl
 //		this.linksToActivateInitially.clear();
 	}
 
+	/**
+	 * Returns the index of the {@link AbstractQNetsimEngineRunner} for each of the given nodes. The out-links of a node
+	 * are handled by the same runner as the node. The default assigns the nodes round robin.
+	 */
+	protected int[] assignNodesToRunners(List<QNodeI> nodes, int runnerCount) {
+		int[] runners = new int[nodes.size()];
+		for (int n = 0; n < runners.length; n++) {
+			runners[n] = n % runnerCount;
+		}
+		return runners;
+	}
+
 	private final void arrangeNextAgentState(MobsimAgent pp) {
 		internalInterface.arrangeNextAgentState(pp);
 	}
@@ -70,6 +70,12 @@ abstract class AbstractQNetsimEngineRunner extends NetElementActivationRegistry
 	private boolean lockNodes = false;
 	private boolean lockLinks = false;
 
+	/*
+	 * Optionally counts the sim steps of each node and its out-links, indexed by node index. Each runner only writes the
+	 * entries of its own nodes.
+	 */
+	private int[] load = null;
+
 	/*package*/ long[] runTimes;
 	private long startTime = 0;
 	{	
@@ -81,6 +87,10 @@ abstract class AbstractQNetsimEngineRunner extends NetElementActivationRegistry
 		time = t;
 	}
 
+	/*package*/ final void setLoadCounter(final int[] load) {
+		this.load = load;
+	}
+
 	public abstract void afterSim() ;
 
 	protected void moveNodes() {
@@ -91,6 +101,7 @@ abstract class AbstractQNetsimEngineRunner extends NetElementActivationRegistry
 		while (simNodes.hasNext()) {
 			node = simNodes.next();
 			remainsActive = node.doSimStep(time);
+			if (this.load != null) this.load[node.getNode().getId().index()]++;
 			if (!remainsActive) simNodes.remove();
 		}
 		this.lockNodes = false;
@@ -105,6 +116,7 @@ abstract class AbstractQNetsimEngineRunner extends NetElementActivationRegistry
 			link = simLinks.next();
 
 			remainsActive = link.doSimStep();
+			if (this.load != null) this.load[link.getLink().getFromNode().getId().index()]++;
 
 			if (!remainsActive) simLinks.remove();
 		}
@@ -23,6 +23,7 @@
 
 import com.google.inject.Singleton;
 import com.google.inject.multibindings.Multibinder;
+import org.matsim.core.config.groups.QSimConfigGroup;
 import org.matsim.core.mobsim.qsim.AbstractQSimModule;
 import org.matsim.core.mobsim.qsim.qnetsimengine.linkspeedcalculator.LinkSpeedCalculator;
 
@@ -40,7 +41,12 @@ public final class QNetsimEngineModule extends AbstractQSimModule {
 	protected void configureQSim() {
 		// === QNetsimEngine:
 
-		bind(QNetsimEngineI.class).to(QNetsimEngineWithThreadpool.class).in( Singleton.class );
+		if ( this.getConfig().qsim().getNetsimEngineType() == QSimConfigGroup.NetsimEngineType.domainDecomposition
+				&& this.getConfig().qsim().getNumberOfThreads() > 1 ) {
+			bind(QNetsimEngineI.class).to(QNetsimEngineWithDomainDecomposition.class).in( Singleton.class );
+		} else {
+			bind(QNetsimEngineI.class).to(QNetsimEngineWithThreadpool.class).in( Singleton.class );
+		}
 		// (given the "overriding" architecture, this is a default binding which may be overridden later)
 
 		addQSimComponentBinding( COMPONENT_NAME ).to( QNetsimEngineI.class );
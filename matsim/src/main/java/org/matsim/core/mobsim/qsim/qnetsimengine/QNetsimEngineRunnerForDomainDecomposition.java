@@ -0,0 +1,116 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * QNetsimEngineRunnerForDomainDecomposition.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.mobsim.qsim.qnetsimengine;
+
+import java.util.concurrent.locks.LockSupport;
+
+import org.matsim.core.gbl.Gbl;
+
+/**
+ * Runs the nodes and links of one partition of the network on its own thread, see
+ * {@link QNetsimEngineWithDomainDecomposition}.
+ * <p>
+ * In each time step, the nodes are moved first. The links are only moved once the runners of the downstream nodes of
+ * the links have moved their nodes, as the links fill the buffers that these nodes empty. The runners of the upstream
+ * links are not waited for: they finished their links in the previous time step, and they cannot move their links of
+ * this time step before this runner has moved its nodes.
+ */
+final class QNetsimEngineRunnerForDomainDecomposition extends AbstractQNetsimEngineRunner implements Runnable {
+
+	private static final int SPINS = 10_000;
+
+	private final QNetsimEngineWithDomainDecomposition engine;
+	private QNetsimEngineRunnerForDomainDecomposition[] downstreamRunners = new QNetsimEngineRunnerForDomainDecomposition[0];
+	private volatile boolean simulationRunning = true;
+	private volatile int nodesMovedStep = 0;
+	private Thread thread;
+
+	QNetsimEngineRunnerForDomainDecomposition(QNetsimEngineWithDomainDecomposition engine) {
+		this.engine = engine;
+	}
+
+	void setDownstreamRunners(QNetsimEngineRunnerForDomainDecomposition[] downstreamRunners) {
+		this.downstreamRunners = downstreamRunners;
+	}
+
+	void start(String name) {
+		this.thread = new Thread(this, name);
+		this.thread.setDaemon(true);
+		this.thread.start();
+	}
+
+	void unpark() {
+		LockSupport.unpark(this.thread);
+	}
+
+	void join() throws InterruptedException {
+		this.thread.join();
+	}
+
+	@Override
+	public void run() {
+		int step = 0;
+		while (true) {
+			step++;
+			// wait for the next time step. The runners are parked while the other engines of the QSim are running.
+			int spins = 0;
+			while (this.engine.getStep() < step && this.simulationRunning) {
+				if (spins++ < SPINS) {
+					Thread.onSpinWait();
+				} else {
+					LockSupport.park(this);
+				}
+			}
+			if (!this.simulationRunning) {
+				Gbl.printCurrentThreadCpuTime();
+				return;
+			}
+
+			try {
+				startMeasure();
+				moveNodes();
+				this.nodesMovedStep = step;
+				for (QNetsimEngineRunnerForDomainDecomposition runner : this.downstreamRunners) {
+					spins = 0;
+					while (runner.nodesMovedStep < step) {
+						if (spins++ < SPINS) {
+							Thread.onSpinWait();
+						} else {
+							Thread.yield();
+						}
+					}
+				}
+				moveLinks();
+				endMeasure();
+			} catch (Throwable e) {
+				// the other runners must not wait for this one forever
+				this.nodesMovedStep = step;
+				this.engine.setException(e);
+			}
+			this.engine.runnerFinished();
+		}
+	}
+
+	@Override
+	public final void afterSim() {
+		this.simulationRunning = false;
+	}
+}
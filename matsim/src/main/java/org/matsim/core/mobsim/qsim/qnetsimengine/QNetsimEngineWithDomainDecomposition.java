@@ -0,0 +1,258 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * QNetsimEngineWithDomainDecomposition.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.mobsim.qsim.qnetsimengine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+import jakarta.inject.Inject;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.core.mobsim.qsim.QSim;
+
+/**
+ * A netsim engine that partitions the network into geographic regions, one per thread, instead of assigning the nodes
+ * round robin.
+ * <p>
+ * The regions are found by recursive coordinate bisection, where each node is weighted with the load observed in the
+ * previous mobsim, see {@link QNetworkLoad}. Each region is simulated by its own
+ * {@link QNetsimEngineRunnerForDomainDecomposition} on a dedicated thread. Within a time step, there is no global
+ * barrier between moving the nodes and moving the links: a runner only waits for the runners of the neighbouring
+ * regions downstream of its links, see there. The vehicles crossing a region boundary stay in the buffers of the
+ * boundary links, as in {@link QNetsimEngineWithThreadpool}. At the end of each time step, the engine waits for all
+ * runners, as the other engines of the QSim rely on a consistent state of the network.
+ */
+final class QNetsimEngineWithDomainDecomposition extends AbstractQNetsimEngine<QNetsimEngineRunnerForDomainDecomposition> {
+
+	private static final Logger log = LogManager.getLogger(QNetsimEngineWithDomainDecomposition.class);
+
+	private static final int SPINS = 10_000;
+
+	private final QNetworkLoad networkLoad;
+	private final int[] nodeLoad = new int[Id.getNumberOfIds(Node.class)];
+	private final AtomicInteger runningRunners = new AtomicInteger(0);
+	private final AtomicReference<Throwable> exception = new AtomicReference<>();
+	private volatile int step = 0;
+	private Thread simThread;
+	private int[] nodeRunners;
+	private List<QNodeI> nodes;
+
+	@Inject QNetsimEngineWithDomainDecomposition(final QSim sim, QNetworkFactory netsimNetworkFactory, NetworkModeDepartureHandler networkModeDepartureHandler,
+			QNetworkLoad networkLoad) {
+		super(sim, netsimNetworkFactory, networkModeDepartureHandler);
+		this.networkLoad = networkLoad;
+	}
+
+	@Override
+	protected List<QNetsimEngineRunnerForDomainDecomposition> initQSimEngineRunners() {
+		List<QNetsimEngineRunnerForDomainDecomposition> runners = new ArrayList<>();
+		for (int i = 0; i < this.numOfThreads; i++) {
+			QNetsimEngineRunnerForDomainDecomposition runner = new QNetsimEngineRunnerForDomainDecomposition(this);
+			runner.setLoadCounter(this.nodeLoad);
+			runners.add(runner);
+		}
+		return runners;
+	}
+
+	@Override
+	protected int[] assignNodesToRunners(List<QNodeI> nodes, int runnerCount) {
+		int[] previousLoad = this.networkLoad.getNodeLoad();
+		double[] weights = new double[nodes.size()];
+		double[] x = new double[nodes.size()];
+		double[] y = new double[nodes.size()];
+		for (int n = 0; n < nodes.size(); n++) {
+			Node node = nodes.get(n).getNode();
+			int index = node.getId().index();
+			// every node costs something, even if it was never active
+			weights[n] = 1 + (previousLoad != null && index < previousLoad.length ? previousLoad[index] : 0);
+			Coord coord = node.getCoord();
+			x[n] = coord == null ? 0 : coord.getX();
+			y[n] = coord == null ? 0 : coord.getY();
+		}
+		this.nodeRunners = partition(weights, x, y, runnerCount);
+		this.nodes = nodes;
+		if (previousLoad == null) {
+			log.info("Partitioned the network into " + runnerCount + " regions by node count, as no load of a previous mobsim is known.");
+		} else {
+			log.info("Partitioned the network into " + runnerCount + " regions by the load of the previous mobsim.");
+		}
+		return this.nodeRunners;
+	}
+
+	/**
+	 * Partitions the weighted points into <code>partCount</code> parts of about the same weight by recursive coordinate
+	 * bisection, and returns the part of each point.
+	 */
+	/* package */ static int[] partition(double[] weights, double[] x, double[] y, int partCount) {
+		int[] order = new int[weights.length];
+		for (int n = 0; n < order.length; n++) {
+			order[n] = n;
+		}
+		int[] parts = new int[weights.length];
+		bisect(order, 0, order.length, 0, partCount, weights, x, y, parts);
+		return parts;
+	}
+
+	/**
+	 * Assigns the nodes <code>order[from, to)</code> to the runners <code>[firstRunner, firstRunner + runnerCount)</code>,
+	 * splitting them at the weighted median of the coordinate with the larger extent.
+	 */
+	private static void bisect(int[] order, int from, int to, int firstRunner, int runnerCount, double[] weights, double[] x, double[] y, int[] runners) {
+		if (runnerCount == 1 || to - from <= 1) {
+			for (int i = from; i < to; i++) {
+				runners[order[i]] = firstRunner;
+			}
+			return;
+		}
+		double minX = Double.POSITIVE_INFINITY, maxX = Double.NEGATIVE_INFINITY;
+		double minY = Double.POSITIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+		double totalWeight = 0;
+		for (int i = from; i < to; i++) {
+			int n = order[i];
+			minX = Math.min(minX, x[n]);
+			maxX = Math.max(maxX, x[n]);
+			minY = Math.min(minY, y[n]);
+			maxY = Math.max(maxY, y[n]);
+			totalWeight += weights[n];
+		}
+		double[] coords = maxX - minX >= maxY - minY ? x : y;
+		Integer[] boxed = new Integer[to - from];
+		for (int i = from; i < to; i++) {
+			boxed[i - from] = order[i];
+		}
+		Arrays.sort(boxed, (a, b) -> Double.compare(coords[a], coords[b]));
+
+		int leftRunners = runnerCount / 2;
+		double leftWeight = totalWeight * leftRunners / runnerCount;
+		double weight = 0;
+		int split = from;
+		for (int i = 0; i < boxed.length; i++) {
+			order[from + i] = boxed[i];
+			if (weight < leftWeight) {
+				weight += weights[boxed[i]];
+				split = from + i + 1;
+			}
+		}
+		bisect(order, from, split, firstRunner, leftRunners, weights, x, y, runners);
+		bisect(order, split, to, firstRunner + leftRunners, runnerCount - leftRunners, weights, x, y, runners);
+	}
+
+	@Override
+	protected void initMultiThreading() {
+		List<QNetsimEngineRunnerForDomainDecomposition> runners = this.getQnetsimEngineRunner();
+
+		// the runners of the downstream nodes of the links of each runner
+		int[] runnerOfNode = new int[Id.getNumberOfIds(Node.class)];
+		for (int n = 0; n < this.nodes.size(); n++) {
+			runnerOfNode[this.nodes.get(n).getNode().getId().index()] = this.nodeRunners[n];
+		}
+		boolean[][] downstream = new boolean[runners.size()][runners.size()];
+		for (int n = 0; n < this.nodes.size(); n++) {
+			int runner = this.nodeRunners[n];
+			for (Link outLink : this.nodes.get(n).getNode().getOutLinks().values()) {
+				int downstreamRunner = runnerOfNode[outLink.getToNode().getId().index()];
+				if (downstreamRunner != runner) {
+					downstream[runner][downstreamRunner] = true;
+				}
+			}
+		}
+		for (int i = 0; i < runners.size(); i++) {
+			List<QNetsimEngineRunnerForDomainDecomposition> downstreamRunners = new ArrayList<>();
+			for (int j = 0; j < runners.size(); j++) {
+				if (downstream[i][j]) {
+					downstreamRunners.add(runners.get(j));
+				}
+			}
+			runners.get(i).setDownstreamRunners(downstreamRunners.toArray(new QNetsimEngineRunnerForDomainDecomposition[0]));
+			log.info("QNetsimEngineRunner #" + i + " waits for " + downstreamRunners.size() + " neighbouring runners.");
+		}
+
+		this.simThread = Thread.currentThread();
+		for (int i = 0; i < runners.size(); i++) {
+			runners.get(i).start("QNetsimEngine_DomainThread_" + i);
+		}
+	}
+
+	@Override
+	protected void run(double time) {
+		List<QNetsimEngineRunnerForDomainDecomposition> runners = this.getQnetsimEngineRunner();
+		for (QNetsimEngineRunnerForDomainDecomposition runner : runners) {
+			runner.setTime(time);
+		}
+		this.runningRunners.set(runners.size());
+		this.step++;
+		for (QNetsimEngineRunnerForDomainDecomposition runner : runners) {
+			runner.unpark();
+		}
+
+		int spins = 0;
+		while (this.runningRunners.get() > 0) {
+			if (spins++ < SPINS) {
+				Thread.onSpinWait();
+			} else {
+				LockSupport.park(this);
+			}
+		}
+
+		Throwable throwable = this.exception.get();
+		if (throwable != null) {
+			throw new RuntimeException(throwable);
+		}
+	}
+
+	int getStep() {
+		return this.step;
+	}
+
+	void runnerFinished() {
+		if (this.runningRunners.decrementAndGet() == 0) {
+			LockSupport.unpark(this.simThread);
+		}
+	}
+
+	void setException(Throwable throwable) {
+		this.exception.compareAndSet(null, throwable);
+	}
+
+	@Override
+	protected void finishMultiThreading() {
+		for (QNetsimEngineRunnerForDomainDecomposition runner : this.getQnetsimEngineRunner()) {
+			runner.unpark();
+		}
+		for (QNetsimEngineRunnerForDomainDecomposition runner : this.getQnetsimEngineRunner()) {
+			try {
+				runner.join();
+			} catch (InterruptedException e) {
+				throw new RuntimeException(e);
+			}
+		}
+		this.networkLoad.setNodeLoad(this.nodeLoad);
+	}
+}
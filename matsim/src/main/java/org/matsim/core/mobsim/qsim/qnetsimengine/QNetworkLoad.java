@@ -0,0 +1,48 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * QNetworkLoad.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.mobsim.qsim.qnetsimengine;
+
+import jakarta.inject.Inject;
+
+/**
+ * The simulation load of the nodes of the network in the last mobsim, i.e. the number of sim steps of each node and its
+ * out-links. Used by {@link QNetsimEngineWithDomainDecomposition} to balance the partitions of the network. It is bound
+ * outside the QSim, so that it is kept from one iteration to the next.
+ */
+public final class QNetworkLoad {
+
+	private int[] nodeLoad = null;
+
+	@Inject
+	QNetworkLoad() {
+	}
+
+	/**
+	 * Returns the load of each node by node index, or <code>null</code> if no mobsim has been run yet.
+	 */
+	/* package */ synchronized int[] getNodeLoad() {
+		return this.nodeLoad;
+	}
+
+	/* package */ synchronized void setNodeLoad(int[] nodeLoad) {
+		this.nodeLoad = nodeLoad;
+	}
+}
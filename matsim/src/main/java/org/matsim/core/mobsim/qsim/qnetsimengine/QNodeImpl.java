@@ -23,8 +23,6 @@ package org.matsim.core.mobsim.qsim.qnetsimengine;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.matsim.api.core.v01.Id;
-import org.matsim.api.core.v01.events.LinkEnterEvent;
-import org.matsim.api.core.v01.events.LinkLeaveEvent;
 import org.matsim.api.core.v01.events.PersonStuckAndContinueEvent;
 import org.matsim.api.core.v01.network.Link;
 import org.matsim.api.core.v01.network.Node;
@@ -439,7 +437,7 @@ final class QNodeImpl extends AbstractQNode {
 	private void moveVehicleFromInlinkToAbort(final QVehicle veh, final QLaneI fromLane, final double now, Id<Link> currentLinkId) {
 		fromLane.popFirstVehicle();
 		// -->
-		this.context.getEventsManager().processEvent(new LinkLeaveEvent(now, veh.getId(), currentLinkId));
+		this.context.getEventsManager().processLinkLeaveEvent(now, veh.getId(), currentLinkId);
 		// <--
 
 		// first treat the passengers:
@@ -466,13 +464,13 @@ final class QNodeImpl extends AbstractQNode {
 		fromLane.popFirstVehicle();
 		// -->
 		//		network.simEngine.getMobsim().getEventsManager().processEvent(new LaneLeaveEvent(now, veh.getId(), currentLinkId, fromLane.getId()));
-		this.context.getEventsManager().processEvent(new LinkLeaveEvent(now, veh.getId(), currentLinkId));
+		this.context.getEventsManager().processLinkLeaveEvent(now, veh.getId(), currentLinkId);
 		// <--
 
 		veh.getDriver().notifyMoveOverNode( nextLinkId );
 
 		// -->
-		this.context.getEventsManager().processEvent(new LinkEnterEvent(now, veh.getId(), nextLinkId));
+		this.context.getEventsManager().processLinkEnterEvent(now, veh.getId(), nextLinkId);
 		// <--
 		nextQueueLane.addFromUpstream(veh);
 	}
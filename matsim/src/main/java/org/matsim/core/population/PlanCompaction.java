@@ -0,0 +1,45 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * PlanCompaction.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.population;
+
+import org.matsim.api.core.v01.population.Population;
+import org.matsim.core.controler.events.BeforeMobsimEvent;
+import org.matsim.core.controler.listener.BeforeMobsimListener;
+
+import com.google.inject.Inject;
+
+/**
+ * Compacts the unselected plans again after replanning, as only the selected plans are needed by the mobsim and the
+ * scoring. Plans that were materialized by replanning or by writing the plans are thus only kept as objects for one
+ * iteration.
+ */
+/* deliberately package */ class PlanCompaction implements BeforeMobsimListener {
+
+	@Inject
+	private Population population;
+
+	@Override
+	public void notifyBeforeMobsim(BeforeMobsimEvent event) {
+		if (this.population instanceof PopulationImpl populationImpl) {
+			populationImpl.compactUnselectedPlans();
+		}
+	}
+}
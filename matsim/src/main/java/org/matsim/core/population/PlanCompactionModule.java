@@ -0,0 +1,32 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * PlanCompactionModule.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.population;
+
+import org.matsim.core.controler.AbstractModule;
+
+public final class PlanCompactionModule extends AbstractModule {
+	@Override
+	public void install() {
+		if (getConfig().plans().isCompactingPlans()) {
+			addControlerListenerBinding().to(PlanCompaction.class);
+		}
+	}
+}
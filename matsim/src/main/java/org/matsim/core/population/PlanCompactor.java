@@ -0,0 +1,452 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * PlanCompactor.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.population;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.population.Activity;
+import org.matsim.api.core.v01.population.Leg;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.api.core.v01.population.Plan;
+import org.matsim.api.core.v01.population.PlanElement;
+import org.matsim.api.core.v01.population.Route;
+import org.matsim.core.population.routes.NetworkRoute;
+import org.matsim.core.population.routes.RouteFactories;
+import org.matsim.core.utils.misc.OptionalTime;
+import org.matsim.facilities.ActivityFacility;
+import org.matsim.utils.objectattributes.attributable.Attributes;
+import org.matsim.vehicles.Vehicle;
+
+/**
+ * Stores the plan elements of {@link PlanImpl}s in a compact binary form.
+ * <p>
+ * Activity types, modes and route types are interned in a string table of the population, link, facility and vehicle
+ * ids are stored by their index, times are stored as whole seconds where possible, and network routes are stored as
+ * sequence of link indices. All numbers are written as variable-length integers, so a typical activity or leg needs
+ * around a dozen bytes instead of a few hundred bytes for the objects.
+ * <p>
+ * Other routes are stored by their route description, just as in the plans file. Attributes of activities and legs,
+ * as well as plan elements and routes of unknown classes, are kept as objects.
+ */
+/* deliberately package */ final class PlanCompactor {
+
+	private static final int ACTIVITY = 0;
+	private static final int INTERACTION_ACTIVITY = 1;
+	private static final int LEG = 2;
+	private static final int OBJECT = 3;
+
+	private static final int NO_ROUTE = 0;
+	private static final int NETWORK_ROUTE = 1;
+	private static final int DESCRIBED_ROUTE = 2;
+	private static final int OBJECT_ROUTE = 3;
+
+	private static final int HAS_COORD = 1;
+	private static final int HAS_Z = 2;
+	private static final int HAS_ATTRIBUTES = 4;
+
+	private static final long UNDEFINED_TIME = 0;
+	private static final long FRACTIONAL_TIME = 1;
+	private static final long MAX_WHOLE_TIME = 1L << 50;
+
+	private final RouteFactories routeFactories;
+	private final Map<Class<?>, Integer> routeKinds = new ConcurrentHashMap<>();
+
+	private final Map<String, Integer> stringIndices = new HashMap<>();
+	// only grows, and is only written while holding the lock of this compactor. Readers do not take that lock: an entry
+	// referenced by a plan was written before the plan was encoded, and encoding and decoding a plan both hold the lock of
+	// that plan. The array itself may be replaced by a larger copy at any time, so it is volatile: a reader seeing a copy
+	// also sees all entries copied into it.
+	private volatile String[] strings = new String[64];
+	private int stringCount = 0;
+
+	/* package */ PlanCompactor(RouteFactories routeFactories) {
+		this.routeFactories = routeFactories;
+	}
+
+	/**
+	 * Compacts the plan elements of the unselected plans of the person. The plans themselves keep their identity, so
+	 * references to them, e.g. by strategies or listeners, stay valid. Plans of other classes than {@link PlanImpl} are
+	 * left as they are. The selected plan is never compacted, as the mobsim executes its plan elements.
+	 */
+	/* package */ void compact(Person person) {
+		Plan selectedPlan = person.getSelectedPlan();
+		for (Plan plan : person.getPlans()) {
+			if (plan != selectedPlan && plan instanceof PlanImpl planImpl) {
+				planImpl.compact(this);
+			}
+		}
+	}
+
+	/* package */ byte[] encode(List<PlanElement> elements, List<Object> objects) {
+		Output out = new Output(16 + elements.size() * 16);
+		out.writeInt(elements.size());
+		for (PlanElement element : elements) {
+			if (element instanceof ActivityImpl act) {
+				out.writeInt(ACTIVITY);
+				writeActivity(out, act, objects);
+				writeTime(out, act.getStartTime());
+				writeTime(out, act.getEndTime());
+				writeTime(out, act.getMaximumDuration());
+			} else if (element instanceof InteractionActivity act) {
+				out.writeInt(INTERACTION_ACTIVITY);
+				writeActivity(out, act, objects);
+			} else if (element instanceof LegImpl leg) {
+				out.writeInt(LEG);
+				writeLeg(out, leg, objects);
+			} else {
+				out.writeInt(OBJECT);
+				out.writeInt(objects.size());
+				objects.add(element);
+			}
+		}
+		return out.toByteArray();
+	}
+
+	/* package */ List<PlanElement> decode(byte[] data, Object[] objects) {
+		Input in = new Input(data);
+		int count = in.readInt();
+		List<PlanElement> elements = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			switch (in.readInt()) {
+				case ACTIVITY -> {
+					Activity act = readActivity(in, new ActivityImpl(readString(in)), objects);
+					readTime(in).ifDefined(act::setStartTime);
+					readTime(in).ifDefined(act::setEndTime);
+					readTime(in).ifDefined(act::setMaximumDuration);
+					elements.add(act);
+				}
+				case INTERACTION_ACTIVITY -> elements.add(readActivity(in, new InteractionActivity(readString(in)), objects));
+				case LEG -> elements.add(readLeg(in, objects));
+				case OBJECT -> elements.add((PlanElement) objects[in.readInt()]);
+				default -> throw new IllegalStateException("unknown plan element kind");
+			}
+		}
+		return elements;
+	}
+
+	/* package */ static int getElementCount(byte[] data) {
+		return new Input(data).readInt();
+	}
+
+	private void writeActivity(Output out, Activity act, List<Object> objects) {
+		out.writeInt(stringIndex(act.getType()));
+		Coord coord = act.getCoord();
+		Attributes attributes = act.getAttributes();
+		int flags = (coord == null ? 0 : HAS_COORD) | (coord != null && coord.hasZ() ? HAS_Z : 0) | (attributes.isEmpty() ? 0 : HAS_ATTRIBUTES);
+		out.writeInt(flags);
+		if (coord != null) {
+			out.writeDouble(coord.getX());
+			out.writeDouble(coord.getY());
+			if (coord.hasZ()) {
+				out.writeDouble(coord.getZ());
+			}
+		}
+		writeId(out, act.getLinkId());
+		writeId(out, act.getFacilityId());
+		if (!attributes.isEmpty()) {
+			out.writeInt(objects.size());
+			objects.add(attributes);
+		}
+	}
+
+	private Activity readActivity(Input in, Activity act, Object[] objects) {
+		int flags = in.readInt();
+		if ((flags & HAS_COORD) != 0) {
+			double x = in.readDouble();
+			double y = in.readDouble();
+			act.setCoord((flags & HAS_Z) != 0 ? new Coord(x, y, in.readDouble()) : new Coord(x, y));
+		}
+		act.setLinkId(readId(in, Link.class));
+		act.setFacilityId(readId(in, ActivityFacility.class));
+		if ((flags & HAS_ATTRIBUTES) != 0) {
+			copyAttributes((Attributes) objects[in.readInt()], act.getAttributes());
+		}
+		return act;
+	}
+
+	private void writeLeg(Output out, Leg leg, List<Object> objects) {
+		out.writeInt(stringIndex(leg.getMode()));
+		out.writeInt(stringIndex(leg.getRoutingMode()));
+		writeTime(out, leg.getDepartureTime());
+		writeTime(out, leg.getTravelTime());
+		Attributes attributes = leg.getAttributes();
+		if (attributes.isEmpty()) {
+			out.writeInt(0);
+		} else {
+			out.writeInt(objects.size() + 1);
+			objects.add(attributes);
+		}
+
+		Route route = leg.getRoute();
+		int kind = route == null ? NO_ROUTE : this.routeKinds.computeIfAbsent(route.getClass(), c -> getRouteKind(route));
+		out.writeInt(kind);
+		if (kind == OBJECT_ROUTE) {
+			out.writeInt(objects.size());
+			objects.add(route);
+			return;
+		}
+		if (kind == NO_ROUTE) {
+			return;
+		}
+		writeId(out, route.getStartLinkId());
+		writeId(out, route.getEndLinkId());
+		out.writeDouble(route.getDistance());
+		writeTime(out, route.getTravelTime());
+		if (kind == NETWORK_ROUTE) {
+			NetworkRoute networkRoute = (NetworkRoute) route;
+			List<Id<Link>> linkIds = networkRoute.getLinkIds();
+			out.writeInt(linkIds.size());
+			for (Id<Link> linkId : linkIds) {
+				out.writeInt(linkId.index());
+			}
+			out.writeDouble(networkRoute.getTravelCost());
+			writeId(out, networkRoute.getVehicleId());
+		} else {
+			out.writeInt(stringIndex(route.getRouteType()));
+			out.writeString(route.getRouteDescription());
+		}
+	}
+
+	private Leg readLeg(Input in, Object[] objects) {
+		Leg leg = new LegImpl(readString(in));
+		leg.setRoutingMode(readString(in));
+		readTime(in).ifDefined(leg::setDepartureTime);
+		readTime(in).ifDefined(leg::setTravelTime);
+		int attributesIndex = in.readInt();
+		if (attributesIndex > 0) {
+			copyAttributes((Attributes) objects[attributesIndex - 1], leg.getAttributes());
+		}
+
+		int kind = in.readInt();
+		if (kind == OBJECT_ROUTE) {
+			leg.setRoute((Route) objects[in.readInt()]);
+			return leg;
+		}
+		if (kind == NO_ROUTE) {
+			return leg;
+		}
+		Id<Link> startLinkId = readId(in, Link.class);
+		Id<Link> endLinkId = readId(in, Link.class);
+		double distance = in.readDouble();
+		OptionalTime travelTime = readTime(in);
+		Route route;
+		if (kind == NETWORK_ROUTE) {
+			NetworkRoute networkRoute = this.routeFactories.createRoute(NetworkRoute.class, startLinkId, endLinkId);
+			int linkCount = in.readInt();
+			List<Id<Link>> linkIds = new ArrayList<>(linkCount);
+			for (int i = 0; i < linkCount; i++) {
+				linkIds.add(Id.get(in.readInt(), Link.class));
+			}
+			networkRoute.setLinkIds(startLinkId, linkIds, endLinkId);
+			networkRoute.setTravelCost(in.readDouble());
+			networkRoute.setVehicleId(readId(in, Vehicle.class));
+			route = networkRoute;
+		} else {
+			Class<? extends Route> routeClass = this.routeFactories.getRouteClassForType(readString(in));
+			route = this.routeFactories.createRoute(routeClass, startLinkId, endLinkId);
+			String description = in.readString();
+			if (description != null) {
+				route.setRouteDescription(description);
+			}
+		}
+		// set after the description, which may also set them for some route types
+		route.setDistance(distance);
+		travelTime.ifDefinedOrElse(route::setTravelTime, route::setTravelTimeUndefined);
+		leg.setRoute(route);
+		return leg;
+	}
+
+	/**
+	 * Checks once per route class whether the route factories re-create routes of the same class, as otherwise the route
+	 * has to be kept as object.
+	 */
+	private int getRouteKind(Route route) {
+		Route networkRoute = this.routeFactories.createRoute(NetworkRoute.class, route.getStartLinkId(), route.getEndLinkId());
+		if (networkRoute.getClass() == route.getClass()) {
+			return NETWORK_ROUTE;
+		}
+		Class<? extends Route> routeClass = this.routeFactories.getRouteClassForType(route.getRouteType());
+		Route describedRoute = this.routeFactories.createRoute(routeClass, route.getStartLinkId(), route.getEndLinkId());
+		return describedRoute.getClass() == route.getClass() ? DESCRIBED_ROUTE : OBJECT_ROUTE;
+	}
+
+	private static void copyAttributes(Attributes from, Attributes to) {
+		for (Map.Entry<String, Object> e : from.getAsMap().entrySet()) {
+			to.putAttribute(e.getKey(), e.getValue());
+		}
+	}
+
+	private static void writeId(Output out, Id<?> id) {
+		out.writeInt(id == null ? 0 : id.index() + 1);
+	}
+
+	private static <T> Id<T> readId(Input in, Class<T> type) {
+		int index = in.readInt();
+		return index == 0 ? null : Id.get(index - 1, type);
+	}
+
+	private static void writeTime(Output out, OptionalTime time) {
+		if (time.isUndefined()) {
+			out.writeLong(UNDEFINED_TIME);
+			return;
+		}
+		double seconds = time.seconds();
+		if (seconds >= 0 && seconds < MAX_WHOLE_TIME && seconds == Math.rint(seconds)) {
+			out.writeLong((long) seconds + 2);
+		} else {
+			out.writeLong(FRACTIONAL_TIME);
+			out.writeDouble(seconds);
+		}
+	}
+
+	private static OptionalTime readTime(Input in) {
+		long value = in.readLong();
+		if (value == UNDEFINED_TIME) {
+			return OptionalTime.undefined();
+		}
+		return OptionalTime.defined(value == FRACTIONAL_TIME ? in.readDouble() : value - 2);
+	}
+
+	private synchronized int stringIndex(String s) {
+		if (s == null) {
+			return 0;
+		}
+		Integer index = this.stringIndices.get(s);
+		if (index == null) {
+			if (this.stringCount == this.strings.length) {
+				this.strings = Arrays.copyOf(this.strings, this.stringCount * 2);
+			}
+			this.strings[this.stringCount] = s.intern();
+			index = ++this.stringCount;
+			this.stringIndices.put(s, index);
+		}
+		return index;
+	}
+
+	private String readString(Input in) {
+		int index = in.readInt();
+		return index == 0 ? null : this.strings[index - 1];
+	}
+
+	private static final class Output {
+		private byte[] buffer;
+		private int size = 0;
+
+		Output(int capacity) {
+			this.buffer = new byte[capacity];
+		}
+
+		void writeInt(int value) {
+			writeLong(value & 0xffffffffL);
+		}
+
+		void writeLong(long value) {
+			ensureCapacity(10);
+			while ((value & ~0x7fL) != 0) {
+				this.buffer[this.size++] = (byte) ((value & 0x7f) | 0x80);
+				value >>>= 7;
+			}
+			this.buffer[this.size++] = (byte) value;
+		}
+
+		void writeDouble(double value) {
+			ensureCapacity(8);
+			long bits = Double.doubleToRawLongBits(value);
+			for (int i = 0; i < 8; i++) {
+				this.buffer[this.size++] = (byte) (bits >>> (i * 8));
+			}
+		}
+
+		void writeString(String s) {
+			if (s == null) {
+				writeInt(0);
+				return;
+			}
+			byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+			writeInt(bytes.length + 1);
+			ensureCapacity(bytes.length);
+			System.arraycopy(bytes, 0, this.buffer, this.size, bytes.length);
+			this.size += bytes.length;
+		}
+
+		private void ensureCapacity(int bytes) {
+			if (this.size + bytes > this.buffer.length) {
+				this.buffer = Arrays.copyOf(this.buffer, Math.max(this.buffer.length * 2, this.size + bytes));
+			}
+		}
+
+		byte[] toByteArray() {
+			return Arrays.copyOf(this.buffer, this.size);
+		}
+	}
+
+	private static final class Input {
+		private final byte[] buffer;
+		private int position = 0;
+
+		Input(byte[] buffer) {
+			this.buffer = buffer;
+		}
+
+		int readInt() {
+			return (int) readLong();
+		}
+
+		long readLong() {
+			long value = 0;
+			int shift = 0;
+			byte b;
+			do {
+				b = this.buffer[this.position++];
+				value |= (long) (b & 0x7f) << shift;
+				shift += 7;
+			} while (b < 0);
+			return value;
+		}
+
+		double readDouble() {
+			long bits = 0;
+			for (int i = 0; i < 8; i++) {
+				bits |= (this.buffer[this.position++] & 0xffL) << (i * 8);
+			}
+			return Double.longBitsToDouble(bits);
+		}
+
+		String readString() {
+			int length = readInt() - 1;
+			if (length < 0) {
+				return null;
+			}
+			String s = new String(this.buffer, this.position, length, StandardCharsets.UTF_8);
+			this.position += length;
+			return s;
+		}
+	}
+}
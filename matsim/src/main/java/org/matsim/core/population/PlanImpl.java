@@ -38,11 +38,24 @@ import org.matsim.core.scenario.CustomizableUtils;
 import org.matsim.utils.objectattributes.attributable.Attributes;
 import org.matsim.utils.objectattributes.attributable.AttributesImpl;
 
+/**
+ * The default {@link Plan}.
+ * <p>
+ * The plan elements can be stored in a compact binary form, see {@link PlanCompactor}, while score, type, person and
+ * attributes are always kept as fields, and the plan keeps its identity. The plan elements are materialized as regular
+ * activities and legs on the first call to {@link #getPlanElements()}, and stay materialized until the plan is compacted
+ * again. Compacting creates new plan element objects on the next access, so references to the old plan elements must not
+ * be kept across a compaction.
+ */
 /* deliberately package */  final class PlanImpl implements Plan {
 
 	private Id<Plan> id=  null;
 
-	private ArrayList<PlanElement> actsLegs = new ArrayList<>();
+	/** <code>null</code> while the plan elements are compact */
+	private volatile List<PlanElement> actsLegs = new ArrayList<>();
+	private PlanCompactor compactor = null;
+	private byte[] compactData = null;
+	private Object[] compactObjects = null;
 
 	private Double score = null;
 	private Person person = null;
@@ -166,17 +179,45 @@ import org.matsim.utils.objectattributes.attributable.AttributesImpl;
 
 	@Override
 	public final List<PlanElement> getPlanElements() {
-		return this.actsLegs;
+		List<PlanElement> actsLegs = this.actsLegs;
+		return actsLegs != null ? actsLegs : materialize();
 	}
 
 	@Override
 	public final void addLeg(final Leg leg) {
-		this.actsLegs.add(leg);
+		getPlanElements().add(leg);
 	}
 
 	@Override
 	public final void addActivity(final Activity act) {
-		this.actsLegs.add(act);
+		getPlanElements().add(act);
+	}
+
+	/* package */ synchronized void compact(PlanCompactor compactor) {
+		if (this.actsLegs != null) {
+			List<Object> objects = new ArrayList<>(0);
+			this.compactData = compactor.encode(this.actsLegs, objects);
+			this.compactObjects = objects.isEmpty() ? null : objects.toArray();
+			this.compactor = compactor;
+			this.actsLegs = null;
+		}
+	}
+
+	/* package */ boolean isCompact() {
+		return this.actsLegs == null;
+	}
+
+	/* package */ synchronized int getCompactSize() {
+		return this.compactData == null ? 0 : this.compactData.length;
+	}
+
+	private synchronized List<PlanElement> materialize() {
+		if (this.actsLegs == null) {
+			this.actsLegs = this.compactor.decode(this.compactData, this.compactObjects);
+			this.compactData = null;
+			this.compactObjects = null;
+		}
+		return this.actsLegs;
 	}
 
 	@Override
@@ -191,9 +232,14 @@ import org.matsim.utils.objectattributes.attributable.AttributesImpl;
 			personIdString = this.getPerson().getId().toString() ;
 		}
 
+		int elementCount;
+		synchronized (this) {
+			elementCount = this.actsLegs != null ? this.actsLegs.size() : PlanCompactor.getElementCount(this.compactData);
+		}
+
 		return "[score=" + scoreString + "]" +
 //				"[selected=" + PersonUtils.isSelected(this) + "]" +
-				"[nof_acts_legs=" + getPlanElements().size() + "]" +
+				"[nof_acts_legs=" + elementCount + "]" +
 				"[type=" + this.type + "]" +
 				"[personId=" + personIdString + "]" ;
 	}
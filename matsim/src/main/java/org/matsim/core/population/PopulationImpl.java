@@ -42,11 +42,20 @@ import org.matsim.utils.objectattributes.attributable.AttributesImpl;
 	private String name;
 	private Map<Id<Person>, Person> persons = new LinkedHashMap<>();
 	private final PopulationFactory populationFactory;
+	private final PlanCompactor planCompactor;
 	private long counter = 0;
 	private long nextMsg = 1;
 
 	PopulationImpl(PopulationFactory populationFactory2) {
+		this(populationFactory2, null);
+	}
+
+	/**
+	 * @param planCompactor if not <code>null</code>, the unselected plans of added persons are stored compactly, see {@link PlanCompactor}
+	 */
+	PopulationImpl(PopulationFactory populationFactory2, PlanCompactor planCompactor) {
 		this.populationFactory = populationFactory2 ;
+		this.planCompactor = planCompactor;
 	}
 
 	@Override
@@ -58,6 +67,9 @@ import org.matsim.utils.objectattributes.attributable.AttributesImpl;
 		if ( p instanceof Lockable ) {
 			((Lockable) p).setLocked();
 		}
+		if ( this.planCompactor != null ) {
+			this.planCompactor.compact( p );
+		}
 
 		// show counter
 		this.counter++;
@@ -103,6 +115,17 @@ import org.matsim.utils.objectattributes.attributable.AttributesImpl;
 		}
 	}
 
+	/**
+	 * Compacts all plans except the selected ones, if this population stores plans compactly.
+	 */
+	/* package */ void compactUnselectedPlans() {
+		if ( this.planCompactor != null ) {
+			for ( Person person : this.persons.values() ) {
+				this.planCompactor.compact( person );
+			}
+		}
+	}
+
 	public void printPlansCount() {
 		log.info(" person # " + this.counter);
 	}
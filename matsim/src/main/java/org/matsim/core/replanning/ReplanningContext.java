@@ -19,6 +19,8 @@
 
 package org.matsim.core.replanning;
 
+import org.matsim.analysis.IterationStopWatch;
+
 /**
  * A partial, inside view of the Controler which is available during replanning.
  * @author michaz
@@ -31,4 +33,12 @@ public interface ReplanningContext {
 	 */
 	int getIteration();
 
+	/**
+	 * The stop watch of the current iteration, to report the time spent in the replanning modules, or <code>null</code>
+	 * if replanning is run outside the iterations of a controler.
+	 */
+	default IterationStopWatch getStopWatch() {
+		return null;
+	}
+
 }
@@ -22,16 +22,20 @@ package org.matsim.core.replanning.modules;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.matsim.analysis.IterationStopWatch;
 import org.matsim.api.core.v01.population.Plan;
 import org.matsim.api.core.v01.replanning.PlanStrategyModule;
 import org.matsim.core.config.groups.GlobalConfigGroup;
+import org.matsim.core.config.groups.GlobalConfigGroup.ReplanningScheduling;
 import org.matsim.core.population.algorithms.PlanAlgorithm;
 import org.matsim.core.replanning.ReplanningContext;
 import org.matsim.core.utils.misc.Counter;
 
 import java.lang.Thread.UncaughtExceptionHandler;
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 
 /**
@@ -51,6 +55,16 @@ import java.util.concurrent.atomic.AtomicReference;
  * "fast threads"), it helps building reproducible runs.  Additionally, as the threads are only
  * started after all to-be-handled plans are added, we can use unsynchronized data structures.
  * <p></p>
+ * With {@link ReplanningScheduling#workStealing}, the plans are instead collected in one list, and each thread
+ * takes the next chunk of plans from that list whenever it is done with its previous chunk.  Each thread still has
+ * its own instance of the plan algorithm, but which plans an instance handles depends on timing, so runs are only
+ * reproducible if the plan algorithm does not depend on its previous plans, e.g. by drawing from a random number
+ * generator.
+ * <p></p>
+ * The time spent in the threads is reported to the {@link IterationStopWatch} of the replanning context, if there is one.
+ * The operation is named after the plan algorithm and numbered per module instance, as several strategies may use
+ * the same plan algorithm.
+ * <p></p>
  * Design comments/questions:<ul>
  * <li> As a consequence of the design, the instances that getPlanAlgoInstance() returns, need to be thread-safe.  kai, dec'12
  * For an example with discussions, see {@link tutorial.programming.multiThreadedPlanStrategy.RunWithMultithreadedModule}
@@ -60,6 +74,7 @@ import java.util.concurrent.atomic.AtomicReference;
  */
 abstract public class AbstractMultithreadedModule implements PlanStrategyModule {
 	private final int numOfThreads;
+	private final ReplanningScheduling scheduling;
 
 	private PlanAlgoThread[] algothreads = null;
 	private Thread[] threads = null;
@@ -67,6 +82,8 @@ abstract public class AbstractMultithreadedModule implements PlanStrategyModule
 	private String name = null;
 
 	private int count = 0;
+	private List<Plan> sharedPlans = null;
+	private final AtomicInteger nextSharedPlan = new AtomicInteger(0);
 
 	private final AtomicReference<Throwable> hadException = new AtomicReference<>(null);
 	private final ExceptionHandler exceptionHandler = new ExceptionHandler(this.hadException);
@@ -75,6 +92,12 @@ abstract public class AbstractMultithreadedModule implements PlanStrategyModule
 
 	static final private Logger log = LogManager.getLogger(AbstractMultithreadedModule.class);
 
+	private static final int MAX_CHUNK_SIZE = 16;
+	private static final int CHUNKS_PER_THREAD = 32;
+
+	private static final AtomicInteger instanceCounter = new AtomicInteger(0);
+	private final int instanceNumber = instanceCounter.incrementAndGet();
+
 	/**
 	 * Design comments:<ul>
 	 * <li> The way I understand this, the instances that this method returns need to be thread-safe (i.e. independent from each other).  They can,
@@ -84,11 +107,16 @@ abstract public class AbstractMultithreadedModule implements PlanStrategyModule
 	abstract public PlanAlgorithm getPlanAlgoInstance();
 
 	public AbstractMultithreadedModule(GlobalConfigGroup globalConfigGroup) {
-		this.numOfThreads = globalConfigGroup.getNumberOfThreads();
+		this(globalConfigGroup.getNumberOfThreads(), globalConfigGroup.getReplanningScheduling());
 	}
 
 	public AbstractMultithreadedModule(final int numOfThreads) {
+		this(numOfThreads, ReplanningScheduling.roundRobin);
+	}
+
+	public AbstractMultithreadedModule(final int numOfThreads, final ReplanningScheduling scheduling) {
 		this.numOfThreads = numOfThreads;
+		this.scheduling = scheduling;
 	}
 	
 	protected void beforePrepareReplanningHook(@SuppressWarnings("unused") ReplanningContext replanningContextTmp) {
@@ -119,7 +147,11 @@ abstract public class AbstractMultithreadedModule implements PlanStrategyModule
 	@Override
 	public final void handlePlan(final Plan plan) {
 		if (this.directAlgo == null) {
-			this.algothreads[this.count % this.numOfThreads].addPlanToThread(plan);
+			if (this.sharedPlans != null) {
+				this.sharedPlans.add(plan);
+			} else {
+				this.algothreads[this.count % this.numOfThreads].addPlanToThread(plan);
+			}
 			this.count++;
 		} else {
 			this.directAlgo.run(plan);
@@ -140,21 +172,42 @@ abstract public class AbstractMultithreadedModule implements PlanStrategyModule
 		if (this.directAlgo == null) {
 			// only try to start threads if we did not directly work on all the plans
 			log.info("[" + this.name + "] starting " + this.threads.length + " threads, handling " + this.count + " plans");
-
-			// start threads
-			for (Thread thread : this.threads) {
-				thread.start();
+			IterationStopWatch stopWatch = this.replanningContext == null ? null : this.replanningContext.getStopWatch();
+			String operation = "replanning: " + this.name + " #" + this.instanceNumber;
+			if (stopWatch != null) {
+				stopWatch.beginOperation(operation);
 			}
-
-			// wait until each thread is finished
+			long start = System.nanoTime();
 			try {
+				if (this.sharedPlans != null) {
+					// small chunks so that the threads finish at about the same time, but not too small so that they do not
+					// compete too much for the next chunk
+					int chunkSize = Math.max(1, Math.min(MAX_CHUNK_SIZE, this.count / (CHUNKS_PER_THREAD * this.numOfThreads)));
+					for (PlanAlgoThread algothread : this.algothreads) {
+						algothread.setSharedPlans(this.sharedPlans, this.nextSharedPlan, chunkSize);
+					}
+				}
+
+				// start threads
 				for (Thread thread : this.threads) {
-					thread.join();
+					thread.start();
+				}
+
+				// wait until each thread is finished
+				try {
+					for (Thread thread : this.threads) {
+						thread.join();
+					}
+				} catch (InterruptedException e) {
+					throw new RuntimeException(e);
+				}
+			} finally {
+				if (stopWatch != null) {
+					stopWatch.endOperation(operation);
 				}
-			} catch (InterruptedException e) {
-				throw new RuntimeException(e);
 			}
 			log.info("[" + this.name + "] all " + this.threads.length + " threads finished.");
+			logThroughput(System.nanoTime() - start);
 			Throwable throwable = this.hadException.get();
 			if (throwable != null) {
 				throw new RuntimeException("Some threads crashed, thus not all plans may have been handled.", throwable);
@@ -165,6 +218,7 @@ abstract public class AbstractMultithreadedModule implements PlanStrategyModule
 		this.threads = null;
 		this.replanningContext = null;
 		this.count = 0;
+		this.sharedPlans = null;
 		
 		this.afterFinishReplanningHook();
 	}
@@ -175,6 +229,10 @@ abstract public class AbstractMultithreadedModule implements PlanStrategyModule
 		}
 
 		this.hadException.set(null);
+		if (this.scheduling == ReplanningScheduling.workStealing) {
+			this.sharedPlans = new ArrayList<>();
+			this.nextSharedPlan.set(0);
+		}
 		this.threads = new Thread[this.numOfThreads];
 		this.algothreads = new PlanAlgoThread[this.numOfThreads];
 
@@ -194,6 +252,20 @@ abstract public class AbstractMultithreadedModule implements PlanStrategyModule
 		}
 	}
 
+	private void logThroughput(long wallNanos) {
+		long busyNanos = 0;
+		long maxBusyNanos = 0;
+		for (PlanAlgoThread algothread : this.algothreads) {
+			busyNanos += algothread.busyNanos;
+			maxBusyNanos = Math.max(maxBusyNanos, algothread.busyNanos);
+		}
+		double wallSeconds = wallNanos / 1e9;
+		double meanBusyNanos = (double) busyNanos / this.algothreads.length;
+		log.info(String.format("[%s] handled %d plans in %.1f s (%.0f plans/s, %s scheduling); slowest thread busy %.1f s, mean %.1f s",
+				this.name, this.count, wallSeconds, this.count / Math.max(wallSeconds, 1e-9), this.scheduling,
+				maxBusyNanos / 1e9, meanBusyNanos / 1e9));
+	}
+
 	/* package (for a test) */ final int getNumOfThreads() {
 		return numOfThreads;
 	}
@@ -219,6 +291,11 @@ abstract public class AbstractMultithreadedModule implements PlanStrategyModule
 		private final PlanAlgorithm planAlgo;
 		private final List<Plan> plans = new LinkedList<>();
 		private final Counter counter;
+		private List<Plan> sharedPlans = null;
+		private AtomicInteger nextSharedPlan = null;
+		private int chunkSize = 1;
+		/* written by this thread, read after it was joined */
+		private long busyNanos = 0;
 
 		public PlanAlgoThread(final PlanAlgorithm algo, final Counter counter) {
 			this.planAlgo = algo;
@@ -229,12 +306,32 @@ abstract public class AbstractMultithreadedModule implements PlanStrategyModule
 			this.plans.add(plan);
 		}
 
+		public void setSharedPlans(final List<Plan> sharedPlans, final AtomicInteger nextSharedPlan, final int chunkSize) {
+			this.sharedPlans = sharedPlans;
+			this.nextSharedPlan = nextSharedPlan;
+			this.chunkSize = chunkSize;
+		}
+
 		@Override
 		public void run() {
-			for (Plan plan : this.plans) {
-				this.planAlgo.run(plan);
-				this.counter.incCounter();
+			long start = System.nanoTime();
+			if (this.sharedPlans == null) {
+				for (Plan plan : this.plans) {
+					this.planAlgo.run(plan);
+					this.counter.incCounter();
+				}
+			} else {
+				int size = this.sharedPlans.size();
+				int from;
+				while ((from = this.nextSharedPlan.getAndAdd(this.chunkSize)) < size) {
+					int to = Math.min(from + this.chunkSize, size);
+					for (int i = from; i < to; i++) {
+						this.planAlgo.run(this.sharedPlans.get(i));
+						this.counter.incCounter();
+					}
+				}
 			}
+			this.busyNanos = System.nanoTime() - start;
 		}
 	}
 }
@@ -45,12 +45,31 @@ class NodeMinHeap {
 	}
 
 	void decreaseKey(int node, double cost) {
-		int i;
-		for (i = 0; i < this.size; i++) {
-			if (this.heap[i] == node) {
-				break;
-			}
+		if (!contains(node)) {
+			throw new IllegalArgumentException("node is not part of the heap.");
 		}
+		decreaseKey(this.pos[node], node, cost);
+	}
+
+	/**
+	 * Like {@link #decreaseKey(int, double)}, but adds the node again if it was already polled. Used when updating the
+	 * landmark trees, where a polled node can get cheaper again if link costs are negative.
+	 */
+	void decreaseKeyOrInsert(int node, double cost) {
+		if (contains(node)) {
+			decreaseKey(this.pos[node], node, cost);
+		} else {
+			this.costSetter.setCost(node, cost);
+			insert(node);
+		}
+	}
+
+	private boolean contains(int node) {
+		int i = this.pos[node];
+		return i < this.size && this.heap[i] == node;
+	}
+
+	private void decreaseKey(int i, int node, double cost) {
 		if (this.costGetter.getCost(this.heap[i]) < cost) {
 			throw new IllegalArgumentException("existing cost is already smaller than new cost.");
 		}
@@ -10,15 +10,14 @@ import org.matsim.core.router.util.TravelDisutility;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
+import java.util.stream.IntStream;
 
 /**
  * Preprocessed data for the ALT algorithm, see {@link SpeedyALT}.
  *
- * This class is thread-safe and can safely be used by multiple threads.
+ * This class is thread-safe and can safely be used by multiple threads. The landmark trees are calculated in parallel.
+ * If the minimum travel disutilities change later, e.g. due to network change events, {@link #update(double[])}
+ * creates an updated copy, only repairing the landmark trees where needed.
  *
  * @author mrieser / Simunto, sponsored by SBB Swiss Federal Railways
  */
@@ -26,27 +25,118 @@ class SpeedyALTData {
 
 	private final static Logger LOG = LogManager.getLogger(SpeedyALTData.class);
 
+	/**
+	 * If more links than this share changed their minimum travel disutility, the landmark trees are recalculated
+	 * instead of repaired.
+	 */
+	private final static double FULL_UPDATE_SHARE = 0.05;
+
 	final SpeedyGraph graph;
 	private final int landmarksCount;
-	private final TravelDisutility travelCosts;
+	private final double[] linkCosts; // minimum travel disutility per link, as used for the landmark trees
 	private final int[] landmarksNodeIndices;
 	private final double[] nodesData; // for each node: 2 values per landmark
 	private final int[] deadendData;
 	private final double minTravelCostPerLength;
 
 	public SpeedyALTData(SpeedyGraph graph, int landmarksCount, TravelDisutility travelCosts) {
+		this(graph, landmarksCount, calcLinkCosts(graph, travelCosts));
+	}
+
+	SpeedyALTData(SpeedyGraph graph, int landmarksCount, double[] linkCosts) {
 		this.graph = graph;
 		this.landmarksCount = landmarksCount;
-		this.travelCosts = travelCosts;
+		this.linkCosts = linkCosts;
 		this.landmarksNodeIndices = new int[landmarksCount];
 		this.nodesData = new double[graph.nodeCount * (landmarksCount * 2)];
 		this.deadendData = new int[graph.nodeCount];
 
 		this.findDeadEnds();
-		this.calcLandmarks();
+		if (this.findLandmarks()) {
+			this.calcLandmarkTrees();
+		}
 		this.minTravelCostPerLength = this.calcMinTravelCostPerLength();
 	}
 
+	/**
+	 * Creates a copy with other link costs, sharing all data that only depends on the topology of the network.
+	 */
+	private SpeedyALTData(SpeedyALTData base, double[] linkCosts, double[] nodesData) {
+		this.graph = base.graph;
+		this.landmarksCount = base.landmarksCount;
+		this.linkCosts = linkCosts;
+		this.landmarksNodeIndices = base.landmarksNodeIndices;
+		this.nodesData = nodesData;
+		this.deadendData = base.deadendData;
+		this.minTravelCostPerLength = this.calcMinTravelCostPerLength();
+	}
+
+	/**
+	 * Returns landmark data that is valid for the given minimum link costs, as calculated by
+	 * {@link #calcLinkCosts(SpeedyGraph, TravelDisutility)}, or <code>null</code> if too many links changed.
+	 * <p>
+	 * The landmark trees stay valid lower bounds if the minimum travel disutility of links increases, so this instance
+	 * is returned if no link got cheaper. If links got cheaper, a copy is created and its landmark trees are repaired
+	 * starting at these links.
+	 */
+	SpeedyALTData update(double[] newLinkCosts) {
+		int decreasedCount = 0;
+		int increasedCount = 0;
+		for (int linkIdx = 0; linkIdx < newLinkCosts.length; linkIdx++) {
+			if (newLinkCosts[linkIdx] < this.linkCosts[linkIdx]) {
+				decreasedCount++;
+			} else if (newLinkCosts[linkIdx] > this.linkCosts[linkIdx]) {
+				increasedCount++;
+			}
+		}
+		if (decreasedCount + increasedCount > this.graph.linkCount * FULL_UPDATE_SHARE) {
+			return null;
+		}
+		if (decreasedCount == 0) {
+			return this;
+		}
+		if (this.graph.hasTurnRestrictions()) {
+			return recalculate(newLinkCosts);
+		}
+
+		LOG.info("minimum travel disutility decreased for " + decreasedCount + " links, update landmarks...");
+		double[] linkCosts = new double[newLinkCosts.length];
+		int[] decreasedLinks = new int[decreasedCount];
+		decreasedCount = 0;
+		for (int linkIdx = 0; linkIdx < newLinkCosts.length; linkIdx++) {
+			// keep the lower costs of links that got more expensive, so the existing trees stay exact for these costs
+			linkCosts[linkIdx] = Math.min(newLinkCosts[linkIdx], this.linkCosts[linkIdx]);
+			if (newLinkCosts[linkIdx] < this.linkCosts[linkIdx]) {
+				decreasedLinks[decreasedCount++] = linkIdx;
+			}
+		}
+		SpeedyALTData data = new SpeedyALTData(this, linkCosts, this.nodesData.clone());
+		IntStream.range(0, this.landmarksCount * 2).parallel().forEach(i -> {
+			double[] tree = data.getNodeData(i);
+			data.repairTree(tree, decreasedLinks, i % 2 == 0);
+			data.setNodeData(tree, i);
+		});
+		return data;
+	}
+
+	/**
+	 * Returns a copy with all landmark trees recalculated for the given minimum link costs, using the same landmarks.
+	 */
+	SpeedyALTData recalculate(double[] linkCosts) {
+		SpeedyALTData data = new SpeedyALTData(this, linkCosts, new double[this.nodesData.length]);
+		data.calcLandmarkTrees();
+		return data;
+	}
+
+	static double[] calcLinkCosts(SpeedyGraph graph, TravelDisutility travelCosts) {
+		double[] linkCosts = new double[graph.linkCount];
+		for (int linkIdx = 0; linkIdx < graph.linkCount; linkIdx++) {
+			Link link = graph.getLink(linkIdx);
+			linkCosts[linkIdx] = link == null ? Double.POSITIVE_INFINITY : travelCosts.getLinkMinimumTravelDisutility(link);
+		}
+		return linkCosts;
+	}
+
 	private void findDeadEnds() {
 		LOG.info("find dead ends...");
 
@@ -128,8 +218,8 @@ class SpeedyALTData {
 		return otherNodeIndex;
 	}
 
-	private void calcLandmarks() {
-		LOG.info("calculate landmarks...");
+	private boolean findLandmarks() {
+		LOG.info("find landmarks...");
 		Node firstNode = null;
 		for (int i = 0; i < this.graph.nodeCount; i++) {
 			firstNode = this.graph.getNode(i);
@@ -139,34 +229,23 @@ class SpeedyALTData {
 		}
 		if (firstNode == null) {
 			LOG.warn("Network does not contain any nodes!");
-			return;
+			return false;
 		}
 
-		Future<double[]>[] trees = new Future[this.landmarksCount * 2];
-		ExecutorService executor = Executors.newFixedThreadPool(4);
-
-		int firstLandmarkIndex = firstNode.getId().index();
-		this.landmarksNodeIndices[0] = firstLandmarkIndex;
-		trees[0] = executor.submit(() -> calculateTreeForward(firstLandmarkIndex));
-		trees[1] = executor.submit(() -> calculateTreeBackward(firstLandmarkIndex));
-
+		this.landmarksNodeIndices[0] = firstNode.getId().index();
 		for (int i = 1; i < this.landmarksCount; i++) {
-			int nextLandmark = calculateNextLandmark(i);
-			this.landmarksNodeIndices[i] = nextLandmark;
-
-			trees[i * 2] = executor.submit(() -> calculateTreeForward(nextLandmark));
-			trees[i * 2 + 1] = executor.submit(() -> calculateTreeBackward(nextLandmark));
+			this.landmarksNodeIndices[i] = calculateNextLandmark(i);
 		}
+		return true;
+	}
 
-		for (int i = 0; i < trees.length; i++) {
-			try {
-				double[] data = trees[i].get();
-				setNodeData(data, i);
-			} catch (InterruptedException | ExecutionException e) {
-				LOG.error(e);
-			}
-		}
-		executor.shutdown();
+	private void calcLandmarkTrees() {
+		LOG.info("calculate landmarks...");
+		IntStream.range(0, this.landmarksCount * 2).parallel().forEach(i -> {
+			int landmark = this.landmarksNodeIndices[i / 2];
+			double[] data = i % 2 == 0 ? calculateTreeForward(landmark) : calculateTreeBackward(landmark);
+			setNodeData(data, i);
+		});
 	}
 
 	private double calcMinTravelCostPerLength() {
@@ -175,7 +254,7 @@ class SpeedyALTData {
 		for (int linkIdx = 0; linkIdx < graph.linkCount; linkIdx++) {
 			Link link = this.graph.getLink(linkIdx);
 			if (link != null) {
-				double cost = this.travelCosts.getLinkMinimumTravelDisutility(link) / link.getLength();
+				double cost = this.linkCosts[linkIdx] / link.getLength();
 				if (cost < minCost) {
 					minCost = cost;
 				}
@@ -191,6 +270,15 @@ class SpeedyALTData {
 		}
 	}
 
+	private double[] getNodeData(int offset) {
+		int multiplier = this.landmarksCount * 2;
+		double[] data = new double[this.graph.nodeCount];
+		for (int i = 0; i < this.graph.nodeCount; i++) {
+			data[i] = this.nodesData[i * multiplier + offset];
+		}
+		return data;
+	}
+
 	private int calculateNextLandmark(int existingCount) {
 		double[] data = new double[this.graph.nodeCount];
 		Arrays.fill(data, Double.POSITIVE_INFINITY);
@@ -249,7 +337,7 @@ class SpeedyALTData {
 			while (outLI.next()) {
 				int toNode = outLI.getToNodeIndex();
 
-				double newCost = currCost + this.travelCosts.getLinkMinimumTravelDisutility(this.graph.getLink(outLI.getLinkIndex()));
+				double newCost = currCost + this.linkCosts[outLI.getLinkIndex()];
 
 				double oldCost = data[toNode];
 				if (Double.isFinite(oldCost)) {
@@ -288,7 +376,7 @@ class SpeedyALTData {
 			while (inLI.next()) {
 				int fromNode = inLI.getFromNodeIndex();
 
-				double newCost = currCost + this.travelCosts.getLinkMinimumTravelDisutility(this.graph.getLink(inLI.getLinkIndex()));
+				double newCost = currCost + this.linkCosts[inLI.getLinkIndex()];
 
 				double oldCost = data[fromNode];
 				if (Double.isFinite(oldCost)) {
@@ -309,6 +397,52 @@ class SpeedyALTData {
 		return data;
 	}
 
+	/**
+	 * Updates a forward or backward landmark tree after the costs of some links decreased. Only nodes whose cost
+	 * decreases are visited, starting at the links that got cheaper. Not supported for graphs with turn restrictions.
+	 */
+	private void repairTree(double[] data, int[] decreasedLinks, boolean forward) {
+		LinkIterator li = forward ? this.graph.getOutLinkIterator() : this.graph.getInLinkIterator();
+		NodeMinHeap pq = new NodeMinHeap(this.graph.nodeCount, i -> data[i], (i, c) -> data[i] = c);
+		boolean[] queued = new boolean[this.graph.nodeCount];
+
+		for (int linkIdx : decreasedLinks) {
+			Link link = this.graph.getLink(linkIdx);
+			int fromNode = forward ? link.getFromNode().getId().index() : link.getToNode().getId().index();
+			int toNode = forward ? link.getToNode().getId().index() : link.getFromNode().getId().index();
+			double newCost = data[fromNode] + this.linkCosts[linkIdx];
+			if (newCost < data[toNode]) {
+				if (queued[toNode]) {
+					pq.decreaseKeyOrInsert(toNode, newCost);
+				} else {
+					data[toNode] = newCost;
+					pq.insert(toNode);
+					queued[toNode] = true;
+				}
+			}
+		}
+
+		while (!pq.isEmpty()) {
+			final int nodeIdx = pq.poll();
+			double currCost = data[nodeIdx];
+
+			li.reset(nodeIdx);
+			while (li.next()) {
+				int otherNode = forward ? li.getToNodeIndex() : li.getFromNodeIndex();
+				double newCost = currCost + this.linkCosts[li.getLinkIndex()];
+				if (newCost < data[otherNode]) {
+					if (queued[otherNode]) {
+						pq.decreaseKeyOrInsert(otherNode, newCost);
+					} else {
+						data[otherNode] = newCost;
+						pq.insert(otherNode);
+						queued[otherNode] = true;
+					}
+				}
+			}
+		}
+	}
+
 	private void consolidateColoredNodes(double[] data) {
 		// update node values with the minimum of their colored copies, if any
 		for (int i = 0; i < graph.nodeCount; i++) {
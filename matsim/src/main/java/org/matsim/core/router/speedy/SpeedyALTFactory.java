@@ -6,31 +6,74 @@ import org.matsim.core.router.util.LeastCostPathCalculatorFactory;
 import org.matsim.core.router.util.TravelDisutility;
 import org.matsim.core.router.util.TravelTime;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.WeakHashMap;
 
 /**
+ * Creates {@link SpeedyALT} instances. The landmark data is calculated once per network and shared by all instances,
+ * also over multiple threads. When the minimum travel disutilities change, it is updated instead of recalculated, see
+ * {@link SpeedyALTData#update(double[])}. A few variants are kept per network, so alternating between travel
+ * disutilities with different minimum costs, e.g. for different modes, does not recalculate the landmarks each time.
+ * <p>
+ * The minimum link costs are only calculated for travel disutility instances not seen before; routers created with the
+ * same instance re-use its landmark data. The minimum travel disutility of a link must thus not change as long as the
+ * instance is in use. The link costs are calculated outside the lock, so routers for different instances can be
+ * created in parallel.
+ *
  * @author mrieser / Simunto, sponsored by SBB Swiss Federal Railways
  */
 public class SpeedyALTFactory implements LeastCostPathCalculatorFactory {
 
-	private final Map<Network, SpeedyGraph> graphs = new ConcurrentHashMap<>();
-	private final Map<SpeedyGraph, SpeedyALTData> landmarksData = new ConcurrentHashMap<>();
+	private final static int MAX_VARIANTS = 4;
+
+	private final Map<Network, SpeedyGraph> graphs = new HashMap<>();
+	private final Map<SpeedyGraph, List<SpeedyALTData>> landmarksData = new HashMap<>();
+
+	private final Map<TravelDisutility, SpeedyALTData> landmarksPerTravelDisutility = new WeakHashMap<>();
 
 	@Override
 	public LeastCostPathCalculator createPathCalculator(Network network, TravelDisutility travelCosts, TravelTime travelTimes) {
-		SpeedyGraph graph = this.graphs.get(network);
-		if (graph == null) {
-			graph = SpeedyGraphBuilder.build(network);
-			this.graphs.put(network, graph);
+		SpeedyGraph graph;
+		SpeedyALTData landmarks;
+		synchronized (this) {
+			graph = this.graphs.computeIfAbsent(network, SpeedyGraphBuilder::build);
+			landmarks = this.landmarksPerTravelDisutility.get(travelCosts);
 		}
-		SpeedyALTData landmarks = this.landmarksData.get(graph);
-		if (landmarks == null) {
-			int landmarksCount = Math.min(16, graph.nodeCount);
-			landmarks = new SpeedyALTData(graph, landmarksCount, travelCosts);
-			this.landmarksData.put(graph, landmarks);
+		if (landmarks == null || landmarks.graph != graph) {
+			double[] linkCosts = SpeedyALTData.calcLinkCosts(graph, travelCosts);
+			synchronized (this) {
+				landmarks = getLandmarks(graph, linkCosts);
+				this.landmarksPerTravelDisutility.put(travelCosts, landmarks);
+			}
 		}
 		return new SpeedyALT(landmarks, travelTimes, travelCosts);
 	}
 
+	private SpeedyALTData getLandmarks(SpeedyGraph graph, double[] linkCosts) {
+		List<SpeedyALTData> variants = this.landmarksData.computeIfAbsent(graph, g -> new ArrayList<>());
+		SpeedyALTData landmarks = null;
+		for (int i = 0; i < variants.size() && landmarks == null; i++) {
+			landmarks = variants.get(i).update(linkCosts);
+			if (landmarks != null) {
+				variants.set(i, landmarks);
+			}
+		}
+		if (landmarks == null) {
+			if (variants.isEmpty()) {
+				int landmarksCount = Math.min(16, graph.nodeCount);
+				landmarks = new SpeedyALTData(graph, landmarksCount, linkCosts);
+			} else {
+				landmarks = variants.get(0).recalculate(linkCosts);
+			}
+			variants.add(0, landmarks);
+			if (variants.size() > MAX_VARIANTS) {
+				variants.remove(variants.size() - 1);
+			}
+		}
+		return landmarks;
+	}
+
 }
@@ -0,0 +1,218 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * SpeedyCH.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.router.speedy;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.core.router.util.LeastCostPathCalculator;
+import org.matsim.core.router.util.TravelDisutility;
+import org.matsim.core.router.util.TravelTime;
+import org.matsim.vehicles.Vehicle;
+
+/**
+ * Least cost path calculator on a customizable contraction hierarchy, see {@link SpeedyCHData}.
+ * <p>
+ * A query searches upward from the start node using the upward weights, and upward from the end node using the
+ * downward weights. With the nested dissection order, all nodes reachable by upward edges are ancestors in the
+ * elimination tree, so both searches just walk up the tree and relax the upward edges of each node, without any priority
+ * queue. The shortcuts of the best path are then unpacked, and travel time and cost are evaluated exactly along the
+ * resulting links, including the person and vehicle.
+ * <p>
+ * The path is optimal for the costs of the time slice of the departure time, which is an approximation for long trips
+ * in congested networks.
+ * <p>
+ * Each instance keeps its own search state, so it can be used by one thread at a time only.
+ */
+public class SpeedyCH implements LeastCostPathCalculator {
+
+	private final static Logger LOG = LogManager.getLogger(SpeedyCH.class);
+
+	private final SpeedyCHData data;
+	private final SpeedyCHData.Customization customization;
+	private final SpeedyGraph graph;
+	private final TravelTime tt;
+	private final TravelDisutility td;
+	private final double[] forwardCost;
+	private final double[] backwardCost;
+	private final int[] forwardEdge;
+	private final int[] backwardEdge;
+	private final int[] forwardIterationIds;
+	private final int[] backwardIterationIds;
+	private int currentIteration = Integer.MIN_VALUE;
+	private int[] stack = new int[64];
+
+	public SpeedyCH(SpeedyCHData data, SpeedyCHData.Customization customization, TravelTime tt, TravelDisutility td) {
+		this.data = data;
+		this.customization = customization;
+		this.graph = data.graph;
+		this.tt = tt;
+		this.td = td;
+		this.forwardCost = new double[this.graph.nodeCount];
+		this.backwardCost = new double[this.graph.nodeCount];
+		this.forwardEdge = new int[this.graph.nodeCount];
+		this.backwardEdge = new int[this.graph.nodeCount];
+		this.forwardIterationIds = new int[this.graph.nodeCount];
+		this.backwardIterationIds = new int[this.graph.nodeCount];
+		Arrays.fill(this.forwardIterationIds, this.currentIteration);
+		Arrays.fill(this.backwardIterationIds, this.currentIteration);
+	}
+
+	@Override
+	public Path calcLeastCostPath(Node startNode, Node endNode, double startTime, Person person, Vehicle vehicle) {
+		this.currentIteration++;
+		if (this.currentIteration == Integer.MAX_VALUE) {
+			// reset iteration as we overflow
+			Arrays.fill(this.forwardIterationIds, this.currentIteration);
+			Arrays.fill(this.backwardIterationIds, this.currentIteration);
+			this.currentIteration = Integer.MIN_VALUE + 1;
+		}
+
+		int startNodeIndex = startNode.getId().index();
+		int endNodeIndex = endNode.getId().index();
+		if (startNodeIndex == endNodeIndex) {
+			List<Node> nodes = new ArrayList<>(1);
+			nodes.add(startNode);
+			return new Path(nodes, new ArrayList<>(0), 0, 0);
+		}
+
+		int slice = this.customization.getTimeSlice(startTime);
+		search(startNodeIndex, this.customization.up[slice], this.forwardCost, this.forwardEdge, this.forwardIterationIds);
+		search(endNodeIndex, this.customization.down[slice], this.backwardCost, this.backwardEdge, this.backwardIterationIds);
+
+		int meetingNode = -1;
+		double bestCost = Double.POSITIVE_INFINITY;
+		for (int node = endNodeIndex; node >= 0; node = this.data.parent[node]) {
+			if (this.forwardIterationIds[node] == this.currentIteration && this.backwardIterationIds[node] == this.currentIteration) {
+				double cost = this.forwardCost[node] + this.backwardCost[node];
+				if (cost < bestCost) {
+					bestCost = cost;
+					meetingNode = node;
+				}
+			}
+		}
+
+		if (meetingNode < 0) {
+			LOG.warn("No route was found from node " + startNode.getId() + " to node " + endNode.getId() + ". Some possible reasons:");
+			LOG.warn("  * Network is not connected.  Run NetworkCleaner().");
+			LOG.warn("  * Network for considered mode does not even exist.  Modes need to be entered for each link in network.xml.");
+			LOG.warn("  * Network for considered mode is not connected to starting or ending point of route.  Setting insertingAccessEgressWalk to true may help.");
+			LOG.warn("This will now return null, but it may fail later with a NullPointerException.");
+			return null;
+		}
+
+		return constructPath(startNode, meetingNode, slice, startTime, person, vehicle);
+	}
+
+	private void search(int startNodeIndex, float[] weights, double[] costs, int[] edges, int[] iterationIds) {
+		costs[startNodeIndex] = 0;
+		edges[startNodeIndex] = -1;
+		iterationIds[startNodeIndex] = this.currentIteration;
+		for (int node = startNodeIndex; node >= 0; node = this.data.parent[node]) {
+			if (iterationIds[node] != this.currentIteration) {
+				continue;
+			}
+			double cost = costs[node];
+			for (int edge = this.data.upStart[node], end = this.data.upStart[node + 1]; edge < end; edge++) {
+				double newCost = cost + weights[edge];
+				int toNode = this.data.upTarget[edge];
+				if (iterationIds[toNode] != this.currentIteration || newCost < costs[toNode]) {
+					if (newCost == Double.POSITIVE_INFINITY) {
+						continue;
+					}
+					costs[toNode] = newCost;
+					edges[toNode] = edge;
+					iterationIds[toNode] = this.currentIteration;
+				}
+			}
+		}
+	}
+
+	private Path constructPath(Node startNode, int meetingNode, int slice, double startTime, Person person, Vehicle vehicle) {
+		List<Link> links = new ArrayList<>();
+
+		// upward part: collect the edges from the meeting node back to the start node, then unpack them in travel order
+		int count = 0;
+		int[] upwardEdges = new int[16];
+		for (int edge = this.forwardEdge[meetingNode]; edge >= 0; edge = this.forwardEdge[this.data.upSource[edge]]) {
+			if (count == upwardEdges.length) {
+				upwardEdges = Arrays.copyOf(upwardEdges, count * 2);
+			}
+			upwardEdges[count++] = edge;
+		}
+		for (int i = count - 1; i >= 0; i--) {
+			unpack(upwardEdges[i], true, slice, links);
+		}
+		// downward part: the backward search tree already leads from the meeting node to the end node
+		for (int edge = this.backwardEdge[meetingNode]; edge >= 0; edge = this.backwardEdge[this.data.upSource[edge]]) {
+			unpack(edge, false, slice, links);
+		}
+
+		List<Node> nodes = new ArrayList<>(links.size() + 1);
+		nodes.add(startNode);
+		double time = startTime;
+		double cost = 0;
+		for (Link link : links) {
+			nodes.add(link.getToNode());
+			cost += this.td.getLinkTravelDisutility(link, time, person, vehicle);
+			time += this.tt.getLinkTravelTime(link, time, person, vehicle);
+		}
+		return new Path(nodes, links, time - startTime, cost);
+	}
+
+	/**
+	 * Appends the original links of an upward edge, either in upward or in downward direction, to the list.
+	 */
+	private void unpack(int edge, boolean upward, int slice, List<Link> links) {
+		int[] upMiddle = this.customization.upMiddle[slice];
+		int[] downMiddle = this.customization.downMiddle[slice];
+		int size = 0;
+		this.stack[size++] = encode(edge, upward);
+		while (size > 0) {
+			int entry = this.stack[--size];
+			int e = entry >>> 1;
+			boolean up = (entry & 1) == 1;
+			int middle = up ? upMiddle[e] : downMiddle[e];
+			if (middle < 0) {
+				links.add(this.graph.getLink(-1 - middle));
+				continue;
+			}
+			int fromNode = up ? this.data.upSource[e] : this.data.upTarget[e];
+			int toNode = up ? this.data.upTarget[e] : this.data.upSource[e];
+			if (size + 2 > this.stack.length) {
+				this.stack = Arrays.copyOf(this.stack, this.stack.length * 2);
+			}
+			// the middle node has a lower rank than both end nodes: go down to it, then up again
+			this.stack[size++] = encode(this.data.findEdge(middle, toNode), true);
+			this.stack[size++] = encode(this.data.findEdge(middle, fromNode), false);
+		}
+	}
+
+	private static int encode(int edge, boolean upward) {
+		return (edge << 1) | (upward ? 1 : 0);
+	}
+}
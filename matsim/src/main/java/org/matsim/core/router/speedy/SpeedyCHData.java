@@ -0,0 +1,541 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * SpeedyCHData.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.router.speedy;
+
+import java.util.Arrays;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.core.router.util.TravelDisutility;
+
+/**
+ * Metric-independent preprocessing for {@link SpeedyCH}, a customizable contraction hierarchy (CCH) on top of a
+ * {@link SpeedyGraph}.
+ * <p>
+ * The nodes are ordered by a geometric nested dissection: the network is recursively split at the median coordinate,
+ * and the nodes separating the two halves are contracted last. Contracting the nodes in this order without any witness
+ * search results in an upward graph that only depends on the topology of the network, so the preprocessing has to be
+ * done only once per network. Fitting the weights to the travel disutilities of an iteration, the <em>customization</em>,
+ * is then a simple pass over all triangles of the upward graph, see {@link #customize(TravelDisutility, double, int)}.
+ * <p>
+ * Time dependence is approximated by time slices: each slice gets its own customization, evaluated in the middle of the
+ * slice, and a query uses the slice of its departure time.
+ * <p>
+ * memory consumption:
+ * - 3 int per node: rank, elimination tree parent and offset of the upward edges
+ * - 2 int per upward edge: source and target node
+ * - per time slice and upward edge: 2 float (upward and downward weight) and 2 int (middle node or original link)
+ */
+public class SpeedyCHData {
+
+	private final static Logger LOG = LogManager.getLogger(SpeedyCHData.class);
+
+	/** cells with at most that many nodes are not split any further during the nested dissection. */
+	private final static int LEAF_SIZE = 32;
+
+	final static int NO_MIDDLE = Integer.MIN_VALUE;
+
+	final SpeedyGraph graph;
+	final int[] rank;
+	final int[] parent;
+	final int[] upStart;
+	final int[] upSource;
+	final int[] upTarget;
+	final int edgeCount;
+
+	public SpeedyCHData(SpeedyGraph graph) {
+		this.graph = graph;
+		long startTime = System.nanoTime();
+
+		int[][] neighbours = buildUndirectedAdjacency(graph);
+		this.rank = new int[graph.nodeCount];
+		Arrays.fill(this.rank, -1);
+		int[] order = computeOrder(graph, neighbours, this.rank);
+
+		int[][] ups = new int[graph.nodeCount][];
+		int[] upSizes = new int[graph.nodeCount];
+		for (int node : order) {
+			int[] up = new int[neighbours[node].length];
+			int size = 0;
+			for (int neighbour : neighbours[node]) {
+				if (this.rank[neighbour] > this.rank[node]) {
+					up[size++] = neighbour;
+				}
+			}
+			ups[node] = up;
+			upSizes[node] = size;
+			neighbours[node] = null;
+		}
+
+		// symbolic contraction: the upper neighbours of a contracted node become a clique
+		for (int node : order) {
+			int size = sortUnique(ups[node], upSizes[node]);
+			upSizes[node] = size;
+			int[] up = ups[node];
+			for (int i = 0; i < size; i++) {
+				int a = up[i];
+				for (int j = i + 1; j < size; j++) {
+					int b = up[j];
+					if (this.rank[a] < this.rank[b]) {
+						add(ups, upSizes, a, b);
+					} else {
+						add(ups, upSizes, b, a);
+					}
+				}
+			}
+		}
+
+		this.upStart = new int[graph.nodeCount + 1];
+		this.parent = new int[graph.nodeCount];
+		int count = 0;
+		for (int node = 0; node < graph.nodeCount; node++) {
+			this.upStart[node] = count;
+			count += upSizes[node];
+		}
+		this.upStart[graph.nodeCount] = count;
+		this.edgeCount = count;
+		this.upSource = new int[count];
+		this.upTarget = new int[count];
+		for (int node = 0; node < graph.nodeCount; node++) {
+			int p = -1;
+			int offset = this.upStart[node];
+			for (int i = 0; i < upSizes[node]; i++) {
+				int target = ups[node][i];
+				this.upSource[offset + i] = node;
+				this.upTarget[offset + i] = target;
+				if (p < 0 || this.rank[target] < this.rank[p]) {
+					p = target;
+				}
+			}
+			this.parent[node] = p;
+			ups[node] = null;
+		}
+
+		LOG.info("Contraction hierarchy with " + order.length + " nodes and " + this.edgeCount + " upward edges built in " + (System.nanoTime() - startTime) / 1_000_000 + " ms.");
+	}
+
+	/**
+	 * Returns the index of the upward edge from <code>lower</code> to <code>upper</code>, or -1 if there is none.
+	 */
+	int findEdge(int lower, int upper) {
+		int index = Arrays.binarySearch(this.upTarget, this.upStart[lower], this.upStart[lower + 1], upper);
+		return index < 0 ? -1 : index;
+	}
+
+	/**
+	 * Computes the weights of all upward and downward edges for each time slice, one time slice after the other.
+	 * The travel disutility is evaluated without a person or vehicle, so it must not depend on them.
+	 */
+	public Customization customize(TravelDisutility td, double timeSliceSize, int timeSliceCount) {
+		long startTime = System.nanoTime();
+		Customization customization = new Customization(timeSliceSize, timeSliceCount);
+		customize(td, customization, 0, timeSliceCount);
+		LOG.info("Contraction hierarchy customized for " + timeSliceCount + " time slices in " + (System.nanoTime() - startTime) / 1_000_000 + " ms.");
+		return customization;
+	}
+
+	/**
+	 * Computes the weights of all upward and downward edges for each time slice. The time slices are split into one
+	 * block per available processor, and the blocks are customized in parallel, each with its own travel disutility
+	 * from <code>tds</code>. The travel disutility is evaluated without a person or vehicle, so it must not depend on
+	 * them.
+	 */
+	public Customization customize(Supplier<TravelDisutility> tds, double timeSliceSize, int timeSliceCount) {
+		long startTime = System.nanoTime();
+		Customization customization = new Customization(timeSliceSize, timeSliceCount);
+		int blocks = Math.min(timeSliceCount, Runtime.getRuntime().availableProcessors());
+		TravelDisutility[] blockTds = new TravelDisutility[blocks];
+		for (int block = 0; block < blocks; block++) {
+			blockTds[block] = tds.get();
+		}
+		IntStream.range(0, blocks).parallel().forEach(block -> customize(blockTds[block], customization, block * timeSliceCount / blocks, (block + 1) * timeSliceCount / blocks));
+		LOG.info("Contraction hierarchy customized for " + timeSliceCount + " time slices in " + (System.nanoTime() - startTime) / 1_000_000 + " ms.");
+		return customization;
+	}
+
+	private void customize(TravelDisutility td, Customization customization, int fromSlice, int toSlice) {
+		int sliceCount = toSlice - fromSlice;
+		float[][] up = new float[sliceCount][this.edgeCount];
+		float[][] down = new float[sliceCount][this.edgeCount];
+		int[][] upMiddle = new int[sliceCount][this.edgeCount];
+		int[][] downMiddle = new int[sliceCount][this.edgeCount];
+		for (int k = 0; k < sliceCount; k++) {
+			Arrays.fill(up[k], Float.POSITIVE_INFINITY);
+			Arrays.fill(down[k], Float.POSITIVE_INFINITY);
+			Arrays.fill(upMiddle[k], NO_MIDDLE);
+			Arrays.fill(downMiddle[k], NO_MIDDLE);
+		}
+
+		SpeedyGraph.LinkIterator outLI = this.graph.getOutLinkIterator();
+		for (int from = 0; from < this.graph.nodeCount; from++) {
+			if (this.rank[from] < 0) {
+				continue;
+			}
+			outLI.reset(from);
+			while (outLI.next()) {
+				int to = outLI.getToNodeIndex();
+				if (to == from) {
+					continue;
+				}
+				int linkIndex = outLI.getLinkIndex();
+				Link link = this.graph.getLink(linkIndex);
+				boolean upward = this.rank[from] < this.rank[to];
+				int edge = upward ? findEdge(from, to) : findEdge(to, from);
+				float[][] weights = upward ? up : down;
+				int[][] middles = upward ? upMiddle : downMiddle;
+				for (int k = 0; k < sliceCount; k++) {
+					double time = (fromSlice + k + 0.5) * customization.timeSliceSize;
+					float cost = (float) td.getLinkTravelDisutility(link, time, null, null);
+					if (cost < weights[k][edge]) {
+						weights[k][edge] = cost;
+						middles[k][edge] = -1 - linkIndex;
+					}
+				}
+			}
+		}
+
+		// process the lower triangles of all edges, bottom-up. When a node is processed, the weights of its own upward
+		// edges are final, as all their lower triangles belong to nodes with lower rank.
+		int[] order = new int[this.graph.nodeCount];
+		int nodeCount = 0;
+		for (int node = 0; node < this.graph.nodeCount; node++) {
+			if (this.rank[node] >= 0) {
+				order[this.rank[node]] = node;
+				nodeCount++;
+			}
+		}
+		for (int r = 0; r < nodeCount; r++) {
+			int node = order[r];
+			int start = this.upStart[node];
+			int end = this.upStart[node + 1];
+			for (int e1 = start; e1 < end; e1++) {
+				int a = this.upTarget[e1];
+				// all upper neighbours b of node with a higher rank than a are also upper neighbours of a. Both lists
+				// are sorted by node index, so the edges a-b are found by a merge.
+				int edge = this.upStart[a];
+				for (int e2 = start; e2 < end; e2++) {
+					int b = this.upTarget[e2];
+					if (this.rank[b] <= this.rank[a]) {
+						continue;
+					}
+					while (this.upTarget[edge] != b) {
+						edge++;
+					}
+					for (int k = 0; k < sliceCount; k++) {
+						// a -> node -> b
+						float cost = down[k][e1] + up[k][e2];
+						if (cost < up[k][edge]) {
+							up[k][edge] = cost;
+							upMiddle[k][edge] = node;
+						}
+						// b -> node -> a
+						cost = down[k][e2] + up[k][e1];
+						if (cost < down[k][edge]) {
+							down[k][edge] = cost;
+							downMiddle[k][edge] = node;
+						}
+					}
+				}
+			}
+		}
+
+		for (int k = 0; k < sliceCount; k++) {
+			customization.up[fromSlice + k] = up[k];
+			customization.down[fromSlice + k] = down[k];
+			customization.upMiddle[fromSlice + k] = upMiddle[k];
+			customization.downMiddle[fromSlice + k] = downMiddle[k];
+		}
+	}
+
+	/**
+	 * The weights of the upward graph for one travel disutility. For each edge and direction, the middle node of the
+	 * shortcut is stored, or <code>-1 - linkIndex</code> if the edge corresponds to an original link.
+	 */
+	public static final class Customization {
+		final double timeSliceSize;
+		final int timeSliceCount;
+		final float[][] up;
+		final float[][] down;
+		final int[][] upMiddle;
+		final int[][] downMiddle;
+
+		Customization(double timeSliceSize, int timeSliceCount) {
+			this.timeSliceSize = timeSliceSize;
+			this.timeSliceCount = timeSliceCount;
+			this.up = new float[timeSliceCount][];
+			this.down = new float[timeSliceCount][];
+			this.upMiddle = new int[timeSliceCount][];
+			this.downMiddle = new int[timeSliceCount][];
+		}
+
+		int getTimeSlice(double time) {
+			if (!(time > 0)) {
+				return 0;
+			}
+			return (int) Math.min(this.timeSliceCount - 1, time / this.timeSliceSize);
+		}
+	}
+
+	private static int[][] buildUndirectedAdjacency(SpeedyGraph graph) {
+		int[][] neighbours = new int[graph.nodeCount][];
+		SpeedyGraph.LinkIterator outLI = graph.getOutLinkIterator();
+		SpeedyGraph.LinkIterator inLI = graph.getInLinkIterator();
+		int[] buffer = new int[16];
+		for (int node = 0; node < graph.nodeCount; node++) {
+			if (graph.getNode(node) == null) {
+				continue;
+			}
+			int size = 0;
+			outLI.reset(node);
+			while (outLI.next()) {
+				if (size == buffer.length) {
+					buffer = Arrays.copyOf(buffer, size * 2);
+				}
+				buffer[size++] = outLI.getToNodeIndex();
+			}
+			inLI.reset(node);
+			while (inLI.next()) {
+				if (size == buffer.length) {
+					buffer = Arrays.copyOf(buffer, size * 2);
+				}
+				buffer[size++] = inLI.getFromNodeIndex();
+			}
+			size = sortUnique(buffer, size);
+			int[] nodeNeighbours = new int[size];
+			int count = 0;
+			for (int i = 0; i < size; i++) {
+				if (buffer[i] != node) {
+					nodeNeighbours[count++] = buffer[i];
+				}
+			}
+			neighbours[node] = count == size ? nodeNeighbours : Arrays.copyOf(nodeNeighbours, count);
+		}
+		return neighbours;
+	}
+
+	private static int[] computeOrder(SpeedyGraph graph, int[][] neighbours, int[] rank) {
+		int nodeCount = 0;
+		for (int node = 0; node < graph.nodeCount; node++) {
+			if (neighbours[node] != null) {
+				nodeCount++;
+			}
+		}
+		int[] cell = new int[nodeCount];
+		double[] x = new double[graph.nodeCount];
+		double[] y = new double[graph.nodeCount];
+		int i = 0;
+		for (int node = 0; node < graph.nodeCount; node++) {
+			if (neighbours[node] != null) {
+				cell[i++] = node;
+				Node n = graph.getNode(node);
+				Coord coord = n.getCoord();
+				x[node] = coord == null ? 0 : coord.getX();
+				y[node] = coord == null ? 0 : coord.getY();
+			}
+		}
+		NestedDissection dissection = new NestedDissection(neighbours, x, y, rank, cell);
+		dissection.dissect(0, nodeCount);
+		int[] order = new int[nodeCount];
+		for (int node = 0; node < graph.nodeCount; node++) {
+			if (rank[node] >= 0) {
+				order[rank[node]] = node;
+			}
+		}
+		return order;
+	}
+
+	private static final class NestedDissection {
+		private final int[][] neighbours;
+		private final double[] x;
+		private final double[] y;
+		private final int[] rank;
+		private final int[] cell;
+		private final int[] side;
+		private int nextRank = 0;
+		private int nextMark = 0;
+
+		NestedDissection(int[][] neighbours, double[] x, double[] y, int[] rank, int[] cell) {
+			this.neighbours = neighbours;
+			this.x = x;
+			this.y = y;
+			this.rank = rank;
+			this.cell = cell;
+			this.side = new int[neighbours.length];
+			Arrays.fill(this.side, -1);
+		}
+
+		/**
+		 * Assigns the ranks to the nodes in <code>cell[from, to)</code>.
+		 */
+		void dissect(int from, int to) {
+			int size = to - from;
+			if (size <= LEAF_SIZE) {
+				for (int i = from; i < to; i++) {
+					this.rank[this.cell[i]] = this.nextRank++;
+				}
+				return;
+			}
+
+			double minX = Double.POSITIVE_INFINITY;
+			double maxX = Double.NEGATIVE_INFINITY;
+			double minY = Double.POSITIVE_INFINITY;
+			double maxY = Double.NEGATIVE_INFINITY;
+			for (int i = from; i < to; i++) {
+				int node = this.cell[i];
+				minX = Math.min(minX, this.x[node]);
+				maxX = Math.max(maxX, this.x[node]);
+				minY = Math.min(minY, this.y[node]);
+				maxY = Math.max(maxY, this.y[node]);
+			}
+			double[] coords = (maxX - minX) >= (maxY - minY) ? this.x : this.y;
+			int mid = from + size / 2;
+			select(coords, from, to - 1, mid);
+
+			int markA = this.nextMark++;
+			int markB = this.nextMark++;
+			for (int i = from; i < to; i++) {
+				this.side[this.cell[i]] = i < mid ? markA : markB;
+			}
+			int boundaryA = 0;
+			int boundaryB = 0;
+			for (int i = from; i < to; i++) {
+				int node = this.cell[i];
+				int otherMark = i < mid ? markB : markA;
+				if (isAdjacentTo(node, otherMark)) {
+					if (i < mid) {
+						boundaryA++;
+					} else {
+						boundaryB++;
+					}
+				}
+			}
+
+			// use the smaller boundary as separator, and move it to the end of the cell
+			int separatorMark = boundaryA <= boundaryB ? markA : markB;
+			int otherMark = separatorMark == markA ? markB : markA;
+			int separatorMarkFinal = this.nextMark++;
+			for (int i = from; i < to; i++) {
+				int node = this.cell[i];
+				if (this.side[node] == separatorMark && isAdjacentTo(node, otherMark)) {
+					this.side[node] = separatorMarkFinal;
+				}
+			}
+			int[] buffer = Arrays.copyOfRange(this.cell, from, to);
+			int writeA = from;
+			for (int node : buffer) {
+				if (this.side[node] == markA) {
+					this.cell[writeA++] = node;
+				}
+			}
+			int writeB = writeA;
+			for (int node : buffer) {
+				if (this.side[node] == markB) {
+					this.cell[writeB++] = node;
+				}
+			}
+			int write = writeB;
+			for (int node : buffer) {
+				if (this.side[node] == separatorMarkFinal) {
+					this.cell[write++] = node;
+				}
+			}
+
+			dissect(from, writeA);
+			dissect(writeA, writeB);
+			for (int i = writeB; i < to; i++) {
+				this.rank[this.cell[i]] = this.nextRank++;
+			}
+		}
+
+		private boolean isAdjacentTo(int node, int mark) {
+			for (int neighbour : this.neighbours[node]) {
+				if (this.side[neighbour] == mark) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		/**
+		 * Partially sorts <code>cell[left, right]</code> such that the node at position <code>k</code> is the one with
+		 * the k-th smallest coordinate, all nodes before have a smaller or equal and all after a larger or equal one.
+		 */
+		private void select(double[] coords, int left, int right, int k) {
+			while (right > left) {
+				double pivot = coords[this.cell[(left + right) >>> 1]];
+				int i = left;
+				int j = right;
+				while (i <= j) {
+					while (coords[this.cell[i]] < pivot) {
+						i++;
+					}
+					while (coords[this.cell[j]] > pivot) {
+						j--;
+					}
+					if (i <= j) {
+						int tmp = this.cell[i];
+						this.cell[i] = this.cell[j];
+						this.cell[j] = tmp;
+						i++;
+						j--;
+					}
+				}
+				if (k <= j) {
+					right = j;
+				} else if (k >= i) {
+					left = i;
+				} else {
+					return;
+				}
+			}
+		}
+	}
+
+	private static void add(int[][] ups, int[] upSizes, int node, int value) {
+		int[] up = ups[node];
+		int size = upSizes[node];
+		if (size == up.length) {
+			size = sortUnique(up, size);
+			if (size == up.length || size > up.length / 2) {
+				up = Arrays.copyOf(up, Math.max(4, up.length * 2));
+				ups[node] = up;
+			}
+		}
+		up[size++] = value;
+		upSizes[node] = size;
+	}
+
+	private static int sortUnique(int[] values, int size) {
+		Arrays.sort(values, 0, size);
+		int count = 0;
+		for (int i = 0; i < size; i++) {
+			if (count == 0 || values[count - 1] != values[i]) {
+				values[count++] = values[i];
+			}
+		}
+		return count;
+	}
+}
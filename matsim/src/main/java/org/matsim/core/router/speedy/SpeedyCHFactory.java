@@ -0,0 +1,231 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * SpeedyCHFactory.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.router.speedy;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.core.controler.IterationCounter;
+import org.matsim.core.population.PopulationUtils;
+import org.matsim.core.router.costcalculators.TravelDisutilityFactory;
+import org.matsim.core.router.util.LeastCostPathCalculator;
+import org.matsim.core.router.util.LeastCostPathCalculatorFactory;
+import org.matsim.core.router.util.TravelDisutility;
+import org.matsim.core.router.util.TravelTime;
+import org.matsim.utils.objectattributes.attributable.Attributes;
+import org.matsim.utils.objectattributes.attributable.AttributesImpl;
+import org.matsim.vehicles.Vehicle;
+import org.matsim.vehicles.VehicleType;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+/**
+ * Creates {@link SpeedyCH} instances. The contraction hierarchy is built once per network, and customized once per
+ * iteration (or only once, if there is no {@link IterationCounter}) for each combination of travel time and
+ * {@link TravelDisutilityFactory}. {@link org.matsim.core.router.NetworkRoutingProvider} creates its routers through
+ * {@link #createPathCalculator(Network, TravelDisutilityFactory, TravelTime)}, so all its routers of a mode share the
+ * same customization, even though each of them gets its own travel disutility. Callers only passing a travel
+ * disutility get one customization per travel disutility instance.
+ * <p>
+ * The customization evaluates the travel disutility without a person or vehicle, so it only works for travel
+ * disutilities that do not depend on them. Before customizing, the travel disutility is evaluated for a sample of links
+ * with and without a probe person and vehicle. If it fails without them, or returns different values, e.g. because
+ * <code>routing.routingRandomness</code> is not 0, {@link SpeedyALT} is used instead.
+ * <p>
+ * When a travel disutility factory is given, the time slices are customized in parallel, each block with its own
+ * travel disutility from the factory. A single travel disutility instance is not assumed to be thread-safe, and is
+ * thus only used to customize sequentially.
+ * <p>
+ * Networks with turn restrictions are not supported by the contraction hierarchy; {@link SpeedyALT} is used for them.
+ */
+@Singleton
+public class SpeedyCHFactory implements LeastCostPathCalculatorFactory {
+
+	private final static Logger LOG = LogManager.getLogger(SpeedyCHFactory.class);
+
+	public final static double DEFAULT_TIME_SLICE_SIZE = 3600.0;
+	public final static double DEFAULT_MAX_TIME = 30 * 3600.0;
+
+	private final static int PROBED_LINKS = 100;
+
+	@Inject(optional = true)
+	private IterationCounter iterationCounter;
+
+	private final double timeSliceSize;
+	private final int timeSliceCount;
+	private final Map<Network, SpeedyGraph> graphs = new HashMap<>();
+	private final Map<SpeedyGraph, SpeedyCHData> chData = new HashMap<>();
+	private final Map<MetricKey, CustomizedMetric> customizations = new HashMap<>();
+	private final SpeedyALTFactory fallbackFactory = new SpeedyALTFactory();
+	private boolean warnedAboutTurnRestrictions = false;
+	private boolean warnedAboutPersonDependency = false;
+
+	public SpeedyCHFactory() {
+		this(DEFAULT_TIME_SLICE_SIZE, DEFAULT_MAX_TIME);
+	}
+
+	/**
+	 * @param timeSliceSize the duration of a time slice with its own weights, in seconds
+	 * @param maxTime routes departing later use the weights of the last time slice
+	 */
+	public SpeedyCHFactory(double timeSliceSize, double maxTime) {
+		this.timeSliceSize = timeSliceSize;
+		this.timeSliceCount = Math.max(1, (int) Math.ceil(maxTime / timeSliceSize));
+	}
+
+	@Override
+	public synchronized LeastCostPathCalculator createPathCalculator(Network network, TravelDisutility travelCosts, TravelTime travelTimes) {
+		SpeedyGraph graph = getGraph(network);
+		if (graph == null) {
+			return this.fallbackFactory.createPathCalculator(network, travelCosts, travelTimes);
+		}
+		SpeedyCHData data = this.chData.computeIfAbsent(graph, SpeedyCHData::new);
+		CustomizedMetric metric = getMetric(new MetricKey(data, travelTimes, travelCosts), graph, () -> travelCosts,
+				() -> data.customize(travelCosts, this.timeSliceSize, this.timeSliceCount));
+		if (metric.customization == null) {
+			return this.fallbackFactory.createPathCalculator(network, travelCosts, travelTimes);
+		}
+		return new SpeedyCH(data, metric.customization, travelTimes, travelCosts);
+	}
+
+	@Override
+	public synchronized LeastCostPathCalculator createPathCalculator(Network network, TravelDisutilityFactory travelDisutilityFactory, TravelTime travelTimes) {
+		TravelDisutility travelCosts = travelDisutilityFactory.createTravelDisutility(travelTimes);
+		SpeedyGraph graph = getGraph(network);
+		if (graph == null) {
+			return this.fallbackFactory.createPathCalculator(network, travelCosts, travelTimes);
+		}
+		SpeedyCHData data = this.chData.computeIfAbsent(graph, SpeedyCHData::new);
+		CustomizedMetric metric = getMetric(new MetricKey(data, travelTimes, travelDisutilityFactory), graph, () -> travelCosts,
+				() -> data.customize(() -> travelDisutilityFactory.createTravelDisutility(travelTimes), this.timeSliceSize, this.timeSliceCount));
+		if (metric.customization == null) {
+			return this.fallbackFactory.createPathCalculator(network, travelCosts, travelTimes);
+		}
+		return new SpeedyCH(data, metric.customization, travelTimes, travelCosts);
+	}
+
+	/**
+	 * Returns the graph of the network, or <code>null</code> if the contraction hierarchy does not support it.
+	 */
+	private SpeedyGraph getGraph(Network network) {
+		SpeedyGraph graph = this.graphs.computeIfAbsent(network, SpeedyGraphBuilder::build);
+		if (graph.hasTurnRestrictions()) {
+			if (!this.warnedAboutTurnRestrictions) {
+				LOG.warn("SpeedyCH does not support turn restrictions, using SpeedyALT instead.");
+				this.warnedAboutTurnRestrictions = true;
+			}
+			return null;
+		}
+		return graph;
+	}
+
+	/**
+	 * Returns the customization of the current iteration for the given key, customizing if there is none yet. If the
+	 * travel disutility depends on the person or vehicle, the returned metric has no customization.
+	 */
+	private CustomizedMetric getMetric(MetricKey key, SpeedyGraph graph, Supplier<TravelDisutility> probedCosts, Supplier<SpeedyCHData.Customization> customizer) {
+		Integer iteration = this.iterationCounter == null ? null : this.iterationCounter.getIterationNumber();
+		// customizations of earlier iterations are not used anymore
+		this.customizations.values().removeIf(m -> !Objects.equals(m.iteration, iteration));
+		CustomizedMetric metric = this.customizations.get(key);
+		if (metric == null) {
+			if (dependsOnPersonOrVehicle(graph, probedCosts.get())) {
+				if (!this.warnedAboutPersonDependency) {
+					LOG.warn("SpeedyCH requires a travel disutility that does not depend on the person or the vehicle, e.g. routing.routingRandomness must be 0. Using SpeedyALT instead.");
+					this.warnedAboutPersonDependency = true;
+				}
+				metric = new CustomizedMetric(iteration, null);
+			} else {
+				metric = new CustomizedMetric(iteration, customizer.get());
+			}
+			this.customizations.put(key, metric);
+		}
+		return metric;
+	}
+
+	/**
+	 * Compares the travel disutility of some links with and without a person and vehicle. This cannot prove that the
+	 * travel disutility is independent of them, but catches the common cases like randomized travel disutilities.
+	 * The probe person and vehicle have no Ids, so that probing does not add to the global Id registries, and the probe
+	 * vehicle has no type; travel disutilities looking at them fail and are thus treated as dependent.
+	 */
+	private static boolean dependsOnPersonOrVehicle(SpeedyGraph graph, TravelDisutility travelCosts) {
+		Person person = PopulationUtils.getFactory().createPerson(null);
+		Vehicle vehicle = new ProbeVehicle();
+		int step = Math.max(1, graph.linkCount / PROBED_LINKS);
+		for (int i = 0; i < graph.linkCount; i += step) {
+			Link link = graph.getLink(i);
+			if (link == null) {
+				continue;
+			}
+			double time = 8 * 3600.0;
+			try {
+				double anonymous = travelCosts.getLinkTravelDisutility(link, time, null, null);
+				if (anonymous != travelCosts.getLinkTravelDisutility(link, time, person, vehicle)) {
+					return true;
+				}
+			} catch (RuntimeException e) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @param travelDisutility either the {@link TravelDisutility} or the {@link TravelDisutilityFactory}
+	 */
+	private record MetricKey(SpeedyCHData data, TravelTime travelTime, Object travelDisutility) {
+	}
+
+	/**
+	 * @param customization <code>null</code> if the travel disutility depends on the person or vehicle
+	 */
+	private record CustomizedMetric(Integer iteration, SpeedyCHData.Customization customization) {
+	}
+
+	private static final class ProbeVehicle implements Vehicle {
+		private final Attributes attributes = new AttributesImpl();
+
+		@Override
+		public Id<Vehicle> getId() {
+			return null;
+		}
+
+		@Override
+		public VehicleType getType() {
+			return null;
+		}
+
+		@Override
+		public Attributes getAttributes() {
+			return this.attributes;
+		}
+	}
+}
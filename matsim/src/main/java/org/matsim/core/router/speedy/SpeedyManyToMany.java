@@ -0,0 +1,220 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * SpeedyManyToMany.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.router.speedy;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.matsim.api.core.v01.network.Node;
+
+/**
+ * Computes matrices of least travel costs between many origin and destination nodes on a contraction hierarchy, see
+ * {@link SpeedyCHData}. This is typically used for zone-to-zone skims: for a travel time matrix, customize the
+ * hierarchy with a travel disutility that returns the travel time, e.g.
+ * {@link org.matsim.core.router.costcalculators.OnlyTimeDependentTravelDisutility}.
+ * <p>
+ * The algorithm is a restricted PHAST: the upward search spaces of all destinations are collected once and sorted by
+ * decreasing rank. For each origin, the upward search walks up the elimination tree, and a single linear sweep over the
+ * collected nodes then propagates the costs downwards to all destinations. The sweep reads the edges sequentially,
+ * so its costs hardly depend on the number of destinations, and no priority queue is needed at all.
+ * <p>
+ * The origins are distributed to several threads. The costs are those of the time slice of the given time, see
+ * {@link SpeedyCHData#customize}, so a matrix per time bin is computed by customizing with the time bins as time slices
+ * and calling {@link #calcLeastCostMatrix} once per time bin.
+ */
+public class SpeedyManyToMany {
+
+	private final static Logger LOG = LogManager.getLogger(SpeedyManyToMany.class);
+
+	private final SpeedyCHData data;
+	private final int numberOfThreads;
+
+	public SpeedyManyToMany(SpeedyCHData data, int numberOfThreads) {
+		this.data = data;
+		this.numberOfThreads = Math.max(1, numberOfThreads);
+	}
+
+	/**
+	 * Returns the least travel costs from each of the <code>fromNodes</code> (first index) to each of the
+	 * <code>toNodes</code> (second index), or {@link Float#POSITIVE_INFINITY} if a destination cannot be reached.
+	 */
+	public float[][] calcLeastCostMatrix(SpeedyCHData.Customization customization, Node[] fromNodes, Node[] toNodes, double time) {
+		long startTime = System.nanoTime();
+		int timeSlice = customization.getTimeSlice(time);
+		Sweep sweep = new Sweep(toNodes);
+		float[] up = customization.up[timeSlice];
+		float[] down = customization.down[timeSlice];
+		float[][] matrix = new float[fromNodes.length][];
+
+		AtomicInteger nextOrigin = new AtomicInteger(0);
+		AtomicReference<Throwable> exception = new AtomicReference<>();
+		Thread[] threads = new Thread[Math.min(this.numberOfThreads, Math.max(1, fromNodes.length))];
+		for (int t = 0; t < threads.length; t++) {
+			threads[t] = new Thread(() -> {
+				double[] upwardCost = new double[this.data.graph.nodeCount];
+				Arrays.fill(upwardCost, Double.POSITIVE_INFINITY);
+				double[] sweepCost = new double[sweep.nodes.length];
+				int origin;
+				while ((origin = nextOrigin.getAndIncrement()) < fromNodes.length && exception.get() == null) {
+					matrix[origin] = calcRow(fromNodes[origin].getId().index(), toNodes, sweep, up, down, upwardCost, sweepCost);
+				}
+			}, "SpeedyManyToMany-" + t);
+			threads[t].setUncaughtExceptionHandler((thread, e) -> exception.compareAndSet(null, e));
+			threads[t].start();
+		}
+		for (Thread thread : threads) {
+			try {
+				thread.join();
+			} catch (InterruptedException e) {
+				throw new RuntimeException(e);
+			}
+		}
+		if (exception.get() != null) {
+			throw new RuntimeException(exception.get());
+		}
+
+		LOG.info("Least cost matrix with " + fromNodes.length + " x " + toNodes.length + " entries calculated in " + (System.nanoTime() - startTime) / 1_000_000 + " ms.");
+		return matrix;
+	}
+
+	private float[] calcRow(int fromNode, Node[] toNodes, Sweep sweep, float[] up, float[] down, double[] upwardCost, double[] sweepCost) {
+		int[] upStart = this.data.upStart;
+		int[] upTarget = this.data.upTarget;
+		int[] parent = this.data.parent;
+
+		// upward search: all nodes reachable by upward edges are ancestors in the elimination tree
+		if (this.data.rank[fromNode] >= 0) {
+			upwardCost[fromNode] = 0;
+			for (int node = fromNode; node >= 0; node = parent[node]) {
+				double cost = upwardCost[node];
+				if (cost == Double.POSITIVE_INFINITY) {
+					continue;
+				}
+				for (int e = upStart[node]; e < upStart[node + 1]; e++) {
+					double newCost = cost + up[e];
+					int target = upTarget[e];
+					if (newCost < upwardCost[target]) {
+						upwardCost[target] = newCost;
+					}
+				}
+			}
+		}
+
+		// downward sweep over the search spaces of the destinations, from the highest to the lowest rank
+		int[] sweepNodes = sweep.nodes;
+		int[] edgeStart = sweep.edgeStart;
+		int[] edges = sweep.edges;
+		int[] edgeTargets = sweep.edgeTargets;
+		for (int i = 0; i < sweepNodes.length; i++) {
+			double cost = upwardCost[sweepNodes[i]];
+			for (int k = edgeStart[i]; k < edgeStart[i + 1]; k++) {
+				double newCost = sweepCost[edgeTargets[k]] + down[edges[k]];
+				if (newCost < cost) {
+					cost = newCost;
+				}
+			}
+			sweepCost[i] = cost;
+		}
+
+		float[] row = new float[toNodes.length];
+		for (int j = 0; j < toNodes.length; j++) {
+			int position = sweep.position[toNodes[j].getId().index()];
+			row[j] = position < 0 ? Float.POSITIVE_INFINITY : (float) sweepCost[position];
+		}
+
+		if (this.data.rank[fromNode] >= 0) {
+			for (int node = fromNode; node >= 0; node = parent[node]) {
+				upwardCost[node] = Double.POSITIVE_INFINITY;
+			}
+		}
+		return row;
+	}
+
+	/**
+	 * The union of the upward search spaces of the destinations, sorted by decreasing rank, with the upward edges of
+	 * each node. As the search spaces are the ancestors in the elimination tree, the union is closed under upward
+	 * edges, and the targets of the edges of a node are always before the node.
+	 */
+	private final class Sweep {
+		final int[] nodes;
+		final int[] position;
+		final int[] edgeStart;
+		final int[] edges;
+		final int[] edgeTargets;
+
+		Sweep(Node[] toNodes) {
+			SpeedyCHData data = SpeedyManyToMany.this.data;
+			int nodeCount = data.graph.nodeCount;
+			boolean[] selected = new boolean[nodeCount];
+			int count = 0;
+			for (Node toNode : toNodes) {
+				int node = toNode.getId().index();
+				if (data.rank[node] < 0) {
+					continue;
+				}
+				for (; node >= 0 && !selected[node]; node = data.parent[node]) {
+					selected[node] = true;
+					count++;
+				}
+			}
+
+			int[] byRank = new int[nodeCount];
+			Arrays.fill(byRank, -1);
+			for (int node = 0; node < nodeCount; node++) {
+				if (selected[node]) {
+					byRank[data.rank[node]] = node;
+				}
+			}
+			this.nodes = new int[count];
+			this.position = new int[nodeCount];
+			Arrays.fill(this.position, -1);
+			int i = 0;
+			int edgeCount = 0;
+			for (int r = nodeCount - 1; r >= 0; r--) {
+				int node = byRank[r];
+				if (node >= 0) {
+					this.nodes[i] = node;
+					this.position[node] = i;
+					i++;
+					edgeCount += data.upStart[node + 1] - data.upStart[node];
+				}
+			}
+
+			this.edgeStart = new int[count + 1];
+			this.edges = new int[edgeCount];
+			this.edgeTargets = new int[edgeCount];
+			int k = 0;
+			for (i = 0; i < count; i++) {
+				int node = this.nodes[i];
+				this.edgeStart[i] = k;
+				for (int e = data.upStart[node]; e < data.upStart[node + 1]; e++) {
+					this.edges[k] = e;
+					this.edgeTargets[k] = this.position[data.upTarget[e]];
+					k++;
+				}
+			}
+			this.edgeStart[count] = k;
+		}
+	}
+}
@@ -23,6 +23,7 @@ package org.matsim.core.router.util;
 import org.matsim.api.core.v01.network.Network;
 import org.matsim.core.api.internal.MatsimExtensionPoint;
 import org.matsim.core.api.internal.MatsimFactory;
+import org.matsim.core.router.costcalculators.TravelDisutilityFactory;
 
 /**
  * Example(s):<ul>
@@ -38,4 +39,13 @@ public interface LeastCostPathCalculatorFactory extends MatsimFactory, MatsimExt
 	
 	public LeastCostPathCalculator createPathCalculator(final Network network, final TravelDisutility travelCosts, final TravelTime travelTimes);
 
+	/**
+	 * Creates a path calculator with its own travel disutility from the given factory. Factories that preprocess the
+	 * travel disutility may override this to share the preprocessing between all path calculators created from the
+	 * same travel disutility factory.
+	 */
+	default LeastCostPathCalculator createPathCalculator(final Network network, final TravelDisutilityFactory travelDisutilityFactory, final TravelTime travelTimes) {
+		return createPathCalculator(network, travelDisutilityFactory.createTravelDisutility(travelTimes), travelTimes);
+	}
+
 }
@@ -106,6 +106,23 @@ public final class EventsToActivities implements ActivityStartEventHandler, Acti
         this.activityHandlers.add(activityHandler);
     }
 
+    /**
+     * Creates an instance for a part of the population. The activities are also passed to the handlers of this instance.
+     * As the partitions run on several threads, the handlers are only called while holding the given lock, so they are
+     * never called concurrently. The new instance is not finished automatically after the mobsim.
+     */
+    /* package */ EventsToActivities createPartition(Object handlerLock) {
+        EventsToActivities partition = new EventsToActivities();
+        partition.addActivityHandler(activity -> {
+            synchronized (handlerLock) {
+                for (ActivityHandler activityHandler : this.activityHandlers) {
+                    activityHandler.handleActivity(activity);
+                }
+            }
+        });
+        return partition;
+    }
+
     public void finish() {
         this.activities.forEach((id, activity) -> {
 			PersonExperiencedActivity personExperiencedActivity = new PersonExperiencedActivity(id, activity);
@@ -22,6 +22,7 @@ package org.matsim.core.scoring;
 import com.google.inject.Inject;
 import org.apache.logging.log4j.LogManager;
 import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.IdDoubleMap;
 import org.matsim.api.core.v01.IdMap;
 import org.matsim.api.core.v01.Scenario;
 import org.matsim.api.core.v01.events.*;
@@ -35,6 +36,7 @@ import org.matsim.core.api.experimental.events.TeleportationArrivalEvent;
 import org.matsim.core.api.experimental.events.VehicleArrivesAtFacilityEvent;
 import org.matsim.core.api.experimental.events.handler.TeleportationArrivalEventHandler;
 import org.matsim.core.api.experimental.events.handler.VehicleArrivesAtFacilityEventHandler;
+import org.matsim.core.events.handler.LinkEnterLeaveHandler;
 import org.matsim.core.gbl.Gbl;
 import org.matsim.core.population.PopulationUtils;
 import org.matsim.core.population.routes.NetworkRoute;
@@ -63,7 +65,7 @@ import java.util.Map;
  * @author michaz
  */
 public final class EventsToLegs
-		implements PersonDepartureEventHandler, PersonArrivalEventHandler, LinkEnterEventHandler,
+		implements PersonDepartureEventHandler, PersonArrivalEventHandler, LinkEnterLeaveHandler,
 		TeleportationArrivalEventHandler, TransitDriverStartsEventHandler, PersonEntersVehicleEventHandler,
 		VehicleArrivesAtFacilityEventHandler, VehicleEntersTrafficEventHandler, VehicleLeavesTrafficEventHandler {
 
@@ -132,8 +134,8 @@ public final class EventsToLegs
 
 	private final Map<Id<Person>, Leg> legs = new IdMap<>(Person.class);
 	private final Map<Id<Person>, List<Id<Link>>> experiencedRoutes = new IdMap<>(Person.class);
-	private final Map<Id<Person>, Double> relPosOnDepartureLinkPerPerson = new IdMap<>(Person.class);
-	private final Map<Id<Person>, Double> relPosOnArrivalLinkPerPerson = new IdMap<>(Person.class);
+	private final IdDoubleMap<Person> relPosOnDepartureLinkPerPerson = new IdDoubleMap<>(Person.class);
+	private final IdDoubleMap<Person> relPosOnArrivalLinkPerPerson = new IdDoubleMap<>(Person.class);
 
 	private final Map<Id<Person>, TeleportationArrivalEvent> routelessTravels = new IdMap<>(Person.class);
 	private final Map<Id<Person>, PendingTransitTravel> transitTravels = new IdMap<>(Person.class);
@@ -224,13 +226,17 @@ public final class EventsToLegs
 	}
 
 	@Override
-	public void handleEvent(LinkEnterEvent event) {
-		VehicleRoute route = vehicle2route.get(event.getVehicleId());
+	public void handleLinkEnter(double time, Id<Vehicle> vehicleId, Id<Link> linkId) {
+		VehicleRoute route = vehicle2route.get(vehicleId);
 		if (route != null) {
-			route.links.add(event.getLinkId());
+			route.links.add(linkId);
 		}
 	}
 
+	@Override
+	public void handleLinkLeave(double time, Id<Vehicle> vehicleId, Id<Link> linkId) {
+	}
+
 	@Override
 	public void handleEvent(VehicleLeavesTrafficEvent event) {
 		VehicleRoute route = vehicle2route.get(event.getVehicleId());
@@ -271,9 +277,10 @@ public final class EventsToLegs
 			 * to calculate the correct route distance including the first/last link.
 			 * (see MATSIM-227) tt feb'16
 			 */
+			Gbl.assertIf(relPosOnDepartureLinkPerPerson.containsKey(event.getPersonId()));
+			Gbl.assertIf(relPosOnArrivalLinkPerPerson.containsKey(event.getPersonId()));
 			double relPosOnDepartureLink = relPosOnDepartureLinkPerPerson.get(event.getPersonId());
-			Double relPosOnArrivalLink = relPosOnArrivalLinkPerPerson.get(event.getPersonId());
-			Gbl.assertNotNull(relPosOnArrivalLink);
+			double relPosOnArrivalLink = relPosOnArrivalLinkPerPerson.get(event.getPersonId());
 			networkRoute.setDistance(
 					RouteUtils.calcDistance(networkRoute, relPosOnDepartureLink, relPosOnArrivalLink, network));
 
@@ -356,4 +363,37 @@ public final class EventsToLegs
 	public void addLegHandler(LegHandler legHandler) {
 		this.legHandlers.add(legHandler);
 	}
+
+	/**
+	 * Creates an instance for a part of the population, with the same network and transit schedule. The legs are also
+	 * passed to the handlers of this instance. As the partitions run on several threads, the handlers are only called
+	 * while holding the given lock, so they are never called concurrently.
+	 */
+	/* package */ EventsToLegs createPartition(Object handlerLock) {
+		EventsToLegs partition = new EventsToLegs(this.network);
+		partition.transitSchedule = this.transitSchedule;
+		partition.addLegHandler(leg -> {
+			synchronized (handlerLock) {
+				for (LegHandler legHandler : this.legHandlers) {
+					legHandler.handleLeg(leg);
+				}
+			}
+		});
+		return partition;
+	}
+
+	/**
+	 * Starts to follow the route of a vehicle, replacing what was known about it so far. Used by a partition which did not
+	 * see the events of the vehicle while none of its persons were in it.
+	 *
+	 * @param linkId the link of the last link enter or vehicle enters traffic event of the vehicle, or <code>null</code>
+	 *                  if there was none
+	 */
+	/* package */ void startVehicleRoute(Id<Vehicle> vehicleId, Id<Link> linkId) {
+		VehicleRoute route = new VehicleRoute();
+		if (linkId != null) {
+			route.links.add(linkId);
+		}
+		vehicle2route.put(vehicleId, route);
+	}
 }
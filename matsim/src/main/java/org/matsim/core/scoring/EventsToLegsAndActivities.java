@@ -21,12 +21,16 @@
 
  package org.matsim.core.scoring;
 
+import org.matsim.api.core.v01.Id;
 import org.matsim.api.core.v01.events.*;
 import org.matsim.api.core.v01.events.handler.*;
+import org.matsim.api.core.v01.network.Link;
 import org.matsim.core.api.experimental.events.TeleportationArrivalEvent;
 import org.matsim.core.api.experimental.events.VehicleArrivesAtFacilityEvent;
 import org.matsim.core.api.experimental.events.handler.TeleportationArrivalEventHandler;
 import org.matsim.core.api.experimental.events.handler.VehicleArrivesAtFacilityEventHandler;
+import org.matsim.core.events.handler.LinkEnterLeaveHandler;
+import org.matsim.vehicles.Vehicle;
 
 import jakarta.inject.Inject;
 
@@ -36,7 +40,7 @@ import jakarta.inject.Inject;
  *
  * @author mrieser / Simunto GmbH
  */
-public class EventsToLegsAndActivities implements ActivityStartEventHandler, ActivityEndEventHandler, PersonDepartureEventHandler, PersonArrivalEventHandler, LinkEnterEventHandler,
+public class EventsToLegsAndActivities implements ActivityStartEventHandler, ActivityEndEventHandler, PersonDepartureEventHandler, PersonArrivalEventHandler, LinkEnterLeaveHandler,
 		TeleportationArrivalEventHandler, TransitDriverStartsEventHandler, PersonEntersVehicleEventHandler, VehicleArrivesAtFacilityEventHandler, VehicleEntersTrafficEventHandler, VehicleLeavesTrafficEventHandler {
 
 	private final EventsToLegs legsDelegate;
@@ -59,8 +63,12 @@ public class EventsToLegsAndActivities implements ActivityStartEventHandler, Act
 	}
 
 	@Override
-	public void handleEvent(LinkEnterEvent event) {
-		this.legsDelegate.handleEvent(event);
+	public void handleLinkEnter(double time, Id<Vehicle> vehicleId, Id<Link> linkId) {
+		this.legsDelegate.handleLinkEnter(time, vehicleId, linkId);
+	}
+
+	@Override
+	public void handleLinkLeave(double time, Id<Vehicle> vehicleId, Id<Link> linkId) {
 	}
 
 	@Override
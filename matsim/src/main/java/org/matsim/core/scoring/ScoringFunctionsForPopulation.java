@@ -34,12 +34,14 @@ import org.matsim.api.core.v01.events.LinkEnterEvent;
 import org.matsim.api.core.v01.events.PersonArrivalEvent;
 import org.matsim.api.core.v01.events.PersonDepartureEvent;
 import org.matsim.api.core.v01.events.PersonEntersVehicleEvent;
+import org.matsim.api.core.v01.events.PersonLeavesVehicleEvent;
 import org.matsim.api.core.v01.events.PersonMoneyEvent;
 import org.matsim.api.core.v01.events.PersonScoreEvent;
 import org.matsim.api.core.v01.events.PersonStuckEvent;
 import org.matsim.api.core.v01.events.TransitDriverStartsEvent;
 import org.matsim.api.core.v01.events.VehicleEntersTrafficEvent;
 import org.matsim.api.core.v01.events.VehicleLeavesTrafficEvent;
+import org.matsim.api.core.v01.network.Link;
 import org.matsim.api.core.v01.population.Activity;
 import org.matsim.api.core.v01.population.Leg;
 import org.matsim.api.core.v01.population.Person;
@@ -51,10 +53,12 @@ import org.matsim.core.api.experimental.events.VehicleArrivesAtFacilityEvent;
 import org.matsim.core.config.Config;
 import org.matsim.core.config.groups.ControllerConfigGroup;
 import org.matsim.core.controler.ControlerListenerManager;
+import org.matsim.core.controler.listener.AfterMobsimListener;
 import org.matsim.core.controler.listener.BeforeMobsimListener;
 import org.matsim.core.controler.listener.IterationStartsListener;
 import org.matsim.core.events.algorithms.Vehicle2DriverEventHandler;
 import org.matsim.core.events.handler.BasicEventHandler;
+import org.matsim.core.events.handler.LinkEnterLeaveHandler;
 import org.matsim.core.population.PopulationUtils;
 import org.matsim.core.router.StageActivityTypeIdentifier;
 import org.matsim.core.router.TripStructureUtils;
@@ -63,8 +67,12 @@ import org.matsim.vehicles.Vehicle;
 
 import java.io.BufferedWriter;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map.Entry;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.atomic.AtomicReference;
 
 import static org.matsim.core.router.TripStructureUtils.Trip;
@@ -73,11 +81,26 @@ import static org.matsim.core.router.TripStructureUtils.Trip;
  * This class helps EventsToScore by keeping ScoringFunctions for the entire Population - one per Person -, and dispatching Activities
  * and Legs to the ScoringFunctions. It also gives out the ScoringFunctions, so they can be given other events by EventsToScore.
  * It is not independently useful. Please do not make public.
+ * <p>
+ * If <code>scoring.numberOfScoringShards</code> is larger than 1, the persons are split into shards by their index. Each shard
+ * has its own {@link EventsToLegs} and {@link EventsToActivities}, and handles its events on its own thread. The events of a
+ * person are passed to its shard. The vehicle related events, which are needed to build the experienced routes, are only passed
+ * to the shards with persons in the vehicle and to the shard of its driver; a shard whose person enters a vehicle first gets the
+ * current link and transit route of the vehicle. As each shard sees the events of its persons in the same order as the serial
+ * version, the scores are the same. The legs and activities are passed to the handlers of the injected {@link EventsToLegs} and
+ * {@link EventsToActivities} from the shard threads, but never concurrently.
+ * <p>
+ * Link enter events are handled by their attributes, see {@link LinkEnterLeaveHandler}. With a single shard, the event object is
+ * only created if the scoring function of the driver handles events; with several shards, it is always created to pass it to the
+ * shards.
  *
  * @author michaz
  *
  */
- final class ScoringFunctionsForPopulation implements BasicEventHandler {
+ final class ScoringFunctionsForPopulation implements BasicEventHandler, LinkEnterLeaveHandler {
+
+	private static final int BATCH_SIZE = 1024;
+	private static final List<Event> END_OF_EVENTS = new ArrayList<>(0);
 
 	private final Population population;
 	private final ScoringFunctionFactory scoringFunctionFactory;
@@ -85,12 +108,10 @@ import static org.matsim.core.router.TripStructureUtils.Trip;
 	private final EventsToLegs legsDelegate;
 	private final EventsToActivities actsDelegate;
 
-	private final IdMap<Person, ScoringFunction> agentScorers = new IdMap<>(Person.class);
-	private final IdMap<Person, TDoubleCollection> partialScores = new IdMap<>(Person.class);
+	private final Shard[] shards;
+	private final IdMap<Vehicle, VehicleState> vehicleStates = new IdMap<>(Vehicle.class);
 	private final AtomicReference<Throwable> exception = new AtomicReference<>();
-	private final IdMap<Person, Plan> tripRecords = new IdMap<>(Person.class);
-
-	private final Vehicle2DriverEventHandler vehicles2Drivers = new Vehicle2DriverEventHandler();
+	private boolean shardsRunning = false;
 
 	@Inject
 	ScoringFunctionsForPopulation(ControlerListenerManager controlerListenerManager, EventsManager eventsManager, EventsToActivities eventsToActivities, EventsToLegs eventsToLegs,
@@ -110,149 +131,169 @@ import static org.matsim.core.router.TripStructureUtils.Trip;
 		this.actsDelegate = eventsToActivities;
 		this.scoringFunctionFactory = scoringFunctionFactory;
 
+		int shardCount = config.scoring().getNumberOfScoringShards();
+		this.shards = new Shard[shardCount];
+		if (shardCount == 1) {
+			this.shards[0] = new Shard(eventsToLegs, eventsToActivities);
+		} else {
+			Object handlerLock = new Object();
+			for (int i = 0; i < shardCount; i++) {
+				this.shards[i] = new Shard(eventsToLegs.createPartition(handlerLock), eventsToActivities.createPartition(handlerLock));
+			}
+			// the partitions are not finished by the injected EventsToActivities, so do it here once all events are handled
+			controlerListenerManager.addControlerListener((AfterMobsimListener) event -> {
+				stopShards();
+				Arrays.stream(this.shards).parallel().forEach(shard -> shard.actsDelegate.finish());
+			});
+		}
+
 		eventsManager.addHandler(this);
-		eventsToActivities.addActivityHandler(this::handleActivity);
-		eventsToLegs.addLegHandler(this::handleLeg);
+		for (Shard shard : this.shards) {
+			shard.actsDelegate.addActivityHandler(shard::handleActivity);
+			shard.legsDelegate.addLegHandler(shard::handleLeg);
+		}
 	}
 
 	private void init() {
 		for (Person person : this.population.getPersons().values()) {
-			this.agentScorers.put(person.getId(), this.scoringFunctionFactory.createNewScoringFunction(person ) );
-			this.partialScores.put(person.getId(), new TDoubleArrayList());
-			this.tripRecords.put(person.getId(), PopulationUtils.createPlan());
+			Shard shard = getShard(person.getId());
+			shard.agentScorers.put(person.getId(), this.scoringFunctionFactory.createNewScoringFunction(person ) );
+			shard.partialScores.put(person.getId(), new TDoubleArrayList());
+			shard.tripRecords.put(person.getId(), PopulationUtils.createPlan());
 		}
 	}
 
+	private Shard getShard(Id<Person> personId) {
+		return this.shards[getShardIndex(personId)];
+	}
+
+	private int getShardIndex(Id<Person> personId) {
+		return this.shards.length == 1 || personId == null ? 0 : personId.index() % this.shards.length;
+	}
+
 	@Override
 	public void handleEvent(Event o) {
-		// this is for the stuff that is directly based on events. note that this passes on _all_ person events, even those which are
-		// aggregated into legs and activities. for the time being, not all PersonEvents may "implement HasPersonId". link enter/leave events
-		// are NOT passed on, for performance reasons. kai/dominik, dec'12
-		if (o instanceof HasPersonId) {
-			ScoringFunction scoringFunction = getScoringFunctionForAgent(((HasPersonId) o).getPersonId());
-			if (scoringFunction != null) {
-				if (o instanceof PersonStuckEvent) {
-					scoringFunction.agentStuck(o.getTime());
-				} else if (o instanceof PersonMoneyEvent) {
-					scoringFunction.addMoney(((PersonMoneyEvent) o).getAmount());
-					// yy looking at this, I am a bit skeptic if it truly makes sense to not pass this additionally into the general events handling function below.
-					// A use case might be different utilities of money by money transaction type (e.g. toll, fare, reimbursement, ...).  kai, mar'17
-				} else if (o instanceof PersonScoreEvent) {
-					scoringFunction.addScore(((PersonScoreEvent) o).getAmount());
-				}
-				scoringFunction.handleEvent(o);
-				// passing this on in any case, see comment above.  kai, mar'17
+		if (this.shards.length == 1) {
+			this.shards[0].handleEvent(o);
+			return;
+		}
+		if (!this.shardsRunning) {
+			startShards();
+		}
+		if (o instanceof LinkEnterEvent e) {
+			VehicleState vehicle = getVehicleState(e.getVehicleId());
+			vehicle.linkId = e.getLinkId();
+			addToShards(vehicle, o, vehicle.driverShard);
+		} else if (o instanceof VehicleEntersTrafficEvent e) {
+			VehicleState vehicle = getVehicleState(e.getVehicleId());
+			vehicle.linkId = e.getLinkId();
+			vehicle.driverShard = getShardIndex(e.getPersonId());
+			addToShards(vehicle, o, vehicle.driverShard);
+		} else if (o instanceof VehicleLeavesTrafficEvent e) {
+			VehicleState vehicle = getVehicleState(e.getVehicleId());
+			addToShards(vehicle, o, getShardIndex(e.getPersonId()));
+			vehicle.driverShard = -1;
+		} else if (o instanceof TransitDriverStartsEvent e) {
+			VehicleState vehicle = getVehicleState(e.getVehicleId());
+			vehicle.transitDriverStarts = e;
+			vehicle.lastFacilityArrival = null;
+			addToShards(vehicle, o, -1);
+		} else if (o instanceof VehicleArrivesAtFacilityEvent e) {
+			VehicleState vehicle = getVehicleState(e.getVehicleId());
+			vehicle.lastFacilityArrival = e;
+			addToShards(vehicle, o, -1);
+		} else if (o instanceof PersonEntersVehicleEvent e) {
+			int shardIndex = getShardIndex(e.getPersonId());
+			VehicleState vehicle = getVehicleState(e.getVehicleId());
+			if (vehicle.personsPerShard[shardIndex]++ == 0) {
+				// the shard did not follow the vehicle while none of its persons were in it
+				this.shards[shardIndex].add(new VehicleStateEvent(e.getTime(), e.getVehicleId(), vehicle));
 			}
+			this.shards[shardIndex].add(o);
+		} else if (o instanceof PersonLeavesVehicleEvent e) {
+			int shardIndex = getShardIndex(e.getPersonId());
+			this.shards[shardIndex].add(o);
+			VehicleState vehicle = this.vehicleStates.get(e.getVehicleId());
+			if (vehicle != null && vehicle.personsPerShard[shardIndex] > 0) {
+				vehicle.personsPerShard[shardIndex]--;
+			}
+		} else if (o instanceof HasPersonId) {
+			getShard(((HasPersonId) o).getPersonId()).add(o);
 		}
+	}
 
-		// Establish and end connection between driver and vehicle
-		if (o instanceof VehicleEntersTrafficEvent) {
-			this.vehicles2Drivers.handleEvent((VehicleEntersTrafficEvent) o);
+	@Override
+	public void handleLinkEnter(double time, Id<Vehicle> vehicleId, Id<Link> linkId) {
+		if (this.shards.length == 1) {
+			this.shards[0].handleLinkEnter(time, vehicleId, linkId);
+		} else {
+			handleEvent(new LinkEnterEvent(time, vehicleId, linkId));
 		}
-		if (o instanceof VehicleLeavesTrafficEvent) {
-			this.vehicles2Drivers.handleEvent((VehicleLeavesTrafficEvent) o);
+	}
+
+	@Override
+	public void handleLinkLeave(double time, Id<Vehicle> vehicleId, Id<Link> linkId) {
+	}
+
+	private VehicleState getVehicleState(Id<Vehicle> vehicleId) {
+		VehicleState vehicle = this.vehicleStates.get(vehicleId);
+		if (vehicle == null) {
+			vehicle = new VehicleState(this.shards.length);
+			this.vehicleStates.put(vehicleId, vehicle);
 		}
+		return vehicle;
+	}
 
-		// Pass LinkEnterEvent to person scoring, required e.g. for bicycle where link attributes are observed in scoring
-		/*
-		 * (This shouldn't really be more expensive than passing the link events to the router: here, we have a map lookup
-		 * for agentId, there we have a map lookup for linkId. Should be somewhat similar in terms of average
-		 * computational complexity. In BetaTravelTest, 194sec w/ "false", 193sec w/ "true". However, the experienced
-		 * plans service in fact does the same thing, so we should be able to get away without having to do this twice.
-		 * kai, mar'17)
-		 */
-		if (o instanceof LinkEnterEvent) {
-			Id<Vehicle> vehicleId = ((LinkEnterEvent)o).getVehicleId();
-			Id<Person> driverId = this.vehicles2Drivers.getDriverOfVehicle(vehicleId);
-			ScoringFunction scoringFunction = getScoringFunctionForAgent( driverId );
-			// (this will NOT do the scoring function lookup twice since LinkEnterEvent is not an instance of HasPersonId.  kai, mar'17)
-			if (scoringFunction != null) {
-				scoringFunction.handleEvent(o);
+	/**
+	 * Passes a vehicle related event to the shards with persons in the vehicle, and to the given shard, if any.
+	 */
+	private void addToShards(VehicleState vehicle, Event event, int otherShard) {
+		int[] personsPerShard = vehicle.personsPerShard;
+		for (int i = 0; i < personsPerShard.length; i++) {
+			if (personsPerShard[i] > 0 || i == otherShard) {
+				this.shards[i].add(event);
 			}
 		}
-
-		/* Now also handle events for eventsToLegs and eventsToActivities.
-		 * This class deliberately only implements BasicEventHandler and not the individual event handlers required
-		 * by EventsToLegs and EventsToActivities to better control the order in which events are passed to scoring
-		 * functions. By handling the delegation here *after* having the events passed to scoringFunction.handleEvent()
-		 * makes sure that the corresponding event was already seen by a scoring function when the call to handleActivity(),
-		 * handleLeg() or handleTrip() is done.
-		 */
-		if (o instanceof ActivityStartEvent) this.handleActivityStart((ActivityStartEvent) o);
-		if (o instanceof ActivityEndEvent) this.actsDelegate.handleEvent((ActivityEndEvent) o);
-
-		if (o instanceof PersonDepartureEvent) this.legsDelegate.handleEvent((PersonDepartureEvent) o);
-		if (o instanceof PersonArrivalEvent) this.legsDelegate.handleEvent((PersonArrivalEvent) o);
-		if (o instanceof LinkEnterEvent) this.legsDelegate.handleEvent((LinkEnterEvent) o);
-		if (o instanceof TeleportationArrivalEvent) this.legsDelegate.handleEvent((TeleportationArrivalEvent) o);
-		if (o instanceof TransitDriverStartsEvent) this.legsDelegate.handleEvent((TransitDriverStartsEvent) o);
-		if (o instanceof PersonEntersVehicleEvent) this.legsDelegate.handleEvent((PersonEntersVehicleEvent) o);
-		if (o instanceof VehicleArrivesAtFacilityEvent) this.legsDelegate.handleEvent((VehicleArrivesAtFacilityEvent) o);
-		if (o instanceof VehicleEntersTrafficEvent) this.legsDelegate.handleEvent((VehicleEntersTrafficEvent) o);
-		if (o instanceof VehicleLeavesTrafficEvent) this.legsDelegate.handleEvent((VehicleLeavesTrafficEvent) o);
 	}
 
-	private void handleActivityStart(ActivityStartEvent event) {
-		this.actsDelegate.handleEvent(event);
-		if (!StageActivityTypeIdentifier.isStageActivity( event.getActType() ) ) {
-			this.callTripScoring(event);
+	private void startShards() {
+		for (int i = 0; i < this.shards.length; i++) {
+			Shard shard = this.shards[i];
+			shard.thread = new Thread(shard::run, "ScoringShard-" + i);
+			shard.thread.setDaemon(true);
+			shard.thread.start();
 		}
+		this.shardsRunning = true;
 	}
 
-	private void callTripScoring(ActivityStartEvent event) {
-		Plan plan = this.tripRecords.get(event.getPersonId()); // as container for trip
-		if (plan != null) {
-			// we are at a real activity, which is not the first one we see for this agent.  output the trip ...
-			Activity activity = PopulationUtils.createActivityFromLinkId(event.getActType(), event.getLinkId());
-			activity.setStartTime(event.getTime());
-			plan.addActivity(activity);
-			final List<Trip> trips = TripStructureUtils.getTrips(plan);
-			// yyyyyy should in principle only return one trip.  There are, however, situations where it returns two trips, in particular
-			// in conjunction with the minibus raptor.  Possibly something that has to do with not alternating between acts and legs.
-			// (To make matters worse, it passes on my local machine, but fails in jenkins.  Possibly, the byte buffer memory management
-			// in the minibus raptor implementation has issues--???) kai, sep'18
-
-			ScoringFunction scoringFunction = ScoringFunctionsForPopulation.this.getScoringFunctionForAgent(event.getPersonId());
-			for (Trip trip : trips) {
-				if (trip != null) {
-					scoringFunction.handleTrip(trip);
-				}
+	/**
+	 * Passes the remaining events to the shards, and waits until all of them are handled.
+	 */
+	private void stopShards() {
+		if (!this.shardsRunning) {
+			return;
+		}
+		for (Shard shard : this.shards) {
+			shard.flush();
+			shard.put(END_OF_EVENTS);
+		}
+		for (Shard shard : this.shards) {
+			try {
+				shard.thread.join();
+			} catch (InterruptedException e) {
+				throw new RuntimeException(e);
 			}
-
-			// ... and clean out the intermediate plan (which will remain in tripRecords).
-			plan.getPlanElements().clear();
+			shard.thread = null;
 		}
+		this.shardsRunning = false;
 	}
 
 	void handleLeg(PersonExperiencedLeg o) {
-		Id<Person> agentId = o.getAgentId();
-		Leg leg = o.getLeg();
-		ScoringFunction scoringFunction = ScoringFunctionsForPopulation.this.getScoringFunctionForAgent(agentId);
-		if (scoringFunction != null) {
-			scoringFunction.handleLeg(leg);
-			TDoubleCollection partialScoresForAgent = this.partialScores.get(agentId);
-			partialScoresForAgent.add(scoringFunction.getScore());
-		}
-		Plan plan = this.tripRecords.get( agentId ) ; // as container for trip
-		if ( plan!=null ) {
-			plan.addLeg( leg );
-		}
+		getShard(o.getAgentId()).handleLeg(o);
 	}
 
 	void handleActivity(PersonExperiencedActivity o) {
-		Id<Person> agentId = o.getAgentId();
-		Activity activity = o.getActivity();
-		ScoringFunction scoringFunction = ScoringFunctionsForPopulation.this.getScoringFunctionForAgent(agentId);
-		if (scoringFunction != null) {
-			scoringFunction.handleActivity(activity);
-			TDoubleCollection partialScoresForAgent = this.partialScores.get(agentId);
-			partialScoresForAgent.add(scoringFunction.getScore());
-		}
-
-		Plan plan = this.tripRecords.get( agentId ); // as container for trip
-		if ( plan!= null ) {
-			plan.addActivity( activity );
-		}
+		getShard(o.getAgentId()).handleActivity(o);
 	}
 
 	/**
@@ -266,10 +307,11 @@ import static org.matsim.core.router.TripStructureUtils.Trip;
 	 * @return The scoring function for the specified agent.
 	 */
 	ScoringFunction getScoringFunctionForAgent(final Id<Person> agentId) {
-		return this.agentScorers.get(agentId);
+		return getShard(agentId).agentScorers.get(agentId);
 	}
 
 	void finishScoringFunctions() {
+		stopShards();
 		// Rethrow an exception in a scoring function (user code) if there was one.
 		Throwable throwable = this.exception.get();
 		if (throwable != null) {
@@ -279,17 +321,23 @@ import static org.matsim.core.router.TripStructureUtils.Trip;
 				throw new RuntimeException(throwable);
 			}
 		}
-		for (ScoringFunction sf : this.agentScorers.values()) {
-			sf.finish();
-		}
-		for (Entry<Id<Person>, TDoubleCollection> entry : this.partialScores.entrySet()) {
-			entry.getValue().add(this.getScoringFunctionForAgent(entry.getKey()).getScore());
+		if (this.shards.length == 1) {
+			this.shards[0].finishScoringFunctions();
+		} else {
+			Arrays.stream(this.shards).parallel().forEach(Shard::finishScoringFunctions);
 		}
 	}
 
 	void writePartialScores(String iterationFilename) {
+		IdMap<Person, TDoubleCollection> partialScores = this.shards[0].partialScores;
+		if (this.shards.length > 1) {
+			partialScores = new IdMap<>(Person.class);
+			for (Shard shard : this.shards) {
+				partialScores.putAll(shard.partialScores);
+			}
+		}
 		try ( BufferedWriter out = IOUtils.getBufferedWriter(iterationFilename) ) {
-			for (Entry<Id<Person>, TDoubleCollection> entry : this.partialScores.entrySet()) {
+			for (Entry<Id<Person>, TDoubleCollection> entry : partialScores.entrySet()) {
 				out.write(entry.getKey().toString());
 				TDoubleIterator iterator = entry.getValue().iterator();
 				while (iterator.hasNext()) {
@@ -305,8 +353,288 @@ import static org.matsim.core.router.TripStructureUtils.Trip;
 
 	@Override
 	public void reset(int iteration) {
+		stopShards();
+		this.vehicleStates.clear();
 		this.legsDelegate.reset(iteration);
 		this.actsDelegate.reset(iteration);
+		if (this.shards.length > 1) {
+			for (Shard shard : this.shards) {
+				shard.legsDelegate.reset(iteration);
+				shard.actsDelegate.reset(iteration);
+			}
+		}
+	}
+
+	/**
+	 * What the dispatching needs to know about a vehicle in sharded mode.
+	 */
+	private static final class VehicleState {
+		private final int[] personsPerShard;
+		private int driverShard = -1;
+		private Id<Link> linkId = null;
+		private TransitDriverStartsEvent transitDriverStarts = null;
+		private VehicleArrivesAtFacilityEvent lastFacilityArrival = null;
+
+		private VehicleState(int shardCount) {
+			this.personsPerShard = new int[shardCount];
+		}
+	}
+
+	/**
+	 * Passes the current state of a vehicle to a shard, before a person of that shard enters the vehicle. Only used within
+	 * this class, and never passed to scoring functions.
+	 */
+	private static final class VehicleStateEvent extends Event {
+		private final Id<Vehicle> vehicleId;
+		private final Id<Link> linkId;
+		private final TransitDriverStartsEvent transitDriverStarts;
+		private final VehicleArrivesAtFacilityEvent lastFacilityArrival;
+
+		private VehicleStateEvent(double time, Id<Vehicle> vehicleId, VehicleState vehicle) {
+			super(time);
+			this.vehicleId = vehicleId;
+			this.linkId = vehicle.linkId;
+			this.transitDriverStarts = vehicle.transitDriverStarts;
+			this.lastFacilityArrival = vehicle.lastFacilityArrival;
+		}
+
+		@Override
+		public String getEventType() {
+			return "scoringVehicleState";
+		}
+	}
+
+	/**
+	 * The scoring functions and experienced plan builders of a part of the population.
+	 */
+	private final class Shard {
+
+		private final EventsToLegs legsDelegate;
+		private final EventsToActivities actsDelegate;
+
+		private final IdMap<Person, ScoringFunction> agentScorers = new IdMap<>(Person.class);
+		private final IdMap<Person, TDoubleCollection> partialScores = new IdMap<>(Person.class);
+		private final IdMap<Person, Plan> tripRecords = new IdMap<>(Person.class);
+
+		private final Vehicle2DriverEventHandler vehicles2Drivers = new Vehicle2DriverEventHandler();
+
+		private final BlockingQueue<List<Event>> queue = new ArrayBlockingQueue<>(16);
+		private List<Event> batch = new ArrayList<>(BATCH_SIZE);
+		private Thread thread;
+
+		private Shard(EventsToLegs legsDelegate, EventsToActivities actsDelegate) {
+			this.legsDelegate = legsDelegate;
+			this.actsDelegate = actsDelegate;
+		}
+
+		private void add(Event event) {
+			this.batch.add(event);
+			if (this.batch.size() == BATCH_SIZE) {
+				flush();
+			}
+		}
+
+		private void flush() {
+			if (!this.batch.isEmpty()) {
+				put(this.batch);
+				this.batch = new ArrayList<>(BATCH_SIZE);
+			}
+		}
+
+		private void put(List<Event> events) {
+			try {
+				this.queue.put(events);
+			} catch (InterruptedException e) {
+				throw new RuntimeException(e);
+			}
+		}
+
+		private void run() {
+			try {
+				while (true) {
+					List<Event> events = this.queue.take();
+					if (events == END_OF_EVENTS) {
+						return;
+					}
+					// after an exception, keep taking the events so the events handling thread does not block
+					if (exception.get() == null) {
+						try {
+							for (Event event : events) {
+								handleEvent(event);
+							}
+						} catch (Throwable t) {
+							exception.compareAndSet(null, t);
+						}
+					}
+				}
+			} catch (InterruptedException e) {
+				exception.compareAndSet(null, e);
+			}
+		}
+
+		private void handleEvent(Event o) {
+			if (o instanceof VehicleStateEvent e) {
+				if (e.transitDriverStarts != null) {
+					this.legsDelegate.handleEvent(e.transitDriverStarts);
+					if (e.lastFacilityArrival != null) {
+						this.legsDelegate.handleEvent(e.lastFacilityArrival);
+					}
+				} else {
+					this.legsDelegate.startVehicleRoute(e.vehicleId, e.linkId);
+				}
+				return;
+			}
+			// this is for the stuff that is directly based on events. note that this passes on _all_ person events, even those which are
+			// aggregated into legs and activities. for the time being, not all PersonEvents may "implement HasPersonId". link enter/leave events
+			// are NOT passed on, for performance reasons. kai/dominik, dec'12
+			if (o instanceof HasPersonId) {
+				ScoringFunction scoringFunction = this.agentScorers.get(((HasPersonId) o).getPersonId());
+				if (scoringFunction != null) {
+					if (o instanceof PersonStuckEvent) {
+						scoringFunction.agentStuck(o.getTime());
+					} else if (o instanceof PersonMoneyEvent) {
+						scoringFunction.addMoney(((PersonMoneyEvent) o).getAmount());
+						// yy looking at this, I am a bit skeptic if it truly makes sense to not pass this additionally into the general events handling function below.
+						// A use case might be different utilities of money by money transaction type (e.g. toll, fare, reimbursement, ...).  kai, mar'17
+					} else if (o instanceof PersonScoreEvent) {
+						scoringFunction.addScore(((PersonScoreEvent) o).getAmount());
+					}
+					scoringFunction.handleEvent(o);
+					// passing this on in any case, see comment above.  kai, mar'17
+				}
+			}
+
+			// Establish and end connection between driver and vehicle
+			if (o instanceof VehicleEntersTrafficEvent) {
+				this.vehicles2Drivers.handleEvent((VehicleEntersTrafficEvent) o);
+			}
+			if (o instanceof VehicleLeavesTrafficEvent) {
+				this.vehicles2Drivers.handleEvent((VehicleLeavesTrafficEvent) o);
+			}
+
+			// Pass LinkEnterEvent to person scoring, required e.g. for bicycle where link attributes are observed in scoring
+			/*
+			 * (This shouldn't really be more expensive than passing the link events to the router: here, we have a map lookup
+			 * for agentId, there we have a map lookup for linkId. Should be somewhat similar in terms of average
+			 * computational complexity. In BetaTravelTest, 194sec w/ "false", 193sec w/ "true". However, the experienced
+			 * plans service in fact does the same thing, so we should be able to get away without having to do this twice.
+			 * kai, mar'17)
+			 */
+			if (o instanceof LinkEnterEvent) {
+				Id<Vehicle> vehicleId = ((LinkEnterEvent)o).getVehicleId();
+				Id<Person> driverId = this.vehicles2Drivers.getDriverOfVehicle(vehicleId);
+				ScoringFunction scoringFunction = this.agentScorers.get( driverId );
+				// (this will NOT do the scoring function lookup twice since LinkEnterEvent is not an instance of HasPersonId.  kai, mar'17)
+				if (scoringFunction != null) {
+					scoringFunction.handleEvent(o);
+				}
+			}
+
+			/* Now also handle events for eventsToLegs and eventsToActivities.
+			 * This class deliberately only implements BasicEventHandler and not the individual event handlers required
+			 * by EventsToLegs and EventsToActivities to better control the order in which events are passed to scoring
+			 * functions. By handling the delegation here *after* having the events passed to scoringFunction.handleEvent()
+			 * makes sure that the corresponding event was already seen by a scoring function when the call to handleActivity(),
+			 * handleLeg() or handleTrip() is done.
+			 */
+			if (o instanceof ActivityStartEvent) this.handleActivityStart((ActivityStartEvent) o);
+			if (o instanceof ActivityEndEvent) this.actsDelegate.handleEvent((ActivityEndEvent) o);
+
+			if (o instanceof PersonDepartureEvent) this.legsDelegate.handleEvent((PersonDepartureEvent) o);
+			if (o instanceof PersonArrivalEvent) this.legsDelegate.handleEvent((PersonArrivalEvent) o);
+			if (o instanceof LinkEnterEvent) this.legsDelegate.handleEvent((LinkEnterEvent) o);
+			if (o instanceof TeleportationArrivalEvent) this.legsDelegate.handleEvent((TeleportationArrivalEvent) o);
+			if (o instanceof TransitDriverStartsEvent) this.legsDelegate.handleEvent((TransitDriverStartsEvent) o);
+			if (o instanceof PersonEntersVehicleEvent) this.legsDelegate.handleEvent((PersonEntersVehicleEvent) o);
+			if (o instanceof VehicleArrivesAtFacilityEvent) this.legsDelegate.handleEvent((VehicleArrivesAtFacilityEvent) o);
+			if (o instanceof VehicleEntersTrafficEvent) this.legsDelegate.handleEvent((VehicleEntersTrafficEvent) o);
+			if (o instanceof VehicleLeavesTrafficEvent) this.legsDelegate.handleEvent((VehicleLeavesTrafficEvent) o);
+		}
+
+		/**
+		 * Same as {@link #handleEvent(Event)} for a {@link LinkEnterEvent}, but only creates the event object if the scoring function
+		 * of the driver handles events.
+		 */
+		private void handleLinkEnter(double time, Id<Vehicle> vehicleId, Id<Link> linkId) {
+			Id<Person> driverId = this.vehicles2Drivers.getDriverOfVehicle(vehicleId);
+			ScoringFunction scoringFunction = this.agentScorers.get( driverId );
+			if (scoringFunction != null && !(scoringFunction instanceof SumScoringFunction sum && !sum.handlesEvents())) {
+				scoringFunction.handleEvent(new LinkEnterEvent(time, vehicleId, linkId));
+			}
+			this.legsDelegate.handleLinkEnter(time, vehicleId, linkId);
+		}
+
+		private void handleActivityStart(ActivityStartEvent event) {
+			this.actsDelegate.handleEvent(event);
+			if (!StageActivityTypeIdentifier.isStageActivity( event.getActType() ) ) {
+				this.callTripScoring(event);
+			}
+		}
+
+		private void callTripScoring(ActivityStartEvent event) {
+			Plan plan = this.tripRecords.get(event.getPersonId()); // as container for trip
+			if (plan != null) {
+				// we are at a real activity, which is not the first one we see for this agent.  output the trip ...
+				Activity activity = PopulationUtils.createActivityFromLinkId(event.getActType(), event.getLinkId());
+				activity.setStartTime(event.getTime());
+				plan.addActivity(activity);
+				final List<Trip> trips = TripStructureUtils.getTrips(plan);
+				// yyyyyy should in principle only return one trip.  There are, however, situations where it returns two trips, in particular
+				// in conjunction with the minibus raptor.  Possibly something that has to do with not alternating between acts and legs.
+				// (To make matters worse, it passes on my local machine, but fails in jenkins.  Possibly, the byte buffer memory management
+				// in the minibus raptor implementation has issues--???) kai, sep'18
+
+				ScoringFunction scoringFunction = this.agentScorers.get(event.getPersonId());
+				for (Trip trip : trips) {
+					if (trip != null) {
+						scoringFunction.handleTrip(trip);
+					}
+				}
+
+				// ... and clean out the intermediate plan (which will remain in tripRecords).
+				plan.getPlanElements().clear();
+			}
+		}
+
+		private void handleLeg(PersonExperiencedLeg o) {
+			Id<Person> agentId = o.getAgentId();
+			Leg leg = o.getLeg();
+			ScoringFunction scoringFunction = this.agentScorers.get(agentId);
+			if (scoringFunction != null) {
+				scoringFunction.handleLeg(leg);
+				TDoubleCollection partialScoresForAgent = this.partialScores.get(agentId);
+				partialScoresForAgent.add(scoringFunction.getScore());
+			}
+			Plan plan = this.tripRecords.get( agentId ) ; // as container for trip
+			if ( plan!=null ) {
+				plan.addLeg( leg );
+			}
+		}
+
+		private void handleActivity(PersonExperiencedActivity o) {
+			Id<Person> agentId = o.getAgentId();
+			Activity activity = o.getActivity();
+			ScoringFunction scoringFunction = this.agentScorers.get(agentId);
+			if (scoringFunction != null) {
+				scoringFunction.handleActivity(activity);
+				TDoubleCollection partialScoresForAgent = this.partialScores.get(agentId);
+				partialScoresForAgent.add(scoringFunction.getScore());
+			}
+
+			Plan plan = this.tripRecords.get( agentId ); // as container for trip
+			if ( plan!= null ) {
+				plan.addActivity( activity );
+			}
+		}
+
+		private void finishScoringFunctions() {
+			for (ScoringFunction sf : this.agentScorers.values()) {
+				sf.finish();
+			}
+			for (Entry<Id<Person>, TDoubleCollection> entry : this.partialScores.entrySet()) {
+				entry.getValue().add(this.agentScorers.get(entry.getKey()).getScore());
+			}
+		}
 	}
 
 }
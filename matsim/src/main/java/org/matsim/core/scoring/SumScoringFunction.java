@@ -158,6 +158,13 @@ public final class SumScoringFunction implements ScoringFunction {
 		}
 	}
 
+	/**
+	 * @return whether {@link #handleEvent(Event)} passes events on at all, i.e. whether an {@link ArbitraryEventScoring} was added
+	 */
+	boolean handlesEvents() {
+		return !this.arbitraryEventScoringFunctions.isEmpty();
+	}
+
 	@Override
 	public void finish() {
 		for (BasicScoring basicScoringFunction : this.basicScoringFunctions) {
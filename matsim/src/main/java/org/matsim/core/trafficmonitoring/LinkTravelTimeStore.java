@@ -0,0 +1,354 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * LinkTravelTimeStore.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.trafficmonitoring;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.IdSet;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.core.router.util.TravelTime;
+import org.matsim.core.utils.io.IOUtils;
+import org.matsim.vehicles.Vehicle;
+
+/**
+ * Stores the travel times of all links per time bin as <code>float</code>s, in large arrays indexed by
+ * {@link Id#index()} and time bin instead of one object per link. The arrays are split into chunks of at most
+ * {@link #MAX_CHUNK_SIZE} values, and may be allocated off-heap, so large networks with small time bins do not need
+ * a huge heap.
+ * <p>
+ * While travel times are collected, the number of travel times per bin is kept in a <code>char</code>, i.e. 6 bytes per
+ * link and time bin instead of 8 bytes in {@link TravelTimeDataArray}. The count saturates at 65535, later travel
+ * times are weighted as the 65536th. A store that was read from a file needs only 4 bytes per link and time bin.
+ * <p>
+ * Travel times can be written to a binary file, e.g. at the end of an iteration by {@link TravelTimeCalculator}, and
+ * read again by a later run, without replaying the events. The file may be compressed, depending on its extension.
+ * Layout (big endian):
+ * <pre>
+ * file := MAGIC:long VERSION:int timeSlice:double slotCount:int linkCount:int link*
+ * link := linkId:modifiedUtf8 travelTime:float[slotCount]
+ * </pre>
+ * Negative travel times mark time bins without any observation. For these, the free speed travel time is returned.
+ * <p>
+ * Travel times are only written while the events are handled. Reading never writes, not even the free speed travel
+ * time of empty time bins, so routers may read concurrently. Chunks are published by replacing the (volatile) chunk
+ * arrays, so readers never see a partially initialized chunk.
+ */
+public final class LinkTravelTimeStore implements TravelTime {
+
+	public static final long MAGIC = 0x4D4154534C4E4B54L; // "MATSLNKT"
+	public static final int VERSION = 1;
+
+	static final int MAX_CHUNK_SIZE = 1 << 24;
+	private static final float NO_TRAVEL_TIME = -1.0f;
+	private static final char MAX_COUNT = Character.MAX_VALUE;
+
+	private final double timeSlice;
+	private final int numSlots;
+	private final boolean offHeap;
+	private final int linksPerChunk;
+
+	private volatile FloatBuffer[] travelTimes = new FloatBuffer[0];
+	private volatile CharBuffer[] counts = new CharBuffer[0];
+	private final IdSet<Link> links = new IdSet<>(Link.class);
+
+	/**
+	 * @param timeSlice the size of the time bins in seconds
+	 * @param numSlots  the number of time bins; times after the last bin use the last one
+	 * @param offHeap   whether the arrays are allocated outside of the Java heap
+	 */
+	public LinkTravelTimeStore(double timeSlice, int numSlots, boolean offHeap) {
+		if (!(timeSlice > 0) || numSlots < 1) {
+			throw new IllegalArgumentException("invalid time bins: timeSlice=" + timeSlice + ", numSlots=" + numSlots);
+		}
+		this.timeSlice = timeSlice;
+		this.numSlots = numSlots;
+		this.offHeap = offHeap;
+		this.linksPerChunk = Math.max(1, MAX_CHUNK_SIZE / numSlots);
+	}
+
+	public double getTimeSlice() {
+		return this.timeSlice;
+	}
+
+	public int getNumSlots() {
+		return this.numSlots;
+	}
+
+	public int getTimeSlot(double time) {
+		return TimeBinUtils.getTimeBinIndex(time, this.timeSlice, this.numSlots);
+	}
+
+	/**
+	 * @return the links for which travel times have been collected or read
+	 */
+	public IdSet<Link> getLinkIds() {
+		return this.links;
+	}
+
+	/**
+	 * @return the travel time of the link in the time bin, or a negative value if there is none
+	 */
+	public double getTravelTime(Id<Link> linkId, int timeSlot) {
+		return getTravelTime(linkId.index(), timeSlot);
+	}
+
+	double getTravelTime(int linkIndex, int timeSlot) {
+		int chunk = linkIndex / this.linksPerChunk;
+		FloatBuffer[] travelTimes = this.travelTimes;
+		if (chunk >= travelTimes.length || travelTimes[chunk] == null) {
+			return NO_TRAVEL_TIME;
+		}
+		return travelTimes[chunk].get(position(linkIndex, timeSlot));
+	}
+
+	@Override
+	public double getLinkTravelTime(Link link, double time, Person person, Vehicle vehicle) {
+		double travelTime = getTravelTime(link.getId().index(), getTimeSlot(time));
+		if (travelTime >= 0.0) {
+			return travelTime;
+		}
+		return link.getLength() / link.getFreespeed(time);
+	}
+
+	/**
+	 * Sets the travel time as if it was the only one observed in the time bin.
+	 */
+	public void setTravelTime(Id<Link> linkId, int timeSlot, double travelTime) {
+		int linkIndex = linkId.index();
+		int position = position(linkIndex, timeSlot);
+		getOrCreateTravelTimes(linkIndex).put(position, (float) travelTime);
+		getOrCreateCounts(linkIndex).put(position, (char) 1);
+	}
+
+	void addTravelTime(int linkIndex, int timeSlot, double travelTime) {
+		int position = position(linkIndex, timeSlot);
+		FloatBuffer travelTimes = getOrCreateTravelTimes(linkIndex);
+		CharBuffer counts = getOrCreateCounts(linkIndex);
+		int count = counts.get(position);
+		double sum = count == 0 ? 0.0 : travelTimes.get(position) * (double) count;
+		int newCount = Math.min(count + 1, MAX_COUNT);
+		travelTimes.put(position, (float) ((sum + travelTime) / (count + 1)));
+		counts.put(position, (char) newCount);
+	}
+
+	void resetTravelTimes(int linkIndex) {
+		int chunk = linkIndex / this.linksPerChunk;
+		if (chunk < this.travelTimes.length && this.travelTimes[chunk] != null) {
+			int start = position(linkIndex, 0);
+			for (int i = start; i < start + this.numSlots; i++) {
+				this.travelTimes[chunk].put(i, NO_TRAVEL_TIME);
+			}
+			if (chunk < this.counts.length && this.counts[chunk] != null) {
+				for (int i = start; i < start + this.numSlots; i++) {
+					this.counts[chunk].put(i, (char) 0);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Removes all travel times, but keeps the allocated memory.
+	 */
+	public void reset() {
+		for (int chunk = 0; chunk < this.travelTimes.length; chunk++) {
+			if (this.travelTimes[chunk] != null) {
+				FloatBuffer travelTimes = this.travelTimes[chunk];
+				for (int i = 0; i < travelTimes.capacity(); i++) {
+					travelTimes.put(i, NO_TRAVEL_TIME);
+				}
+			}
+			if (chunk < this.counts.length && this.counts[chunk] != null) {
+				CharBuffer counts = this.counts[chunk];
+				for (int i = 0; i < counts.capacity(); i++) {
+					counts.put(i, (char) 0);
+				}
+			}
+		}
+		this.links.clear();
+	}
+
+	/**
+	 * @return a view on the travel times of the link, used by {@link TravelTimeCalculator} instead of a
+	 * {@link TravelTimeDataArray}
+	 */
+	TravelTimeData createTravelTimeData(Link link) {
+		return new LinkData(link);
+	}
+
+	private int position(int linkIndex, int timeSlot) {
+		return (linkIndex % this.linksPerChunk) * this.numSlots + timeSlot;
+	}
+
+	private FloatBuffer getOrCreateTravelTimes(int linkIndex) {
+		int chunk = linkIndex / this.linksPerChunk;
+		this.links.add(Id.get(linkIndex, Link.class));
+		FloatBuffer travelTimes = chunk < this.travelTimes.length ? this.travelTimes[chunk] : null;
+		if (travelTimes == null) {
+			int size = this.linksPerChunk * this.numSlots;
+			travelTimes = this.offHeap ? ByteBuffer.allocateDirect(size * Float.BYTES).order(ByteOrder.nativeOrder()).asFloatBuffer()
+					: FloatBuffer.allocate(size);
+			for (int i = 0; i < size; i++) {
+				travelTimes.put(i, NO_TRAVEL_TIME);
+			}
+			// publish the initialized chunk with a new array
+			FloatBuffer[] chunks = Arrays.copyOf(this.travelTimes, Math.max(this.travelTimes.length, chunk + 1));
+			chunks[chunk] = travelTimes;
+			this.travelTimes = chunks;
+		}
+		return travelTimes;
+	}
+
+	private CharBuffer getOrCreateCounts(int linkIndex) {
+		int chunk = linkIndex / this.linksPerChunk;
+		CharBuffer counts = chunk < this.counts.length ? this.counts[chunk] : null;
+		if (counts == null) {
+			int size = this.linksPerChunk * this.numSlots;
+			// freshly allocated buffers are zeroed
+			counts = this.offHeap ? ByteBuffer.allocateDirect(size * Character.BYTES).order(ByteOrder.nativeOrder()).asCharBuffer()
+					: CharBuffer.allocate(size);
+			CharBuffer[] chunks = Arrays.copyOf(this.counts, Math.max(this.counts.length, chunk + 1));
+			chunks[chunk] = counts;
+			this.counts = chunks;
+		}
+		return counts;
+	}
+
+	/**
+	 * Writes the travel times of all links with travel times.
+	 */
+	public void write(String filename) {
+		write(filename, this.timeSlice, this.numSlots, this.links, this::getTravelTime);
+	}
+
+	/**
+	 * Writes travel times in the format of this class without creating a store first.
+	 */
+	static void write(String filename, double timeSlice, int numSlots, IdSet<Link> linkIds, SlotTravelTimes travelTimes) {
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(IOUtils.getOutputStream(IOUtils.getFileUrl(filename), false), 1 << 16))) {
+			out.writeLong(MAGIC);
+			out.writeInt(VERSION);
+			out.writeDouble(timeSlice);
+			out.writeInt(numSlots);
+			out.writeInt(linkIds.size());
+			for (Id<Link> linkId : linkIds) {
+				out.writeUTF(linkId.toString());
+				int linkIndex = linkId.index();
+				for (int slot = 0; slot < numSlots; slot++) {
+					out.writeFloat((float) travelTimes.getTravelTime(linkIndex, slot));
+				}
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	public static LinkTravelTimeStore read(String filename) {
+		return read(IOUtils.resolveFileOrResource(filename), false);
+	}
+
+	/**
+	 * Reads travel times written by {@link #write}. Links which are not yet known are created as {@link Id}s.
+	 */
+	public static LinkTravelTimeStore read(URL url, boolean offHeap) {
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(IOUtils.getInputStream(url), 1 << 16))) {
+			long magic = in.readLong();
+			int version = in.readInt();
+			if (magic != MAGIC) {
+				throw new IllegalArgumentException(url + " is not a binary MATSim link travel times file.");
+			}
+			if (version != VERSION) {
+				throw new IllegalArgumentException("Unsupported version " + version + " of binary link travel times in " + url);
+			}
+			double timeSlice = in.readDouble();
+			int numSlots = in.readInt();
+			int linkCount = in.readInt();
+			LinkTravelTimeStore store = new LinkTravelTimeStore(timeSlice, numSlots, offHeap);
+			for (int l = 0; l < linkCount; l++) {
+				int linkIndex = Id.createLinkId(in.readUTF()).index();
+				FloatBuffer travelTimes = store.getOrCreateTravelTimes(linkIndex);
+				int start = store.position(linkIndex, 0);
+				for (int slot = 0; slot < numSlots; slot++) {
+					travelTimes.put(start + slot, in.readFloat());
+				}
+			}
+			return store;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	@FunctionalInterface
+	interface SlotTravelTimes {
+		double getTravelTime(int linkIndex, int timeSlot);
+	}
+
+	/**
+	 * The travel times of one link, as seen by {@link TravelTimeCalculator}. Only holds the link, the travel times are in
+	 * the store.
+	 */
+	private final class LinkData extends TravelTimeData {
+		private final Link link;
+		private final int linkIndex;
+
+		LinkData(Link link) {
+			this.link = link;
+			this.linkIndex = link.getId().index();
+		}
+
+		@Override
+		public void resetTravelTimes() {
+			LinkTravelTimeStore.this.resetTravelTimes(this.linkIndex);
+		}
+
+		@Override
+		void addTravelTime(int timeSlot, double traveltime) {
+			LinkTravelTimeStore.this.addTravelTime(this.linkIndex, timeSlot, traveltime);
+		}
+
+		@Override
+		void setTravelTime(int timeSlot, double traveltime) {
+			LinkTravelTimeStore.this.setTravelTime(this.link.getId(), timeSlot, traveltime);
+		}
+
+		@Override
+		double getTravelTime(int timeSlot, double now) {
+			double travelTime = LinkTravelTimeStore.this.getTravelTime(this.linkIndex, timeSlot);
+			if (travelTime >= 0.0) {
+				return travelTime;
+			}
+			// unlike TravelTimeDataArray, the free speed travel time is not remembered, so reading stays read-only
+			return this.link.getLength() / this.link.getFreespeed(now);
+		}
+	}
+}
@@ -0,0 +1,70 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * LinkTravelTimesWriter.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.trafficmonitoring;
+
+import org.matsim.core.config.groups.RoutingConfigGroup;
+import org.matsim.core.config.groups.TravelTimeCalculatorConfigGroup;
+import org.matsim.core.controler.OutputDirectoryHierarchy;
+import org.matsim.core.controler.events.IterationEndsEvent;
+import org.matsim.core.controler.listener.IterationEndsListener;
+
+import com.google.inject.Inject;
+import com.google.inject.Injector;
+import com.google.inject.Key;
+import com.google.inject.name.Names;
+
+/**
+ * Writes the link travel times of the {@link TravelTimeCalculator}(s) at the end of every
+ * {@link TravelTimeCalculatorConfigGroup#getWriteLinkTravelTimesInterval()}th iteration and of the last iteration, one
+ * file per analyzed mode if the modes are measured separately.
+ */
+/* deliberately package */ final class LinkTravelTimesWriter implements IterationEndsListener {
+
+	static final String FILENAME = "linkTravelTimes";
+
+	@Inject
+	private TravelTimeCalculatorConfigGroup config;
+	@Inject
+	private RoutingConfigGroup routingConfig;
+	@Inject
+	private OutputDirectoryHierarchy controlerIO;
+	@Inject
+	private Injector injector;
+
+	@Override
+	public void notifyIterationEnds(IterationEndsEvent event) {
+		int interval = this.config.getWriteLinkTravelTimesInterval();
+		if (interval <= 0 || (event.getIteration() % interval != 0 && !event.isLastIteration())) {
+			return;
+		}
+		if (this.config.getSeparateModes()) {
+			for (String mode : this.routingConfig.getNetworkModes()) {
+				if (this.config.getAnalyzedModes().contains(mode)) {
+					TravelTimeCalculator calculator = this.injector.getInstance(Key.get(TravelTimeCalculator.class, Names.named(mode)));
+					calculator.writeLinkTravelTimes(this.controlerIO.getIterationFilename(event.getIteration(), FILENAME + "_" + mode + ".bin.gz"));
+				}
+			}
+		} else {
+			TravelTimeCalculator calculator = this.injector.getInstance(TravelTimeCalculator.class);
+			calculator.writeLinkTravelTimes(this.controlerIO.getIterationFilename(event.getIteration(), FILENAME + ".bin.gz"));
+		}
+	}
+}
@@ -23,14 +23,13 @@ import com.google.inject.Inject;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.IdDoubleMap;
+import org.matsim.api.core.v01.IdIntMap;
 import org.matsim.api.core.v01.IdMap;
-import org.matsim.api.core.v01.events.LinkEnterEvent;
-import org.matsim.api.core.v01.events.LinkLeaveEvent;
+import org.matsim.api.core.v01.IdSet;
 import org.matsim.api.core.v01.events.VehicleAbortsEvent;
 import org.matsim.api.core.v01.events.VehicleEntersTrafficEvent;
 import org.matsim.api.core.v01.events.VehicleLeavesTrafficEvent;
-import org.matsim.api.core.v01.events.handler.LinkEnterEventHandler;
-import org.matsim.api.core.v01.events.handler.LinkLeaveEventHandler;
 import org.matsim.api.core.v01.events.handler.VehicleAbortsEventHandler;
 import org.matsim.api.core.v01.events.handler.VehicleEntersTrafficEventHandler;
 import org.matsim.api.core.v01.events.handler.VehicleLeavesTrafficEventHandler;
@@ -42,6 +41,7 @@ import org.matsim.core.api.experimental.events.VehicleArrivesAtFacilityEvent;
 import org.matsim.core.api.experimental.events.handler.VehicleArrivesAtFacilityEventHandler;
 import org.matsim.core.config.groups.QSimConfigGroup;
 import org.matsim.core.config.groups.TravelTimeCalculatorConfigGroup;
+import org.matsim.core.events.handler.LinkEnterLeaveHandler;
 import org.matsim.core.gbl.Gbl;
 import org.matsim.core.router.util.LinkToLinkTravelTime;
 import org.matsim.core.router.util.TravelTime;
@@ -50,7 +50,6 @@ import org.matsim.core.utils.collections.Tuple;
 import org.matsim.vehicles.Vehicle;
 import org.matsim.vehicles.VehicleType;
 
-import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -66,7 +65,7 @@ import java.util.concurrent.ConcurrentHashMap;
  * @author dgrether
  * @author mrieser
  */
-public final class TravelTimeCalculator implements LinkEnterEventHandler, LinkLeaveEventHandler,
+public final class TravelTimeCalculator implements LinkEnterLeaveHandler,
 									     VehicleEntersTrafficEventHandler, VehicleLeavesTrafficEventHandler, VehicleArrivesAtFacilityEventHandler,
 									     VehicleAbortsEventHandler {
 	private static final Logger log = LogManager.getLogger(TravelTimeCalculator.class);
@@ -79,11 +78,14 @@ public final class TravelTimeCalculator implements LinkEnterEventHandler, LinkLe
 	TimeSlotComputation aggregator;
 
 	private final Network network;
-	private IdMap<Link, TravelTimeDataArray> linkData;
+	private IdMap<Link, TravelTimeData> linkData;
+	private LinkTravelTimeStore linkTravelTimeStore = null;
 
 	private Map<Tuple<Id<Link>, Id<Link>>, TravelTimeDataArray> linkToLinkData;
 
-	private final Map<Id<Vehicle>, LinkEnterEvent> linkEnterEvents;
+	// the link and time of the last link enter event of each vehicle on the network, without boxing or hashing per event
+	private final IdIntMap<Vehicle> linkEnterLinks;
+	private final IdDoubleMap<Vehicle> linkEnterTimes;
 
 	private final Set<Id<Vehicle>> vehiclesToIgnore;
 	private final Set<String> analyzedModes;
@@ -117,6 +119,22 @@ public final class TravelTimeCalculator implements LinkEnterEventHandler, LinkLe
 			default:
 				throw new RuntimeException( config.getTravelTimeGetterType() + " is unknown!" );
 		}
+
+		switch( config.getTravelTimeStorage() ){
+			case array:
+				break;
+			case floatStore:
+			case floatStoreOffHeap:
+				if ( calculator.calculateLinkTravelTimes ) {
+					calculator.linkTravelTimeStore = new LinkTravelTimeStore( calculator.timeSlice, calculator.numSlots,
+							config.getTravelTimeStorage() == TravelTimeCalculatorConfigGroup.TravelTimeStorage.floatStoreOffHeap );
+					// data created so far still lives in arrays:
+					calculator.linkData.clear();
+				}
+				break;
+			default:
+				throw new RuntimeException( config.getTravelTimeStorage() + " is unknown!" );
+		}
 		return calculator;
 	}
 
@@ -222,43 +240,45 @@ public final class TravelTimeCalculator implements LinkEnterEventHandler, LinkLe
 			// assume that every link has 2 outgoing links as default
 			this.linkToLinkData = new ConcurrentHashMap<>((int) (network.getLinks().size() * 1.4 * 2));
 		}
-		this.linkEnterEvents = new ConcurrentHashMap<>();
+		this.linkEnterLinks = new IdIntMap<>(Vehicle.class, -1);
+		this.linkEnterTimes = new IdDoubleMap<>(Vehicle.class);
 
 		// if we just look at one mode, we need to ignore all vehicles with a different mode. However, the info re the mode is only in
 		// the vehicleEntersTraffic event.  So we need to memorize the ignored vehicles from there ...
-		this.vehiclesToIgnore = new HashSet<>();
+		this.vehiclesToIgnore = new IdSet<>(Vehicle.class);
 
 		this.reset(0);
 	}
 
 	@Override
-	public void handleEvent(final LinkEnterEvent e) {
+	public void handleLinkEnter(final double time, final Id<Vehicle> vehicleId, final Id<Link> linkId) {
 		/* if only some modes are analyzed, we check whether the vehicles
 		 * performs a trip with one of those modes. if not, we skip the event. */
-		if (filterAnalyzedModes && vehiclesToIgnore.contains(e.getVehicleId())) return;
+		if (filterAnalyzedModes && vehiclesToIgnore.contains(vehicleId)) return;
 
-		LinkEnterEvent oldEvent = this.linkEnterEvents.put(e.getVehicleId(), e);
-		if ((oldEvent != null) && this.calculateLinkToLinkTravelTimes) {
-			Tuple<Id<Link>, Id<Link>> fromToLink = new Tuple<>(oldEvent.getLinkId(), e.getLinkId());
+		int vehicleIndex = vehicleId.index();
+		int oldLinkIndex = this.linkEnterLinks.put(vehicleIndex, linkId.index());
+		double enterTime = this.linkEnterTimes.put(vehicleIndex, time);
+		if ((oldLinkIndex >= 0) && this.calculateLinkToLinkTravelTimes) {
+			Tuple<Id<Link>, Id<Link>> fromToLink = new Tuple<>(Id.get(oldLinkIndex, Link.class), linkId);
 			TravelTimeData data = getLinkToLinkTravelTimeData(fromToLink );
-			double enterTime = oldEvent.getTime();
 
 			final int timeSlot = this.aggregator.getTimeSlotIndex(enterTime );
-			data.addTravelTime(timeSlot, e.getTime() - enterTime );
+			data.addTravelTime(timeSlot, time - enterTime );
 			data.setNeedsConsolidation( true );
 		}
 	}
 
 	@Override
-	public void handleEvent(final LinkLeaveEvent e) {
+	public void handleLinkLeave(final double time, final Id<Vehicle> vehicleId, final Id<Link> linkId) {
 		if (this.calculateLinkTravelTimes) {
-			LinkEnterEvent oldEvent = this.linkEnterEvents.get(e.getVehicleId());
-			if (oldEvent != null) {
-				TravelTimeData data = this.getTravelTimeData(e.getLinkId(), true);
-				double enterTime = oldEvent.getTime();
+			int vehicleIndex = vehicleId.index();
+			if (this.linkEnterTimes.containsKey(vehicleIndex)) {
+				TravelTimeData data = this.getTravelTimeData(linkId, true);
+				double enterTime = this.linkEnterTimes.get(vehicleIndex);
 
 				final int timeSlot = this.aggregator.getTimeSlotIndex(enterTime );
-				data.addTravelTime(timeSlot, e.getTime() - enterTime );
+				data.addTravelTime(timeSlot, time - enterTime );
 				data.setNeedsConsolidation( true );
 			}
 		}
@@ -279,7 +299,8 @@ public final class TravelTimeCalculator implements LinkEnterEventHandler, LinkLe
 		/* remove EnterEvents from list when a vehicle arrives.
 		 * otherwise, the activity duration would be counted as travel time, when the
 		 * vehicle departs again and leaves the link! */
-		this.linkEnterEvents.remove(event.getVehicleId());
+		this.linkEnterLinks.remove(event.getVehicleId());
+		this.linkEnterTimes.remove(event.getVehicleId());
 
 		// try to remove vehicles from set with filtered vehicles
 		if (filterAnalyzedModes) this.vehiclesToIgnore.remove(event.getVehicleId());
@@ -290,14 +311,16 @@ public final class TravelTimeCalculator implements LinkEnterEventHandler, LinkLe
 		/* remove EnterEvents from list when a bus stops on a link.
 		 * otherwise, the stop time would be counted as travel time, when the
 		 * bus departs again and leaves the link! */
-		this.linkEnterEvents.remove(event.getVehicleId());
+		this.linkEnterLinks.remove(event.getVehicleId());
+		this.linkEnterTimes.remove(event.getVehicleId());
 	}
 
 	@Override
 	public void handleEvent(VehicleAbortsEvent event) {
-		LinkEnterEvent e = this.linkEnterEvents.remove(event.getVehicleId());
-		if (e != null) {
-			TravelTimeData data = this.getTravelTimeData(e.getLinkId(), true);
+		int linkIndex = this.linkEnterLinks.remove(event.getVehicleId());
+		this.linkEnterTimes.remove(event.getVehicleId());
+		if (linkIndex >= 0) {
+			TravelTimeData data = this.getTravelTimeData(Id.get(linkIndex, Link.class), true);
 			data.setNeedsConsolidation( true );
 
 			//			this.aggregator.addStuckEventTravelTime(data, e.getTime(), event.getTime());
@@ -316,8 +339,8 @@ public final class TravelTimeCalculator implements LinkEnterEventHandler, LinkLe
 		if (filterAnalyzedModes) this.vehiclesToIgnore.remove(event.getVehicleId());
 	}
 
-	private TravelTimeDataArray getTravelTimeData(final Id<Link> linkId, final boolean createIfMissing) {
-		TravelTimeDataArray data = this.linkData.get(linkId);
+	private TravelTimeData getTravelTimeData(final Id<Link> linkId, final boolean createIfMissing) {
+		TravelTimeData data = this.linkData.get(linkId);
 		if ((null == data) && createIfMissing) {
 			data = this.createTravelTimeData(linkId);
 			this.linkData.put(linkId, data);
@@ -328,14 +351,18 @@ public final class TravelTimeCalculator implements LinkEnterEventHandler, LinkLe
 	private TravelTimeDataArray getLinkToLinkTravelTimeData( Tuple<Id<Link>, Id<Link>> fromLinkToLink ) {
 		TravelTimeDataArray data = this.linkToLinkData.get(fromLinkToLink);
 		if ( null == data ) {
-			data = this.createTravelTimeData(fromLinkToLink.getFirst()) ;
+			data = new TravelTimeDataArray(this.network.getLinks().get(fromLinkToLink.getFirst()), this.numSlots) ;
 			this.linkToLinkData.put(fromLinkToLink, data);
 		}
 		return data;
 	}
 
-	private TravelTimeDataArray createTravelTimeData(Id<Link> linkId) {
-		return new TravelTimeDataArray(this.network.getLinks().get(linkId), this.numSlots);
+	private TravelTimeData createTravelTimeData(Id<Link> linkId) {
+		Link link = this.network.getLinks().get(linkId);
+		if (this.linkTravelTimeStore != null) {
+			return this.linkTravelTimeStore.createTravelTimeData(link);
+		}
+		return new TravelTimeDataArray(link, this.numSlots);
 	}
 
 	private double getLinkTravelTime(final Id<Link> linkId, final double time) {
@@ -377,7 +404,8 @@ public final class TravelTimeCalculator implements LinkEnterEventHandler, LinkLe
 				data.setNeedsConsolidation( false );
 			}
 		}
-		this.linkEnterEvents.clear();
+		this.linkEnterLinks.clear();
+		this.linkEnterTimes.clear();
 		this.vehiclesToIgnore.clear();
 	}
 
@@ -432,6 +460,27 @@ public final class TravelTimeCalculator implements LinkEnterEventHandler, LinkLe
 		}
 	}
 
+	/**
+	 * Writes the (consolidated) link travel times of all links with observations in the format of {@link LinkTravelTimeStore},
+	 * so that a later run can read them with {@link LinkTravelTimeStore#read} instead of replaying the events.  Time bins
+	 * without observations are written as free speed travel times.
+	 */
+	public void writeLinkTravelTimes(String filename) {
+		if (!this.calculateLinkTravelTimes) {
+			throw new IllegalStateException("No link travel time is available " +
+								    "if calculation is switched off by config option!");
+		}
+		IdSet<Link> linkIds = new IdSet<>(Link.class);
+		for (Map.Entry<Id<Link>, TravelTimeData> e : this.linkData.entrySet()) {
+			linkIds.add(e.getKey());
+			if (e.getValue().isNeedingConsolidation()) {
+				consolidateData(e.getValue());
+			}
+		}
+		LinkTravelTimeStore.write(filename, this.timeSlice, this.numSlots, linkIds,
+				(linkIndex, timeSlot) -> this.linkData.get(Id.get(linkIndex, Link.class)).getTravelTime(timeSlot, timeSlot * this.timeSlice));
+	}
+
 	private static int cnt = 0 ;
 
 	public TravelTime getLinkTravelTimes() {
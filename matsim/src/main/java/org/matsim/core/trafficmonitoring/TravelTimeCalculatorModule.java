@@ -111,6 +111,11 @@ public class TravelTimeCalculatorModule extends AbstractModule {
 			}
 		}
 
+		if (getConfig().travelTimeCalculator().getWriteLinkTravelTimesInterval() > 0
+				&& getConfig().travelTimeCalculator().isCalculateLinkTravelTimes()) {
+			addControlerListenerBinding().to(LinkTravelTimesWriter.class);
+		}
+
 	}
 
 	private static class SingleModeTravelTimeCalculatorProvider implements Provider<TravelTimeCalculator> {
@@ -57,6 +57,7 @@ import java.util.Arrays;
 import java.util.Locale;
 import java.util.Map;
 import java.util.TreeMap;
+import java.util.zip.Deflater;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.GZIPOutputStream;
 
@@ -116,6 +117,10 @@ import java.util.zip.GZIPOutputStream;
  * <li><code>*.zst</code>: ZStandard compression</li>
  * </ul>
  *
+ * GZIP and ZStandard files can be compressed on several threads, see
+ * {@link #setCompressionThreads(int)}. Then, compressed input files are also
+ * decompressed on a separate thread, ahead of the reading thread.
+ *
  * <h2>Encryption</h2>
  *
  * Files ending with {@code .enc} are assumed to be encrypted and will be handled with {@link CipherUtils}.
@@ -178,6 +183,29 @@ PR ist hier: https://github.com/matsim-org/matsim/pull/646
 		}
 	}
 
+	private static volatile int compressionThreads = 1;
+
+	public static int getCompressionThreads() {
+		return compressionThreads;
+	}
+
+	/**
+	 * Sets the number of threads used to compress GZIP and ZStandard output files, and whether compressed input files
+	 * are decompressed on a separate thread. With 1, the default, everything is done on the calling thread. The
+	 * controler sets it from <code>global.numberOfCompressionThreads</code> for the duration of its run, and restores
+	 * the previous value afterwards.
+	 * <p>
+	 * With more than 1, each compressed input stream uses its own read-ahead thread from its first read until it is
+	 * read to the end or closed, so such streams must always be closed, also if they are not read to the end.
+	 */
+	public static void setCompressionThreads(int threads) {
+		if (threads >= 1) {
+			compressionThreads = threads;
+		} else {
+			logger.error("Invalid number of compression threads.");
+		}
+	}
+
 	// Define a number of charsets that are / have been used.
 	public static final Charset CHARSET_UTF8 = StandardCharsets.UTF_8;
 	public static final Charset CHARSET_WINDOWS_ISO88591 = StandardCharsets.ISO_8859_1;
@@ -301,6 +329,9 @@ PR ist hier: https://github.com/matsim-org/matsim/pull/646
 						inputStream = new ZstdInputStream(inputStream);
 						break;
 				}
+				if (compressionThreads > 1) {
+					inputStream = new ReadAheadInputStream(inputStream, 4);
+				}
 			}
 
 			return new UnicodeInputStream(new BufferedInputStream(inputStream));
@@ -359,7 +390,11 @@ PR ist hier: https://github.com/matsim-org/matsim/pull/646
 			if (compression != null) {
 				switch (compression) {
 					case GZIP:
-						outputStream = new GZIPOutputStream(outputStream);
+						if (compressionThreads > 1) {
+							outputStream = new ParallelGzipOutputStream(outputStream, Deflater.DEFAULT_COMPRESSION, compressionThreads);
+						} else {
+							outputStream = new GZIPOutputStream(outputStream);
+						}
 						break;
 					case LZ4:
 						outputStream = new LZ4FrameOutputStream(outputStream);
@@ -368,7 +403,11 @@ PR ist hier: https://github.com/matsim-org/matsim/pull/646
 						outputStream = new CompressorStreamFactory().createCompressorOutputStream(CompressorStreamFactory.BZIP2, outputStream);
 						break;
 					case ZSTD:
-						outputStream = new ZstdOutputStream(outputStream, zstdCompressionLevel);
+						ZstdOutputStream zstdOutputStream = new ZstdOutputStream(outputStream, zstdCompressionLevel);
+						if (compressionThreads > 1) {
+							zstdOutputStream.setWorkers(compressionThreads);
+						}
+						outputStream = zstdOutputStream;
 						break;
 				}
 			}
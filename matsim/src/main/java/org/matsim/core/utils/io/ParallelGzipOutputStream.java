@@ -0,0 +1,210 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * ParallelGzipOutputStream.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.utils.io;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Writes a gzip file, compressing blocks of the data on several threads, similar to pigz.
+ * <p>
+ * Each block is compressed as raw deflate data, using the last 32 kB of the previous block as dictionary, and ends
+ * with a sync flush, so the blocks can simply be concatenated. The result is a single gzip member that can be read
+ * by every gzip decompressor. The compression ratio is nearly the same as with {@link java.util.zip.GZIPOutputStream}.
+ */
+/* deliberately package */ final class ParallelGzipOutputStream extends OutputStream {
+
+	/* package */ static final int BLOCK_SIZE = 128 * 1024;
+	private static final int DICTIONARY_SIZE = 32 * 1024;
+
+	private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(r -> {
+		Thread thread = new Thread(r, "ParallelGzipOutputStream");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	private final OutputStream out;
+	private final int level;
+	private final int threads;
+	private final Deque<Future<byte[]>> pending = new ArrayDeque<>();
+	private final CRC32 crc = new CRC32();
+	private long uncompressedLength = 0;
+
+	private byte[] block = new byte[BLOCK_SIZE];
+	private int blockLength = 0;
+	private byte[] dictionary = null;
+	private boolean closed = false;
+
+	/* package */ ParallelGzipOutputStream(OutputStream out, int level, int threads) throws IOException {
+		this.out = out;
+		this.level = level;
+		this.threads = threads;
+		// magic number, deflate, no flags, no modification time, no extra flags, unknown OS
+		this.out.write(new byte[] { 0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff });
+	}
+
+	@Override
+	public void write(int b) throws IOException {
+		ensureOpen();
+		this.block[this.blockLength++] = (byte) b;
+		if (this.blockLength == BLOCK_SIZE) {
+			submitBlock(false);
+		}
+	}
+
+	@Override
+	public void write(byte[] b, int off, int len) throws IOException {
+		ensureOpen();
+		while (len > 0) {
+			int n = Math.min(len, BLOCK_SIZE - this.blockLength);
+			System.arraycopy(b, off, this.block, this.blockLength, n);
+			this.blockLength += n;
+			off += n;
+			len -= n;
+			if (this.blockLength == BLOCK_SIZE) {
+				submitBlock(false);
+			}
+		}
+	}
+
+	@Override
+	public void flush() throws IOException {
+		ensureOpen();
+		if (this.blockLength > 0) {
+			submitBlock(false);
+		}
+		while (!this.pending.isEmpty()) {
+			writeNextBlock();
+		}
+		this.out.flush();
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (this.closed) {
+			return;
+		}
+		try {
+			submitBlock(true);
+			while (!this.pending.isEmpty()) {
+				writeNextBlock();
+			}
+			writeInt((int) this.crc.getValue());
+			writeInt((int) this.uncompressedLength);
+		} finally {
+			this.closed = true;
+			for (Future<byte[]> future : this.pending) {
+				future.cancel(false);
+			}
+			this.out.close();
+		}
+	}
+
+	private void submitBlock(boolean last) throws IOException {
+		byte[] data = this.block;
+		int length = this.blockLength;
+		byte[] dictionary = this.dictionary;
+		this.crc.update(data, 0, length);
+		this.uncompressedLength += length;
+		this.dictionary = nextDictionary(dictionary, data, length);
+		this.pending.add(EXECUTOR.submit(() -> compress(data, length, dictionary, this.level, last)));
+		this.block = new byte[BLOCK_SIZE];
+		this.blockLength = 0;
+		while (this.pending.size() > this.threads) {
+			writeNextBlock();
+		}
+	}
+
+	private void writeNextBlock() throws IOException {
+		try {
+			this.out.write(this.pending.poll().get());
+		} catch (InterruptedException e) {
+			throw new InterruptedIOException(e.getMessage());
+		} catch (ExecutionException e) {
+			throw new IOException(e.getCause());
+		}
+	}
+
+	private void writeInt(int value) throws IOException {
+		// gzip uses little endian
+		this.out.write(value);
+		this.out.write(value >>> 8);
+		this.out.write(value >>> 16);
+		this.out.write(value >>> 24);
+	}
+
+	private void ensureOpen() throws IOException {
+		if (this.closed) {
+			throw new IOException("Stream closed");
+		}
+	}
+
+	private static byte[] nextDictionary(byte[] dictionary, byte[] data, int length) {
+		if (length >= DICTIONARY_SIZE || dictionary == null) {
+			return Arrays.copyOfRange(data, Math.max(0, length - DICTIONARY_SIZE), length);
+		}
+		// only after a flush: keep the end of the previous dictionary
+		int keep = Math.min(dictionary.length, DICTIONARY_SIZE - length);
+		byte[] next = new byte[keep + length];
+		System.arraycopy(dictionary, dictionary.length - keep, next, 0, keep);
+		System.arraycopy(data, 0, next, keep, length);
+		return next;
+	}
+
+	private static byte[] compress(byte[] data, int length, byte[] dictionary, int level, boolean last) {
+		Deflater deflater = new Deflater(level, true);
+		try {
+			if (dictionary != null && dictionary.length > 0) {
+				deflater.setDictionary(dictionary);
+			}
+			deflater.setInput(data, 0, length);
+			ByteArrayOutputStream compressed = new ByteArrayOutputStream(length / 2 + 64);
+			byte[] buffer = new byte[16 * 1024];
+			if (last) {
+				deflater.finish();
+				while (!deflater.finished()) {
+					int n = deflater.deflate(buffer);
+					compressed.write(buffer, 0, n);
+				}
+			} else {
+				int n;
+				do {
+					n = deflater.deflate(buffer, 0, buffer.length, Deflater.SYNC_FLUSH);
+					compressed.write(buffer, 0, n);
+				} while (n == buffer.length);
+			}
+			return compressed.toByteArray();
+		} finally {
+			deflater.end();
+		}
+	}
+}
@@ -0,0 +1,154 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * ReadAheadInputStream.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.utils.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Reads another stream on a separate thread, some blocks ahead of the consumer. Used for compressed files, so that
+ * decompression and parsing run in parallel.
+ * <p>
+ * The reading thread is only started by the first read, and ends when the underlying stream is read to the end, or when
+ * this stream is closed. A stream that is read, but neither to the end nor closed, leaves its thread blocked, so this
+ * stream should still always be closed. The thread is a daemon thread, so it does not keep the JVM from exiting.
+ */
+/* deliberately package */ final class ReadAheadInputStream extends InputStream {
+
+	private static final int BLOCK_SIZE = 64 * 1024;
+	private static final byte[] END = new byte[0];
+
+	private final InputStream in;
+	private final BlockingQueue<byte[]> queue;
+	private Thread thread = null;
+	private volatile IOException exception = null;
+
+	private byte[] current = new byte[0];
+	private int position = 0;
+	private boolean finished = false;
+	private boolean closed = false;
+
+	/* package */ ReadAheadInputStream(InputStream in, int blocks) {
+		this.in = in;
+		this.queue = new ArrayBlockingQueue<>(blocks);
+	}
+
+	private void readAhead() {
+		try {
+			while (true) {
+				byte[] block = new byte[BLOCK_SIZE];
+				int n = this.in.readNBytes(block, 0, BLOCK_SIZE);
+				if (n > 0) {
+					this.queue.put(n == BLOCK_SIZE ? block : Arrays.copyOf(block, n));
+				}
+				if (n < BLOCK_SIZE) {
+					break;
+				}
+			}
+		} catch (IOException e) {
+			this.exception = e;
+		} catch (InterruptedException e) {
+			// closed by the consumer
+			return;
+		}
+		try {
+			this.queue.put(END);
+		} catch (InterruptedException e) {
+			// closed by the consumer
+		}
+	}
+
+	private boolean nextBlock() throws IOException {
+		if (this.closed) {
+			throw new IOException("Stream closed");
+		}
+		if (this.finished) {
+			return false;
+		}
+		if (this.thread == null) {
+			this.thread = new Thread(this::readAhead, "ReadAheadInputStream");
+			this.thread.setDaemon(true);
+			this.thread.start();
+		}
+		try {
+			this.current = this.queue.take();
+		} catch (InterruptedException e) {
+			throw new InterruptedIOException(e.getMessage());
+		}
+		this.position = 0;
+		if (this.current == END) {
+			this.finished = true;
+			if (this.exception != null) {
+				throw this.exception;
+			}
+			return false;
+		}
+		return true;
+	}
+
+	@Override
+	public int read() throws IOException {
+		if (this.position == this.current.length && !nextBlock()) {
+			return -1;
+		}
+		return this.current[this.position++] & 0xff;
+	}
+
+	@Override
+	public int read(byte[] b, int off, int len) throws IOException {
+		if (len == 0) {
+			return 0;
+		}
+		if (this.position == this.current.length && !nextBlock()) {
+			return -1;
+		}
+		int n = Math.min(len, this.current.length - this.position);
+		System.arraycopy(this.current, this.position, b, off, n);
+		this.position += n;
+		return n;
+	}
+
+	@Override
+	public int available() {
+		return this.current.length - this.position;
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (this.closed) {
+			return;
+		}
+		this.closed = true;
+		if (this.thread != null) {
+			this.thread.interrupt();
+			try {
+				this.thread.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		this.in.close();
+	}
+}
@@ -19,16 +19,23 @@
  * *********************************************************************** */
 package ch.sbb.matsim.routing.pt.raptor;
 
+import java.nio.file.Files;
+
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
 import org.matsim.api.core.v01.Id;
 import org.matsim.pt.transitSchedule.api.TransitStopFacility;
+import org.matsim.testcases.MatsimTestUtils;
 
 /**
  * @author mrieser / SBB
  */
 public class SwissRailRaptorDataTest {
 
+	@RegisterExtension
+	private MatsimTestUtils utils = new MatsimTestUtils();
+
 	@Test
 	void testTransfersFromSchedule() {
         Fixture f = new Fixture();
@@ -97,4 +104,42 @@ public class SwissRailRaptorDataTest {
         Assertions.assertEquals(data2.transfers.length, data4.transfers.length, "number of transfers should have stayed the same.");
     }
 
+	@Test
+	void testTransferCache() {
+        Fixture f = new Fixture();
+        f.init();
+
+        RaptorStaticConfig raptorConfig = RaptorUtils.createStaticConfig(f.config);
+        SwissRailRaptorData expected = SwissRailRaptorData.create(f.schedule, null, raptorConfig, f.network, null);
+
+        raptorConfig.setTransferCacheDirectory(utils.getOutputDirectory() + "transfers");
+        RaptorTransferCache cache = new RaptorTransferCache(raptorConfig.getTransferCacheDirectory(), f.schedule, expected.routes, expected.routeStops, raptorConfig);
+        Assertions.assertNull(cache.read());
+        SwissRailRaptorData written = SwissRailRaptorData.create(f.schedule, null, raptorConfig, f.network, null);
+        Assertions.assertTrue(Files.isRegularFile(cache.getFile()));
+        Assertions.assertEquals(expected.transfers.length, cache.read().length);
+        SwissRailRaptorData read = SwissRailRaptorData.create(f.schedule, null, raptorConfig, f.network, null);
+
+        for (SwissRailRaptorData data : new SwissRailRaptorData[] { written, read }) {
+            Assertions.assertEquals(expected.transfers.length, data.transfers.length);
+            for (int i = 0; i < expected.transfers.length; i++) {
+                Assertions.assertEquals(expected.transfers[i].fromRouteStop, data.transfers[i].fromRouteStop);
+                Assertions.assertEquals(expected.transfers[i].toRouteStop, data.transfers[i].toRouteStop);
+                Assertions.assertEquals(expected.transfers[i].transferTime, data.transfers[i].transferTime);
+                Assertions.assertEquals(expected.transfers[i].transferDistance, data.transfers[i].transferDistance);
+            }
+            for (int i = 0; i < expected.routeStops.length; i++) {
+                Assertions.assertEquals(expected.routeStops[i].indexFirstTransfer, data.routeStops[i].indexFirstTransfer);
+                Assertions.assertEquals(expected.routeStops[i].countTransfers, data.routeStops[i].countTransfers);
+            }
+        }
+
+        // other minimal transfer times must not use the same file
+        f.schedule.getMinimalTransferTimes().set(Id.create(19, TransitStopFacility.class), Id.create(9, TransitStopFacility.class), 345);
+        RaptorTransferCache otherCache = new RaptorTransferCache(raptorConfig.getTransferCacheDirectory(), f.schedule, expected.routes, expected.routeStops, raptorConfig);
+        Assertions.assertNotEquals(cache.getFile(), otherCache.getFile());
+        Assertions.assertNull(otherCache.read());
+        SwissRailRaptorData changed = SwissRailRaptorData.create(f.schedule, null, raptorConfig, f.network, null);
+        Assertions.assertEquals(expected.transfers.length + 1, changed.transfers.length);
+    }
 }
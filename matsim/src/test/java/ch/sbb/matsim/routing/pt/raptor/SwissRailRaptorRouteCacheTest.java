@@ -0,0 +1,203 @@
+/* *********************************************************************** *
+ * project: org.matsim.* 												   *
+ *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+package ch.sbb.matsim.routing.pt.raptor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.population.Leg;
+import org.matsim.api.core.v01.population.PlanElement;
+import org.matsim.core.config.ConfigUtils;
+import org.matsim.core.router.DefaultRoutingRequest;
+import org.matsim.pt.routes.TransitPassengerRoute;
+import org.matsim.testcases.MatsimTestUtils;
+
+import ch.sbb.matsim.config.SwissRailRaptorConfigGroup;
+
+public class SwissRailRaptorRouteCacheTest {
+
+	private static SwissRailRaptor createTransitRouter(Fixture f, OccupancyData occupancyData) {
+		SwissRailRaptorData data = SwissRailRaptorData.create(f.schedule, null, RaptorUtils.createStaticConfig(f.config), f.network, occupancyData);
+		return new SwissRailRaptor.Builder(data, f.config).build();
+	}
+
+	@Test
+	void testSameRoutesAsWithoutCache() {
+		Fixture f = new Fixture();
+		f.init();
+		SwissRailRaptor router = createTransitRouter(f, null);
+		assertNull(router.getUnderlyingData().routeCache);
+
+		SwissRailRaptorConfigGroup srrConfig = ConfigUtils.addOrGetModule(f.config, SwissRailRaptorConfigGroup.class);
+		srrConfig.setRouteCacheSize(100);
+		srrConfig.setRouteCacheTimeBinSize(3600);
+		SwissRailRaptor cachedRouter = createTransitRouter(f, null);
+		RaptorRouteCache cache = cachedRouter.getUnderlyingData().routeCache;
+
+		// departures at *:06, *:26 and *:46; the cached route can only be used as long as the vehicle is reachable
+		Coord[] fromCoords = { new Coord(4000, 5002), new Coord(3800, 5100), new Coord(4100, 4900) };
+		Coord toCoord = new Coord(8000, 5002);
+		for (int min = 0; min < 60; min += 3) {
+			for (Coord fromCoord : fromCoords) {
+				double departureTime = 5.0 * 3600 + min * 60;
+				List<? extends PlanElement> expected = router.calcRoute(DefaultRoutingRequest.withoutAttributes(new FakeFacility(fromCoord), new FakeFacility(toCoord), departureTime, null));
+				List<? extends PlanElement> actual = cachedRouter.calcRoute(DefaultRoutingRequest.withoutAttributes(new FakeFacility(fromCoord), new FakeFacility(toCoord), departureTime, null));
+				assertSameLegs(expected, actual, "at 05:" + min);
+			}
+		}
+		assertTrue(cache.getHits() > 0);
+		assertTrue(cache.getMisses() > 0);
+		assertEquals(20 * fromCoords.length, cache.getHits() + cache.getMisses());
+	}
+
+	@Test
+	void testClearedWhenOccupancyDataChanges() {
+		Fixture f = new Fixture();
+		f.init();
+		SwissRailRaptorConfigGroup srrConfig = ConfigUtils.addOrGetModule(f.config, SwissRailRaptorConfigGroup.class);
+		srrConfig.setRouteCacheSize(1);
+		OccupancyData occupancyData = new OccupancyData();
+		SwissRailRaptor router = createTransitRouter(f, occupancyData);
+		RaptorRouteCache cache = router.getUnderlyingData().routeCache;
+
+		Coord fromCoord = new Coord(3800, 5100);
+		Coord toCoord = new Coord(16100, 5050);
+		Coord otherToCoord = new Coord(8000, 5002);
+		router.calcRoute(DefaultRoutingRequest.withoutAttributes(new FakeFacility(fromCoord), new FakeFacility(toCoord), 5.0 * 3600, null));
+		router.calcRoute(DefaultRoutingRequest.withoutAttributes(new FakeFacility(fromCoord), new FakeFacility(toCoord), 5.0 * 3600 + 60, null));
+		assertEquals(1, cache.size());
+		assertEquals(1, cache.getHits());
+
+		// the least recently used route is evicted
+		router.calcRoute(DefaultRoutingRequest.withoutAttributes(new FakeFacility(fromCoord), new FakeFacility(otherToCoord), 5.0 * 3600, null));
+		router.calcRoute(DefaultRoutingRequest.withoutAttributes(new FakeFacility(fromCoord), new FakeFacility(toCoord), 5.0 * 3600 + 60, null));
+		assertEquals(1, cache.size());
+		assertEquals(1, cache.getHits());
+		assertEquals(3, cache.getMisses());
+
+		occupancyData.reset();
+		router.calcRoute(DefaultRoutingRequest.withoutAttributes(new FakeFacility(fromCoord), new FakeFacility(toCoord), 5.0 * 3600 + 60, null));
+		assertEquals(1, cache.getHits());
+		assertEquals(4, cache.getMisses());
+	}
+
+	@Test
+	void testSharedForDifferentCoordinatesWithSameStops() {
+		Fixture f = new Fixture();
+		f.init();
+		SwissRailRaptor router = createTransitRouter(f, null);
+		SwissRailRaptorConfigGroup srrConfig = ConfigUtils.addOrGetModule(f.config, SwissRailRaptorConfigGroup.class);
+		srrConfig.setRouteCacheSize(100);
+		srrConfig.setRouteCacheTimeBinSize(3600);
+		SwissRailRaptor cachedRouter = createTransitRouter(f, null);
+		RaptorRouteCache cache = cachedRouter.getUnderlyingData().routeCache;
+
+		// both coordinates reach the stops 0 and 1, the second one at higher costs, but relatively cheaper at stop 0
+		Coord toCoord = new Coord(8000, 5002);
+		for (Coord fromCoord : new Coord[] { new Coord(3800, 5100), new Coord(4200, 5150) }) {
+			double departureTime = 5.0 * 3600;
+			List<? extends PlanElement> expected = router.calcRoute(DefaultRoutingRequest.withoutAttributes(new FakeFacility(fromCoord), new FakeFacility(toCoord), departureTime, null));
+			List<? extends PlanElement> actual = cachedRouter.calcRoute(DefaultRoutingRequest.withoutAttributes(new FakeFacility(fromCoord), new FakeFacility(toCoord), departureTime, null));
+			assertSameLegs(expected, actual, "from " + fromCoord);
+		}
+		assertEquals(1, cache.getHits());
+		assertEquals(1, cache.getMisses());
+		assertEquals(1, cache.size());
+	}
+
+	@Test
+	void testNotUsedIfOtherStopsGotCheaper() {
+		Fixture f = new Fixture();
+		f.init();
+		SwissRailRaptorConfigGroup srrConfig = ConfigUtils.addOrGetModule(f.config, SwissRailRaptorConfigGroup.class);
+		srrConfig.setRouteCacheSize(100);
+		srrConfig.setRouteCacheTimeBinSize(3600);
+		SwissRailRaptor router = createTransitRouter(f, null);
+		RaptorRouteCache cache = router.getUnderlyingData().routeCache;
+
+		// the second coordinate is relatively closer to stop 1, so a route from there might be cheaper now
+		Coord toCoord = new Coord(8000, 5002);
+		router.calcRoute(DefaultRoutingRequest.withoutAttributes(new FakeFacility(new Coord(3800, 5100)), new FakeFacility(toCoord), 5.0 * 3600, null));
+		router.calcRoute(DefaultRoutingRequest.withoutAttributes(new FakeFacility(new Coord(4100, 4900)), new FakeFacility(toCoord), 5.0 * 3600, null));
+		assertEquals(0, cache.getHits());
+		assertEquals(1, cache.size());
+	}
+
+	@Test
+	void testKeyedByParameterValues() {
+		Fixture f = new Fixture();
+		f.init();
+		SwissRailRaptorConfigGroup srrConfig = ConfigUtils.addOrGetModule(f.config, SwissRailRaptorConfigGroup.class);
+		srrConfig.setRouteCacheSize(100);
+		SwissRailRaptorData data = SwissRailRaptorData.create(f.schedule, null, RaptorUtils.createStaticConfig(f.config), f.network, null);
+		RaptorRouteCache cache = data.routeCache;
+
+		List<InitialStop> accessStops = List.of(new InitialStop(f.schedule.getFacilities().values().iterator().next(), 10, 60, 50, "walk"));
+		RaptorParameters parameters = RaptorUtils.createParameters(f.config);
+		RaptorParameters equalParameters = RaptorUtils.createParameters(f.config);
+		RaptorParameters otherParameters = RaptorUtils.createParameters(f.config);
+		otherParameters.setTransferPenaltyFixCostPerTransfer(parameters.getTransferPenaltyFixCostPerTransfer() + 1);
+
+		RaptorRouteCache.Key key = cache.createKey(5.0 * 3600, accessStops, accessStops, parameters);
+		assertEquals(key, cache.createKey(5.0 * 3600, accessStops, accessStops, equalParameters));
+		assertNotEquals(key, cache.createKey(5.0 * 3600, accessStops, accessStops, otherParameters));
+	}
+
+	@Test
+	void testNotUsedWithCustomInVehicleCosts() {
+		Fixture f = new Fixture();
+		f.init();
+		SwissRailRaptorConfigGroup srrConfig = ConfigUtils.addOrGetModule(f.config, SwissRailRaptorConfigGroup.class);
+		srrConfig.setRouteCacheSize(100);
+		SwissRailRaptorData data = SwissRailRaptorData.create(f.schedule, null, RaptorUtils.createStaticConfig(f.config), f.network, null);
+		RaptorInVehicleCostCalculator inVehicleCosts = (inVehicleTime, marginalUtility_utl_s, person, vehicle, parameters, iterator) -> inVehicleTime * -marginalUtility_utl_s;
+		SwissRailRaptor router = new SwissRailRaptor.Builder(data, f.config).with(inVehicleCosts).build();
+
+		Coord fromCoord = new Coord(3800, 5100);
+		Coord toCoord = new Coord(8000, 5002);
+		router.calcRoute(DefaultRoutingRequest.withoutAttributes(new FakeFacility(fromCoord), new FakeFacility(toCoord), 5.0 * 3600, null));
+		router.calcRoute(DefaultRoutingRequest.withoutAttributes(new FakeFacility(fromCoord), new FakeFacility(toCoord), 5.0 * 3600 + 60, null));
+		assertEquals(0, data.routeCache.getHits() + data.routeCache.getMisses());
+	}
+
+	private static void assertSameLegs(List<? extends PlanElement> expected, List<? extends PlanElement> actual, String message) {
+		assertEquals(expected.size(), actual.size(), message);
+		for (int i = 0; i < expected.size(); i++) {
+			Leg expectedLeg = (Leg) expected.get(i);
+			Leg actualLeg = (Leg) actual.get(i);
+			assertEquals(expectedLeg.getMode(), actualLeg.getMode(), message);
+			assertEquals(expectedLeg.getDepartureTime().seconds(), actualLeg.getDepartureTime().seconds(), MatsimTestUtils.EPSILON, message);
+			assertEquals(expectedLeg.getTravelTime().seconds(), actualLeg.getTravelTime().seconds(), MatsimTestUtils.EPSILON, message);
+			assertEquals(expectedLeg.getRoute().getDistance(), actualLeg.getRoute().getDistance(), MatsimTestUtils.EPSILON, message);
+			if (expectedLeg.getRoute() instanceof TransitPassengerRoute expectedRoute) {
+				TransitPassengerRoute actualRoute = (TransitPassengerRoute) actualLeg.getRoute();
+				assertEquals(expectedRoute.getAccessStopId(), actualRoute.getAccessStopId(), message);
+				assertEquals(expectedRoute.getEgressStopId(), actualRoute.getEgressStopId(), message);
+				assertEquals(expectedRoute.getRouteId(), actualRoute.getRouteId(), message);
+			}
+		}
+	}
+}
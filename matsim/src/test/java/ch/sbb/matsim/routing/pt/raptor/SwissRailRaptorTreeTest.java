@@ -400,9 +400,58 @@ public class SwissRailRaptorTreeTest {
         Assertions.assertNull(stage5.line); // egress_walk
     }
 
+	@Test
+	void testSingleStop_profile_dep0730to0800atN() {
+        Fixture f = new Fixture();
+        f.init();
+
+        RaptorStaticConfig config = RaptorUtils.createStaticConfig(f.config);
+        config.setOptimization(RaptorStaticConfig.RaptorOptimization.OneToAllRouting);
+        SwissRailRaptorData data = SwissRailRaptorData.create(f.scenario.getTransitSchedule(), null, config, f.scenario.getNetwork(), null);
+        SwissRailRaptor raptor = new SwissRailRaptor.Builder(data, f.scenario.getConfig()).build();
+
+        RaptorParameters raptorParams = RaptorUtils.createParameters(f.config);
+
+        // start with a stop on the green line, which departs every 10 minutes at *:01
+        TransitStopFacility fromStop = f.schedule.getFacilities().get(Id.create(23, TransitStopFacility.class));
+        Map<Id<TransitStopFacility>, List<TravelInfo>> profile = raptor.calcLeastCostProfile(List.of(fromStop), 7*3600 + 30*60, 8*3600, raptorParams, null);
+
+        List<TravelInfo> toC = profile.get(Id.create(18, TransitStopFacility.class));
+        Assertions.assertEquals(3, toC.size());
+        assertTravelInfo(toC.get(0), "23", 0, "07:31:00", "07:40:00");
+        assertTravelInfo(toC.get(1), "23", 0, "07:41:00", "07:50:00");
+        assertTravelInfo(toC.get(2), "23", 0, "07:51:00", "08:00:00");
+
+        List<TravelInfo> toK = profile.get(Id.create(19, TransitStopFacility.class));
+        Assertions.assertEquals(3, toK.size());
+        assertTravelInfo(toK.get(0), "23", 1, "07:31:00", "07:51:00");
+        assertTravelInfo(toK.get(1), "23", 1, "07:41:00", "08:01:00"); // same as in the tree for 07:40
+        assertTravelInfo(toK.get(2), "23", 1, "07:51:00", "08:11:00");
+
+        // every profile contains the journeys of the tree for a departure within the window
+        Map<Id<TransitStopFacility>, TravelInfo> tree = raptor.calcTree(fromStop, 7*3600 + 40*60, raptorParams, null);
+        for (Map.Entry<Id<TransitStopFacility>, TravelInfo> e : tree.entrySet()) {
+            TravelInfo treeInfo = e.getValue();
+            if (treeInfo.isWalkOnly()) {
+                continue;
+            }
+            List<TravelInfo> journeys = profile.get(e.getKey());
+            Assertions.assertNotNull(journeys, "Stop " + e.getKey() + " is not reachable.");
+            boolean found = false;
+            for (TravelInfo journey : journeys) {
+                found |= journey.ptDepartureTime >= treeInfo.ptDepartureTime && journey.ptArrivalTime <= treeInfo.ptArrivalTime;
+            }
+            Assertions.assertTrue(found, "no journey as good as the tree's for stop " + e.getKey());
+        }
+    }
+
     private void assertTravelInfo(Map<Id<TransitStopFacility>, TravelInfo> map, int stopId, String expectedDepartureStop, int expectedTransfers, String expectedDepartureTime, String expectedArrivalTime) {
         TravelInfo info = map.get(Id.create(stopId, TransitStopFacility.class));
         Assertions.assertNotNull(info, "Stop " + stopId + " is not reachable.");
+        assertTravelInfo(info, expectedDepartureStop, expectedTransfers, expectedDepartureTime, expectedArrivalTime);
+    }
+
+    private void assertTravelInfo(TravelInfo info, String expectedDepartureStop, int expectedTransfers, String expectedDepartureTime, String expectedArrivalTime) {
         Assertions.assertEquals(expectedDepartureStop, info.departureStop.toString(), "wrong departure stop");
         Assertions.assertEquals(expectedTransfers, info.transferCount, "wrong number of transfers");
         Assertions.assertEquals(Time.parseTime(expectedArrivalTime), Math.floor(info.ptArrivalTime), 0.0, "unexpected arrival time: " + Time.writeTime(info.ptArrivalTime));
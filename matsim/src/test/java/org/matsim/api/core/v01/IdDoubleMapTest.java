@@ -0,0 +1,127 @@
+package org.matsim.api.core.v01;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.matsim.api.core.v01.population.Person;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class IdDoubleMapTest {
+
+	@Test
+	void testPutGetRemoveSize() {
+		IdDoubleMap<Person> map = new IdDoubleMap<>(Person.class);
+
+		Id<Person> id1 = Id.create("1", Person.class);
+		Id<Person> id2 = Id.create("2", Person.class);
+
+		Assertions.assertEquals(0, map.size());
+		Assertions.assertTrue(map.isEmpty());
+		Assertions.assertTrue(Double.isNaN(map.get(id1)));
+		Assertions.assertFalse(map.containsKey(id1));
+
+		Assertions.assertTrue(Double.isNaN(map.put(id1, 3.5)));
+		Assertions.assertEquals(1, map.size());
+		Assertions.assertFalse(map.isEmpty());
+		Assertions.assertTrue(map.containsKey(id1));
+		Assertions.assertTrue(map.containsKey(id1.index()));
+		Assertions.assertFalse(map.containsKey(id2));
+		Assertions.assertEquals(3.5, map.get(id1), 0.0);
+		Assertions.assertEquals(3.5, map.get(id1.index()), 0.0);
+		Assertions.assertEquals(-1.0, map.getOrDefault(id2, -1.0), 0.0);
+
+		Assertions.assertEquals(3.5, map.put(id1, 4.5), 0.0);
+		Assertions.assertEquals(1, map.size());
+		Assertions.assertEquals(4.5, map.get(id1), 0.0);
+
+		// a value of 0 is still an entry
+		map.put(id2, 0.0);
+		Assertions.assertEquals(2, map.size());
+		Assertions.assertTrue(map.containsKey(id2));
+
+		Assertions.assertEquals(4.5, map.remove(id1), 0.0);
+		Assertions.assertEquals(1, map.size());
+		Assertions.assertFalse(map.containsKey(id1));
+		Assertions.assertTrue(Double.isNaN(map.remove(id1)));
+		Assertions.assertEquals(1, map.size());
+
+		map.clear();
+		Assertions.assertEquals(0, map.size());
+		Assertions.assertFalse(map.containsKey(id2));
+	}
+
+	@Test
+	void testAdd() {
+		IdDoubleMap<Person> map = new IdDoubleMap<>(Person.class, 0.0);
+		Id<Person> id1 = Id.create("1", Person.class);
+
+		Assertions.assertEquals(0.0, map.get(id1), 0.0);
+		Assertions.assertEquals(2.0, map.add(id1, 2.0), 0.0);
+		Assertions.assertEquals(5.0, map.add(id1, 3.0), 0.0);
+		Assertions.assertEquals(1, map.size());
+		Assertions.assertEquals(5.0, map.get(id1), 0.0);
+	}
+
+	@Test
+	void testGrowth() {
+		IdDoubleMap<Person> map = new IdDoubleMap<>(Person.class, 2, Double.NaN);
+		List<Id<Person>> ids = new ArrayList<>();
+		for (int i = 0; i < 1000; i++) {
+			Id<Person> id = Id.create("growth-" + i, Person.class);
+			ids.add(id);
+			map.put(id, i);
+		}
+		Assertions.assertEquals(1000, map.size());
+		for (int i = 0; i < 1000; i++) {
+			Assertions.assertEquals(i, map.get(ids.get(i)), 0.0);
+		}
+	}
+
+	@Test
+	void testForEachAndKeySet() {
+		IdDoubleMap<Person> map = new IdDoubleMap<>(Person.class);
+		Id<Person> id1 = Id.create("1", Person.class);
+		Id<Person> id2 = Id.create("2", Person.class);
+		Id<Person> id3 = Id.create("3", Person.class);
+		map.put(id1, 1.0);
+		map.put(id2, 2.0);
+		map.put(id3, 3.0);
+		map.remove(id2);
+
+		double[] sum = {0};
+		List<Id<Person>> keys = new ArrayList<>();
+		map.forEach((id, value) -> {
+			keys.add(id);
+			sum[0] += value;
+		});
+		Assertions.assertEquals(4.0, sum[0], 0.0);
+		Assertions.assertEquals(List.of(id1, id3), keys);
+
+		IdSet<Person> keySet = map.keySet();
+		Assertions.assertEquals(2, keySet.size());
+		Assertions.assertTrue(keySet.contains(id1));
+		Assertions.assertFalse(keySet.contains(id2));
+		Assertions.assertTrue(keySet.contains(id3));
+	}
+
+	@Test
+	void testIntAndLongMaps() {
+		Id<Person> id1 = Id.create("1", Person.class);
+		Id<Person> id2 = Id.create("2", Person.class);
+
+		IdIntMap<Person> ints = new IdIntMap<>(Person.class, -1);
+		Assertions.assertEquals(-1, ints.get(id1));
+		Assertions.assertEquals(-1, ints.put(id1, 7));
+		Assertions.assertEquals(9, ints.add(id1, 2));
+		Assertions.assertEquals(9, ints.remove(id1));
+		Assertions.assertTrue(ints.isEmpty());
+
+		IdLongMap<Person> longs = new IdLongMap<>(Person.class);
+		Assertions.assertEquals(0L, longs.get(id2));
+		Assertions.assertFalse(longs.containsKey(id2));
+		Assertions.assertEquals(0L, longs.put(id2, 1L << 40));
+		Assertions.assertEquals((1L << 40) + 1, longs.add(id2, 1));
+		Assertions.assertEquals(1, longs.size());
+	}
+}
@@ -0,0 +1,122 @@
+package org.matsim.api.core.v01;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.matsim.api.core.v01.population.Person;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class IdIntMapTest {
+
+	@Test
+	void testPutGetRemoveSize() {
+		IdIntMap<Person> map = new IdIntMap<>(Person.class);
+
+		Id<Person> id1 = Id.create("1", Person.class);
+		Id<Person> id2 = Id.create("2", Person.class);
+
+		Assertions.assertEquals(0, map.size());
+		Assertions.assertTrue(map.isEmpty());
+		Assertions.assertEquals(0, map.get(id1));
+		Assertions.assertFalse(map.containsKey(id1));
+
+		Assertions.assertEquals(0, map.put(id1, 3));
+		Assertions.assertEquals(1, map.size());
+		Assertions.assertFalse(map.isEmpty());
+		Assertions.assertTrue(map.containsKey(id1));
+		Assertions.assertTrue(map.containsKey(id1.index()));
+		Assertions.assertFalse(map.containsKey(id2));
+		Assertions.assertEquals(3, map.get(id1));
+		Assertions.assertEquals(3, map.get(id1.index()));
+		Assertions.assertEquals(-1, map.getOrDefault(id2, -1));
+
+		Assertions.assertEquals(3, map.put(id1, 4));
+		Assertions.assertEquals(1, map.size());
+		Assertions.assertEquals(4, map.get(id1));
+
+		// a value equal to the noEntryValue is still an entry
+		map.put(id2, 0);
+		Assertions.assertEquals(2, map.size());
+		Assertions.assertTrue(map.containsKey(id2));
+
+		Assertions.assertEquals(4, map.remove(id1));
+		Assertions.assertEquals(1, map.size());
+		Assertions.assertFalse(map.containsKey(id1));
+		Assertions.assertEquals(0, map.remove(id1));
+		Assertions.assertEquals(1, map.size());
+
+		map.clear();
+		Assertions.assertEquals(0, map.size());
+		Assertions.assertFalse(map.containsKey(id2));
+	}
+
+	@Test
+	void testNoEntryValue() {
+		Id<Person> id1 = Id.create("1", Person.class);
+
+		Assertions.assertEquals(0, new IdIntMap<>(Person.class).getNoEntryValue());
+
+		IdIntMap<Person> map = new IdIntMap<>(Person.class, -1);
+		Assertions.assertEquals(-1, map.getNoEntryValue());
+		Assertions.assertEquals(-1, map.get(id1));
+		Assertions.assertEquals(-1, map.put(id1, 7));
+		Assertions.assertEquals(7, map.remove(id1));
+		Assertions.assertEquals(-1, map.remove(id1));
+		Assertions.assertEquals(-1, map.get(id1));
+	}
+
+	@Test
+	void testAdd() {
+		IdIntMap<Person> map = new IdIntMap<>(Person.class, -1);
+		Id<Person> id1 = Id.create("1", Person.class);
+
+		// adding to a missing key starts from 0, not from the noEntryValue
+		Assertions.assertEquals(2, map.add(id1, 2));
+		Assertions.assertEquals(5, map.add(id1, 3));
+		Assertions.assertEquals(1, map.size());
+		Assertions.assertEquals(5, map.get(id1));
+	}
+
+	@Test
+	void testGrowth() {
+		IdIntMap<Person> map = new IdIntMap<>(Person.class, 2, 0);
+		List<Id<Person>> ids = new ArrayList<>();
+		for (int i = 0; i < 1000; i++) {
+			Id<Person> id = Id.create("growth-" + i, Person.class);
+			ids.add(id);
+			map.put(id, i);
+		}
+		Assertions.assertEquals(1000, map.size());
+		for (int i = 0; i < 1000; i++) {
+			Assertions.assertEquals(i, map.get(ids.get(i)));
+		}
+	}
+
+	@Test
+	void testForEachAndKeySet() {
+		IdIntMap<Person> map = new IdIntMap<>(Person.class);
+		Id<Person> id1 = Id.create("1", Person.class);
+		Id<Person> id2 = Id.create("2", Person.class);
+		Id<Person> id3 = Id.create("3", Person.class);
+		map.put(id1, 1);
+		map.put(id2, 2);
+		map.put(id3, 3);
+		map.remove(id2);
+
+		int[] sum = {0};
+		List<Id<Person>> keys = new ArrayList<>();
+		map.forEach((id, value) -> {
+			keys.add(id);
+			sum[0] += value;
+		});
+		Assertions.assertEquals(4, sum[0]);
+		Assertions.assertEquals(List.of(id1, id3), keys);
+
+		IdSet<Person> keySet = map.keySet();
+		Assertions.assertEquals(2, keySet.size());
+		Assertions.assertTrue(keySet.contains(id1));
+		Assertions.assertFalse(keySet.contains(id2));
+		Assertions.assertTrue(keySet.contains(id3));
+	}
+}
@@ -0,0 +1,122 @@
+package org.matsim.api.core.v01;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.matsim.api.core.v01.population.Person;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class IdLongMapTest {
+
+	@Test
+	void testPutGetRemoveSize() {
+		IdLongMap<Person> map = new IdLongMap<>(Person.class);
+
+		Id<Person> id1 = Id.create("1", Person.class);
+		Id<Person> id2 = Id.create("2", Person.class);
+
+		Assertions.assertEquals(0, map.size());
+		Assertions.assertTrue(map.isEmpty());
+		Assertions.assertEquals(0L, map.get(id1));
+		Assertions.assertFalse(map.containsKey(id1));
+
+		Assertions.assertEquals(0L, map.put(id1, 3L << 40));
+		Assertions.assertEquals(1, map.size());
+		Assertions.assertFalse(map.isEmpty());
+		Assertions.assertTrue(map.containsKey(id1));
+		Assertions.assertTrue(map.containsKey(id1.index()));
+		Assertions.assertFalse(map.containsKey(id2));
+		Assertions.assertEquals(3L << 40, map.get(id1));
+		Assertions.assertEquals(3L << 40, map.get(id1.index()));
+		Assertions.assertEquals(-1L, map.getOrDefault(id2, -1L));
+
+		Assertions.assertEquals(3L << 40, map.put(id1, 4L));
+		Assertions.assertEquals(1, map.size());
+		Assertions.assertEquals(4L, map.get(id1));
+
+		// a value equal to the noEntryValue is still an entry
+		map.put(id2, 0L);
+		Assertions.assertEquals(2, map.size());
+		Assertions.assertTrue(map.containsKey(id2));
+
+		Assertions.assertEquals(4L, map.remove(id1));
+		Assertions.assertEquals(1, map.size());
+		Assertions.assertFalse(map.containsKey(id1));
+		Assertions.assertEquals(0L, map.remove(id1));
+		Assertions.assertEquals(1, map.size());
+
+		map.clear();
+		Assertions.assertEquals(0, map.size());
+		Assertions.assertFalse(map.containsKey(id2));
+	}
+
+	@Test
+	void testNoEntryValue() {
+		Id<Person> id1 = Id.create("1", Person.class);
+
+		Assertions.assertEquals(0L, new IdLongMap<>(Person.class).getNoEntryValue());
+
+		IdLongMap<Person> map = new IdLongMap<>(Person.class, -1L);
+		Assertions.assertEquals(-1L, map.getNoEntryValue());
+		Assertions.assertEquals(-1L, map.get(id1));
+		Assertions.assertEquals(-1L, map.put(id1, 7L));
+		Assertions.assertEquals(7L, map.remove(id1));
+		Assertions.assertEquals(-1L, map.remove(id1));
+		Assertions.assertEquals(-1L, map.get(id1));
+	}
+
+	@Test
+	void testAdd() {
+		IdLongMap<Person> map = new IdLongMap<>(Person.class, -1L);
+		Id<Person> id1 = Id.create("1", Person.class);
+
+		// adding to a missing key starts from 0, not from the noEntryValue
+		Assertions.assertEquals(2L, map.add(id1, 2L));
+		Assertions.assertEquals((1L << 40) + 2, map.add(id1, 1L << 40));
+		Assertions.assertEquals(1, map.size());
+		Assertions.assertEquals((1L << 40) + 2, map.get(id1));
+	}
+
+	@Test
+	void testGrowth() {
+		IdLongMap<Person> map = new IdLongMap<>(Person.class, 2, 0L);
+		List<Id<Person>> ids = new ArrayList<>();
+		for (int i = 0; i < 1000; i++) {
+			Id<Person> id = Id.create("growth-" + i, Person.class);
+			ids.add(id);
+			map.put(id, i);
+		}
+		Assertions.assertEquals(1000, map.size());
+		for (int i = 0; i < 1000; i++) {
+			Assertions.assertEquals((long) i, map.get(ids.get(i)));
+		}
+	}
+
+	@Test
+	void testForEachAndKeySet() {
+		IdLongMap<Person> map = new IdLongMap<>(Person.class);
+		Id<Person> id1 = Id.create("1", Person.class);
+		Id<Person> id2 = Id.create("2", Person.class);
+		Id<Person> id3 = Id.create("3", Person.class);
+		map.put(id1, 1L);
+		map.put(id2, 2L);
+		map.put(id3, 3L);
+		map.remove(id2);
+
+		long[] sum = {0};
+		List<Id<Person>> keys = new ArrayList<>();
+		map.forEach((id, value) -> {
+			keys.add(id);
+			sum[0] += value;
+		});
+		Assertions.assertEquals(4L, sum[0]);
+		Assertions.assertEquals(List.of(id1, id3), keys);
+
+		IdSet<Person> keySet = map.keySet();
+		Assertions.assertEquals(2, keySet.size());
+		Assertions.assertTrue(keySet.contains(id1));
+		Assertions.assertFalse(keySet.contains(id2));
+		Assertions.assertTrue(keySet.contains(id3));
+	}
+}
@@ -22,11 +22,15 @@ package org.matsim.core.controler.corelisteners;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.RegisterExtension;
 import org.matsim.core.config.Config;
+import org.matsim.api.core.v01.population.Population;
 import org.matsim.core.controler.Controler;
+import org.matsim.core.population.PopulationUtils;
+import org.matsim.core.population.routes.PopulationComparison;
 import org.matsim.testcases.MatsimTestUtils;
 
 import java.io.File;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -108,4 +112,28 @@ public class PlansDumpingIT {
 		assertTrue(new File(c.getControlerIO().getIterationFilename(9, "plans.xml.gz")).exists());
 		assertTrue(new File(c.getControlerIO().getIterationFilename(10, "plans.xml.gz")).exists());
 	}
+
+	@Test
+	void testPlansDump_Asynchronously() {
+		Config config = this.util.loadConfig("test/scenarios/equil/config_plans1.xml");
+		config.controller().setLastIteration(10);
+		config.controller().setWritePlansInterval(3);
+		config.controller().setWritePlansAsynchronously(true);
+		Controler c = new Controler(config);
+		c.getConfig().controller().setWriteEventsInterval(0);
+		c.getConfig().controller().setCreateGraphs(false);
+
+		c.run();
+
+		// all files are written when the run returns
+		assertTrue(new File(c.getControlerIO().getIterationFilename(0, "plans.xml.gz")).exists());
+		assertTrue(new File(c.getControlerIO().getIterationFilename(1, "plans.xml.gz")).exists());
+		assertFalse(new File(c.getControlerIO().getIterationFilename(2, "plans.xml.gz")).exists());
+		assertTrue(new File(c.getControlerIO().getIterationFilename(9, "plans.xml.gz")).exists());
+
+		Population population = PopulationUtils.readPopulation(c.getControlerIO().getIterationFilename(9, "plans.xml.gz"));
+		assertEquals(c.getScenario().getPopulation().getPersons().size(), population.getPersons().size());
+		Population outputPopulation = PopulationUtils.readPopulation(c.getControlerIO().getOutputFilename("output_plans.xml.gz"));
+		assertEquals(PopulationComparison.Result.equal, PopulationComparison.compare(c.getScenario().getPopulation(), outputPopulation));
+	}
 }
@@ -19,12 +19,20 @@
 
 package org.matsim.core.events;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
+import org.matsim.api.core.v01.Id;
 import org.matsim.api.core.v01.events.Event;
+import org.matsim.api.core.v01.events.LinkEnterEvent;
+import org.matsim.api.core.v01.events.LinkLeaveEvent;
+import org.matsim.api.core.v01.events.handler.LinkEnterEventHandler;
 import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.events.handler.BasicEventHandler;
 import org.matsim.core.events.handler.EventHandler;
 
 /**
@@ -69,6 +77,52 @@ public class EventsManagerImplTest {
 		}
 	}
 
+	@Test
+	void testProcessLinkEvents_WithoutEventObjects() {
+		EventsManager manager = EventsUtils.createEventsManager();
+		RingBufferEventsManagerTest.RecordingLinkHandler handler = new RingBufferEventsManagerTest.RecordingLinkHandler();
+		manager.addHandler(handler);
+		manager.initProcessing();
+		manager.processLinkLeaveEvent(1.0, Id.createVehicleId(0), Id.createLinkId(0));
+		manager.processLinkEnterEvent(1.0, Id.createVehicleId(0), Id.createLinkId(1));
+		manager.finishProcessing();
+		Assertions.assertEquals(List.of("leave 1.0 0 0", "enter 1.0 0 1"), handler.events);
+		Assertions.assertEquals(0, handler.eventObjects);
+		Assertions.assertFalse(((EventsManagerImpl) manager).requiresLinkEventObjects());
+
+		List<LinkEnterEvent> legacyEvents = new ArrayList<>();
+		manager.addHandler((LinkEnterEventHandler) legacyEvents::add);
+		Assertions.assertTrue(((EventsManagerImpl) manager).requiresLinkEventObjects());
+		manager.processLinkEnterEvent(2.0, Id.createVehicleId(0), Id.createLinkId(2));
+		Assertions.assertEquals(List.of(new LinkEnterEvent(2.0, Id.createVehicleId(0), Id.createLinkId(2))), legacyEvents);
+		Assertions.assertEquals("enter 2.0 0 2", handler.events.get(2));
+		Assertions.assertEquals(0, handler.eventObjects);
+	}
+
+	@Test
+	void testProcessLinkEvents_BasicEventHandler() {
+		EventsManager manager = EventsUtils.createEventsManager();
+		RecordingBasicLinkHandler handler = new RecordingBasicLinkHandler();
+		manager.addHandler(handler);
+		Assertions.assertFalse(((EventsManagerImpl) manager).requiresLinkEventObjects());
+		manager.initProcessing();
+		manager.processLinkEnterEvent(1.0, Id.createVehicleId(0), Id.createLinkId(1));
+		manager.processEvent(new MyEvent(2.0));
+		manager.processEvent(new LinkLeaveEvent(3.0, Id.createVehicleId(0), Id.createLinkId(1)));
+		manager.finishProcessing();
+		Assertions.assertEquals(List.of("enter 1.0 0 1", "leave 3.0 0 1"), handler.events);
+		Assertions.assertEquals(1, handler.otherEvents.size());
+		Assertions.assertTrue(handler.otherEvents.get(0) instanceof MyEvent);
+	}
+
+	/*package*/ static class RecordingBasicLinkHandler extends RingBufferEventsManagerTest.RecordingLinkHandler implements BasicEventHandler {
+		/*package*/ final List<Event> otherEvents = new ArrayList<>();
+		@Override
+		public void handleEvent(final Event event) {
+			this.otherEvents.add(event);
+		}
+	}
+
 	/*package*/ static class MyEvent extends Event {
 		public MyEvent(final double time) {
 			super(time);
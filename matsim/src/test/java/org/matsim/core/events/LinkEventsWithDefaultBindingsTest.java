@@ -0,0 +1,87 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * LinkEventsWithDefaultBindingsTest.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.events;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.config.Config;
+import org.matsim.core.config.ConfigUtils;
+import org.matsim.core.controler.AbstractModule;
+import org.matsim.core.controler.Controler;
+import org.matsim.core.controler.OutputDirectoryHierarchy;
+import org.matsim.core.controler.events.AfterMobsimEvent;
+import org.matsim.core.controler.listener.AfterMobsimListener;
+import org.matsim.core.utils.io.IOUtils;
+import org.matsim.examples.ExamplesUtils;
+import org.matsim.testcases.MatsimTestUtils;
+
+/**
+ * Checks that the handlers which are always registered by the controler handle link events by their attributes, so the
+ * default events manager does not create link event objects unless e.g. the events are written.
+ */
+public class LinkEventsWithDefaultBindingsTest {
+
+	@RegisterExtension
+	private MatsimTestUtils utils = new MatsimTestUtils();
+
+	@Test
+	void testDefaultHandlersDoNotRequireLinkEventObjects() {
+		Config config = ConfigUtils.loadConfig(IOUtils.extendUrl(ExamplesUtils.getTestScenarioURL("equil"), "config.xml"));
+		config.controller().setOutputDirectory(this.utils.getOutputDirectory());
+		config.controller().setOverwriteFileSetting(OutputDirectoryHierarchy.OverwriteFileSetting.deleteDirectoryIfExists);
+		config.controller().setLastIteration(0);
+		config.controller().setWriteEventsInterval(0);
+		config.controller().setCreateGraphs(false);
+
+		RingBufferEventsManagerTest.RecordingLinkHandler linkHandler = new RingBufferEventsManagerTest.RecordingLinkHandler();
+		List<EventsManager> eventsManagers = new ArrayList<>();
+		List<Boolean> requiresLinkEventObjects = new ArrayList<>();
+
+		Controler controler = new Controler(config);
+		controler.addOverridingModule(new AbstractModule() {
+			@Override
+			public void install() {
+				addEventHandlerBinding().toInstance(linkHandler);
+				addControlerListenerBinding().toInstance((AfterMobsimListener) (AfterMobsimEvent event) -> {
+					EventsManager events = event.getServices().getEvents();
+					eventsManagers.add(events);
+					if (events instanceof SimStepParallelEventsManagerImpl simStepEvents) {
+						requiresLinkEventObjects.add(simStepEvents.requiresLinkEventObjects());
+					}
+				});
+			}
+		});
+		controler.run();
+
+		Assertions.assertEquals(1, eventsManagers.size());
+		Assertions.assertTrue(eventsManagers.get(0) instanceof SimStepParallelEventsManagerImpl,
+				"unexpected default events manager " + eventsManagers.get(0).getClass());
+		Assertions.assertEquals(List.of(false), requiresLinkEventObjects,
+				"a handler registered by default requires link event objects");
+		Assertions.assertFalse(linkHandler.events.isEmpty());
+		Assertions.assertEquals(0, linkHandler.eventObjects);
+	}
+}
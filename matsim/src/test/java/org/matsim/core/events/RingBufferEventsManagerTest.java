@@ -0,0 +1,258 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * RingBufferEventsManagerTest.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.events;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.events.LinkEnterEvent;
+import org.matsim.api.core.v01.events.LinkLeaveEvent;
+import org.matsim.api.core.v01.events.PersonStuckEvent;
+import org.matsim.api.core.v01.events.handler.LinkEnterEventHandler;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.config.Config;
+import org.matsim.core.config.ConfigUtils;
+import org.matsim.core.events.handler.LinkEnterLeaveHandler;
+import org.matsim.testcases.utils.EventsCollector;
+import org.matsim.vehicles.Vehicle;
+
+public class RingBufferEventsManagerTest {
+
+	@Test
+	void testEventHandlerCanProduceAdditionalEventLateInSimStep() {
+		final RingBufferEventsManager events = new RingBufferEventsManager(8);
+		events.addHandler(new LinkEnterEventHandler() {
+			@Override
+			public void handleEvent(LinkEnterEvent event) {
+				try {
+					Thread.sleep(10);
+				} catch (InterruptedException e) {
+					e.printStackTrace();
+				}
+				events.processEvent(new PersonStuckEvent(event.getTime(), Id.createPersonId(0), Id.createLinkId(0), "car"));
+			}
+
+			@Override
+			public void reset(int iteration) {}
+		});
+		EventsCollector collector = new EventsCollector();
+		events.addHandler(collector);
+		events.initProcessing();
+		events.processEvent(new LinkEnterEvent(0.0, Id.createVehicleId(0), Id.createLinkId(0)));
+		events.processEvent(new LinkLeaveEvent(0.0, Id.createVehicleId(0), Id.createLinkId(0)));
+		events.afterSimStep(0.0);
+		Assertions.assertThat(collector.getEvents()).hasSize(3);
+		events.processEvent(new LinkEnterEvent(1.0, Id.createVehicleId(0), Id.createLinkId(0)));
+		events.processEvent(new LinkLeaveEvent(1.0, Id.createVehicleId(0), Id.createLinkId(0)));
+		events.afterSimStep(1.0);
+		events.finishProcessing();
+
+		Assertions.assertThat(collector.getEvents()).containsExactly(
+				new LinkEnterEvent(0.0, Id.createVehicleId(0), Id.createLinkId(0)),
+				new LinkLeaveEvent(0.0, Id.createVehicleId(0), Id.createLinkId(0)),
+				new PersonStuckEvent(0.0, Id.createPersonId(0), Id.createLinkId(0), "car"),
+				new LinkEnterEvent(1.0, Id.createVehicleId(0), Id.createLinkId(0)),
+				new LinkLeaveEvent(1.0, Id.createVehicleId(0), Id.createLinkId(0)),
+				new PersonStuckEvent(1.0, Id.createPersonId(0), Id.createLinkId(0), "car"));
+	}
+
+	@Test
+	void testEventsAreChronologicallyOrdered() {
+		RingBufferEventsManager events = new RingBufferEventsManager(2);
+		EventsCollector collector = new EventsCollector();
+		events.addHandler(collector);
+		events.initProcessing();
+		events.processEvent(new LinkEnterEvent(10.0, Id.createVehicleId(0), Id.createLinkId(0)));
+		events.processEvent(new LinkLeaveEvent(50.0, Id.createVehicleId(0), Id.createLinkId(0)));
+		events.processEvent(new LinkEnterEvent(49.0, Id.createVehicleId(0), Id.createLinkId(0)));
+		events.processEvent(new LinkLeaveEvent(69.0, Id.createVehicleId(0), Id.createLinkId(0)));
+		Assertions.assertThatThrownBy(events::finishProcessing).hasMessageContaining("Exception while processing events");
+	}
+
+	@Test
+	void testBatchesWrapAroundSmallBuffer() {
+		RingBufferEventsManager events = new RingBufferEventsManager(3, 16);
+		List<EventsCollector> collectors = new ArrayList<>();
+		for (int i = 0; i < 5; i++) {
+			EventsCollector collector = new EventsCollector();
+			collectors.add(collector);
+			events.addHandler(collector);
+		}
+
+		List<LinkEnterEvent> expected = new ArrayList<>();
+		events.initProcessing();
+		for (int time = 0; time < 10; time++) {
+			EventArray batch = new EventArray();
+			for (int i = 0; i < 100; i++) {
+				LinkEnterEvent event = new LinkEnterEvent(time, Id.createVehicleId(i), Id.createLinkId(time));
+				expected.add(event);
+				if (i % 2 == 0) {
+					events.processEvent(event);
+				} else {
+					batch.add(event);
+					events.processEvents(batch);
+					batch = new EventArray();
+				}
+			}
+			events.afterSimStep(time);
+		}
+		events.finishProcessing();
+
+		for (EventsCollector collector : collectors) {
+			Assertions.assertThat(collector.getEvents()).containsExactlyElementsOf(expected);
+		}
+	}
+
+	@Test
+	void testMultipleProducers() throws InterruptedException {
+		RingBufferEventsManager events = new RingBufferEventsManager(2, 64);
+		EventsManagerImplTest.CountingMyEventHandler handler1 = new EventsManagerImplTest.CountingMyEventHandler();
+		EventsManagerImplTest.CountingMyEventHandler handler2 = new EventsManagerImplTest.CountingMyEventHandler();
+		events.addHandler(handler1);
+		events.addHandler(handler2);
+		events.initProcessing();
+
+		int numberOfProducers = 4;
+		int eventsPerProducer = 10_000;
+		for (int time = 0; time < 3; time++) {
+			final double now = time;
+			List<Thread> producers = new ArrayList<>();
+			for (int p = 0; p < numberOfProducers; p++) {
+				Thread producer = new Thread(() -> {
+					for (int i = 0; i < eventsPerProducer; i++) {
+						events.processEvent(new EventsManagerImplTest.MyEvent(now));
+					}
+				});
+				producers.add(producer);
+				producer.start();
+			}
+			for (Thread producer : producers) {
+				producer.join();
+			}
+			events.afterSimStep(time);
+			Assertions.assertThat(handler1.counter).isEqualTo((time + 1) * numberOfProducers * eventsPerProducer);
+			Assertions.assertThat(handler2.counter).isEqualTo((time + 1) * numberOfProducers * eventsPerProducer);
+		}
+		events.finishProcessing();
+	}
+
+	@Test
+	void testLinkEventsWithoutEventObjects() {
+		RingBufferEventsManager events = new RingBufferEventsManager(2, 16);
+		RecordingLinkHandler handler1 = new RecordingLinkHandler();
+		RecordingLinkHandler handler2 = new RecordingLinkHandler();
+		EventsManagerImplTest.CountingMyEventHandler otherHandler = new EventsManagerImplTest.CountingMyEventHandler();
+		events.addHandler(handler1);
+		events.addHandler(handler2);
+		events.addHandler(otherHandler);
+
+		List<String> expected = new ArrayList<>();
+		events.initProcessing();
+		for (int time = 0; time < 10; time++) {
+			for (int i = 0; i < 10; i++) {
+				events.processLinkLeaveEvent(time, Id.createVehicleId(i), Id.createLinkId(time));
+				events.processEvent(new EventsManagerImplTest.MyEvent(time));
+				events.processLinkEnterEvent(time, Id.createVehicleId(i), Id.createLinkId(time + 1));
+				expected.add("leave " + (double) time + " " + i + " " + time);
+				expected.add("enter " + (double) time + " " + i + " " + (time + 1));
+			}
+			events.afterSimStep(time);
+		}
+		events.finishProcessing();
+
+		for (RecordingLinkHandler handler : List.of(handler1, handler2)) {
+			Assertions.assertThat(handler.events).containsExactlyElementsOf(expected);
+			Assertions.assertThat(handler.eventObjects).isZero();
+		}
+		Assertions.assertThat(otherHandler.counter).isEqualTo(100);
+	}
+
+	@Test
+	void testLinkEventsForLegacyHandlers() {
+		RingBufferEventsManager events = new RingBufferEventsManager(2);
+		RecordingLinkHandler handler = new RecordingLinkHandler();
+		EventsCollector collector = new EventsCollector();
+		events.addHandler(handler);
+		events.addHandler(collector);
+
+		events.initProcessing();
+		events.processLinkLeaveEvent(1.0, Id.createVehicleId(0), Id.createLinkId(0));
+		events.processEvent(new PersonStuckEvent(1.0, Id.createPersonId(0), Id.createLinkId(1), "car"));
+		events.processLinkEnterEvent(2.0, Id.createVehicleId(0), Id.createLinkId(1));
+		events.afterSimStep(2.0);
+		events.finishProcessing();
+
+		Assertions.assertThat(collector.getEvents()).containsExactly(
+				new LinkLeaveEvent(1.0, Id.createVehicleId(0), Id.createLinkId(0)),
+				new PersonStuckEvent(1.0, Id.createPersonId(0), Id.createLinkId(1), "car"),
+				new LinkEnterEvent(2.0, Id.createVehicleId(0), Id.createLinkId(1)));
+		Assertions.assertThat(handler.events).containsExactly("leave 1.0 0 0", "enter 2.0 0 1");
+	}
+
+	@Test
+	void testSelectableViaConfig() {
+		Config config = ConfigUtils.createConfig();
+		config.eventsManager().setNumberOfThreads(2);
+		config.eventsManager().setUseRingBuffers(true);
+		EventsManager events = EventsUtils.createEventsManager(config);
+		Assertions.assertThat(events).isInstanceOf(RingBufferEventsManager.class);
+		Assertions.assertThat(EventsUtils.getParallelFeedableInstance(events)).isSameAs(events);
+	}
+
+	/**
+	 * Records the link events, and counts how often they are passed as event objects.
+	 */
+	static class RecordingLinkHandler implements LinkEnterLeaveHandler {
+		final List<String> events = new ArrayList<>();
+		int eventObjects = 0;
+
+		@Override
+		public void handleLinkEnter(double time, Id<Vehicle> vehicleId, Id<Link> linkId) {
+			this.events.add("enter " + time + " " + vehicleId + " " + linkId);
+		}
+
+		@Override
+		public void handleLinkLeave(double time, Id<Vehicle> vehicleId, Id<Link> linkId) {
+			this.events.add("leave " + time + " " + vehicleId + " " + linkId);
+		}
+
+		@Override
+		public void handleEvent(LinkEnterEvent event) {
+			this.eventObjects++;
+			LinkEnterLeaveHandler.super.handleEvent(event);
+		}
+
+		@Override
+		public void handleEvent(LinkLeaveEvent event) {
+			this.eventObjects++;
+			LinkEnterLeaveHandler.super.handleEvent(event);
+		}
+
+		@Override
+		public void reset(int iteration) {
+			this.events.clear();
+		}
+	}
+}
@@ -69,6 +69,30 @@ import org.matsim.testcases.utils.EventsCollector;
 					new PersonStuckEvent(1.0, Id.createPersonId(0), Id.createLinkId(0), "car"));
 	}
 
+	@Test
+	void testLinkEventsWithoutEventObjects() {
+		SimStepParallelEventsManagerImpl events = new SimStepParallelEventsManagerImpl(2);
+		RingBufferEventsManagerTest.RecordingLinkHandler linkHandler = new RingBufferEventsManagerTest.RecordingLinkHandler();
+		RingBufferEventsManagerTest.RecordingLinkHandler otherLinkHandler = new RingBufferEventsManagerTest.RecordingLinkHandler();
+		events.addHandler(linkHandler);
+		events.addHandler(otherLinkHandler);
+		Assertions.assertThat(events.requiresLinkEventObjects()).isFalse();
+
+		events.initProcessing();
+		events.processLinkEnterEvent(0.0, Id.createVehicleId(0), Id.createLinkId(0));
+		events.processEvent(new PersonStuckEvent(0.0, Id.createPersonId(0), Id.createLinkId(0), "car"));
+		events.processLinkLeaveEvent(0.0, Id.createVehicleId(0), Id.createLinkId(0));
+		events.afterSimStep(0.0);
+		events.processLinkEnterEvent(1.0, Id.createVehicleId(0), Id.createLinkId(1));
+		events.afterSimStep(1.0);
+		events.finishProcessing();
+
+		Assertions.assertThat(linkHandler.events).containsExactly("enter 0.0 0 0", "leave 0.0 0 0", "enter 1.0 0 1");
+		Assertions.assertThat(otherLinkHandler.events).containsExactly("enter 0.0 0 0", "leave 0.0 0 0", "enter 1.0 0 1");
+		Assertions.assertThat(linkHandler.eventObjects).isZero();
+		Assertions.assertThat(otherLinkHandler.eventObjects).isZero();
+	}
+
 	@Test
 	void testEventsAreChronologicallyOrdered() {
 		SimStepParallelEventsManagerImpl events = new SimStepParallelEventsManagerImpl(2);
@@ -0,0 +1,190 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.events.algorithms;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Set;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.events.ActivityEndEvent;
+import org.matsim.api.core.v01.events.Event;
+import org.matsim.api.core.v01.events.GenericEvent;
+import org.matsim.api.core.v01.events.HasLinkId;
+import org.matsim.api.core.v01.events.LinkEnterEvent;
+import org.matsim.api.core.v01.events.LinkLeaveEvent;
+import org.matsim.api.core.v01.events.PersonDepartureEvent;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.config.groups.ControllerConfigGroup;
+import org.matsim.core.events.EventsReaderBinary;
+import org.matsim.core.events.EventsUtils;
+import org.matsim.core.events.MatsimEventsReader;
+import org.matsim.testcases.MatsimTestUtils;
+import org.matsim.testcases.utils.EventsCollector;
+import org.matsim.vehicles.Vehicle;
+
+public class EventWriterBinaryTest {
+
+	@RegisterExtension private MatsimTestUtils utils = new MatsimTestUtils();
+
+	@Test
+	void testWriteReadStream() {
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		EventWriterBinary writer = new EventWriterBinary(baos);
+
+		writer.handleEvent(new LinkLeaveEvent(3600.0, Id.create("vehicle>3", Vehicle.class), Id.create("link<2", Link.class)));
+		writer.handleEvent(new ActivityEndEvent(3601.5, Id.create("1", Person.class), Id.create("link<2", Link.class), null, "home", new Coord(1.5, 2.5)));
+		writer.handleEvent(new PersonDepartureEvent(3602.0, Id.create("1", Person.class), Id.create("link<2", Link.class), "car", "car"));
+		GenericEvent generic = new GenericEvent("TEST", 3603.0);
+		generic.getAttributes().put("dummy", null);
+		generic.getAttributes().put("name", "ä€");
+		writer.handleEvent(generic);
+		writer.handleEvent(new LinkLeaveEvent(3604.0, Id.create("vehicle\"4", Vehicle.class), Id.create("link'3", Link.class)));
+		writer.closeFile();
+
+		EventsCollector collector = read(new ByteArrayInputStream(baos.toByteArray()));
+
+		Assertions.assertEquals(5, collector.getEvents().size());
+		LinkLeaveEvent event1 = (LinkLeaveEvent) collector.getEvents().get(0);
+		Assertions.assertEquals(3600.0, event1.getTime(), 0.0);
+		Assertions.assertEquals("link<2", event1.getLinkId().toString());
+		Assertions.assertEquals("vehicle>3", event1.getVehicleId().toString());
+
+		ActivityEndEvent event2 = (ActivityEndEvent) collector.getEvents().get(1);
+		Assertions.assertEquals(3601.5, event2.getTime(), 0.0);
+		Assertions.assertEquals("home", event2.getActType());
+		Assertions.assertNull(event2.getFacilityId());
+		Assertions.assertEquals(new Coord(1.5, 2.5), event2.getCoord());
+
+		PersonDepartureEvent event3 = (PersonDepartureEvent) collector.getEvents().get(2);
+		Assertions.assertEquals("car", event3.getLegMode());
+
+		GenericEvent event4 = (GenericEvent) collector.getEvents().get(3);
+		Assertions.assertTrue(event4.getAttributes().containsKey("dummy"));
+		Assertions.assertNull(event4.getAttributes().get("dummy"));
+		Assertions.assertEquals("ä€", event4.getAttributes().get("name"));
+
+		LinkLeaveEvent event5 = (LinkLeaveEvent) collector.getEvents().get(4);
+		Assertions.assertEquals("link'3", event5.getLinkId().toString());
+		Assertions.assertEquals("vehicle\"4", event5.getVehicleId().toString());
+	}
+
+	@Test
+	void testNumbersAreStoredAsNumbers() {
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		EventWriterBinary writer = new EventWriterBinary(baos);
+		for (int i = 0; i < 1000; i++) {
+			GenericEvent event = new GenericEvent("TEST", i + 0.5);
+			event.getAttributes().put("distance", Double.toString(i * 1.25));
+			if (i % 2 == 0) {
+				event.getAttributes().put("x", Double.toString(-i / 3.0));
+			}
+			event.getAttributes().put("person", "1");
+			writer.handleEvent(event);
+		}
+		// type and keys, the person id, but no numbers
+		Assertions.assertEquals(5, writer.getDictionarySize());
+
+		GenericEvent mixed = new GenericEvent("TEST", 2000.0);
+		mixed.getAttributes().put("distance", "far");
+		writer.handleEvent(mixed);
+		writer.closeFile();
+
+		EventsCollector collector = read(new ByteArrayInputStream(baos.toByteArray()));
+		Assertions.assertEquals(1001, collector.getEvents().size());
+		for (int i = 0; i < 1000; i++) {
+			GenericEvent event = (GenericEvent) collector.getEvents().get(i);
+			Assertions.assertEquals(i + 0.5, event.getTime(), 0.0);
+			Assertions.assertEquals(Double.toString(i * 1.25), event.getAttributes().get("distance"));
+			Assertions.assertEquals(i % 2 == 0 ? Double.toString(-i / 3.0) : null, event.getAttributes().get("x"));
+			Assertions.assertEquals(i % 2 == 0, event.getAttributes().containsKey("x"));
+			Assertions.assertEquals("1", event.getAttributes().get("person"));
+		}
+		Assertions.assertEquals("far", ((GenericEvent) collector.getEvents().get(1000)).getAttributes().get("distance"));
+
+		Assertions.assertTrue(EventWriterBinary.isNumber("-12.5"));
+		Assertions.assertTrue(EventWriterBinary.isNumber("1.0E10"));
+		Assertions.assertFalse(EventWriterBinary.isNumber("1"));
+		Assertions.assertFalse(EventWriterBinary.isNumber("12.50"));
+		Assertions.assertFalse(EventWriterBinary.isNumber("car"));
+		Assertions.assertFalse(EventWriterBinary.isNumber(""));
+	}
+
+	@Test
+	void testMemoryMappedFileWithFilters() {
+		String filename = this.utils.getOutputDirectory() + "events.bin";
+		int count = 3 * EventWriterBinary.BLOCK_SIZE + 17;
+
+		EventWriterBinary writer = new EventWriterBinary(filename);
+		for (int i = 0; i < count; i++) {
+			Id<Vehicle> vehicleId = Id.create(i % 100, Vehicle.class);
+			Id<Link> linkId = Id.create(i % 1000, Link.class);
+			writer.handleEvent(i % 2 == 0 ? new LinkEnterEvent(i, vehicleId, linkId) : new LinkLeaveEvent(i, vehicleId, linkId));
+		}
+		writer.closeFile();
+
+		EventsManager events = EventsUtils.createEventsManager();
+		EventsCollector collector = new EventsCollector();
+		events.addHandler(collector);
+		events.initProcessing();
+		new MatsimEventsReader(events).readFile(filename);
+		events.finishProcessing();
+
+		Assertions.assertEquals(count, collector.getEvents().size());
+		for (int i = 0; i < count; i++) {
+			Event event = collector.getEvents().get(i);
+			Assertions.assertEquals(i, event.getTime(), 0.0);
+			Assertions.assertEquals(i % 2 == 0 ? LinkEnterEvent.EVENT_TYPE : LinkLeaveEvent.EVENT_TYPE, event.getEventType());
+			Assertions.assertEquals(Integer.toString(i % 1000), ((HasLinkId) event).getLinkId().toString());
+		}
+
+		collector.reset(0);
+		events.initProcessing();
+		EventsReaderBinary reader = new EventsReaderBinary(events);
+		double from = EventWriterBinary.BLOCK_SIZE + 10;
+		double to = 2 * EventWriterBinary.BLOCK_SIZE + 20;
+		reader.setTimeRange(from, to);
+		reader.setEventTypes(Set.of(LinkLeaveEvent.EVENT_TYPE));
+		reader.readFile(filename);
+		events.finishProcessing();
+
+		Assertions.assertEquals((int) (to - from) / 2, collector.getEvents().size());
+		for (Event event : collector.getEvents()) {
+			Assertions.assertTrue(event instanceof LinkLeaveEvent);
+			Assertions.assertTrue(event.getTime() >= from && event.getTime() <= to);
+		}
+	}
+
+	private static EventsCollector read(ByteArrayInputStream stream) {
+		EventsManager events = EventsUtils.createEventsManager();
+		EventsCollector collector = new EventsCollector();
+		events.addHandler(collector);
+		events.initProcessing();
+		new MatsimEventsReader(events).readStream(stream, ControllerConfigGroup.EventsFileFormat.binary);
+		events.finishProcessing();
+		return collector;
+	}
+}
@@ -0,0 +1,141 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+package org.matsim.core.mobsim.hermes;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.Scenario;
+import org.matsim.api.core.v01.TransportMode;
+import org.matsim.api.core.v01.events.Event;
+import org.matsim.api.core.v01.events.PersonArrivalEvent;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.api.core.v01.population.Activity;
+import org.matsim.api.core.v01.population.Leg;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.api.core.v01.population.Plan;
+import org.matsim.api.core.v01.population.PopulationFactory;
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.config.ConfigUtils;
+import org.matsim.core.controler.PrepareForSimUtils;
+import org.matsim.core.events.EventsUtils;
+import org.matsim.core.network.NetworkUtils;
+import org.matsim.core.population.routes.RouteUtils;
+import org.matsim.core.router.TripStructureUtils;
+import org.matsim.core.scenario.ScenarioUtils;
+import org.matsim.testcases.utils.EventsCollector;
+
+/**
+ * Compares Hermes running with several realms on a partitioned network with the single realm mode.
+ */
+public class ParallelRealmsTest {
+
+	private static final int NODES = 11;
+
+	@BeforeEach
+	public void prepareTest() {
+		Id.resetCaches();
+		ScenarioImporter.flush();
+		HermesConfigGroup.SIM_STEPS = 30 * 60 * 60;
+	}
+
+	@Test
+	void testUncongestedSameEventsAsSingleRealm() {
+		List<String> single = toStrings(run(1, 60));
+		List<String> partitioned = toStrings(run(3, 60));
+
+		Assertions.assertEquals(40, single.stream().filter(s -> s.contains(PersonArrivalEvent.EVENT_TYPE)).count());
+		// without congestion, agents crossing realm boundaries must not be delayed
+		single.sort(null);
+		partitioned.sort(null);
+		Assertions.assertEquals(single, partitioned);
+	}
+
+	@Test
+	void testCongestedDeterministic() {
+		List<Event> first = run(4, 1);
+		List<Event> second = run(4, 1);
+
+		Assertions.assertEquals(40, first.stream().filter(e -> e instanceof PersonArrivalEvent).count());
+		Assertions.assertEquals(toStrings(first), toStrings(second));
+		for (int i = 1; i < first.size(); i++) {
+			Assertions.assertTrue(first.get(i - 1).getTime() <= first.get(i).getTime(), "events are not sorted by time");
+		}
+	}
+
+	private static List<String> toStrings(List<Event> events) {
+		List<String> strings = new ArrayList<>();
+		for (Event event : events) {
+			strings.add(event.toString());
+		}
+		return strings;
+	}
+
+	/**
+	 * Runs 40 agents along a corridor of {@link #NODES} nodes, half of them in each direction.
+	 */
+	private static List<Event> run(int realms, int departureInterval) {
+		Id.resetCaches();
+		ScenarioImporter.flush();
+
+		Scenario scenario = ScenarioUtils.createScenario(ConfigUtils.createConfig());
+		scenario.getConfig().hermes().setNumberOfRealms(realms);
+		Network network = scenario.getNetwork();
+		List<Id<Link>> forward = new ArrayList<>();
+		List<Id<Link>> backward = new ArrayList<>();
+		Node previous = NetworkUtils.createAndAddNode(network, Id.createNodeId(0), new Coord(0, 0));
+		for (int i = 1; i < NODES; i++) {
+			Node node = NetworkUtils.createAndAddNode(network, Id.createNodeId(i), new Coord(1000 * i, 0));
+			forward.add(NetworkUtils.createAndAddLink(network, Id.createLinkId("f" + i), previous, node, 1000, 20, 1800, 1).getId());
+			backward.add(0, NetworkUtils.createAndAddLink(network, Id.createLinkId("b" + i), node, previous, 1000, 20, 1800, 1).getId());
+			previous = node;
+		}
+
+		PopulationFactory factory = scenario.getPopulation().getFactory();
+		for (int i = 0; i < 40; i++) {
+			List<Id<Link>> links = i % 2 == 0 ? forward : backward;
+			Person person = factory.createPerson(Id.createPersonId(i));
+			Plan plan = factory.createPlan();
+			Activity home = factory.createActivityFromLinkId("h", links.get(0));
+			home.setEndTime(6 * 3600 + i * departureInterval);
+			plan.addActivity(home);
+			Leg leg = factory.createLeg(TransportMode.car);
+			TripStructureUtils.setRoutingMode(leg, TransportMode.car);
+			leg.setRoute(RouteUtils.createLinkNetworkRouteImpl(links.get(0), links.subList(1, links.size() - 1), links.get(links.size() - 1)));
+			plan.addLeg(leg);
+			plan.addActivity(factory.createActivityFromLinkId("w", links.get(links.size() - 1)));
+			person.addPlan(plan);
+			scenario.getPopulation().addPerson(person);
+		}
+
+		EventsManager events = EventsUtils.createEventsManager();
+		EventsCollector collector = new EventsCollector();
+		events.addHandler(collector);
+		PrepareForSimUtils.createDefaultPrepareForSim(scenario).run();
+		new HermesBuilder().build(scenario, events).run();
+		return collector.getEvents();
+	}
+}
@@ -0,0 +1,104 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * CalendarQueueTest.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.mobsim.qsim;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class CalendarQueueTest {
+
+	@Test
+	void testSameOrderAsPriorityQueue() {
+		Comparator<Integer> tieBreaker = Comparator.reverseOrder();
+		CalendarQueue<Integer> calendar = new CalendarQueue<>(1.0, tieBreaker);
+		Map<Integer, Double> times = new HashMap<>();
+		PriorityQueue<Integer> reference = new PriorityQueue<>(Comparator.<Integer>comparingDouble(times::get).thenComparing(tieBreaker));
+
+		// the calendar queue finds elements by identity, so the elements are boxed only once
+		Integer[] elements = new Integer[1000];
+		Random random = new Random(20250401);
+		for (int i = 0; i < elements.length; i++) {
+			elements[i] = i;
+			// some before the first time step, some in between time steps, and some with the same time
+			double time = random.nextInt(3) == 0 ? random.nextInt(100) : random.nextDouble() * 120 - 10;
+			calendar.add(elements[i], time);
+			times.put(elements[i], time);
+			reference.add(elements[i]);
+		}
+
+		List<Integer> polled = new ArrayList<>();
+		List<Integer> expected = new ArrayList<>();
+		for (double now = 0; now < 200; now++) {
+			// reschedule some elements, also into the past and within the current time step
+			for (int k = 0; k < 5; k++) {
+				Integer element = elements[random.nextInt(elements.length)];
+				if (reference.remove(element)) {
+					Assertions.assertTrue(calendar.remove(element));
+					double time = now + random.nextDouble() * 20 - 5;
+					calendar.add(element, time);
+					times.put(element, time);
+					reference.add(element);
+				} else {
+					Assertions.assertFalse(calendar.contains(element));
+				}
+			}
+			Integer element;
+			while ((element = calendar.poll(now)) != null) {
+				polled.add(element);
+			}
+			while (!reference.isEmpty() && times.get(reference.peek()) <= now) {
+				expected.add(reference.poll());
+			}
+			Assertions.assertEquals(expected, polled, "at time " + now);
+			Assertions.assertEquals(reference.size(), calendar.size());
+		}
+		Assertions.assertTrue(calendar.isEmpty());
+	}
+
+	@Test
+	void testAddWhilePolling() {
+		CalendarQueue<String> calendar = new CalendarQueue<>(1.0, Comparator.naturalOrder());
+		calendar.add("a", 10);
+		calendar.add("c", 10);
+		calendar.add("d", 10.5);
+
+		Assertions.assertEquals("a", calendar.poll(10));
+		// e.g. a teleportation with zero travel time, which arrives in the same time step
+		calendar.add("b", 10);
+		Assertions.assertEquals("b", calendar.poll(10));
+		Assertions.assertEquals("c", calendar.poll(10));
+		Assertions.assertNull(calendar.poll(10));
+
+		calendar.add("a", 10.5);
+		Assertions.assertEquals(List.of("a", "d"), calendar.getSortedElements());
+		Assertions.assertEquals("a", calendar.poll(11));
+		Assertions.assertEquals("d", calendar.poll(11));
+		Assertions.assertNull(calendar.poll(11));
+	}
+}
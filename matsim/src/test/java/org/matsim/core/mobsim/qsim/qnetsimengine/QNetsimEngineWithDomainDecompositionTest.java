@@ -0,0 +1,164 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * QNetsimEngineWithDomainDecompositionTest.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.mobsim.qsim.qnetsimengine;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.Scenario;
+import org.matsim.api.core.v01.TransportMode;
+import org.matsim.api.core.v01.events.handler.PersonArrivalEventHandler;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.api.core.v01.population.Activity;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.api.core.v01.population.Plan;
+import org.matsim.api.core.v01.population.Population;
+import org.matsim.api.core.v01.population.PopulationFactory;
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.config.Config;
+import org.matsim.core.config.ConfigUtils;
+import org.matsim.core.config.groups.QSimConfigGroup;
+import org.matsim.core.controler.PrepareForSimUtils;
+import org.matsim.core.events.EventsUtils;
+import org.matsim.core.gbl.MatsimRandom;
+import org.matsim.core.mobsim.qsim.QSimBuilder;
+import org.matsim.core.network.NetworkUtils;
+import org.matsim.core.scenario.ScenarioUtils;
+
+public class QNetsimEngineWithDomainDecompositionTest {
+
+	/**
+	 * The runners of the domain decomposition may run ahead of each other within a time step, but the dynamics of the
+	 * network must not change. Compares the arrival times in a congested grid with those of the thread pool engine.
+	 */
+	@Test
+	void testSameArrivalTimesAsThreadpool() {
+		Map<Id<Person>, Double> threadpool = runQSim(QSimConfigGroup.NetsimEngineType.threadpool);
+		Map<Id<Person>, Double> domainDecomposition = runQSim(QSimConfigGroup.NetsimEngineType.domainDecomposition);
+
+		Assertions.assertEquals(400, threadpool.size());
+		Assertions.assertEquals(threadpool, domainDecomposition);
+	}
+
+	@Test
+	void testPartitionIsBalanced() {
+		// a grid of 10 x 10 points, where the points with x < 2 are four times as heavy as the others
+		double[] weights = new double[100];
+		double[] x = new double[100];
+		double[] y = new double[100];
+		for (int i = 0; i < 100; i++) {
+			x[i] = i % 10;
+			y[i] = i / 10;
+			weights[i] = x[i] < 2 ? 4 : 1;
+		}
+		int[] parts = QNetsimEngineWithDomainDecomposition.partition(weights, x, y, 3);
+
+		double[] partWeights = new double[3];
+		for (int i = 0; i < 100; i++) {
+			partWeights[parts[i]] += weights[i];
+		}
+		for (double partWeight : partWeights) {
+			Assertions.assertEquals(160. / 3, partWeight, 10);
+		}
+		// the heavy points are split into smaller parts
+		Assertions.assertEquals(parts[0], parts[1]);
+		Assertions.assertNotEquals(parts[0], parts[9]);
+	}
+
+	private static Map<Id<Person>, Double> runQSim(QSimConfigGroup.NetsimEngineType engineType) {
+		MatsimRandom.reset();
+		Scenario scenario = createScenario(engineType);
+		Map<Id<Person>, Double> arrivalTimes = new HashMap<>();
+		EventsManager events = EventsUtils.createEventsManager();
+		events.addHandler((PersonArrivalEventHandler) event -> arrivalTimes.put(event.getPersonId(), event.getTime()));
+
+		PrepareForSimUtils.createDefaultPrepareForSim(scenario).run();
+		new QSimBuilder(scenario.getConfig()) //
+				.useDefaults() //
+				.build(scenario, events) //
+				.run();
+		return arrivalTimes;
+	}
+
+	/**
+	 * A grid of 6 x 6 nodes with links of low capacity, and 400 agents driving between random links within 10 minutes.
+	 */
+	private static Scenario createScenario(QSimConfigGroup.NetsimEngineType engineType) {
+		Config config = ConfigUtils.createConfig();
+		config.qsim().setNumberOfThreads(3);
+		config.qsim().setNetsimEngineType(engineType);
+		config.qsim().setEndTime(24 * 3600);
+		Scenario scenario = ScenarioUtils.createScenario(config);
+
+		Network network = scenario.getNetwork();
+		int size = 6;
+		Node[][] nodes = new Node[size][size];
+		for (int x = 0; x < size; x++) {
+			for (int y = 0; y < size; y++) {
+				nodes[x][y] = NetworkUtils.createAndAddNode(network, Id.createNodeId(x + "_" + y), new Coord(x * 500, y * 500));
+			}
+		}
+		List<Link> links = new ArrayList<>();
+		for (int x = 0; x < size; x++) {
+			for (int y = 0; y < size; y++) {
+				if (x + 1 < size) {
+					links.add(addLink(network, nodes[x][y], nodes[x + 1][y]));
+					links.add(addLink(network, nodes[x + 1][y], nodes[x][y]));
+				}
+				if (y + 1 < size) {
+					links.add(addLink(network, nodes[x][y], nodes[x][y + 1]));
+					links.add(addLink(network, nodes[x][y + 1], nodes[x][y]));
+				}
+			}
+		}
+
+		Population population = scenario.getPopulation();
+		PopulationFactory factory = population.getFactory();
+		Random random = new Random(20250301);
+		for (int i = 0; i < 400; i++) {
+			Link from = links.get(random.nextInt(links.size()));
+			Link to = links.get(random.nextInt(links.size()));
+			Person person = factory.createPerson(Id.createPersonId(i));
+			Plan plan = factory.createPlan();
+			Activity home = factory.createActivityFromLinkId("h", from.getId());
+			home.setEndTime(7 * 3600 + random.nextInt(600));
+			plan.addActivity(home);
+			plan.addLeg(factory.createLeg(TransportMode.car));
+			plan.addActivity(factory.createActivityFromLinkId("w", to.getId()));
+			person.addPlan(plan);
+			population.addPerson(person);
+		}
+		return scenario;
+	}
+
+	private static Link addLink(Network network, Node from, Node to) {
+		return NetworkUtils.createAndAddLink(network, Id.createLinkId(from.getId() + "-" + to.getId()), from, to, 500, 10, 300, 1);
+	}
+}
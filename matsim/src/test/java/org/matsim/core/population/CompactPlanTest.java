@@ -0,0 +1,233 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * CompactPlanTest.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.population;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.Scenario;
+import org.matsim.api.core.v01.TransportMode;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.population.Activity;
+import org.matsim.api.core.v01.population.Leg;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.api.core.v01.population.Plan;
+import org.matsim.api.core.v01.population.Population;
+import org.matsim.api.core.v01.population.PopulationFactory;
+import org.matsim.api.core.v01.population.Route;
+import org.matsim.core.config.Config;
+import org.matsim.core.config.ConfigUtils;
+import org.matsim.core.population.io.PopulationReader;
+import org.matsim.core.population.io.PopulationWriter;
+import org.matsim.core.population.routes.NetworkRoute;
+import org.matsim.core.population.routes.RouteUtils;
+import org.matsim.core.scenario.ScenarioUtils;
+import org.matsim.facilities.ActivityFacility;
+import org.matsim.vehicles.Vehicle;
+
+public class CompactPlanTest {
+
+	@Test
+	void testPlanElementsSurviveCompaction() {
+		Population population = createPopulation();
+		Person person = population.getPersons().get(Id.createPersonId("1"));
+		PlanImpl plan = (PlanImpl) person.getPlans().get(1);
+		Assertions.assertTrue(plan.isCompact());
+		Assertions.assertEquals(5, plan.getPlanElements().size());
+		Assertions.assertFalse(plan.isCompact());
+
+		Activity home = (Activity) plan.getPlanElements().get(0);
+		Assertions.assertEquals("home", home.getType());
+		Assertions.assertEquals(new Coord(10, 20), home.getCoord());
+		Assertions.assertEquals(Id.createLinkId("1"), home.getLinkId());
+		Assertions.assertEquals(Id.create("f1", ActivityFacility.class), home.getFacilityId());
+		Assertions.assertEquals(7.5 * 3600 + 0.25, home.getEndTime().seconds(), 0.0);
+		Assertions.assertTrue(home.getStartTime().isUndefined());
+		Assertions.assertEquals("value", home.getAttributes().getAttribute("key"));
+
+		Leg car = (Leg) plan.getPlanElements().get(1);
+		Assertions.assertEquals(TransportMode.car, car.getMode());
+		Assertions.assertEquals(TransportMode.car, car.getRoutingMode());
+		Assertions.assertEquals(7.5 * 3600, car.getDepartureTime().seconds(), 0.0);
+		NetworkRoute route = (NetworkRoute) car.getRoute();
+		Assertions.assertEquals(List.of(Id.createLinkId("2"), Id.createLinkId("3")), route.getLinkIds());
+		Assertions.assertEquals(Id.createLinkId("1"), route.getStartLinkId());
+		Assertions.assertEquals(Id.createLinkId("4"), route.getEndLinkId());
+		Assertions.assertEquals(Id.create("v1", Vehicle.class), route.getVehicleId());
+		Assertions.assertEquals(1234.5, route.getDistance(), 0.0);
+		Assertions.assertEquals(600, route.getTravelTime().seconds(), 0.0);
+
+		Activity interaction = (Activity) plan.getPlanElements().get(2);
+		Assertions.assertTrue(interaction instanceof InteractionActivity);
+		Assertions.assertEquals("car interaction", interaction.getType());
+
+		Leg walk = (Leg) plan.getPlanElements().get(3);
+		Assertions.assertEquals("some description", walk.getRoute().getRouteDescription());
+		Assertions.assertEquals(42, walk.getAttributes().getAttribute("answer"));
+
+		// changes are kept when compacting again
+		home.setEndTime(8 * 3600);
+		((PopulationImpl) population).compactUnselectedPlans();
+		Assertions.assertTrue(plan.isCompact());
+		Assertions.assertEquals(8 * 3600, ((Activity) plan.getPlanElements().get(0)).getEndTime().seconds(), 0.0);
+	}
+
+	@Test
+	void testSelectedPlanIsKeptForMobsim() {
+		PopulationImpl population = (PopulationImpl) createPopulation();
+		Person person = population.getPersons().get(Id.createPersonId("1"));
+		Assertions.assertTrue(person.getPlans().stream()
+				.filter(plan -> plan != person.getSelectedPlan())
+				.allMatch(plan -> ((PlanImpl) plan).isCompact()));
+
+		// materialize all plans, as e.g. when writing the population
+		person.getPlans().forEach(Plan::getPlanElements);
+		Plan oldSelectedPlan = person.getSelectedPlan();
+		Plan newPlan = person.createCopyOfSelectedPlanAndMakeSelected();
+		List<Plan> plans = List.copyOf(person.getPlans());
+		population.compactUnselectedPlans();
+
+		Assertions.assertSame(newPlan, person.getSelectedPlan());
+		Assertions.assertEquals(3, person.getPlans().size());
+		for (int i = 0; i < plans.size(); i++) {
+			// plans keep their identity, only their plan elements are compacted
+			Assertions.assertSame(plans.get(i), person.getPlans().get(i));
+		}
+		for (Plan plan : person.getPlans()) {
+			if (plan != newPlan) {
+				Assertions.assertTrue(((PlanImpl) plan).isCompact());
+			}
+		}
+		Assertions.assertTrue(((PlanImpl) oldSelectedPlan).isCompact());
+		Assertions.assertEquals(5, oldSelectedPlan.getPlanElements().size());
+	}
+
+	@Test
+	void testAddedPlansKeepSelectedPlan() {
+		Config config = ConfigUtils.createConfig();
+		config.plans().setCompactingPlans(true);
+		Population population = PopulationUtils.createPopulation(config);
+		PopulationFactory pf = population.getFactory();
+		Person person = pf.createPerson(Id.createPersonId("1"));
+		Plan planAdded = pf.createPlan();
+		planAdded.addActivity(pf.createActivityFromLinkId("home", Id.createLinkId("1")));
+		Plan otherPlan = pf.createPlan();
+		otherPlan.addActivity(pf.createActivityFromLinkId("work", Id.createLinkId("2")));
+		person.addPlan(otherPlan);
+		person.addPlan(planAdded);
+		person.setSelectedPlan(planAdded);
+		population.addPerson(person);
+
+		Assertions.assertSame(planAdded, person.getSelectedPlan());
+		Assertions.assertTrue(person.getPlans().contains(planAdded));
+		Assertions.assertEquals("home", ((Activity) person.getSelectedPlan().getPlanElements().get(0)).getType());
+		PlanImpl compactPlan = (PlanImpl) person.getPlans().get(0);
+		Assertions.assertTrue(compactPlan.isCompact());
+		Assertions.assertEquals("work", ((Activity) compactPlan.getPlanElements().get(0)).getType());
+	}
+
+	@Test
+	void testReadPopulation() {
+		Population population = PopulationUtils.createPopulation(ConfigUtils.createConfig());
+		fillPopulation(population);
+		ByteArrayOutputStream xml = new ByteArrayOutputStream();
+		new PopulationWriter(population).write(xml);
+
+		String expected = readAndWrite(xml.toByteArray(), false);
+		String actual = readAndWrite(xml.toByteArray(), true);
+		Assertions.assertEquals(expected, actual);
+	}
+
+	private static String readAndWrite(byte[] xml, boolean compactingPlans) {
+		Config config = ConfigUtils.createConfig();
+		config.plans().setCompactingPlans(compactingPlans);
+		Scenario scenario = ScenarioUtils.createScenario(config);
+		new PopulationReader(scenario).parse(new ByteArrayInputStream(xml));
+		if (compactingPlans) {
+			Person person = scenario.getPopulation().getPersons().get(Id.createPersonId("1"));
+			for (Plan plan : person.getPlans()) {
+				if (plan != person.getSelectedPlan()) {
+					Assertions.assertTrue(((PlanImpl) plan).isCompact());
+					Assertions.assertTrue(((PlanImpl) plan).getCompactSize() < 200);
+				}
+			}
+		}
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		new PopulationWriter(scenario.getPopulation()).write(out);
+		return out.toString();
+	}
+
+	private static Population createPopulation() {
+		Config config = ConfigUtils.createConfig();
+		config.plans().setCompactingPlans(true);
+		Population population = PopulationUtils.createPopulation(config);
+		fillPopulation(population);
+		return population;
+	}
+
+	private static void fillPopulation(Population population) {
+		PopulationFactory pf = population.getFactory();
+		Person person = pf.createPerson(Id.createPersonId("1"));
+		for (int i = 0; i < 2; i++) {
+			Plan plan = pf.createPlan();
+			plan.setScore(100.0 + i);
+
+			Activity home = pf.createActivityFromCoord("home", new Coord(10, 20));
+			home.setLinkId(Id.createLinkId("1"));
+			home.setFacilityId(Id.create("f1", ActivityFacility.class));
+			home.setEndTime(7.5 * 3600 + 0.25 * i);
+			home.getAttributes().putAttribute("key", "value");
+			plan.addActivity(home);
+
+			Leg car = pf.createLeg(TransportMode.car);
+			car.setRoutingMode(TransportMode.car);
+			car.setDepartureTime(7.5 * 3600);
+			NetworkRoute route = RouteUtils.createLinkNetworkRouteImpl(Id.createLinkId("1"), List.of(Id.createLinkId("2"), Id.createLinkId("3")), Id.createLinkId("4"));
+			route.setVehicleId(Id.create("v1", Vehicle.class));
+			route.setDistance(1234.5);
+			route.setTravelTime(600);
+			car.setRoute(route);
+			plan.addLeg(car);
+
+			plan.addActivity(pf.createInteractionActivityFromLinkId("car interaction", Id.createLinkId("4")));
+
+			Leg walk = pf.createLeg(TransportMode.walk);
+			walk.setRoutingMode(TransportMode.car);
+			Route walkRoute = RouteUtils.createGenericRouteImpl(Id.createLinkId("4"), Id.createLinkId("5"));
+			walkRoute.setRouteDescription("some description");
+			walk.setRoute(walkRoute);
+			walk.getAttributes().putAttribute("answer", 42);
+			plan.addLeg(walk);
+
+			Activity work = pf.createActivityFromLinkId("work", Id.createLinkId("5"));
+			work.setMaximumDuration(8 * 3600);
+			plan.addActivity(work);
+
+			person.addPlan(plan);
+		}
+		population.addPerson(person);
+	}
+}
@@ -27,8 +27,15 @@ import org.junit.jupiter.api.Test;
 import org.matsim.api.core.v01.population.Plan;
 import org.matsim.core.config.Config;
 import org.matsim.core.config.groups.GlobalConfigGroup;
+import org.matsim.core.config.groups.GlobalConfigGroup.ReplanningScheduling;
+import org.matsim.core.population.PopulationUtils;
 import org.matsim.core.population.algorithms.PlanAlgorithm;
 
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
 /**
  * @author mrieser
  */
@@ -61,6 +68,47 @@ public class AbstractMultithreadedModuleTest {
 
 	}
 
+	@Test
+	void testWorkStealingHandlesEachPlanOnce() {
+		Map<Plan, Thread> handledBy = new IdentityHashMap<>();
+		AbstractMultithreadedModule testee = new AbstractMultithreadedModule(3, ReplanningScheduling.workStealing) {
+			@Override
+			public PlanAlgorithm getPlanAlgoInstance() {
+				return plan -> {
+					synchronized (handledBy) {
+						Assertions.assertNull(handledBy.put(plan, Thread.currentThread()), "plan handled twice");
+					}
+					if (plan.getScore() != null) {
+						// a few slow plans, which must not delay the others
+						try {
+							Thread.sleep(50);
+						} catch (InterruptedException e) {
+							throw new RuntimeException(e);
+						}
+					}
+				};
+			}
+		};
+
+		List<Plan> plans = new ArrayList<>();
+		for (int i = 0; i < 1000; i++) {
+			Plan plan = PopulationUtils.createPlan();
+			if (i < 3) {
+				plan.setScore(1.0);
+			}
+			plans.add(plan);
+		}
+		for (int iteration = 0; iteration < 2; iteration++) {
+			handledBy.clear();
+			testee.prepareReplanning(null);
+			for (Plan plan : plans) {
+				testee.handlePlan(plan);
+			}
+			testee.finishReplanning();
+			Assertions.assertEquals(plans.size(), handledBy.size());
+		}
+	}
+
 	private static class DummyAbstractMultithreadedModule extends AbstractMultithreadedModule {
 		public DummyAbstractMultithreadedModule(GlobalConfigGroup globalConfigGroup) {
 			super(globalConfigGroup);
@@ -0,0 +1,50 @@
+package org.matsim.core.router.speedy;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class NodeMinHeapTest {
+
+	@Test
+	void testDecreaseKey() {
+		double[] cost = new double[10];
+		NodeMinHeap pq = new NodeMinHeap(10, i -> cost[i], (i, c) -> cost[i] = c);
+
+		cost[0] = 5;
+		cost[1] = 2;
+		cost[2] = 4;
+		pq.insert(2);
+		pq.insert(1);
+		pq.insert(0);
+
+		pq.decreaseKey(0, 1);
+		Assertions.assertEquals(1.0, cost[0]);
+		Assertions.assertEquals(0, pq.poll());
+		Assertions.assertEquals(1, pq.poll());
+		Assertions.assertEquals(2, pq.poll());
+		Assertions.assertTrue(pq.isEmpty());
+	}
+
+	@Test
+	void testDecreaseKeyOfPolledNode() {
+		double[] cost = new double[10];
+		NodeMinHeap pq = new NodeMinHeap(10, i -> cost[i], (i, c) -> cost[i] = c);
+
+		cost[0] = 1;
+		cost[1] = 2;
+		pq.insert(0);
+		pq.insert(1);
+		Assertions.assertEquals(0, pq.poll());
+
+		Assertions.assertThrows(IllegalArgumentException.class, () -> pq.decreaseKey(0, 0.5));
+		Assertions.assertThrows(IllegalArgumentException.class, () -> pq.decreaseKey(3, 0.5));
+
+		pq.decreaseKeyOrInsert(0, 0.5);
+		Assertions.assertEquals(2, pq.size());
+		Assertions.assertEquals(0, pq.poll());
+		pq.decreaseKeyOrInsert(1, 1.5);
+		Assertions.assertEquals(1.5, cost[1]);
+		Assertions.assertEquals(1, pq.poll());
+		Assertions.assertTrue(pq.isEmpty());
+	}
+}
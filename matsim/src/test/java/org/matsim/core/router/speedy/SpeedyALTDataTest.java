@@ -0,0 +1,162 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * SpeedyALTDataTest.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.router.speedy;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.core.network.NetworkUtils;
+import org.matsim.core.router.util.LeastCostPathCalculator;
+import org.matsim.core.router.util.LeastCostPathCalculator.Path;
+import org.matsim.core.router.util.TravelDisutility;
+import org.matsim.core.router.util.TravelTime;
+import org.matsim.vehicles.Vehicle;
+
+public class SpeedyALTDataTest {
+
+	@Test
+	void testUpdateWithCheaperLinks() {
+		Network network = createGridNetwork(20);
+		SpeedyGraph graph = SpeedyGraphBuilder.build(network);
+		ScaledTravelTime tt = new ScaledTravelTime();
+		SpeedyALTData data = new SpeedyALTData(graph, 8, tt);
+
+		Assertions.assertSame(data, data.update(SpeedyALTData.calcLinkCosts(graph, tt)));
+
+		List<Link> links = new ArrayList<>(network.getLinks().values());
+		Random random = new Random(4711);
+		for (int i = 0; i < 10; i++) {
+			tt.scales.put(links.get(random.nextInt(links.size())), 0.2);
+		}
+		double[] linkCosts = SpeedyALTData.calcLinkCosts(graph, tt);
+		SpeedyALTData updated = data.update(linkCosts);
+		SpeedyALTData recalculated = data.recalculate(linkCosts);
+		Assertions.assertNotSame(data, updated);
+		for (int node = 0; node < graph.nodeCount; node++) {
+			for (int landmark = 0; landmark < 8; landmark++) {
+				Assertions.assertEquals(recalculated.getTravelCostFromLandmark(node, landmark), updated.getTravelCostFromLandmark(node, landmark), 1e-6);
+				Assertions.assertEquals(recalculated.getTravelCostToLandmark(node, landmark), updated.getTravelCostToLandmark(node, landmark), 1e-6);
+			}
+		}
+	}
+
+	@Test
+	void testUpdateWithMoreExpensiveLinks() {
+		Network network = createGridNetwork(20);
+		SpeedyGraph graph = SpeedyGraphBuilder.build(network);
+		ScaledTravelTime tt = new ScaledTravelTime();
+		SpeedyALTData data = new SpeedyALTData(graph, 8, tt);
+
+		List<Link> links = new ArrayList<>(network.getLinks().values());
+		tt.scales.put(links.get(0), 5.0);
+		Assertions.assertSame(data, data.update(SpeedyALTData.calcLinkCosts(graph, tt)), "landmarks stay valid for more expensive links");
+
+		for (Link link : links) {
+			tt.scales.put(link, 2.0);
+		}
+		Assertions.assertNull(data.update(SpeedyALTData.calcLinkCosts(graph, tt)), "too many links changed");
+	}
+
+	@Test
+	void testFactoryUpdatesLandmarks() {
+		Network network = createGridNetwork(20);
+		SpeedyGraph graph = SpeedyGraphBuilder.build(network);
+		SpeedyALTFactory factory = new SpeedyALTFactory();
+		List<Node> nodes = new ArrayList<>(network.getNodes().values());
+		List<Link> links = new ArrayList<>(network.getLinks().values());
+		Random random = new Random(4711);
+
+		for (int round = 0; round < 3; round++) {
+			ScaledTravelTime tt = new ScaledTravelTime();
+			for (int i = 0; i < 20 * round; i++) {
+				tt.scales.put(links.get(random.nextInt(links.size())), round == 1 ? 0.1 : 3.0);
+			}
+			LeastCostPathCalculator alt = factory.createPathCalculator(network, tt, tt);
+			LeastCostPathCalculator dijkstra = new SpeedyDijkstra(graph, tt, tt);
+			for (int i = 0; i < 100; i++) {
+				Node from = nodes.get(random.nextInt(nodes.size()));
+				Node to = nodes.get(random.nextInt(nodes.size()));
+				Path expected = dijkstra.calcLeastCostPath(from, to, 0, null, null);
+				Path actual = alt.calcLeastCostPath(from, to, 0, null, null);
+				Assertions.assertEquals(expected.travelCost, actual.travelCost, 1e-6);
+			}
+		}
+	}
+
+	private static Network createGridNetwork(int size) {
+		Network network = NetworkUtils.createNetwork();
+		Node[][] nodes = new Node[size][size];
+		for (int x = 0; x < size; x++) {
+			for (int y = 0; y < size; y++) {
+				nodes[x][y] = NetworkUtils.createAndAddNode(network, Id.createNodeId(x + "_" + y), new Coord(x * 500, y * 500));
+			}
+		}
+		for (int x = 0; x < size; x++) {
+			for (int y = 0; y < size; y++) {
+				if (x + 1 < size) {
+					addLinks(network, nodes[x][y], nodes[x + 1][y]);
+				}
+				if (y + 1 < size) {
+					addLinks(network, nodes[x][y], nodes[x][y + 1]);
+				}
+			}
+		}
+		return network;
+	}
+
+	private static void addLinks(Network network, Node a, Node b) {
+		NetworkUtils.createAndAddLink(network, Id.createLinkId(a.getId() + "-" + b.getId()), a, b, 500, 13.9, 1800, 1);
+		NetworkUtils.createAndAddLink(network, Id.createLinkId(b.getId() + "-" + a.getId()), b, a, 500, 13.9, 1800, 1);
+	}
+
+	/**
+	 * Free speed travel times, scaled per link, also used as travel disutility.
+	 */
+	private static class ScaledTravelTime implements TravelTime, TravelDisutility {
+		private final Map<Link, Double> scales = new HashMap<>();
+
+		@Override
+		public double getLinkTravelTime(Link link, double time, Person person, Vehicle vehicle) {
+			return link.getLength() / link.getFreespeed() * this.scales.getOrDefault(link, 1.0);
+		}
+
+		@Override
+		public double getLinkTravelDisutility(Link link, double time, Person person, Vehicle vehicle) {
+			return getLinkTravelTime(link, time, person, vehicle);
+		}
+
+		@Override
+		public double getLinkMinimumTravelDisutility(Link link) {
+			return getLinkTravelTime(link, 0, null, null);
+		}
+	}
+}
@@ -0,0 +1,261 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * SpeedyCHTest.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.router.speedy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.core.config.groups.ScoringConfigGroup;
+import org.matsim.core.network.NetworkUtils;
+import org.matsim.core.router.AbstractLeastCostPathCalculatorTest;
+import org.matsim.core.router.costcalculators.FreespeedTravelTimeAndDisutility;
+import org.matsim.core.router.costcalculators.TravelDisutilityFactory;
+import org.matsim.core.router.util.LeastCostPathCalculator;
+import org.matsim.core.router.util.LeastCostPathCalculator.Path;
+import org.matsim.core.router.util.TravelDisutility;
+import org.matsim.core.router.util.TravelTime;
+import org.matsim.vehicles.Vehicle;
+
+public class SpeedyCHTest extends AbstractLeastCostPathCalculatorTest {
+
+	@Override
+	protected LeastCostPathCalculator getLeastCostPathCalculator(final Network network) {
+		FreespeedTravelTimeAndDisutility travelTimeCostCalculator = new FreespeedTravelTimeAndDisutility(new ScoringConfigGroup());
+		return new SpeedyCHFactory().createPathCalculator(network, travelTimeCostCalculator, travelTimeCostCalculator);
+	}
+
+	@Test
+	void testSameCostsAsDijkstra() {
+		Network network = createGridNetwork(25, new Random(20250101));
+		PeakTravelTime tt = new PeakTravelTime(Double.NaN);
+		SpeedyGraph graph = SpeedyGraphBuilder.build(network);
+		SpeedyCHData data = new SpeedyCHData(graph);
+		LeastCostPathCalculator ch = new SpeedyCH(data, data.customize(tt, 3600, 1), tt, tt);
+		LeastCostPathCalculator dijkstra = new SpeedyDijkstra(graph, tt, tt);
+
+		List<Node> nodes = new ArrayList<>(network.getNodes().values());
+		Random random = new Random(4711);
+		for (int i = 0; i < 500; i++) {
+			Node from = nodes.get(random.nextInt(nodes.size()));
+			Node to = nodes.get(random.nextInt(nodes.size()));
+			Path expected = dijkstra.calcLeastCostPath(from, to, 8 * 3600, null, null);
+			Path actual = ch.calcLeastCostPath(from, to, 8 * 3600, null, null);
+			Assertions.assertEquals(expected.travelCost, actual.travelCost, 1e-3, "from " + from.getId() + " to " + to.getId());
+			assertConnected(from, to, actual);
+		}
+	}
+
+	@Test
+	void testTimeDependentCosts() {
+		Network network = createGridNetwork(10, new Random(20250102));
+		// all links are slower between 08:00 and 12:00, except those of one column
+		PeakTravelTime tt = new PeakTravelTime(8 * 3600);
+		SpeedyGraph graph = SpeedyGraphBuilder.build(network);
+		SpeedyCHData data = new SpeedyCHData(graph);
+		LeastCostPathCalculator ch = new SpeedyCH(data, data.customize(tt, 3600, 30), tt, tt);
+		LeastCostPathCalculator dijkstra = new SpeedyDijkstra(graph, tt, tt);
+
+		List<Node> nodes = new ArrayList<>(network.getNodes().values());
+		Random random = new Random(4711);
+		for (double departure : new double[] { 8 * 3600 + 10, 12 * 3600 }) {
+			for (int i = 0; i < 200; i++) {
+				Node from = nodes.get(random.nextInt(nodes.size()));
+				Node to = nodes.get(random.nextInt(nodes.size()));
+				Path expected = dijkstra.calcLeastCostPath(from, to, departure, null, null);
+				Path actual = ch.calcLeastCostPath(from, to, departure, null, null);
+				Assertions.assertEquals(expected.travelCost, actual.travelCost, 1e-3, "from " + from.getId() + " to " + to.getId() + " at " + departure);
+				Assertions.assertEquals(expected.travelTime, actual.travelTime, 1e-3);
+				assertConnected(from, to, actual);
+			}
+		}
+
+		Node from = network.getNodes().get(Id.createNodeId("0_0"));
+		Node to = network.getNodes().get(Id.createNodeId("9_0"));
+		Path peak = ch.calcLeastCostPath(from, to, 8 * 3600 + 10, null, null);
+		Path offPeak = ch.calcLeastCostPath(from, to, 12 * 3600, null, null);
+		Assertions.assertTrue(peak.travelTime > offPeak.travelTime);
+	}
+
+	@Test
+	void testUnreachableNode() {
+		Network network = createGridNetwork(5, new Random(20250103));
+		Node isolated = NetworkUtils.createAndAddNode(network, Id.createNodeId("isolated"), new Coord(-1000, -1000));
+		FreespeedTravelTimeAndDisutility tc = new FreespeedTravelTimeAndDisutility(new ScoringConfigGroup());
+		LeastCostPathCalculator ch = new SpeedyCHFactory().createPathCalculator(network, tc, tc);
+		Assertions.assertNull(ch.calcLeastCostPath(network.getNodes().get(Id.createNodeId("0_0")), isolated, 0, null, null));
+	}
+
+	@Test
+	void testCustomizationPerTravelDisutilityInstance() {
+		Network network = createGridNetwork(10, new Random(20250104));
+		PeakTravelTime tt = new PeakTravelTime(Double.NaN);
+		PeakTravelTime offPeakCosts = new PeakTravelTime(Double.NaN);
+		PeakTravelTime peakCosts = new PeakTravelTime(0);
+		SpeedyCHFactory factory = new SpeedyCHFactory();
+		LeastCostPathCalculator offPeak = factory.createPathCalculator(network, offPeakCosts, tt);
+		LeastCostPathCalculator peak = factory.createPathCalculator(network, peakCosts, tt);
+		LeastCostPathCalculator dijkstra = new SpeedyDijkstra(SpeedyGraphBuilder.build(network), tt, peakCosts);
+
+		Node from = network.getNodes().get(Id.createNodeId("0_0"));
+		Node to = network.getNodes().get(Id.createNodeId("9_0"));
+		Path expected = dijkstra.calcLeastCostPath(from, to, 3600, null, null);
+		Assertions.assertEquals(expected.travelCost, peak.calcLeastCostPath(from, to, 3600, null, null).travelCost, 1e-3);
+		Assertions.assertTrue(offPeak.calcLeastCostPath(from, to, 3600, null, null).travelCost < expected.travelCost);
+	}
+
+	@Test
+	void testCustomizationSharedPerTravelDisutilityFactory() {
+		Network network = createGridNetwork(10, new Random(20250106));
+		PeakTravelTime tt = new PeakTravelTime(Double.NaN);
+		int[] created = {0};
+		TravelDisutilityFactory tdf = travelTime -> {
+			created[0]++;
+			return new PeakTravelTime(Double.NaN);
+		};
+		SpeedyCHFactory factory = new SpeedyCHFactory();
+		LeastCostPathCalculator first = factory.createPathCalculator(network, tdf, tt);
+		int createdForFirst = created[0];
+		LeastCostPathCalculator second = factory.createPathCalculator(network, tdf, tt);
+
+		// the second router only gets its own travel disutility, but no customization
+		Assertions.assertEquals(createdForFirst + 1, created[0]);
+		Assertions.assertTrue(first instanceof SpeedyCH);
+		Assertions.assertTrue(second instanceof SpeedyCH);
+
+		Node from = network.getNodes().get(Id.createNodeId("0_0"));
+		Node to = network.getNodes().get(Id.createNodeId("9_9"));
+		Path expected = new SpeedyDijkstra(SpeedyGraphBuilder.build(network), tt, tt).calcLeastCostPath(from, to, 3600, null, null);
+		Assertions.assertEquals(expected.travelCost, first.calcLeastCostPath(from, to, 3600, null, null).travelCost, 1e-3);
+		Assertions.assertEquals(expected.travelCost, second.calcLeastCostPath(from, to, 3600, null, null).travelCost, 1e-3);
+	}
+
+	@Test
+	void testProbingDoesNotCreateIds() {
+		Network network = createGridNetwork(5, new Random(20250107));
+		PeakTravelTime tt = new PeakTravelTime(Double.NaN);
+		int personIds = Id.getNumberOfIds(Person.class);
+		int vehicleIds = Id.getNumberOfIds(Vehicle.class);
+		new SpeedyCHFactory().createPathCalculator(network, tt, tt);
+		Assertions.assertEquals(personIds, Id.getNumberOfIds(Person.class));
+		Assertions.assertEquals(vehicleIds, Id.getNumberOfIds(Vehicle.class));
+	}
+
+	@Test
+	void testPersonDependentTravelDisutilityUsesALT() {
+		Network network = createGridNetwork(5, new Random(20250105));
+		PeakTravelTime tt = new PeakTravelTime(Double.NaN);
+		TravelDisutility personCosts = new TravelDisutility() {
+			@Override
+			public double getLinkTravelDisutility(Link link, double time, Person person, Vehicle vehicle) {
+				if (person == null) {
+					throw new IllegalArgumentException("person required");
+				}
+				return tt.getLinkTravelTime(link, time, person, vehicle);
+			}
+
+			@Override
+			public double getLinkMinimumTravelDisutility(Link link) {
+				return tt.getLinkMinimumTravelDisutility(link);
+			}
+		};
+		LeastCostPathCalculator router = new SpeedyCHFactory().createPathCalculator(network, personCosts, tt);
+		Assertions.assertTrue(router instanceof SpeedyALT);
+	}
+
+	private static void assertConnected(Node from, Node to, Path path) {
+		Assertions.assertEquals(path.links.size() + 1, path.nodes.size());
+		Assertions.assertEquals(from, path.nodes.get(0));
+		Assertions.assertEquals(to, path.nodes.get(path.nodes.size() - 1));
+		for (int i = 0; i < path.links.size(); i++) {
+			Assertions.assertEquals(path.nodes.get(i), path.links.get(i).getFromNode());
+			Assertions.assertEquals(path.nodes.get(i + 1), path.links.get(i).getToNode());
+		}
+	}
+
+	private static Network createGridNetwork(int size, Random random) {
+		Network network = NetworkUtils.createNetwork();
+		Node[][] nodes = new Node[size][size];
+		for (int x = 0; x < size; x++) {
+			for (int y = 0; y < size; y++) {
+				nodes[x][y] = NetworkUtils.createAndAddNode(network, Id.createNodeId(x + "_" + y), new Coord(x * 500, y * 500));
+			}
+		}
+		for (int x = 0; x < size; x++) {
+			for (int y = 0; y < size; y++) {
+				if (x + 1 < size) {
+					addLink(network, nodes[x][y], nodes[x + 1][y], random);
+					addLink(network, nodes[x + 1][y], nodes[x][y], random);
+				}
+				if (y + 1 < size) {
+					addLink(network, nodes[x][y], nodes[x][y + 1], random);
+					addLink(network, nodes[x][y + 1], nodes[x][y], random);
+				}
+			}
+		}
+		return network;
+	}
+
+	private static void addLink(Network network, Node from, Node to, Random random) {
+		Id<Link> id = Id.createLinkId(from.getId() + "-" + to.getId());
+		NetworkUtils.createAndAddLink(network, id, from, to, 500, 5 + random.nextInt(20), 1800, 1);
+	}
+
+	/**
+	 * Free speed travel times, optionally with a four-hour peak in which all links except those starting at x=0 are
+	 * three times slower. Travel times are also used as travel disutility.
+	 */
+	private static class PeakTravelTime implements TravelTime, TravelDisutility {
+		private final double peakStart;
+
+		PeakTravelTime(double peakStart) {
+			this.peakStart = peakStart;
+		}
+
+		@Override
+		public double getLinkTravelTime(Link link, double time, Person person, Vehicle vehicle) {
+			double travelTime = link.getLength() / link.getFreespeed();
+			boolean peak = time >= this.peakStart && time < this.peakStart + 4 * 3600;
+			if (peak && link.getFromNode().getCoord().getX() > 0) {
+				travelTime *= 3;
+			}
+			return travelTime;
+		}
+
+		@Override
+		public double getLinkTravelDisutility(Link link, double time, Person person, Vehicle vehicle) {
+			return getLinkTravelTime(link, time, person, vehicle);
+		}
+
+		@Override
+		public double getLinkMinimumTravelDisutility(Link link) {
+			return link.getLength() / link.getFreespeed();
+		}
+	}
+}
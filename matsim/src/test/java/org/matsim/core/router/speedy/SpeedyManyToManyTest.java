@@ -0,0 +1,138 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * SpeedyManyToManyTest.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.router.speedy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.core.network.NetworkUtils;
+import org.matsim.core.router.util.LeastCostPathCalculator;
+import org.matsim.core.router.util.LeastCostPathCalculator.Path;
+import org.matsim.core.router.util.TravelDisutility;
+import org.matsim.core.router.util.TravelTime;
+import org.matsim.vehicles.Vehicle;
+
+public class SpeedyManyToManyTest {
+
+	@Test
+	void testSameCostsAsDijkstra() {
+		Network network = createGridNetwork(20, new Random(20250201));
+		Node isolated = NetworkUtils.createAndAddNode(network, Id.createNodeId("isolated"), new Coord(-1000, -1000));
+		PeakTravelTime tt = new PeakTravelTime();
+		SpeedyGraph graph = SpeedyGraphBuilder.build(network);
+		SpeedyCHData data = new SpeedyCHData(graph);
+		SpeedyCHData.Customization customization = data.customize(tt, 3600, 24);
+		LeastCostPathCalculator dijkstra = new SpeedyDijkstra(graph, tt, tt);
+
+		List<Node> nodes = new ArrayList<>(network.getNodes().values());
+		Random random = new Random(4711);
+		Node[] fromNodes = new Node[30];
+		Node[] toNodes = new Node[40];
+		for (int i = 0; i < fromNodes.length; i++) {
+			fromNodes[i] = nodes.get(random.nextInt(nodes.size()));
+		}
+		for (int j = 0; j < toNodes.length; j++) {
+			toNodes[j] = nodes.get(random.nextInt(nodes.size()));
+		}
+		toNodes[0] = fromNodes[0];
+		toNodes[1] = isolated;
+
+		for (double time : new double[] { 6 * 3600, 8.5 * 3600 }) {
+			float[][] matrix = new SpeedyManyToMany(data, 3).calcLeastCostMatrix(customization, fromNodes, toNodes, time);
+			for (int i = 0; i < fromNodes.length; i++) {
+				for (int j = 0; j < toNodes.length; j++) {
+					Path path = dijkstra.calcLeastCostPath(fromNodes[i], toNodes[j], time, null, null);
+					if (path == null) {
+						Assertions.assertEquals(Float.POSITIVE_INFINITY, matrix[i][j]);
+					} else {
+						Assertions.assertEquals(path.travelCost, matrix[i][j], 1e-2, "from " + fromNodes[i].getId() + " to " + toNodes[j].getId() + " at " + time);
+					}
+				}
+			}
+			Assertions.assertEquals(0, matrix[0][0]);
+			Assertions.assertEquals(Float.POSITIVE_INFINITY, matrix[0][1]);
+		}
+	}
+
+	private static Network createGridNetwork(int size, Random random) {
+		Network network = NetworkUtils.createNetwork();
+		Node[][] nodes = new Node[size][size];
+		for (int x = 0; x < size; x++) {
+			for (int y = 0; y < size; y++) {
+				nodes[x][y] = NetworkUtils.createAndAddNode(network, Id.createNodeId(x + "_" + y), new Coord(x * 500, y * 500));
+			}
+		}
+		for (int x = 0; x < size; x++) {
+			for (int y = 0; y < size; y++) {
+				if (x + 1 < size) {
+					addLink(network, nodes[x][y], nodes[x + 1][y], random);
+					addLink(network, nodes[x + 1][y], nodes[x][y], random);
+				}
+				if (y + 1 < size) {
+					addLink(network, nodes[x][y], nodes[x][y + 1], random);
+					addLink(network, nodes[x][y + 1], nodes[x][y], random);
+				}
+			}
+		}
+		return network;
+	}
+
+	private static void addLink(Network network, Node from, Node to, Random random) {
+		Id<Link> id = Id.createLinkId(from.getId() + "-" + to.getId());
+		NetworkUtils.createAndAddLink(network, id, from, to, 500, 5 + random.nextInt(20), 1800, 1);
+	}
+
+	/**
+	 * Free speed travel times, with all links except those starting at x=0 being three times slower between 08:00 and
+	 * 12:00. Travel times are also used as travel disutility.
+	 */
+	private static class PeakTravelTime implements TravelTime, TravelDisutility {
+
+		@Override
+		public double getLinkTravelTime(Link link, double time, Person person, Vehicle vehicle) {
+			double travelTime = link.getLength() / link.getFreespeed();
+			boolean peak = time >= 8 * 3600 && time < 12 * 3600;
+			if (peak && link.getFromNode().getCoord().getX() > 0) {
+				travelTime *= 3;
+			}
+			return travelTime;
+		}
+
+		@Override
+		public double getLinkTravelDisutility(Link link, double time, Person person, Vehicle vehicle) {
+			return getLinkTravelTime(link, time, person, vehicle);
+		}
+
+		@Override
+		public double getLinkMinimumTravelDisutility(Link link) {
+			return link.getLength() / link.getFreespeed();
+		}
+	}
+}
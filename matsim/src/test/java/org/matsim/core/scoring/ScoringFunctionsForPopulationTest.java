@@ -21,33 +21,62 @@
 
  package org.matsim.core.scoring;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
 import org.matsim.api.core.v01.Coord;
 import org.matsim.api.core.v01.Id;
 import org.matsim.api.core.v01.Scenario;
 import org.matsim.api.core.v01.TransportMode;
+import org.matsim.api.core.v01.events.ActivityEndEvent;
 import org.matsim.api.core.v01.events.ActivityStartEvent;
 import org.matsim.api.core.v01.events.Event;
+import org.matsim.api.core.v01.events.LinkEnterEvent;
+import org.matsim.api.core.v01.events.PersonArrivalEvent;
+import org.matsim.api.core.v01.events.PersonDepartureEvent;
+import org.matsim.api.core.v01.events.PersonEntersVehicleEvent;
+import org.matsim.api.core.v01.events.PersonLeavesVehicleEvent;
+import org.matsim.api.core.v01.events.PersonMoneyEvent;
 import org.matsim.api.core.v01.events.PersonScoreEvent;
+import org.matsim.api.core.v01.events.VehicleEntersTrafficEvent;
+import org.matsim.api.core.v01.events.VehicleLeavesTrafficEvent;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.network.Node;
 import org.matsim.api.core.v01.population.Activity;
 import org.matsim.api.core.v01.population.Leg;
 import org.matsim.api.core.v01.population.Person;
 import org.matsim.api.core.v01.population.Population;
 import org.matsim.api.core.v01.population.PopulationFactory;
 import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.config.Config;
 import org.matsim.core.config.ConfigUtils;
 import org.matsim.core.controler.ControlerListenerManagerImpl;
 import org.matsim.core.events.EventsUtils;
+import org.matsim.core.network.NetworkUtils;
 import org.matsim.core.population.PopulationUtils;
 import org.matsim.core.router.TripStructureUtils;
+import org.matsim.core.population.routes.NetworkRoute;
 import org.matsim.core.scenario.ScenarioUtils;
+import org.matsim.testcases.MatsimTestUtils;
+import org.matsim.vehicles.Vehicle;
 
 	/**
  * @author mrieser / Simunto GmbH
  */
 public class ScoringFunctionsForPopulationTest {
 
+	@RegisterExtension
+	private MatsimTestUtils utils = new MatsimTestUtils();
+
 	 @Test
 	 void testTripScoring() {
 		Scenario scenario = ScenarioUtils.createScenario(ConfigUtils.createConfig());
@@ -134,6 +163,189 @@ public class ScoringFunctionsForPopulationTest {
 		Assertions.assertEquals(1.234+2.345, rsf.separateScoreSum, 1e-7);
 	}
 
+	@Test
+	void testShardedScoringGivesSameScores() throws IOException {
+		Map<Id<Person>, Double> expected = runScoring(1, "partialScores1.txt");
+		Map<Id<Person>, Double> actual = runScoring(4, "partialScores4.txt");
+		Assertions.assertEquals(50, expected.size());
+		for (Map.Entry<Id<Person>, Double> e : expected.entrySet()) {
+			// the scores have to be identical, not only similar
+			Assertions.assertEquals(e.getValue(), actual.get(e.getKey()), 0.0, "score of person " + e.getKey());
+		}
+		Assertions.assertEquals(
+				Files.readAllLines(Path.of(this.utils.getOutputDirectory(), "partialScores1.txt")),
+				Files.readAllLines(Path.of(this.utils.getOutputDirectory(), "partialScores4.txt")));
+	}
+
+	@Test
+	void testShardedScoringWithSharedVehicle() {
+		List<Id<Person>> personIds = new ArrayList<>();
+		for (int i = 0; i < 8; i++) {
+			personIds.add(Id.createPersonId("sharedVehicle_" + i));
+		}
+		Id<Person> driverId = personIds.get(0);
+		List<Id<Person>> firstPassengers = personIds.subList(1, 4);
+		List<Id<Person>> laterPassengers = personIds.subList(4, 8);
+		Id<Vehicle> vehicleId = Id.createVehicleId("sharedVehicle");
+		Id<Link> l1 = Id.createLinkId(1);
+		Id<Link> l2 = Id.createLinkId(2);
+		Id<Link> l3 = Id.createLinkId(3);
+		Id<Link> l4 = Id.createLinkId(4);
+
+		List<Event> events = new ArrayList<>();
+		for (Id<Person> personId : personIds) {
+			Id<Link> homeLinkId = laterPassengers.contains(personId) ? l3 : l1;
+			events.add(new ActivityEndEvent(0, personId, homeLinkId, null, "home", null));
+		}
+		// the first passengers ride from link 1 to 2 ...
+		events.add(new PersonDepartureEvent(10, driverId, l1, TransportMode.car, TransportMode.car));
+		events.add(new PersonEntersVehicleEvent(11, driverId, vehicleId));
+		for (Id<Person> personId : firstPassengers) {
+			events.add(new PersonDepartureEvent(12, personId, l1, TransportMode.ride, TransportMode.ride));
+			events.add(new PersonEntersVehicleEvent(13, personId, vehicleId));
+		}
+		events.add(new VehicleEntersTrafficEvent(14, driverId, l1, vehicleId, TransportMode.car, 1.0));
+		events.add(new LinkEnterEvent(100, vehicleId, l2));
+		events.add(new VehicleLeavesTrafficEvent(200, driverId, l2, vehicleId, TransportMode.car, 1.0));
+		for (Id<Person> personId : firstPassengers) {
+			events.add(new PersonLeavesVehicleEvent(201, personId, vehicleId));
+			events.add(new PersonArrivalEvent(202, personId, l2, TransportMode.ride));
+			events.add(new ActivityStartEvent(202, personId, l2, null, "work", null));
+		}
+		// ... the driver continues alone to link 3, where the later passengers get in ...
+		events.add(new VehicleEntersTrafficEvent(210, driverId, l2, vehicleId, TransportMode.car, 1.0));
+		events.add(new LinkEnterEvent(300, vehicleId, l3));
+		events.add(new VehicleLeavesTrafficEvent(400, driverId, l3, vehicleId, TransportMode.car, 1.0));
+		for (Id<Person> personId : laterPassengers) {
+			events.add(new PersonDepartureEvent(401, personId, l3, TransportMode.ride, TransportMode.ride));
+			events.add(new PersonEntersVehicleEvent(402, personId, vehicleId));
+		}
+		// ... and all of them ride to link 4
+		events.add(new VehicleEntersTrafficEvent(410, driverId, l3, vehicleId, TransportMode.car, 1.0));
+		events.add(new LinkEnterEvent(500, vehicleId, l4));
+		events.add(new VehicleLeavesTrafficEvent(600, driverId, l4, vehicleId, TransportMode.car, 1.0));
+		for (Id<Person> personId : laterPassengers) {
+			events.add(new PersonLeavesVehicleEvent(601, personId, vehicleId));
+			events.add(new PersonArrivalEvent(602, personId, l4, TransportMode.ride));
+			events.add(new ActivityStartEvent(602, personId, l4, null, "work", null));
+		}
+		events.add(new PersonLeavesVehicleEvent(603, driverId, vehicleId));
+		events.add(new PersonArrivalEvent(604, driverId, l4, TransportMode.car));
+		events.add(new ActivityStartEvent(604, driverId, l4, null, "work", null));
+
+		Map<Id<Person>, Leg> expectedLegs = new HashMap<>();
+		Map<Id<Person>, Double> expected = scoreEvents(1, personIds, events, expectedLegs);
+		Map<Id<Person>, Leg> actualLegs = new HashMap<>();
+		Map<Id<Person>, Double> actual = scoreEvents(4, personIds, events, actualLegs);
+		for (Id<Person> personId : personIds) {
+			Assertions.assertEquals(expected.get(personId), actual.get(personId), 0.0, "score of person " + personId);
+		}
+		for (Id<Person> personId : laterPassengers) {
+			NetworkRoute route = (NetworkRoute) actualLegs.get(personId).getRoute();
+			Assertions.assertEquals(l3, route.getStartLinkId());
+			Assertions.assertEquals(l4, route.getEndLinkId());
+			Assertions.assertEquals(((NetworkRoute) expectedLegs.get(personId).getRoute()).getLinkIds(), route.getLinkIds());
+		}
+	}
+
+	/**
+	 * Scores the given events on a line network with links 1 to 4, and collects the last leg of each person.
+	 */
+	private static Map<Id<Person>, Double> scoreEvents(int shards, List<Id<Person>> personIds, List<Event> events, Map<Id<Person>, Leg> legs) {
+		Config config = ConfigUtils.createConfig();
+		config.scoring().setNumberOfScoringShards(shards);
+		Scenario scenario = ScenarioUtils.createScenario(config);
+		Network network = scenario.getNetwork();
+		Node from = NetworkUtils.createAndAddNode(network, Id.createNodeId(0), new Coord(0, 0));
+		for (int i = 1; i <= 4; i++) {
+			Node to = NetworkUtils.createAndAddNode(network, Id.createNodeId(i), new Coord(i * 1000, 0));
+			NetworkUtils.createAndAddLink(network, Id.createLinkId(i), from, to, 1000, 10, 1800, 1);
+			from = to;
+		}
+		for (Id<Person> personId : personIds) {
+			scenario.getPopulation().addPerson(scenario.getPopulation().getFactory().createPerson(personId));
+		}
+
+		ControlerListenerManagerImpl controlerListenerManager = new ControlerListenerManagerImpl();
+		EventsManager eventsManager = EventsUtils.createEventsManager();
+		EventsToActivities eventsToActivities = new EventsToActivities(controlerListenerManager);
+		EventsToLegs eventsToLegs = new EventsToLegs(scenario);
+		// called from several threads in sharded mode, but never concurrently
+		eventsToLegs.addLegHandler(leg -> legs.put(leg.getAgentId(), leg.getLeg()));
+		ScoringFunctionsForPopulation sf = new ScoringFunctionsForPopulation(controlerListenerManager, eventsManager, eventsToActivities, eventsToLegs, scenario.getPopulation(), agentId -> new OrderSensitiveScoringFunction(), config);
+		controlerListenerManager.fireControlerIterationStartsEvent(0, false);
+
+		eventsManager.initProcessing();
+		events.forEach(eventsManager::processEvent);
+		eventsManager.finishProcessing();
+		controlerListenerManager.fireControlerAfterMobsimEvent(0, false);
+		sf.finishScoringFunctions();
+
+		Map<Id<Person>, Double> scores = new HashMap<>();
+		for (Id<Person> personId : personIds) {
+			scores.put(personId, sf.getScoringFunctionForAgent(personId).getScore());
+		}
+		return scores;
+	}
+
+	private Map<Id<Person>, Double> runScoring(int shards, String partialScoresFilename) {
+		Config config = ConfigUtils.createConfig();
+		config.scoring().setNumberOfScoringShards(shards);
+		Scenario scenario = ScenarioUtils.createScenario(config);
+		Network network = scenario.getNetwork();
+		Node n0 = NetworkUtils.createAndAddNode(network, Id.createNodeId(0), new Coord(0, 0));
+		Node n1 = NetworkUtils.createAndAddNode(network, Id.createNodeId(1), new Coord(1000, 0));
+		Node n2 = NetworkUtils.createAndAddNode(network, Id.createNodeId(2), new Coord(2000, 0));
+		Link l1 = NetworkUtils.createAndAddLink(network, Id.createLinkId(1), n0, n1, 1000, 10, 1800, 1);
+		Link l2 = NetworkUtils.createAndAddLink(network, Id.createLinkId(2), n1, n2, 1000, 10, 1800, 1);
+
+		Population population = scenario.getPopulation();
+		List<Id<Person>> personIds = new ArrayList<>();
+		for (int i = 0; i < 50; i++) {
+			Person person = population.getFactory().createPerson(Id.createPersonId(i));
+			population.addPerson(person);
+			personIds.add(person.getId());
+		}
+
+		ControlerListenerManagerImpl controlerListenerManager = new ControlerListenerManagerImpl();
+		EventsManager eventsManager = EventsUtils.createEventsManager();
+		EventsToActivities eventsToActivities = new EventsToActivities(controlerListenerManager);
+		EventsToLegs eventsToLegs = new EventsToLegs(scenario);
+		ScoringFunctionsForPopulation sf = new ScoringFunctionsForPopulation(controlerListenerManager, eventsManager, eventsToActivities, eventsToLegs, population, agentId -> new OrderSensitiveScoringFunction(), config);
+		controlerListenerManager.fireControlerIterationStartsEvent(0, false);
+
+		// the events of all persons are interleaved, as in a simulation
+		eventsManager.initProcessing();
+		for (int step = 0; step < 9; step++) {
+			for (int i = 0; i < personIds.size(); i++) {
+				Id<Person> personId = personIds.get(i);
+				Id<Vehicle> vehicleId = Id.createVehicleId(i);
+				double time = 6 * 3600 + i * 60 + step * 10;
+				switch (step) {
+					case 0 -> eventsManager.processEvent(new ActivityEndEvent(time, personId, l1.getId(), null, "home", null));
+					case 1 -> eventsManager.processEvent(new PersonDepartureEvent(time, personId, l1.getId(), "car", "car"));
+					case 2 -> eventsManager.processEvent(new PersonEntersVehicleEvent(time, personId, vehicleId));
+					case 3 -> eventsManager.processEvent(new VehicleEntersTrafficEvent(time, personId, l1.getId(), vehicleId, "car", 1.0));
+					case 4 -> eventsManager.processEvent(new LinkEnterEvent(time, vehicleId, l2.getId()));
+					case 5 -> eventsManager.processEvent(new VehicleLeavesTrafficEvent(time, personId, l2.getId(), vehicleId, "car", 1.0));
+					case 6 -> eventsManager.processEvent(new PersonArrivalEvent(time, personId, l2.getId(), "car"));
+					case 7 -> eventsManager.processEvent(new ActivityStartEvent(time, personId, l2.getId(), null, "work", null));
+					case 8 -> eventsManager.processEvent(new PersonMoneyEvent(time, personId, -0.1 * i));
+				}
+			}
+		}
+		eventsManager.finishProcessing();
+		controlerListenerManager.fireControlerAfterMobsimEvent(0, false);
+		sf.finishScoringFunctions();
+		sf.writePartialScores(this.utils.getOutputDirectory() + partialScoresFilename);
+
+		Map<Id<Person>, Double> scores = new HashMap<>();
+		for (Id<Person> personId : personIds) {
+			scores.put(personId, sf.getScoringFunctionForAgent(personId).getScore());
+		}
+		return scores;
+	}
+
 	private static class RecordingScoringFunction implements ScoringFunction {
 
 		int tripCounter = 0;
@@ -183,4 +395,63 @@ public class ScoringFunctionsForPopulationTest {
 		}
 	}
 
+	/**
+	 * Combines everything it sees into the score, in a way that depends on the order of the calls.
+	 */
+	private static class OrderSensitiveScoringFunction implements ScoringFunction {
+
+		double score = 0;
+
+		private void add(double value) {
+			this.score = this.score * 0.9 + value;
+		}
+
+		@Override
+		public void handleActivity(Activity activity) {
+			add(activity.getStartTime().orElse(-1) / 3600);
+			add(activity.getEndTime().orElse(-2) / 3600);
+		}
+
+		@Override
+		public void handleLeg(Leg leg) {
+			add(leg.getTravelTime().seconds() / 60);
+			add(((NetworkRoute) leg.getRoute()).getLinkIds().size() + leg.getRoute().getDistance() / 1000);
+		}
+
+		@Override
+		public void handleTrip(TripStructureUtils.Trip trip) {
+			add(trip.getTripElements().size());
+		}
+
+		@Override
+		public void agentStuck(double time) {
+			add(-100);
+		}
+
+		@Override
+		public void addMoney(double amount) {
+			add(amount);
+		}
+
+		@Override
+		public void addScore(double amount) {
+			add(amount);
+		}
+
+		@Override
+		public void finish() {
+			add(1);
+		}
+
+		@Override
+		public double getScore() {
+			return this.score;
+		}
+
+		@Override
+		public void handleEvent(Event event) {
+			add(event.getTime() / 86400);
+		}
+	}
+
 }
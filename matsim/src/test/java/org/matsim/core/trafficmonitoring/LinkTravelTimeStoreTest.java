@@ -0,0 +1,188 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * LinkTravelTimeStoreTest.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.trafficmonitoring;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Random;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.core.config.groups.TravelTimeCalculatorConfigGroup;
+import org.matsim.core.network.NetworkUtils;
+import org.matsim.core.utils.io.IOUtils;
+import org.matsim.testcases.MatsimTestUtils;
+import org.matsim.vehicles.Vehicle;
+
+public class LinkTravelTimeStoreTest {
+
+	@RegisterExtension
+	private MatsimTestUtils utils = new MatsimTestUtils();
+
+	@Test
+	void testSameTravelTimesAsArray() {
+		Network network = NetworkUtils.createNetwork();
+		Node from = NetworkUtils.createNode(Id.createNodeId("1"));
+		Node to = NetworkUtils.createNode(Id.createNodeId("2"));
+		Link link = NetworkUtils.createLink(Id.createLinkId("1-2"), from, to, network, 100, 10, 1000, 1);
+		int numSlots = 24;
+
+		TravelTimeDataArray array = new TravelTimeDataArray(link, numSlots);
+		LinkTravelTimeStore store = new LinkTravelTimeStore(3600, numSlots, false);
+		TravelTimeData data = store.createTravelTimeData(link);
+
+		for (int k = 0; k < 2; k++) {
+			array.resetTravelTimes();
+			data.resetTravelTimes();
+			Random random = new Random(k);
+			for (int i = 0; i < 100; i++) {
+				int slot = random.nextInt(numSlots / 2);
+				double travelTime = 10 + random.nextInt(100);
+				array.addTravelTime(slot, travelTime);
+				data.addTravelTime(slot, travelTime);
+			}
+			array.setTravelTime(3, 42);
+			data.setTravelTime(3, 42);
+			array.addTravelTime(3, 44);
+			data.addTravelTime(3, 44);
+
+			for (int slot = 0; slot < numSlots; slot++) {
+				// slots without travel times return the free speed travel time; the array truncates to milliseconds
+				Assertions.assertEquals(array.getTravelTime(slot, slot * 3600), data.getTravelTime(slot, slot * 3600), 1e-2);
+			}
+		}
+		Assertions.assertEquals(43, store.getTravelTime(link.getId(), 3), 1e-4);
+		Assertions.assertEquals(10, store.getLinkTravelTime(link, 23 * 3600, null, null), 1e-4);
+		Assertions.assertEquals(1, store.getLinkIds().size());
+	}
+
+	@Test
+	void testReadingDoesNotWrite() {
+		Network network = NetworkUtils.createNetwork();
+		Node from = NetworkUtils.createNode(Id.createNodeId("1"));
+		Node to = NetworkUtils.createNode(Id.createNodeId("2"));
+		Link link = NetworkUtils.createLink(Id.createLinkId("readOnly"), from, to, network, 100, 10, 1000, 1);
+
+		LinkTravelTimeStore store = new LinkTravelTimeStore(3600, 24, false);
+		TravelTimeData data = store.createTravelTimeData(link);
+		Assertions.assertEquals(10, data.getTravelTime(5, 5 * 3600), 1e-4);
+		Assertions.assertTrue(store.getTravelTime(link.getId(), 5) < 0);
+		Assertions.assertTrue(store.getLinkIds().isEmpty());
+	}
+
+	@Test
+	void testTravelTimeCalculator() {
+		Network network = NetworkUtils.createNetwork();
+		Node node1 = NetworkUtils.createNode(Id.createNodeId("1"));
+		Node node2 = NetworkUtils.createNode(Id.createNodeId("2"));
+		Node node3 = NetworkUtils.createNode(Id.createNodeId("3"));
+		Link link1 = NetworkUtils.createLink(Id.createLinkId("1"), node1, node2, network, 1000, 10, 1000, 1);
+		Link link2 = NetworkUtils.createLink(Id.createLinkId("2"), node2, node3, network, 1000, 10, 1000, 1);
+		network.addNode(node1);
+		network.addNode(node2);
+		network.addNode(node3);
+		network.addLink(link1);
+		network.addLink(link2);
+
+		TravelTimeCalculatorConfigGroup config = new TravelTimeCalculatorConfigGroup();
+		config.setTraveltimeBinSize(900);
+		TravelTimeCalculator arrays = TravelTimeCalculator.create(network, config);
+		config.setTravelTimeStorage(TravelTimeCalculatorConfigGroup.TravelTimeStorage.floatStoreOffHeap);
+		TravelTimeCalculator store = TravelTimeCalculator.create(network, config);
+
+		Random random = new Random(42);
+		for (int i = 0; i < 50; i++) {
+			Id<Vehicle> vehicleId = Id.createVehicleId(i);
+			double time = random.nextInt(4 * 3600);
+			for (TravelTimeCalculator calculator : new TravelTimeCalculator[] { arrays, store }) {
+				calculator.handleLinkEnter(time, vehicleId, link1.getId());
+				calculator.handleLinkLeave(time + 100 + (i % 10) * 150, vehicleId, link1.getId());
+			}
+		}
+
+		for (double time = 0; time < 6 * 3600; time += 300) {
+			for (Link link : network.getLinks().values()) {
+				Assertions.assertEquals(arrays.getLinkTravelTimes().getLinkTravelTime(link, time, null, null),
+						store.getLinkTravelTimes().getLinkTravelTime(link, time, null, null), 1e-2, "at time " + time);
+			}
+		}
+
+		// link 2 has no travel times, and thus is not written
+		String filename = utils.getOutputDirectory() + "linkTravelTimes.bin.gz";
+		arrays.writeLinkTravelTimes(filename);
+		LinkTravelTimeStore read = LinkTravelTimeStore.read(filename);
+		Assertions.assertEquals(1, read.getLinkIds().size());
+		for (double time = 0; time < 6 * 3600; time += 300) {
+			for (Link link : network.getLinks().values()) {
+				Assertions.assertEquals(arrays.getLinkTravelTimes().getLinkTravelTime(link, time, null, null),
+						read.getLinkTravelTime(link, time, null, null), 1e-3, "at time " + time);
+			}
+		}
+	}
+
+	@Test
+	void testWriteRead() {
+		Id<Link> linkA = Id.createLinkId("store-A");
+		Id<Link> linkB = Id.createLinkId("store-B");
+		Id<Link> linkC = Id.createLinkId("store-C");
+
+		for (boolean offHeap : new boolean[] { false, true }) {
+			LinkTravelTimeStore store = new LinkTravelTimeStore(1, 100_000, offHeap);
+			store.setTravelTime(linkA, 0, 12.5);
+			store.setTravelTime(linkA, 99_999, 7);
+			store.setTravelTime(linkC, 5, 3);
+
+			String filename = utils.getOutputDirectory() + "linkTravelTimes_" + offHeap + ".bin";
+			store.write(filename);
+			LinkTravelTimeStore read = LinkTravelTimeStore.read(IOUtils.getFileUrl(filename), offHeap);
+
+			Assertions.assertEquals(1, read.getTimeSlice(), 0);
+			Assertions.assertEquals(100_000, read.getNumSlots());
+			Assertions.assertEquals(2, read.getLinkIds().size());
+			Assertions.assertEquals(12.5, read.getTravelTime(linkA, 0), 0);
+			Assertions.assertEquals(7, read.getTravelTime(linkA, 99_999), 0);
+			Assertions.assertTrue(read.getTravelTime(linkA, 1) < 0);
+			Assertions.assertTrue(read.getTravelTime(linkB, 0) < 0);
+			Assertions.assertEquals(3, read.getTravelTime(linkC, 5), 0);
+
+			read.reset();
+			Assertions.assertTrue(read.getTravelTime(linkA, 0) < 0);
+			Assertions.assertTrue(read.getLinkIds().isEmpty());
+		}
+	}
+
+	@Test
+	void testReadInvalidFile() {
+		String filename = utils.getOutputDirectory() + "invalid.bin";
+		try (BufferedWriter writer = IOUtils.getBufferedWriter(filename)) {
+			writer.write("linkId;0.0;900.0;1800.0\n");
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		Assertions.assertThrows(IllegalArgumentException.class, () -> LinkTravelTimeStore.read(filename));
+	}
+}
@@ -0,0 +1,149 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * ParallelGzipOutputStreamTest.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2025 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.utils.io;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.matsim.testcases.MatsimTestUtils;
+
+public class ParallelGzipOutputStreamTest {
+
+	@RegisterExtension private MatsimTestUtils utils = new MatsimTestUtils();
+
+	@Test
+	void testRoundTrip() throws IOException {
+		byte[] data = createData(5 * ParallelGzipOutputStream.BLOCK_SIZE + 12345);
+		ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+		try (ParallelGzipOutputStream out = new ParallelGzipOutputStream(compressed, Deflater.DEFAULT_COMPRESSION, 4)) {
+			out.write(data, 0, 1000);
+			out.write(data[1000]);
+			out.write(data, 1001, data.length - 1001);
+		}
+		Assertions.assertArrayEquals(data, decompress(compressed.toByteArray()));
+		Assertions.assertTrue(compressed.size() < data.length / 2);
+	}
+
+	@Test
+	void testRoundTripWithFlush() throws IOException {
+		byte[] data = createData(3 * ParallelGzipOutputStream.BLOCK_SIZE);
+		ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+		try (ParallelGzipOutputStream out = new ParallelGzipOutputStream(compressed, Deflater.BEST_SPEED, 2)) {
+			for (int off = 0; off < data.length; off += 10000) {
+				out.write(data, off, Math.min(10000, data.length - off));
+				out.flush();
+			}
+		}
+		Assertions.assertArrayEquals(data, decompress(compressed.toByteArray()));
+	}
+
+	@Test
+	void testEmpty() throws IOException {
+		ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+		new ParallelGzipOutputStream(compressed, Deflater.DEFAULT_COMPRESSION, 4).close();
+		Assertions.assertEquals(0, decompress(compressed.toByteArray()).length);
+	}
+
+	@Test
+	void testReadAhead() throws IOException {
+		byte[] data = createData(1_000_000);
+		try (InputStream in = new ReadAheadInputStream(new ByteArrayInputStream(data), 2)) {
+			Assertions.assertArrayEquals(data, in.readAllBytes());
+			Assertions.assertEquals(-1, in.read());
+		}
+	}
+
+	@Test
+	void testReadAheadThreadStartsOnFirstRead() throws IOException {
+		byte[] data = createData(3 * 64 * 1024);
+		int threadsBefore = countReadAheadThreads();
+		try (InputStream in = new ReadAheadInputStream(new ByteArrayInputStream(data), 2)) {
+			Assertions.assertEquals(threadsBefore, countReadAheadThreads(), "the thread must not start before the first read");
+			Assertions.assertArrayEquals(data, in.readAllBytes());
+		}
+		Assertions.assertEquals(threadsBefore, countReadAheadThreads());
+	}
+
+	private static int countReadAheadThreads() {
+		int count = 0;
+		for (Thread thread : Thread.getAllStackTraces().keySet()) {
+			if (thread.isAlive() && thread.getName().equals("ReadAheadInputStream")) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	@Test
+	void testIOUtilsRoundTrip() throws IOException {
+		Assertions.assertEquals(1, IOUtils.getCompressionThreads());
+		IOUtils.setCompressionThreads(4);
+		try {
+			for (String extension : new String[] { "gz", "zst" }) {
+				URL url = IOUtils.getFileUrl(this.utils.getOutputDirectory() + "lines.txt." + extension);
+				try (BufferedWriter writer = IOUtils.getBufferedWriter(url)) {
+					for (int i = 0; i < 100_000; i++) {
+						writer.write("line " + i + IOUtils.NATIVE_NEWLINE);
+					}
+				}
+				try (BufferedReader reader = IOUtils.getBufferedReader(url)) {
+					for (int i = 0; i < 100_000; i++) {
+						Assertions.assertEquals("line " + i, reader.readLine());
+					}
+					Assertions.assertNull(reader.readLine());
+				}
+			}
+		} finally {
+			IOUtils.setCompressionThreads(1);
+		}
+	}
+
+	private static byte[] decompress(byte[] compressed) throws IOException {
+		try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+			return in.readAllBytes();
+		}
+	}
+
+	/**
+	 * Random words, compressible like text files.
+	 */
+	private static byte[] createData(int length) {
+		Random random = new Random(4711);
+		String[] words = { "<event ", "time=\"", "type=\"entered link\" ", "link=\"", "vehicle=\"", "/>\n" };
+		StringBuilder sb = new StringBuilder(length + 100);
+		while (sb.length() < length) {
+			sb.append(words[random.nextInt(words.length)]).append(random.nextInt(100000));
+		}
+		return sb.substring(0, length).getBytes(StandardCharsets.UTF_8);
+	}
+}